@@ -55,6 +55,10 @@ public class AsyncLoginEvent implements ResultedEvent<AsyncLoginEvent.AsyncLogin
      * {@link CompletableFuture} is completed. If the future completes exceptionally,
      * the login may be aborted.</p>
      *
+     * <p>Tasks are subject to the proxy's async login deadlines. A task still running when
+     * its deadline passes no longer holds the login; whether the player is then denied or
+     * admitted is up to the proxy configuration.</p>
+     *
      * @param task A future representing the asynchronous work (e.g., database loading).
      */
     public void registerTask(CompletableFuture<?> task) {
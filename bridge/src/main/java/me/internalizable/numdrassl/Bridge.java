@@ -18,6 +18,7 @@ import io.netty.channel.Channel;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelInboundHandlerAdapter;
 import me.internalizable.numdrassl.common.RandomUtil;
+import me.internalizable.numdrassl.common.ReferralCodec;
 import me.internalizable.numdrassl.common.SecretMessageUtil;
 import me.internalizable.numdrassl.packet.ProxyPing;
 import me.internalizable.numdrassl.packet.ProxyPong;
@@ -47,12 +48,16 @@ public class Bridge extends JavaPlugin {
 
     private static final String PACKET_REGISTRY = "com.hypixel.hytale.protocol.PacketRegistry";
 
+    private ReferralCodec referralCodec;
+
     public Bridge(JavaPluginInit init) {
         super(init);
     }
 
     @Override
     protected void setup() {
+        this.referralCodec = new ReferralCodec(getProxySecret());
+
         // Register player authentication handler
         HytaleServer.get().getEventBus().register(
                 EventPriority.FIRST,
@@ -151,15 +156,11 @@ public class Bridge extends JavaPlugin {
      */
     private void verifyPlayerReferral(PlayerSetupConnectEvent event, byte[] data) {
         try {
-            ByteBuf buf = Unpooled.copiedBuffer(data);
-            byte[] secret = getProxySecret();
-
-            SecretMessageUtil.BackendPlayerInfoMessage message = SecretMessageUtil.validateAndDecodePlayerInfoReferral(
-                    buf,
+            SecretMessageUtil.BackendPlayerInfoMessage message = referralCodec.decode(
+                    Unpooled.wrappedBuffer(data),
                     event.getUuid(),
                     event.getUsername(),
-                    this.getServerName(),
-                    secret
+                    this.getServerName()
             );
 
             if (message == null) {
@@ -0,0 +1,111 @@
+package me.internalizable.numdrassl.common;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+
+import javax.annotation.Nonnull;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.security.GeneralSecurityException;
+import java.util.Objects;
+
+/**
+ * HMAC-SHA256 key with one pre-keyed {@link Mac} per thread.
+ *
+ * <p>{@link Mac#getInstance(String)} is a provider lookup and {@link Mac#init} re-derives
+ * the key pads, so doing both for every signature adds up during login storms. The
+ * provider and key are resolved once on construction; each thread then clones the
+ * prototype the first time it signs and reuses that instance afterwards.</p>
+ */
+public final class HmacKey {
+
+    public static final String ALGORITHM = "HmacSHA256";
+    public static final int LENGTH = 32;
+
+    private final ThreadLocal<State> state;
+
+    public HmacKey(@Nonnull byte[] secret) {
+        Objects.requireNonNull(secret, "secret");
+        byte[] key = secret.clone();
+        Mac prototype = newMac(key);
+        this.state = ThreadLocal.withInitial(() -> new State(copy(prototype, key)));
+    }
+
+    /**
+     * Gets this thread's {@link Mac}, reset and ready for {@code update} calls.
+     */
+    @Nonnull
+    public Mac mac() {
+        Mac mac = state.get().mac;
+        mac.reset();
+        return mac;
+    }
+
+    /**
+     * Gets this thread's scratch buffer of {@link #LENGTH} bytes for {@link Mac#doFinal(byte[], int)}.
+     * The contents are only valid until the thread's next call.
+     */
+    @Nonnull
+    byte[] scratch() {
+        return state.get().digest;
+    }
+
+    /**
+     * Signs a byte array.
+     */
+    @Nonnull
+    public byte[] sign(@Nonnull byte[] data) {
+        return mac().doFinal(data);
+    }
+
+    /**
+     * Feeds a region of a buffer into the MAC without copying it where possible.
+     */
+    public static void update(@Nonnull Mac mac, @Nonnull ByteBuf buf, int index, int length) {
+        if (buf.hasArray()) {
+            mac.update(buf.array(), buf.arrayOffset() + index, length);
+        } else if (buf.nioBufferCount() == 1) {
+            mac.update(buf.internalNioBuffer(index, length));
+        } else {
+            mac.update(ByteBufUtil.getBytes(buf, index, length, false));
+        }
+    }
+
+    /**
+     * Compares an expected MAC with the bytes at {@code index} in constant time.
+     */
+    public static boolean constantTimeEquals(@Nonnull byte[] expected, @Nonnull ByteBuf buf, int index) {
+        int result = 0;
+        for (int i = 0; i < expected.length; i++) {
+            result |= expected[i] ^ buf.getByte(index + i);
+        }
+        return result == 0;
+    }
+
+    private static Mac newMac(byte[] secret) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(new SecretKeySpec(secret, ALGORITHM));
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Failed to initialize " + ALGORITHM, e);
+        }
+    }
+
+    private static Mac copy(Mac prototype, byte[] secret) {
+        try {
+            return (Mac) prototype.clone();
+        } catch (CloneNotSupportedException e) {
+            return newMac(secret);
+        }
+    }
+
+    private static final class State {
+        final Mac mac;
+        final byte[] digest = new byte[LENGTH];
+
+        State(Mac mac) {
+            this.mac = mac;
+        }
+    }
+}
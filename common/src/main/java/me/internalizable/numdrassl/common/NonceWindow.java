@@ -0,0 +1,126 @@
+package me.internalizable.numdrassl.common;
+
+/**
+ * Bounded set of recently seen nonces, used to reject replayed messages.
+ *
+ * <p>Nonces are kept until their message would have expired anyway, up to
+ * {@code capacity} entries; past that, the oldest are forgotten first. Lookups go
+ * through an open-addressed table of primitive longs, so checking a nonce does not
+ * allocate. Zero is reserved as the empty slot marker and is never accepted.</p>
+ */
+final class NonceWindow {
+
+    private final int capacity;
+    private final long[] ringNonces;
+    private final long[] ringExpiries;
+    private final long[] table;
+    private final int mask;
+
+    private int head; // Guarded by this
+    private int size; // Guarded by this
+    private long evictedEarly; // Guarded by this
+
+    NonceWindow(int capacity) {
+        this.capacity = Math.max(1, capacity);
+        this.ringNonces = new long[this.capacity];
+        this.ringExpiries = new long[this.capacity];
+        int tableSize = Integer.highestOneBit(Math.max(2, this.capacity) * 2 - 1) << 1;
+        this.table = new long[tableSize];
+        this.mask = tableSize - 1;
+    }
+
+    /**
+     * Records a nonce.
+     *
+     * @param nonce     the message nonce, never zero
+     * @param expiresAt when the message expires, in the same clock as {@code now}
+     * @param now       current time
+     * @return false if the nonce is zero or was already seen
+     */
+    synchronized boolean add(long nonce, long expiresAt, long now) {
+        if (nonce == 0) {
+            return false;
+        }
+        while (size > 0 && ringExpiries[head] <= now) {
+            evictHead();
+        }
+        if (indexOf(nonce) >= 0) {
+            return false;
+        }
+        if (size == capacity) {
+            evictedEarly++;
+            evictHead();
+        }
+        int slot = slot(nonce);
+        while (table[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = nonce;
+
+        int tail = (head + size) % capacity;
+        ringNonces[tail] = nonce;
+        ringExpiries[tail] = expiresAt;
+        size++;
+        return true;
+    }
+
+    synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Nonces forgotten before their message expired because the window was full.
+     */
+    synchronized long getEvictedEarly() {
+        return evictedEarly;
+    }
+
+    private void evictHead() {
+        remove(ringNonces[head]);
+        head = (head + 1) % capacity;
+        size--;
+    }
+
+    private int indexOf(long nonce) {
+        int slot = slot(nonce);
+        while (table[slot] != 0) {
+            if (table[slot] == nonce) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private void remove(long nonce) {
+        int slot = indexOf(nonce);
+        if (slot < 0) {
+            return;
+        }
+
+        // Backward-shift deletion keeps every probe chain unbroken without tombstones
+        int hole = slot;
+        int next = hole;
+        while (true) {
+            next = (next + 1) & mask;
+            long candidate = table[next];
+            if (candidate == 0) {
+                break;
+            }
+            int home = slot(candidate);
+            boolean movable = hole <= next
+                ? home <= hole || home > next
+                : home <= hole && home > next;
+            if (movable) {
+                table[hole] = candidate;
+                hole = next;
+            }
+        }
+        table[hole] = 0;
+    }
+
+    private int slot(long nonce) {
+        long h = nonce * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+}
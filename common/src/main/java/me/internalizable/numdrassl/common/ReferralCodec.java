@@ -0,0 +1,309 @@
+package me.internalizable.numdrassl.common;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.crypto.Mac;
+import javax.crypto.ShortBufferException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Signs and verifies the player info the proxy sends in a backend {@code Connect}'s
+ * referral data. Shared by the proxy, which signs, and the Bridge plugin, which verifies.
+ *
+ * <p>Create one codec per secret and reuse it: the HMAC key is prepared once, payloads
+ * are written into and checked in place in {@link ByteBuf}s, and signatures are compared
+ * in constant time. The {@code byte[]} variant of {@code encode} sizes its array up front
+ * and writes into it directly, so the array is the only buffer it allocates. Each message carries a random nonce; a verifying codec remembers the
+ * nonces it accepted until their messages expire, up to {@code replayWindowSize}, and
+ * rejects a referral it has already seen.</p>
+ *
+ * <p>Message format:</p>
+ * <pre>
+ * [4 bytes] Protocol version (int LE)
+ * [8 bytes] UUID most significant bits (long LE)
+ * [8 bytes] UUID least significant bits (long LE)
+ * [4 bytes] Username length (int LE)
+ * [N bytes] Username (UTF-8)
+ * [4 bytes] Backend name length (int LE)
+ * [N bytes] Backend name (UTF-8)
+ * [4 bytes] Remote address length (int LE)
+ * [N bytes] Remote address (UTF-8)
+ * [8 bytes] Timestamp (unix millis, long LE)
+ * [8 bytes] Nonce (long LE)
+ * [32 bytes] HMAC-SHA256 signature
+ * </pre>
+ */
+public final class ReferralCodec {
+
+    private static final Logger LOGGER = Logger.getLogger(ReferralCodec.class.getName());
+
+    public static final int PROTOCOL_VERSION = 2;
+
+    /**
+     * How far a message's timestamp may be from the verifier's clock.
+     */
+    public static final long DEFAULT_VALIDITY_SECONDS = 300;
+
+    /**
+     * Nonces a verifier remembers at most.
+     */
+    public static final int DEFAULT_REPLAY_WINDOW_SIZE = 65536;
+
+    private static final int MAX_STRING_LENGTH = 256;
+    private static final int MIN_LENGTH = 4 + 16 + 4 + 4 + 4 + 8 + 8 + HmacKey.LENGTH;
+
+    private final HmacKey key;
+    private final long validityMillis;
+    private final NonceWindow seenNonces;
+
+    public ReferralCodec(@Nonnull byte[] secret) {
+        this(secret, DEFAULT_VALIDITY_SECONDS, DEFAULT_REPLAY_WINDOW_SIZE);
+    }
+
+    public ReferralCodec(@Nonnull byte[] secret, long validitySeconds, int replayWindowSize) {
+        this.key = new HmacKey(Objects.requireNonNull(secret, "secret"));
+        this.validityMillis = TimeUnit.SECONDS.toMillis(Math.max(1, validitySeconds));
+        this.seenNonces = new NonceWindow(replayWindowSize);
+    }
+
+    // ==================== Encoding ====================
+
+    /**
+     * Writes a signed player info message at the buffer's writer index.
+     *
+     * @param out           the buffer to write to
+     * @param uuid          player's UUID
+     * @param username      player's username
+     * @param backendName   target backend server name
+     * @param remoteAddress player's remote address
+     */
+    public void encode(@Nonnull ByteBuf out,
+                       @Nonnull UUID uuid,
+                       @Nonnull String username,
+                       @Nonnull String backendName,
+                       @Nullable InetSocketAddress remoteAddress) {
+        write(out, uuid, username, backendName, remoteString(remoteAddress));
+    }
+
+    /**
+     * Encodes a signed player info message into a new array, for packets that carry
+     * the referral as a {@code byte[]}.
+     */
+    @Nonnull
+    public byte[] encode(@Nonnull UUID uuid,
+                         @Nonnull String username,
+                         @Nonnull String backendName,
+                         @Nullable InetSocketAddress remoteAddress) {
+        String remote = remoteString(remoteAddress);
+        int length = MIN_LENGTH + ByteBufUtil.utf8Bytes(username) + ByteBufUtil.utf8Bytes(backendName)
+            + ByteBufUtil.utf8Bytes(remote);
+        byte[] bytes = new byte[length];
+        ByteBuf out = Unpooled.wrappedBuffer(bytes);
+        out.writerIndex(0);
+        write(out, uuid, username, backendName, remote);
+        return bytes;
+    }
+
+    private void write(ByteBuf out, UUID uuid, String username, String backendName, String remoteAddress) {
+        int start = out.writerIndex();
+
+        out.writeIntLE(PROTOCOL_VERSION);
+        out.writeLongLE(uuid.getMostSignificantBits());
+        out.writeLongLE(uuid.getLeastSignificantBits());
+        writeString(out, username);
+        writeString(out, backendName);
+        writeString(out, remoteAddress);
+        out.writeLongLE(System.currentTimeMillis());
+        out.writeLongLE(nextNonce());
+
+        Mac mac = key.mac();
+        HmacKey.update(mac, out, start, out.writerIndex() - start);
+        byte[] digest = key.scratch();
+        doFinal(mac, digest);
+        out.writeBytes(digest);
+
+        if (LOGGER.isLoggable(Level.FINE)) {
+            LOGGER.fine("Created player info referral for " + username + " (" + uuid + ") -> " + backendName);
+        }
+    }
+
+    // ==================== Decoding ====================
+
+    /**
+     * Verifies and decodes a player info message from the buffer's readable bytes.
+     * The buffer's indices are left untouched.
+     *
+     * @param data             the referral data
+     * @param expectedUuid     the connecting player's UUID
+     * @param expectedUsername the connecting player's username
+     * @param expectedBackend  this backend's name
+     * @return the decoded message, or null if it is malformed, expired, forged, meant
+     *         for someone else, or was already used
+     */
+    @Nullable
+    public SecretMessageUtil.BackendPlayerInfoMessage decode(@Nonnull ByteBuf data,
+                                                             @Nonnull UUID expectedUuid,
+                                                             @Nonnull String expectedUsername,
+                                                             @Nonnull String expectedBackend) {
+        try {
+            int start = data.readerIndex();
+            int end = data.writerIndex();
+            if (end - start < MIN_LENGTH) {
+                LOGGER.warning("Referral data too short: " + (end - start) + " bytes");
+                return null;
+            }
+
+            int version = data.getIntLE(start);
+            if (version != PROTOCOL_VERSION) {
+                LOGGER.warning("Invalid protocol version: " + version + " (expected " + PROTOCOL_VERSION
+                    + "); the proxy and the Bridge must run the same release");
+                return null;
+            }
+
+            int index = start + 4 + 16;
+            int usernameIndex = index + 4;
+            int usernameLength = stringLength(data, index, end, "username");
+            if (usernameLength < 0) {
+                return null;
+            }
+            index = usernameIndex + usernameLength;
+
+            int backendIndex = index + 4;
+            int backendLength = stringLength(data, index, end, "backend name");
+            if (backendLength < 0) {
+                return null;
+            }
+            index = backendIndex + backendLength;
+
+            int remoteIndex = index + 4;
+            int remoteLength = stringLength(data, index, end, "remote address");
+            if (remoteLength < 0) {
+                return null;
+            }
+            index = remoteIndex + remoteLength;
+
+            if (end - index != 8 + 8 + HmacKey.LENGTH) {
+                LOGGER.warning("Invalid referral data length: " + (end - start) + " bytes");
+                return null;
+            }
+            long timestamp = data.getLongLE(index);
+            long nonce = data.getLongLE(index + 8);
+            int macIndex = index + 16;
+
+            long now = System.currentTimeMillis();
+            if (Math.abs(now - timestamp) > validityMillis) {
+                LOGGER.warning("Referral message expired or from future: timestamp=" + timestamp + ", now=" + now);
+                return null;
+            }
+
+            Mac mac = key.mac();
+            HmacKey.update(mac, data, start, macIndex - start);
+            byte[] digest = key.scratch();
+            doFinal(mac, digest);
+            if (!HmacKey.constantTimeEquals(digest, data, macIndex)) {
+                LOGGER.warning("HMAC verification failed for player " + expectedUsername);
+                return null;
+            }
+
+            UUID uuid = new UUID(data.getLongLE(start + 4), data.getLongLE(start + 12));
+            if (!uuid.equals(expectedUuid)) {
+                LOGGER.warning("UUID mismatch: got " + uuid + ", expected " + expectedUuid);
+                return null;
+            }
+
+            String username = data.toString(usernameIndex, usernameLength, StandardCharsets.UTF_8);
+            if (!username.equals(expectedUsername)) {
+                LOGGER.warning("Username mismatch: got " + username + ", expected " + expectedUsername);
+                return null;
+            }
+
+            String backendName = data.toString(backendIndex, backendLength, StandardCharsets.UTF_8);
+            if (!backendName.equalsIgnoreCase(expectedBackend)) {
+                LOGGER.warning("Backend mismatch: got " + backendName + ", expected " + expectedBackend);
+                return null;
+            }
+
+            // Only signed messages reach the window, so forged nonces cannot crowd it
+            if (!seenNonces.add(nonce, timestamp + validityMillis, now)) {
+                LOGGER.warning("Replayed referral for player " + username);
+                return null;
+            }
+
+            String remoteAddress = data.toString(remoteIndex, remoteLength, StandardCharsets.UTF_8);
+            return new SecretMessageUtil.BackendPlayerInfoMessage(uuid, username, backendName, remoteAddress,
+                TimeUnit.MILLISECONDS.toSeconds(timestamp));
+
+        } catch (Exception e) {
+            LOGGER.log(Level.SEVERE, "Error decoding player info referral", e);
+            return null;
+        }
+    }
+
+    // ==================== Replay Window ====================
+
+    /**
+     * Nonces currently remembered.
+     */
+    public int getReplayWindowSize() {
+        return seenNonces.size();
+    }
+
+    /**
+     * Nonces forgotten before their message expired because the window was full. If
+     * this grows, the window is too small for the connection rate.
+     */
+    public long getReplayWindowEvictions() {
+        return seenNonces.getEvictedEarly();
+    }
+
+    // ==================== Internals ====================
+
+    private static String remoteString(@Nullable InetSocketAddress remoteAddress) {
+        return remoteAddress != null ? remoteAddress.toString() : "unknown";
+    }
+
+    private static void writeString(ByteBuf out, String value) {
+        out.writeIntLE(ByteBufUtil.utf8Bytes(value));
+        ByteBufUtil.writeUtf8(out, value);
+    }
+
+    private static int stringLength(ByteBuf data, int index, int end, String field) {
+        if (end - index < 4) {
+            LOGGER.warning("Referral data truncated before " + field);
+            return -1;
+        }
+        int length = data.getIntLE(index);
+        if (length < 0 || length > MAX_STRING_LENGTH || end - index - 4 < length) {
+            LOGGER.warning("Invalid " + field + " length: " + length);
+            return -1;
+        }
+        return length;
+    }
+
+    private static long nextNonce() {
+        long nonce;
+        do {
+            nonce = ThreadLocalRandom.current().nextLong();
+        } while (nonce == 0);
+        return nonce;
+    }
+
+    private static void doFinal(Mac mac, byte[] digest) {
+        try {
+            mac.doFinal(digest, 0);
+        } catch (ShortBufferException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -34,6 +34,9 @@ import java.util.logging.Logger;
  * [4 bytes] Timestamp (unix seconds, int LE)
  * [32 bytes] HMAC-SHA256 signature
  * </pre>
+ *
+ * <p>This is protocol version 1, which has no nonce. The proxy and the Bridge now use
+ * {@link ReferralCodec}; the methods here remain for callers of the old format.</p>
  */
 public class SecretMessageUtil {
 
@@ -55,7 +58,9 @@ public class SecretMessageUtil {
      * @param remoteAddress Player's remote address
      * @param secret Shared secret between proxy and backend
      * @return Encoded and signed message bytes
+     * @deprecated use {@link ReferralCodec#encode(UUID, String, String, InetSocketAddress)}
      */
+    @Deprecated
     public static byte[] createPlayerInfoReferral(
             @Nonnull UUID uuid,
             @Nonnull String username,
@@ -120,7 +125,9 @@ public class SecretMessageUtil {
      * @param expectedBackend Expected backend name
      * @param secret Shared secret
      * @return Decoded message info, or null if validation failed
+     * @deprecated use {@link ReferralCodec#decode(ByteBuf, UUID, String, String)}, which also rejects replays
      */
+    @Deprecated
     @Nullable
     public static BackendPlayerInfoMessage validateAndDecodePlayerInfoReferral(
             @Nonnull ByteBuf data,
@@ -231,7 +238,8 @@ public class SecretMessageUtil {
     }
 
     /**
-     * Calculate HMAC-SHA256.
+     * Calculate HMAC-SHA256. Looks up and keys a new {@link Mac} on every call; use
+     * {@link HmacKey} when signing repeatedly with the same secret.
      *
      * @param data the data to sign
      * @param secret the shared secret
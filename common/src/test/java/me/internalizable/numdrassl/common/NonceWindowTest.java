@@ -0,0 +1,117 @@
+package me.internalizable.numdrassl.common;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NonceWindowTest {
+
+    private static final long NOW = 1_700_000_000_000L;
+    private static final long VALIDITY = 300_000;
+
+    // ==================== Replay ====================
+
+    @Test
+    void rejectsARepeatedNonce() {
+        NonceWindow window = new NonceWindow(16);
+        assertTrue(window.add(42, NOW + VALIDITY, NOW));
+        assertFalse(window.add(42, NOW + VALIDITY, NOW + 1));
+        assertTrue(window.add(43, NOW + VALIDITY, NOW + 1));
+        assertEquals(2, window.size());
+    }
+
+    @Test
+    void neverAcceptsZero() {
+        NonceWindow window = new NonceWindow(16);
+        assertFalse(window.add(0, NOW + VALIDITY, NOW));
+        assertEquals(0, window.size());
+    }
+
+    // ==================== Eviction ====================
+
+    @Test
+    void forgetsNoncesOnceTheirMessageExpired() {
+        NonceWindow window = new NonceWindow(16);
+        window.add(1, NOW + 1000, NOW);
+        window.add(2, NOW + 2000, NOW);
+
+        assertFalse(window.add(1, NOW + 3000, NOW + 999));
+        assertTrue(window.add(1, NOW + 3000, NOW + 1000));
+        // Nonce 2 is still in its window; the re-added 1 joined at the tail
+        assertFalse(window.add(2, NOW + 3000, NOW + 1000));
+        assertEquals(2, window.size());
+        assertEquals(0, window.getEvictedEarly());
+    }
+
+    @Test
+    void evictsTheOldestWhenFull() {
+        NonceWindow window = new NonceWindow(4);
+        for (long nonce = 1; nonce <= 5; nonce++) {
+            assertTrue(window.add(nonce, NOW + VALIDITY, NOW));
+        }
+        assertEquals(4, window.size());
+        assertEquals(1, window.getEvictedEarly());
+
+        for (long nonce = 2; nonce <= 5; nonce++) {
+            assertFalse(window.add(nonce, NOW + VALIDITY, NOW));
+        }
+        // Only the oldest was forgotten early, so it can be replayed
+        assertTrue(window.add(1, NOW + VALIDITY, NOW));
+        assertEquals(2, window.getEvictedEarly());
+    }
+
+    @Test
+    void matchesASetThroughCollisionsAndRemovals() {
+        int capacity = 64;
+        NonceWindow window = new NonceWindow(capacity);
+        Set<Long> seen = new HashSet<>();
+        Deque<Long> order = new ArrayDeque<>();
+        Random random = new Random(1);
+
+        // A small value range keeps probe chains long and nonces recurring
+        for (int i = 0; i < 20_000; i++) {
+            long nonce = 1 + random.nextInt(200);
+            boolean expected = !seen.contains(nonce);
+            assertEquals(expected, window.add(nonce, NOW + VALIDITY, NOW), "nonce " + nonce + " at step " + i);
+            if (expected) {
+                if (order.size() == capacity) {
+                    seen.remove(order.removeFirst());
+                }
+                seen.add(nonce);
+                order.addLast(nonce);
+            }
+        }
+        assertEquals(seen.size(), window.size());
+    }
+
+    // ==================== Clock Skew ====================
+
+    @Test
+    void keepsNoncesFromAheadClocksUntilTheirOwnExpiry() {
+        NonceWindow window = new NonceWindow(16);
+        // Signed by a proxy whose clock runs four minutes ahead
+        long ahead = NOW + 240_000;
+        window.add(7, ahead + VALIDITY, NOW);
+
+        assertFalse(window.add(7, NOW + VALIDITY, NOW + VALIDITY));
+        assertTrue(window.add(7, NOW + VALIDITY, ahead + VALIDITY));
+    }
+
+    @Test
+    void dropsNoncesFromBehindClocksEarlier() {
+        NonceWindow window = new NonceWindow(16);
+        long behind = NOW - 240_000;
+        window.add(7, behind + VALIDITY, NOW);
+
+        assertFalse(window.add(7, NOW + VALIDITY, behind + VALIDITY - 1));
+        assertTrue(window.add(7, NOW + VALIDITY, behind + VALIDITY));
+    }
+}
@@ -0,0 +1,186 @@
+package me.internalizable.numdrassl.common;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ReferralCodecTest {
+
+    private static final byte[] SECRET = "test-secret-0123456789".getBytes(StandardCharsets.UTF_8);
+    private static final UUID STEVE = UUID.fromString("3f1c2a7e-5b6d-4c8e-9a0b-1d2e3f4a5b6c");
+    private static final InetSocketAddress REMOTE = new InetSocketAddress("203.0.113.9", 51234);
+
+    private final ReferralCodec proxy = new ReferralCodec(SECRET);
+    private final ReferralCodec bridge = new ReferralCodec(SECRET);
+
+    private byte[] encode() {
+        return proxy.encode(STEVE, "Steve", "lobby", REMOTE);
+    }
+
+    private SecretMessageUtil.BackendPlayerInfoMessage decode(byte[] data) {
+        return bridge.decode(Unpooled.wrappedBuffer(data), STEVE, "Steve", "lobby");
+    }
+
+    /**
+     * Rewrites the timestamp and signs the message again, as a proxy with another
+     * clock would have.
+     */
+    private static byte[] withTimestamp(byte[] data, long timestamp) {
+        int index = data.length - HmacKey.LENGTH - 16;
+        ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN).putLong(index, timestamp);
+        byte[] signed = new byte[data.length - HmacKey.LENGTH];
+        System.arraycopy(data, 0, signed, 0, signed.length);
+        byte[] mac = new HmacKey(SECRET).sign(signed);
+        System.arraycopy(mac, 0, data, signed.length, mac.length);
+        return data;
+    }
+
+    // ==================== Round Trip ====================
+
+    @Test
+    void decodesWhatItEncodes() {
+        long before = System.currentTimeMillis() / 1000;
+        SecretMessageUtil.BackendPlayerInfoMessage message = decode(encode());
+
+        assertNotNull(message);
+        assertEquals(STEVE, message.uuid());
+        assertEquals("Steve", message.username());
+        assertEquals("lobby", message.backendName());
+        assertEquals(REMOTE.toString(), message.remoteAddress());
+        assertEquals(before, message.timestamp(), 1);
+        assertEquals(1, bridge.getReplayWindowSize());
+    }
+
+    @Test
+    void encodesIntoAnExactlySizedArray() {
+        ByteBuf buf = Unpooled.buffer();
+        proxy.encode(buf, STEVE, "Stéve", "lobby", null);
+        byte[] array = proxy.encode(STEVE, "Stéve", "lobby", null);
+
+        assertEquals(buf.readableBytes(), array.length);
+        assertNotNull(bridge.decode(Unpooled.wrappedBuffer(array), STEVE, "Stéve", "lobby"));
+        buf.release();
+    }
+
+    @Test
+    void decodesInPlaceWithoutMovingIndices() {
+        ByteBuf buf = Unpooled.buffer();
+        buf.writeBytes(new byte[]{9, 9, 9});
+        buf.readerIndex(3);
+        proxy.encode(buf, STEVE, "Steve", "lobby", REMOTE);
+        int writerIndex = buf.writerIndex();
+
+        assertNotNull(bridge.decode(buf, STEVE, "Steve", "LOBBY"));
+        assertEquals(3, buf.readerIndex());
+        assertEquals(writerIndex, buf.writerIndex());
+        buf.release();
+    }
+
+    // ==================== Tampering ====================
+
+    @Test
+    void rejectsAnyFlippedByte() {
+        byte[] data = encode();
+        for (int i = 0; i < data.length; i++) {
+            byte[] tampered = data.clone();
+            tampered[i] ^= 0x40;
+            assertNull(decode(tampered), "byte " + i);
+        }
+        // Rejected copies never reached the replay window
+        assertEquals(0, bridge.getReplayWindowSize());
+        assertNotNull(decode(data));
+    }
+
+    @Test
+    void rejectsTruncatedAndExtendedData() {
+        byte[] data = encode();
+        byte[] truncated = new byte[data.length - 1];
+        System.arraycopy(data, 0, truncated, 0, truncated.length);
+        byte[] extended = new byte[data.length + 1];
+        System.arraycopy(data, 0, extended, 0, data.length);
+
+        assertNull(decode(truncated));
+        assertNull(decode(extended));
+        assertNull(decode(new byte[0]));
+    }
+
+    @Test
+    void rejectsAnotherSecret() {
+        ReferralCodec other = new ReferralCodec("other-secret".getBytes(StandardCharsets.UTF_8));
+        assertNull(other.decode(Unpooled.wrappedBuffer(encode()), STEVE, "Steve", "lobby"));
+    }
+
+    @Test
+    void rejectsAnotherPlayerOrBackend() {
+        assertNull(bridge.decode(Unpooled.wrappedBuffer(encode()), UUID.randomUUID(), "Steve", "lobby"));
+        assertNull(bridge.decode(Unpooled.wrappedBuffer(encode()), STEVE, "Alex", "lobby"));
+        assertNull(bridge.decode(Unpooled.wrappedBuffer(encode()), STEVE, "Steve", "game-1"));
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    void rejectsVersionOneMessages() {
+        byte[] legacy = SecretMessageUtil.createPlayerInfoReferral(STEVE, "Steve", "lobby", REMOTE, SECRET);
+        assertNull(decode(legacy));
+    }
+
+    // ==================== Replay ====================
+
+    @Test
+    void rejectsAReplay() {
+        byte[] data = encode();
+        assertNotNull(decode(data));
+        assertNull(decode(data));
+
+        // A fresh referral for the same player carries a new nonce
+        assertNotNull(decode(encode()));
+        assertEquals(2, bridge.getReplayWindowSize());
+    }
+
+    @Test
+    void replayWindowEvictsWhenFull() {
+        ReferralCodec small = new ReferralCodec(SECRET, ReferralCodec.DEFAULT_VALIDITY_SECONDS, 2);
+        byte[] first = encode();
+        for (byte[] data : new byte[][]{first, encode(), encode()}) {
+            assertNotNull(small.decode(Unpooled.wrappedBuffer(data), STEVE, "Steve", "lobby"));
+        }
+        assertEquals(2, small.getReplayWindowSize());
+        assertEquals(1, small.getReplayWindowEvictions());
+    }
+
+    // ==================== Clock Skew ====================
+
+    @Test
+    void acceptsClocksWithinTheValidity() {
+        long now = System.currentTimeMillis();
+        assertNotNull(decode(withTimestamp(encode(), now + 240_000)));
+        assertNotNull(decode(withTimestamp(encode(), now - 240_000)));
+    }
+
+    @Test
+    void rejectsClocksBeyondTheValidity() {
+        long now = System.currentTimeMillis();
+        assertNull(decode(withTimestamp(encode(), now + 360_000)));
+        assertNull(decode(withTimestamp(encode(), now - 360_000)));
+    }
+
+    @Test
+    void timestampRewriteKeepsTheMessageValid() {
+        byte[] data = encode();
+        byte[] copy = data.clone();
+        long timestamp = ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN)
+            .getLong(data.length - HmacKey.LENGTH - 16);
+        assertArrayEquals(data, withTimestamp(copy, timestamp));
+    }
+}
@@ -8,6 +8,12 @@ java {
     targetCompatibility = JavaVersion.VERSION_21
 }
 
+// Load generator and its stubs; kept out of the main jar
+val loadTest: SourceSet by sourceSets.creating {
+    compileClasspath += sourceSets["main"].output + sourceSets["main"].compileClasspath
+    runtimeClasspath += output + compileClasspath + sourceSets["main"].runtimeClasspath
+}
+
 val nettyVersion = "4.1.114.Final"
 val nettyQuicVersion = "0.0.66.Final"
 
@@ -25,6 +31,7 @@ dependencies {
     implementation("io.netty:netty-handler:$nettyVersion")
     implementation("io.netty:netty-transport:$nettyVersion")
     implementation("io.netty:netty-transport-native-epoll:$nettyVersion:linux-x86_64")
+    implementation("io.netty:netty-resolver-dns:$nettyVersion")
 
     // Netty QUIC (incubator)
     implementation("io.netty.incubator:netty-incubator-codec-native-quic:$nettyQuicVersion:windows-x86_64")
@@ -74,6 +81,18 @@ application {
 
 tasks.test {
     useJUnitPlatform()
+    workingDir = layout.buildDirectory.dir("test").get().asFile
+    doFirst { workingDir.mkdirs() }
+}
+
+tasks.register<JavaExec>("loadTest") {
+    group = "verification"
+    description = "Runs the in-process load generator against a local proxy. Pass options via -PloadTestArgs=\"--clients=500 ...\""
+    classpath = loadTest.runtimeClasspath
+    mainClass.set("me.internalizable.numdrassl.loadtest.LoadTest")
+    workingDir = layout.buildDirectory.dir("loadtest").get().asFile
+    args = (project.findProperty("loadTestArgs") as String?)?.split(" ")?.filter { it.isNotBlank() } ?: emptyList()
+    doFirst { workingDir.mkdirs() }
 }
 
 tasks.withType<JavaCompile> {
@@ -0,0 +1,299 @@
+package me.internalizable.numdrassl.loadtest;
+
+import ch.qos.logback.classic.Level;
+import io.netty.channel.EventLoopGroup;
+import io.netty.handler.ssl.util.InsecureTrustManagerFactory;
+import io.netty.incubator.codec.quic.QuicSslContext;
+import io.netty.incubator.codec.quic.QuicSslContextBuilder;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import me.internalizable.numdrassl.api.ProxyAPI;
+import me.internalizable.numdrassl.auth.ProxyAuthenticator;
+import me.internalizable.numdrassl.auth.http.SessionServiceClient;
+import me.internalizable.numdrassl.config.BackendServer;
+import me.internalizable.numdrassl.config.ProxyConfig;
+import me.internalizable.numdrassl.server.ProxyCore;
+import me.internalizable.numdrassl.server.network.UdpOffload;
+import me.internalizable.numdrassl.server.ssl.CertificateGenerator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import java.io.File;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * In-process load generator for the proxy.
+ *
+ * <p>Starts a real {@link ProxyCore} on localhost with self-signed certificates and a
+ * {@link LoadTestAuthenticator}, a set of {@link StubBackend}s, and N
+ * {@link SyntheticClient}s. After a ramp-up phase it measures a fixed window and prints
+ * throughput, latency percentiles, and the CPU time and heap allocation attributable to
+ * proxy threads.</p>
+ *
+ * <p>Run with {@code gradle :proxy:loadTest -PloadTestArgs="--clients=500 --storm-interval=10"}.
+ * Nothing binds outside {@code 127.0.0.1}.</p>
+ */
+public final class LoadTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LoadTest.class);
+
+    private static final String LOCALHOST = "127.0.0.1";
+    private static final int PROGRESS_INTERVAL_SECONDS = 5;
+
+    private final LoadTestOptions options;
+    private final LoadTestStats stats = new LoadTestStats();
+    private final ResourceSampler sampler = new ResourceSampler();
+    private final List<StubBackend> backends = new ArrayList<>();
+    private final List<SyntheticClient> clients = new ArrayList<>();
+
+    private Path workDir;
+    private ProxyCore proxyCore;
+    private EventLoopGroup backendGroup;
+    private EventLoopGroup clientGroup;
+    private UdpOffload peerOffload;
+    private ScheduledExecutorService driver;
+
+    private LoadTest(@Nonnull LoadTestOptions options) {
+        this.options = options;
+    }
+
+    public static void main(String[] args) {
+        LoadTestOptions options;
+        try {
+            options = LoadTestOptions.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(LoadTestOptions.usage());
+            System.exit(2);
+            return;
+        }
+
+        quietProxyLogging();
+
+        LoadTest loadTest = new LoadTest(options);
+        int exitCode = 0;
+        try {
+            loadTest.run();
+        } catch (Exception e) {
+            LOGGER.error("Load test failed", e);
+            exitCode = 1;
+        } finally {
+            loadTest.shutdown();
+        }
+        System.exit(exitCode);
+    }
+
+    private static void quietProxyLogging() {
+        // Per-session INFO logging would dominate the measurement at any real client count
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger("me.internalizable.numdrassl")).setLevel(Level.WARN);
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger("io.netty")).setLevel(Level.WARN);
+        ((ch.qos.logback.classic.Logger) LOGGER).setLevel(Level.INFO);
+    }
+
+    // ==================== Run ====================
+
+    private void run() throws Exception {
+        workDir = Files.createTempDirectory("numdrassl-loadtest");
+        LOGGER.info("Working directory: {}", workDir);
+
+        startProxy();
+        startBackends();
+        startClients();
+
+        TimeUnit.SECONDS.sleep(options.getRampUpSeconds() + 1L);
+        LOGGER.info("Ramp-up complete: {}/{} clients joined, measuring for {}s",
+            joinedCount(), clients.size(), options.getDurationSeconds());
+
+        stats.resetWindow();
+        ResourceSampler.Sample start = sampler.sample();
+        scheduleWindowTasks();
+
+        TimeUnit.SECONDS.sleep(options.getDurationSeconds());
+
+        ResourceSampler.Sample usage = sampler.sample().minus(start);
+        driver.shutdownNow();
+        System.out.println(LoadTestReport.format(options, stats, usage, joinedCount()));
+    }
+
+    private void startProxy() throws Exception {
+        String certPath = workDir.resolve("proxy.crt").toString();
+        String keyPath = workDir.resolve("proxy.key").toString();
+        CertificateGenerator.generateSelfSigned(certPath, keyPath, "Numdrassl Load Test Proxy");
+
+        ProxyConfig config = ProxyConfig.load(workDir.resolve("proxy.yml"));
+        config.setBindAddress(LOCALHOST);
+        config.setBindPort(options.getProxyPort());
+        config.setPublicAddress(LOCALHOST);
+        config.setPublicPort(options.getProxyPort());
+        config.setCertificatePath(certPath);
+        config.setPrivateKeyPath(keyPath);
+        config.setMaxConnections(Math.max(1000, options.getClients() * 2));
+        config.setClusterEnabled(false);
+        config.setFallbackEnabled(false);
+        config.setMetricsEnabled(options.getMetricsPort() > 0);
+        config.setMetricsPort(options.getMetricsPort());
+        config.setMetricsLogIntervalSeconds(0);
+        config.setUdpOffloadEnabled(options.isUdpOffload());
+
+        List<BackendServer> servers = new ArrayList<>();
+        for (int i = 0; i < options.getBackends(); i++) {
+            servers.add(new BackendServer(backendName(i), LOCALHOST, options.getBackendBasePort() + i, i == 0, null));
+        }
+        config.setBackends(servers);
+
+        proxyCore = new ProxyCore(config, new ProxyAuthenticator(
+            certPath, keyPath, workDir.resolve("credentials.json").toString(),
+            SessionServiceClient.Settings.DEFAULT, new LoadTestAuthenticator()));
+        ProxyAPI.init(proxyCore);
+        proxyCore.start();
+    }
+
+    private void startBackends() throws Exception {
+        File cert = workDir.resolve("backend.crt").toFile();
+        File key = workDir.resolve("backend.key").toFile();
+        CertificateGenerator.generateSelfSigned(cert.getPath(), key.getPath(), "Numdrassl Load Test Backend");
+
+        // Peers use the same transport as the proxy but keep their own counters
+        peerOffload = UdpOffload.detect(options.isUdpOffload(), proxyCore.getConfig().getUdpGsoMaxSegments());
+        backendGroup = peerOffload.newEventLoopGroup(Math.max(2, options.getBackends()),
+            new DefaultThreadFactory(ResourceSampler.GENERATOR_THREAD_PREFIX + "backend"));
+        byte[] secret = proxyCore.getBackendConnector().getProxySecret();
+
+        for (int i = 0; i < options.getBackends(); i++) {
+            StubBackend backend = new StubBackend(backendName(i), options.getBackendBasePort() + i,
+                secret, options, stats, backendGroup, peerOffload);
+            backend.start(cert, key);
+            backends.add(backend);
+        }
+    }
+
+    private void startClients() throws Exception {
+        String certPath = workDir.resolve("client.crt").toString();
+        String keyPath = workDir.resolve("client.key").toString();
+        CertificateGenerator.generateSelfSigned(certPath, keyPath, "Numdrassl Load Test Client");
+
+        QuicSslContext sslContext = QuicSslContextBuilder.forClient()
+            .trustManager(InsecureTrustManagerFactory.INSTANCE)
+            .keyManager(new File(keyPath), null, new File(certPath))
+            .applicationProtocols("hytale/3", "hytale/2", "hytale/1")
+            .build();
+
+        int threads = Math.max(2, Runtime.getRuntime().availableProcessors() / 2);
+        clientGroup = peerOffload.newEventLoopGroup(threads,
+            new DefaultThreadFactory(ResourceSampler.GENERATOR_THREAD_PREFIX + "client"));
+        driver = Executors.newSingleThreadScheduledExecutor(
+            new DefaultThreadFactory(ResourceSampler.GENERATOR_THREAD_PREFIX + "driver", true));
+
+        InetSocketAddress proxyAddress = new InetSocketAddress(LOCALHOST, options.getProxyPort());
+        long rampMicros = TimeUnit.SECONDS.toMicros(options.getRampUpSeconds());
+
+        for (int i = 0; i < options.getClients(); i++) {
+            SyntheticClient client = new SyntheticClient(i, options, stats, clientGroup, peerOffload, sslContext);
+            clients.add(client);
+            long delay = rampMicros * i / options.getClients();
+            driver.schedule(() -> client.connect(proxyAddress), delay, TimeUnit.MICROSECONDS);
+        }
+    }
+
+    // ==================== Measured Window ====================
+
+    private void scheduleWindowTasks() {
+        driver.scheduleAtFixedRate(this::logProgress,
+            PROGRESS_INTERVAL_SECONDS, PROGRESS_INTERVAL_SECONDS, TimeUnit.SECONDS);
+
+        int stormInterval = options.getTransferStormIntervalSeconds();
+        if (stormInterval > 0) {
+            driver.scheduleAtFixedRate(this::transferStorm, stormInterval, stormInterval, TimeUnit.SECONDS);
+        }
+    }
+
+    private void logProgress() {
+        LOGGER.info("joined={} echoRtt.p99={}ms chunks={} transfers={}/{} disconnects={}",
+            joinedCount(),
+            String.format(Locale.ROOT, "%.2f", stats.echoRtt.percentileMicros(0.99) / 1000.0),
+            stats.chunksReceived.sum(),
+            stats.transfersCompleted.sum(), stats.transfersRequested.sum(),
+            stats.disconnects.sum());
+    }
+
+    /**
+     * Moves a random fraction of joined clients to the next backend at the same instant,
+     * through backend-initiated referrals as a minigame round-end would.
+     */
+    private void transferStorm() {
+        List<SyntheticClient> candidates = new ArrayList<>();
+        for (SyntheticClient client : clients) {
+            if (client.isJoined()) {
+                candidates.add(client);
+            }
+        }
+        Collections.shuffle(candidates);
+        int count = (int) Math.ceil(candidates.size() * options.getTransferStormFraction());
+
+        int requested = 0;
+        for (SyntheticClient client : candidates.subList(0, Math.min(count, candidates.size()))) {
+            for (int i = 0; i < backends.size(); i++) {
+                StubBackend source = backends.get(i);
+                if (source.hasPlayer(client.getUuid())) {
+                    StubBackend target = backends.get((i + 1) % backends.size());
+                    client.markTransferRequested();
+                    source.requestTransfer(client.getUuid(), target.getName());
+                    requested++;
+                    break;
+                }
+            }
+        }
+        LOGGER.info("Transfer storm: moving {} clients", requested);
+    }
+
+    private long joinedCount() {
+        return clients.stream().filter(SyntheticClient::isJoined).count();
+    }
+
+    private static String backendName(int index) {
+        return "backend-" + (index + 1);
+    }
+
+    // ==================== Shutdown ====================
+
+    private void shutdown() {
+        if (driver != null) {
+            driver.shutdownNow();
+        }
+        clients.forEach(SyntheticClient::close);
+        if (proxyCore != null) {
+            proxyCore.stop();
+        }
+        backends.forEach(StubBackend::stop);
+        if (clientGroup != null) {
+            clientGroup.shutdownGracefully(0, 1, TimeUnit.SECONDS).syncUninterruptibly();
+        }
+        if (backendGroup != null) {
+            backendGroup.shutdownGracefully(0, 1, TimeUnit.SECONDS).syncUninterruptibly();
+        }
+        deleteWorkDir();
+    }
+
+    private void deleteWorkDir() {
+        if (workDir == null) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(workDir)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        } catch (IOException e) {
+            LOGGER.warn("Could not clean up {}", workDir, e);
+        }
+    }
+}
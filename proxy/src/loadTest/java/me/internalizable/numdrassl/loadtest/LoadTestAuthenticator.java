@@ -0,0 +1,43 @@
+package me.internalizable.numdrassl.loadtest;
+
+import me.internalizable.numdrassl.auth.session.ClientAuthHandler;
+import me.internalizable.numdrassl.auth.session.ClientLoginService;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Client login calls answered locally.
+ *
+ * <p>Synthetic clients still run the full Connect → AuthGrant → AuthToken →
+ * ServerAuthToken exchange through the proxy, but no request leaves the machine
+ * and no stored credentials are required.</p>
+ */
+public final class LoadTestAuthenticator implements ClientLoginService {
+
+    static final String AUTH_GRANT = "loadtest-grant";
+    static final String SERVER_IDENTITY = "loadtest-server-identity";
+    static final String ACCESS_TOKEN = "loadtest-access";
+
+    @Override
+    public boolean isAuthenticated() {
+        return true;
+    }
+
+    @Nonnull
+    @Override
+    public CompletableFuture<ClientAuthHandler.AuthGrantResult> requestAuthGrant(
+            @Nonnull UUID clientUuid,
+            @Nonnull String clientUsername,
+            @Nullable String clientIdentityToken) {
+        return CompletableFuture.completedFuture(new ClientAuthHandler.AuthGrantResult(AUTH_GRANT, SERVER_IDENTITY));
+    }
+
+    @Nonnull
+    @Override
+    public CompletableFuture<String> exchangeServerAuthGrant(@Nonnull String serverAuthGrant, @Nullable UUID owner) {
+        return CompletableFuture.completedFuture(ACCESS_TOKEN);
+    }
+}
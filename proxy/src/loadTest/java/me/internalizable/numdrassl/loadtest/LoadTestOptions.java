@@ -0,0 +1,146 @@
+package me.internalizable.numdrassl.loadtest;
+
+import javax.annotation.Nonnull;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Tunables for a load-test run, parsed from {@code --key=value} arguments.
+ *
+ * <p>All rates are per synthetic client. A rate of {@code 0} disables that traffic type.</p>
+ */
+public final class LoadTestOptions {
+
+    // Topology
+    private int clients = 100;
+    private int backends = 2;
+    private int proxyPort = 24399;
+    private int backendBasePort = 24410;
+
+    // Timing
+    private int rampUpSeconds = 5;
+    private int durationSeconds = 30;
+    private int tickMillis = 50;
+
+    // Traffic mix
+    private double chatPerSecond = 1;
+    private double echoPerSecond = 20;
+    private int echoPayloadBytes = 256;
+    private double chunksPerSecond = 10;
+    private int chunkBytes = 16 * 1024;
+
+    // Transfer storms
+    private int transferStormIntervalSeconds = 0;
+    private double transferStormFraction = 0.25;
+
+    // Proxy
+    private int metricsPort = 0;
+    private boolean udpOffload = true;
+
+    @Nonnull
+    public static LoadTestOptions parse(@Nonnull String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("Unexpected argument: " + arg);
+            }
+            int eq = arg.indexOf('=');
+            if (eq < 0) {
+                throw new IllegalArgumentException("Expected --key=value, got: " + arg);
+            }
+            values.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+
+        LoadTestOptions options = new LoadTestOptions();
+        options.clients = intValue(values, "clients", options.clients, 1);
+        options.backends = intValue(values, "backends", options.backends, 1);
+        options.proxyPort = intValue(values, "proxy-port", options.proxyPort, 1);
+        options.backendBasePort = intValue(values, "backend-port", options.backendBasePort, 1);
+        options.rampUpSeconds = intValue(values, "ramp-up", options.rampUpSeconds, 0);
+        options.durationSeconds = intValue(values, "duration", options.durationSeconds, 1);
+        options.tickMillis = intValue(values, "tick-ms", options.tickMillis, 1);
+        options.chatPerSecond = doubleValue(values, "chat-rate", options.chatPerSecond);
+        options.echoPerSecond = doubleValue(values, "echo-rate", options.echoPerSecond);
+        options.echoPayloadBytes = intValue(values, "echo-bytes", options.echoPayloadBytes, LoadTestPackets.TIMESTAMP_BYTES);
+        options.chunksPerSecond = doubleValue(values, "chunk-rate", options.chunksPerSecond);
+        options.chunkBytes = intValue(values, "chunk-bytes", options.chunkBytes, LoadTestPackets.TIMESTAMP_BYTES);
+        options.transferStormIntervalSeconds = intValue(values, "storm-interval", options.transferStormIntervalSeconds, 0);
+        options.transferStormFraction = doubleValue(values, "storm-fraction", options.transferStormFraction);
+        options.metricsPort = intValue(values, "metrics-port", options.metricsPort, 0);
+        options.udpOffload = intValue(values, "udp-offload", options.udpOffload ? 1 : 0, 0) != 0;
+
+        if (!values.isEmpty()) {
+            throw new IllegalArgumentException("Unknown option(s): " + values.keySet());
+        }
+        if (options.transferStormIntervalSeconds > 0 && options.backends < 2) {
+            throw new IllegalArgumentException("Transfer storms need at least 2 backends");
+        }
+        return options;
+    }
+
+    private static int intValue(Map<String, String> values, String key, int def, int min) {
+        String raw = values.remove(key);
+        if (raw == null) {
+            return def;
+        }
+        int value = Integer.parseInt(raw);
+        if (value < min) {
+            throw new IllegalArgumentException("--" + key + " must be >= " + min);
+        }
+        return value;
+    }
+
+    private static double doubleValue(Map<String, String> values, String key, double def) {
+        String raw = values.remove(key);
+        if (raw == null) {
+            return def;
+        }
+        double value = Double.parseDouble(raw);
+        if (value < 0) {
+            throw new IllegalArgumentException("--" + key + " must be >= 0");
+        }
+        return value;
+    }
+
+    @Nonnull
+    public static String usage() {
+        return """
+            Usage: loadTest [--key=value ...]
+              --clients=N            synthetic clients (default 100)
+              --backends=N           stub backends (default 2)
+              --proxy-port=P         proxy UDP port on 127.0.0.1 (default 24399)
+              --backend-port=P       first stub backend port (default 24410)
+              --ramp-up=S            seconds to spread client logins over (default 5)
+              --duration=S           measured seconds after ramp-up (default 30)
+              --tick-ms=MS           traffic scheduling tick (default 50)
+              --chat-rate=R          ChatMessage round trips per client per second (default 1)
+              --echo-rate=R          bidi raw echo round trips per client per second (default 20)
+              --echo-bytes=B         echo payload size (default 256)
+              --chunk-rate=R         backend uni-stream chunks per client per second (default 10)
+              --chunk-bytes=B        chunk payload size (default 16384)
+              --storm-interval=S     seconds between transfer storms, 0 = off (default 0)
+              --storm-fraction=F     fraction of clients moved per storm (default 0.25)
+              --metrics-port=P       expose proxy metrics HTTP on this port, 0 = off (default 0)
+              --udp-offload=0|1      UDP GSO/GRO on the proxy, clients and backends (default 1)
+            """;
+    }
+
+    // ==================== Getters ====================
+
+    public int getClients() { return clients; }
+    public int getBackends() { return backends; }
+    public int getProxyPort() { return proxyPort; }
+    public int getBackendBasePort() { return backendBasePort; }
+    public int getRampUpSeconds() { return rampUpSeconds; }
+    public int getDurationSeconds() { return durationSeconds; }
+    public int getTickMillis() { return tickMillis; }
+    public double getChatPerSecond() { return chatPerSecond; }
+    public double getEchoPerSecond() { return echoPerSecond; }
+    public int getEchoPayloadBytes() { return echoPayloadBytes; }
+    public double getChunksPerSecond() { return chunksPerSecond; }
+    public int getChunkBytes() { return chunkBytes; }
+    public int getTransferStormIntervalSeconds() { return transferStormIntervalSeconds; }
+    public double getTransferStormFraction() { return transferStormFraction; }
+    public int getMetricsPort() { return metricsPort; }
+    public boolean isUdpOffload() { return udpOffload; }
+}
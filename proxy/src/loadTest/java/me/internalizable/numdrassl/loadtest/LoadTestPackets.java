@@ -0,0 +1,69 @@
+package me.internalizable.numdrassl.loadtest;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Raw packet framing used by the synthetic clients and the stub backend.
+ *
+ * <p>The IDs are deliberately absent from {@link com.hypixel.hytale.protocol.PacketRegistry},
+ * so the proxy treats them as unknown packets and exercises its raw forwarding fast path —
+ * the same path real chunk and entity traffic takes. Every payload starts with the
+ * {@link System#nanoTime()} at which it was produced; since all parties share one JVM,
+ * the receiver can compute one-way or round-trip latency directly.</p>
+ */
+final class LoadTestPackets {
+
+    /** Client → backend → client bidirectional echo. */
+    static final int ECHO_ID = 0x4C54_0001;
+
+    /** Backend → client uni-stream chunk data. */
+    static final int CHUNK_ID = 0x4C54_0002;
+
+    /** Backend → client marker sent after ConnectAccept; signals the session is joined. */
+    static final int WELCOME_ID = 0x4C54_0003;
+
+    /** First frame on each backend uni-stream; QUIC only announces a stream once data is sent. */
+    static final int STREAM_OPEN_ID = 0x4C54_0004;
+
+    static final int HEADER_BYTES = 8;
+    static final int TIMESTAMP_BYTES = Long.BYTES;
+
+    /** Prefix for ChatMessage bodies that carry a send timestamp. */
+    static final String CHAT_PREFIX = "lt:";
+
+    private LoadTestPackets() {
+        // Utility class
+    }
+
+    /**
+     * Builds a framed raw packet whose payload starts with the current nano time.
+     *
+     * @param payloadBytes total payload size, at least {@link #TIMESTAMP_BYTES}
+     */
+    @Nonnull
+    static ByteBuf timestamped(@Nonnull ByteBufAllocator alloc, int packetId, int payloadBytes) {
+        ByteBuf buf = alloc.buffer(HEADER_BYTES + payloadBytes);
+        buf.writeIntLE(payloadBytes);
+        buf.writeIntLE(packetId);
+        buf.writeLong(System.nanoTime());
+        buf.writeZero(payloadBytes - TIMESTAMP_BYTES);
+        return buf;
+    }
+
+    static int packetId(@Nonnull ByteBuf raw) {
+        return raw.readableBytes() >= HEADER_BYTES ? raw.getIntLE(raw.readerIndex() + 4) : -1;
+    }
+
+    /**
+     * Reads the send timestamp from a framed raw packet, or {@code -1} if it carries none.
+     */
+    static long sentAtNanos(@Nonnull ByteBuf raw) {
+        if (raw.readableBytes() < HEADER_BYTES + TIMESTAMP_BYTES) {
+            return -1;
+        }
+        return raw.getLong(raw.readerIndex() + HEADER_BYTES);
+    }
+}
@@ -0,0 +1,93 @@
+package me.internalizable.numdrassl.loadtest;
+
+import javax.annotation.Nonnull;
+import java.util.Locale;
+
+/**
+ * Formats the end-of-run summary printed by {@link LoadTest}.
+ */
+final class LoadTestReport {
+
+    private LoadTestReport() {
+        // Utility class
+    }
+
+    @Nonnull
+    static String format(
+            @Nonnull LoadTestOptions options,
+            @Nonnull LoadTestStats stats,
+            @Nonnull ResourceSampler.Sample usage,
+            long joined) {
+
+        double seconds = usage.atNanos() / 1e9;
+        StringBuilder sb = new StringBuilder();
+
+        sb.append("\n==================== Numdrassl Load Test ====================\n");
+        line(sb, "Clients: %d (joined %d, connect failures %d, disconnects %d)",
+            options.getClients(), joined, stats.connectFailures.sum(), stats.disconnects.sum());
+        line(sb, "Backends: %d    Window: %.1fs    Tick: %dms",
+            options.getBackends(), seconds, options.getTickMillis());
+
+        sb.append("\n-- Latency (ms) ------------------------------------------------\n");
+        line(sb, "%-10s %9s %9s %9s %9s %9s %10s", "", "mean", "p50", "p90", "p99", "max", "samples");
+        latency(sb, "login", stats.loginLatency);
+        latency(sb, "chat rtt", stats.chatRtt);
+        latency(sb, "echo rtt", stats.echoRtt);
+        latency(sb, "chunk", stats.chunkLatency);
+        latency(sb, "transfer", stats.transferLatency);
+
+        sb.append("\n-- Throughput --------------------------------------------------\n");
+        line(sb, "Chat:      %,.0f sent/s, %,.0f received/s",
+            stats.chatSent.sum() / seconds, stats.chatReceived.sum() / seconds);
+        line(sb, "Echo:      %,.0f sent/s, %,.0f received/s, %s/s",
+            stats.echoSent.sum() / seconds, stats.echoReceived.sum() / seconds,
+            formatBytes(stats.echoBytes.sum() / seconds));
+        line(sb, "Chunks:    %,.0f sent/s, %,.0f received/s, %s/s",
+            stats.chunksSent.sum() / seconds, stats.chunksReceived.sum() / seconds,
+            formatBytes(stats.chunkBytes.sum() / seconds));
+        line(sb, "Transfers: %d requested, %d completed",
+            stats.transfersRequested.sum(), stats.transfersCompleted.sum());
+
+        long forwarded = stats.chatSent.sum() + stats.chatReceived.sum()
+            + stats.echoSent.sum() + stats.echoReceived.sum() + stats.chunksReceived.sum();
+        int cores = Runtime.getRuntime().availableProcessors();
+        double proxyCores = usage.proxyCpuNanos() / (double) usage.atNanos();
+        double generatorCores = usage.generatorCpuNanos() / (double) usage.atNanos();
+
+        sb.append("\n-- Proxy Resources ---------------------------------------------\n");
+        line(sb, "CPU:        %.2f cores (%.1f%% of %d), generator used %.2f cores",
+            proxyCores, proxyCores * 100 / cores, cores, generatorCores);
+        line(sb, "Allocation: %s/s, %s per forwarded packet",
+            formatBytes(usage.proxyAllocatedBytes() / seconds),
+            forwarded > 0 ? formatBytes((double) usage.proxyAllocatedBytes() / forwarded) : "n/a");
+        line(sb, "GC:         %d collections, %d ms total", usage.gcCount(), usage.gcMillis());
+        sb.append("===============================================================\n");
+
+        return sb.toString();
+    }
+
+    private static void latency(StringBuilder sb, String label, LatencyHistogram histogram) {
+        if (histogram.count() == 0) {
+            line(sb, "%-10s %9s", label, "-");
+            return;
+        }
+        line(sb, "%-10s %9.2f %9.2f %9.2f %9.2f %9.2f %,10d", label,
+            histogram.meanMicros() / 1000.0,
+            histogram.percentileMicros(0.50) / 1000.0,
+            histogram.percentileMicros(0.90) / 1000.0,
+            histogram.percentileMicros(0.99) / 1000.0,
+            histogram.maxMicros() / 1000.0,
+            histogram.count());
+    }
+
+    private static void line(StringBuilder sb, String format, Object... args) {
+        sb.append(String.format(Locale.ROOT, format, args)).append('\n');
+    }
+
+    private static String formatBytes(double bytes) {
+        if (bytes < 1024) return String.format(Locale.ROOT, "%.0f B", bytes);
+        if (bytes < 1024 * 1024) return String.format(Locale.ROOT, "%.1f KB", bytes / 1024);
+        if (bytes < 1024L * 1024 * 1024) return String.format(Locale.ROOT, "%.1f MB", bytes / (1024 * 1024));
+        return String.format(Locale.ROOT, "%.2f GB", bytes / (1024L * 1024 * 1024));
+    }
+}
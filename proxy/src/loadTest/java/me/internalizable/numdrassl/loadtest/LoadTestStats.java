@@ -0,0 +1,59 @@
+package me.internalizable.numdrassl.loadtest;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Shared counters and latency histograms for one load-test run.
+ *
+ * <p>Login latency is kept across the ramp-up phase; everything else is
+ * {@linkplain #resetWindow() reset} when the measured window starts.</p>
+ */
+final class LoadTestStats {
+
+    // Session lifecycle
+    final LongAdder loginsStarted = new LongAdder();
+    final LongAdder loginsCompleted = new LongAdder();
+    final LongAdder connectFailures = new LongAdder();
+    final LongAdder disconnects = new LongAdder();
+    final LatencyHistogram loginLatency = new LatencyHistogram();
+
+    // Chat (registered packets, goes through the event pipeline)
+    final LongAdder chatSent = new LongAdder();
+    final LongAdder chatReceived = new LongAdder();
+    final LatencyHistogram chatRtt = new LatencyHistogram();
+
+    // Bidirectional raw echo
+    final LongAdder echoSent = new LongAdder();
+    final LongAdder echoReceived = new LongAdder();
+    final LongAdder echoBytes = new LongAdder();
+    final LatencyHistogram echoRtt = new LatencyHistogram();
+
+    // Uni-stream chunk floods (backend → client, one-way)
+    final LongAdder chunksSent = new LongAdder();
+    final LongAdder chunksReceived = new LongAdder();
+    final LongAdder chunkBytes = new LongAdder();
+    final LatencyHistogram chunkLatency = new LatencyHistogram();
+
+    // Transfer storms
+    final LongAdder transfersRequested = new LongAdder();
+    final LongAdder transfersCompleted = new LongAdder();
+    final LatencyHistogram transferLatency = new LatencyHistogram();
+
+    void resetWindow() {
+        chatSent.reset();
+        chatReceived.reset();
+        chatRtt.reset();
+        echoSent.reset();
+        echoReceived.reset();
+        echoBytes.reset();
+        echoRtt.reset();
+        chunksSent.reset();
+        chunksReceived.reset();
+        chunkBytes.reset();
+        chunkLatency.reset();
+        transfersRequested.reset();
+        transfersCompleted.reset();
+        transferLatency.reset();
+        disconnects.reset();
+    }
+}
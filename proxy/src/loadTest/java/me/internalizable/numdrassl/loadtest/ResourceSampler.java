@@ -0,0 +1,84 @@
+package me.internalizable.numdrassl.loadtest;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+
+/**
+ * Attributes CPU time and heap allocation to proxy threads.
+ *
+ * <p>The generator runs in the same JVM as the proxy, so process-wide numbers would mix
+ * both sides. All generator threads are named with {@link #GENERATOR_THREAD_PREFIX};
+ * every other thread is counted as proxy work.</p>
+ */
+final class ResourceSampler {
+
+    static final String GENERATOR_THREAD_PREFIX = "loadtest-";
+
+    private final com.sun.management.ThreadMXBean threads =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    ResourceSampler() {
+        if (threads.isThreadCpuTimeSupported()) {
+            threads.setThreadCpuTimeEnabled(true);
+        }
+        if (threads.isThreadAllocatedMemorySupported()) {
+            threads.setThreadAllocatedMemoryEnabled(true);
+        }
+    }
+
+    /**
+     * Captures cumulative CPU, allocation and GC figures at this instant.
+     */
+    Sample sample() {
+        long[] ids = threads.getAllThreadIds();
+        ThreadInfo[] infos = threads.getThreadInfo(ids);
+        long[] cpu = threads.getThreadCpuTime(ids);
+        long[] allocated = threads.getThreadAllocatedBytes(ids);
+
+        long proxyCpu = 0;
+        long proxyAlloc = 0;
+        long generatorCpu = 0;
+        for (int i = 0; i < ids.length; i++) {
+            if (infos[i] == null) {
+                continue;
+            }
+            boolean generator = infos[i].getThreadName().startsWith(GENERATOR_THREAD_PREFIX);
+            long threadCpu = Math.max(0, cpu[i]);
+            if (generator) {
+                generatorCpu += threadCpu;
+            } else {
+                proxyCpu += threadCpu;
+                proxyAlloc += Math.max(0, allocated[i]);
+            }
+        }
+
+        long gcCount = 0;
+        long gcMillis = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            gcCount += Math.max(0, gc.getCollectionCount());
+            gcMillis += Math.max(0, gc.getCollectionTime());
+        }
+
+        return new Sample(System.nanoTime(), proxyCpu, proxyAlloc, generatorCpu, gcCount, gcMillis);
+    }
+
+    /**
+     * Cumulative figures; subtract two samples to get the usage over a window.
+     * Threads that exit between samples drop out of the sum, so short-lived
+     * threads are slightly under-counted.
+     */
+    record Sample(long atNanos, long proxyCpuNanos, long proxyAllocatedBytes,
+                  long generatorCpuNanos, long gcCount, long gcMillis) {
+
+        Sample minus(Sample start) {
+            return new Sample(
+                atNanos - start.atNanos,
+                Math.max(0, proxyCpuNanos - start.proxyCpuNanos),
+                Math.max(0, proxyAllocatedBytes - start.proxyAllocatedBytes),
+                Math.max(0, generatorCpuNanos - start.generatorCpuNanos),
+                gcCount - start.gcCount,
+                gcMillis - start.gcMillis);
+        }
+    }
+}
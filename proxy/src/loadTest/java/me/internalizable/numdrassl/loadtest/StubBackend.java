@@ -0,0 +1,316 @@
+package me.internalizable.numdrassl.loadtest;
+
+import com.hypixel.hytale.protocol.FormattedMessage;
+import com.hypixel.hytale.protocol.HostAddress;
+import com.hypixel.hytale.protocol.packets.auth.ClientReferral;
+import com.hypixel.hytale.protocol.packets.auth.ConnectAccept;
+import com.hypixel.hytale.protocol.packets.connection.Connect;
+import com.hypixel.hytale.protocol.packets.connection.Disconnect;
+import com.hypixel.hytale.protocol.packets.connection.DisconnectType;
+import com.hypixel.hytale.protocol.packets.interface_.ChatMessage;
+import com.hypixel.hytale.protocol.packets.interface_.ChatType;
+import com.hypixel.hytale.protocol.packets.interface_.ServerMessage;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.incubator.codec.quic.InsecureQuicTokenHandler;
+import io.netty.incubator.codec.quic.QuicChannel;
+import io.netty.incubator.codec.quic.QuicChannelOption;
+import io.netty.incubator.codec.quic.QuicCongestionControlAlgorithm;
+import io.netty.incubator.codec.quic.QuicServerCodecBuilder;
+import io.netty.incubator.codec.quic.QuicSslContext;
+import io.netty.incubator.codec.quic.QuicSslContextBuilder;
+import io.netty.incubator.codec.quic.QuicStreamChannel;
+import io.netty.incubator.codec.quic.QuicStreamType;
+import io.netty.util.concurrent.ScheduledFuture;
+import me.internalizable.numdrassl.common.ReferralCodec;
+import me.internalizable.numdrassl.event.packet.ProxyPing;
+import me.internalizable.numdrassl.event.packet.ProxyPong;
+import me.internalizable.numdrassl.pipeline.codec.ProxyPacketDecoder;
+import me.internalizable.numdrassl.pipeline.codec.ProxyPacketEncoder;
+import me.internalizable.numdrassl.server.network.UdpOffload;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import java.io.File;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Minimal Hytale backend for load testing.
+ *
+ * <p>Behaves like a server running the Bridge plugin as far as the proxy can tell:</p>
+ * <ul>
+ *   <li>Validates the HMAC-signed referral in {@link Connect} and answers with {@link ConnectAccept}</li>
+ *   <li>Answers {@link ProxyPing} health probes with {@link ProxyPong}</li>
+ *   <li>Opens two unidirectional streams per player and floods them with chunk-sized frames</li>
+ *   <li>Echoes raw echo packets and answers chat with a {@link ServerMessage}</li>
+ *   <li>Issues backend-initiated transfers on request, using the proxy's referral marker</li>
+ * </ul>
+ */
+final class StubBackend {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(StubBackend.class);
+
+    private static final int UNI_STREAMS = 2;
+    private static final byte[] TRANSFER_MARKER = "Numdrassl".getBytes(StandardCharsets.UTF_8);
+    private static final String[] ALPN_PROTOCOLS = {
+        "hytale/10", "hytale/9", "hytale/8", "hytale/7", "hytale/6",
+        "hytale/5", "hytale/4", "hytale/3", "hytale/2", "hytale/1"
+    };
+
+    private final String name;
+    private final int port;
+    private final ReferralCodec referralCodec;
+    private final LoadTestOptions options;
+    private final LoadTestStats stats;
+    private final EventLoopGroup group;
+    private final UdpOffload udpOffload;
+    private final Map<UUID, PlayerStreamHandler> players = new ConcurrentHashMap<>();
+
+    private Channel channel;
+
+    StubBackend(
+            @Nonnull String name,
+            int port,
+            @Nonnull byte[] proxySecret,
+            @Nonnull LoadTestOptions options,
+            @Nonnull LoadTestStats stats,
+            @Nonnull EventLoopGroup group,
+            @Nonnull UdpOffload udpOffload) {
+        this.name = Objects.requireNonNull(name, "name");
+        this.port = port;
+        this.referralCodec = new ReferralCodec(Objects.requireNonNull(proxySecret, "proxySecret"));
+        this.options = Objects.requireNonNull(options, "options");
+        this.stats = Objects.requireNonNull(stats, "stats");
+        this.group = Objects.requireNonNull(group, "group");
+        this.udpOffload = Objects.requireNonNull(udpOffload, "udpOffload");
+    }
+
+    // ==================== Lifecycle ====================
+
+    void start(@Nonnull File certFile, @Nonnull File keyFile) throws InterruptedException {
+        QuicSslContext sslContext = QuicSslContextBuilder.forServer(keyFile, null, certFile)
+            .applicationProtocols(ALPN_PROTOCOLS)
+            .build();
+
+        ChannelHandler codec = new QuicServerCodecBuilder()
+            .sslContext(sslContext)
+            .congestionControlAlgorithm(QuicCongestionControlAlgorithm.BBR)
+            .maxIdleTimeout(30, TimeUnit.SECONDS)
+            .initialMaxData(10_000_000)
+            .initialMaxStreamDataBidirectionalLocal(1_000_000)
+            .initialMaxStreamDataBidirectionalRemote(1_000_000)
+            .initialMaxStreamsBidirectional(100)
+            .initialMaxStreamsUnidirectional(0)
+            .tokenHandler(InsecureQuicTokenHandler.INSTANCE)
+            .option(QuicChannelOption.SEGMENTED_DATAGRAM_PACKET_ALLOCATOR, udpOffload.getSegmentAllocator())
+            .handler(new ChannelInitializer<QuicChannel>() {
+                @Override
+                protected void initChannel(QuicChannel ch) {
+                    // Connection-level events are not needed; everything happens on streams
+                }
+            })
+            .streamHandler(new ChannelInitializer<QuicStreamChannel>() {
+                @Override
+                protected void initChannel(QuicStreamChannel ch) {
+                    ch.pipeline().addLast(new ProxyPacketDecoder("stub-" + name, false));
+                    ch.pipeline().addLast(new ProxyPacketEncoder("stub-" + name, false));
+                    ch.pipeline().addLast(new PlayerStreamHandler());
+                }
+            })
+            .build();
+
+        channel = udpOffload.newBootstrap(group, codec)
+            .bind(new InetSocketAddress("127.0.0.1", port))
+            .sync()
+            .channel();
+
+        LOGGER.info("Stub backend {} listening on 127.0.0.1:{}", name, port);
+    }
+
+    void stop() {
+        if (channel != null) {
+            channel.close().syncUninterruptibly();
+        }
+    }
+
+    // ==================== Control ====================
+
+    @Nonnull
+    String getName() {
+        return name;
+    }
+
+    int getPort() {
+        return port;
+    }
+
+    int getPlayerCount() {
+        return players.size();
+    }
+
+    boolean hasPlayer(@Nonnull UUID uuid) {
+        return players.containsKey(uuid);
+    }
+
+    /**
+     * Asks the proxy to move a player to another backend, the same way the Bridge's
+     * {@code referToServer} does.
+     *
+     * @return false if the player is not connected to this backend
+     */
+    boolean requestTransfer(@Nonnull UUID uuid, @Nonnull String targetBackend) {
+        PlayerStreamHandler player = players.get(uuid);
+        if (player == null) {
+            return false;
+        }
+        player.sendTransfer(targetBackend);
+        return true;
+    }
+
+    // ==================== Per-Stream Handler ====================
+
+    private final class PlayerStreamHandler extends SimpleChannelInboundHandler<Object> {
+
+        private final List<QuicStreamChannel> uniStreams = new ArrayList<>(UNI_STREAMS);
+        private ChannelHandlerContext ctx;
+        private UUID uuid;
+        private ScheduledFuture<?> floodTask;
+        private double chunkCredit;
+        private int nextUniStream;
+
+        @Override
+        public void handlerAdded(ChannelHandlerContext ctx) {
+            this.ctx = ctx;
+        }
+
+        @Override
+        protected void channelRead0(ChannelHandlerContext ctx, Object msg) {
+            if (msg instanceof ByteBuf raw) {
+                if (LoadTestPackets.packetId(raw) == LoadTestPackets.ECHO_ID) {
+                    ctx.write(raw.retain());
+                }
+            } else if (msg instanceof ProxyPing ping) {
+                ProxyPong pong = new ProxyPong();
+                pong.nonce = ping.nonce;
+                pong.timestamp = System.currentTimeMillis();
+                ctx.writeAndFlush(pong);
+            } else if (msg instanceof Connect connect) {
+                handleConnect(connect);
+            } else if (msg instanceof ChatMessage chat) {
+                FormattedMessage reply = new FormattedMessage();
+                reply.rawText = chat.message;
+                ctx.write(new ServerMessage(ChatType.Chat, reply));
+            } else if (msg instanceof Disconnect) {
+                ctx.channel().parent().close();
+            }
+        }
+
+        @Override
+        public void channelReadComplete(ChannelHandlerContext ctx) {
+            ctx.flush();
+        }
+
+        private void handleConnect(Connect connect) {
+            if (!isValidReferral(connect)) {
+                LOGGER.warn("Stub backend {}: rejected {} - invalid referral", name, connect.username);
+                ctx.writeAndFlush(new Disconnect("Invalid referral", DisconnectType.Disconnect))
+                    .addListener(f -> ctx.channel().parent().close());
+                return;
+            }
+
+            uuid = connect.uuid;
+            players.put(uuid, this);
+
+            ctx.write(new ConnectAccept());
+            ctx.writeAndFlush(LoadTestPackets.timestamped(ctx.alloc(), LoadTestPackets.WELCOME_ID, LoadTestPackets.TIMESTAMP_BYTES));
+            openUniStreams((QuicChannel) ctx.channel().parent());
+        }
+
+        private boolean isValidReferral(Connect connect) {
+            if (connect.referralData == null) {
+                return false;
+            }
+            return referralCodec.decode(
+                Unpooled.wrappedBuffer(connect.referralData),
+                connect.uuid, connect.username, name) != null;
+        }
+
+        private void openUniStreams(QuicChannel quicChannel) {
+            for (int i = 0; i < UNI_STREAMS; i++) {
+                quicChannel.createStream(QuicStreamType.UNIDIRECTIONAL, new ChannelInboundHandlerAdapter())
+                    .addListener(future -> {
+                        if (!future.isSuccess()) {
+                            LOGGER.warn("Stub backend {}: failed to open uni-stream", name, future.cause());
+                            return;
+                        }
+                        QuicStreamChannel stream = (QuicStreamChannel) future.getNow();
+                        stream.writeAndFlush(LoadTestPackets.timestamped(stream.alloc(), LoadTestPackets.STREAM_OPEN_ID, LoadTestPackets.TIMESTAMP_BYTES));
+                        ctx.executor().execute(() -> onUniStreamOpened(stream));
+                    });
+            }
+        }
+
+        private void onUniStreamOpened(QuicStreamChannel stream) {
+            uniStreams.add(stream);
+            if (uniStreams.size() == UNI_STREAMS && options.getChunksPerSecond() > 0 && ctx.channel().isActive()) {
+                long tick = options.getTickMillis();
+                floodTask = ctx.executor().scheduleAtFixedRate(this::floodTick, tick, tick, TimeUnit.MILLISECONDS);
+            }
+        }
+
+        private void floodTick() {
+            chunkCredit += options.getChunksPerSecond() * options.getTickMillis() / 1000.0;
+            while (chunkCredit >= 1) {
+                chunkCredit -= 1;
+                QuicStreamChannel stream = uniStreams.get(nextUniStream++ % UNI_STREAMS);
+                if (!stream.isActive() || !stream.isWritable()) {
+                    // Simulate a server that respects flow control instead of queueing unbounded
+                    continue;
+                }
+                stream.writeAndFlush(LoadTestPackets.timestamped(stream.alloc(), LoadTestPackets.CHUNK_ID, options.getChunkBytes()));
+                stats.chunksSent.increment();
+            }
+        }
+
+        private void sendTransfer(String targetBackend) {
+            ClientReferral referral = new ClientReferral(new HostAddress(targetBackend, (short) 0), TRANSFER_MARKER);
+            ctx.executor().execute(() -> ctx.writeAndFlush(referral));
+        }
+
+        @Override
+        public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+            if (floodTask != null) {
+                floodTask.cancel(false);
+            }
+            if (uuid != null) {
+                players.remove(uuid, this);
+            }
+            for (QuicStreamChannel stream : uniStreams) {
+                stream.close();
+            }
+            super.channelInactive(ctx);
+        }
+
+        @Override
+        public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+            LOGGER.debug("Stub backend {}: stream error", name, cause);
+            ctx.close();
+        }
+    }
+}
@@ -0,0 +1,342 @@
+package me.internalizable.numdrassl.loadtest;
+
+import com.hypixel.hytale.protocol.packets.auth.AuthGrant;
+import com.hypixel.hytale.protocol.packets.auth.AuthToken;
+import com.hypixel.hytale.protocol.packets.auth.ClientReferral;
+import com.hypixel.hytale.protocol.packets.connection.ClientType;
+import com.hypixel.hytale.protocol.packets.connection.Connect;
+import com.hypixel.hytale.protocol.packets.connection.Disconnect;
+import com.hypixel.hytale.protocol.packets.interface_.ChatMessage;
+import com.hypixel.hytale.protocol.packets.interface_.ServerMessage;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.incubator.codec.quic.QuicChannel;
+import io.netty.incubator.codec.quic.QuicClientCodecBuilder;
+import io.netty.incubator.codec.quic.QuicCongestionControlAlgorithm;
+import io.netty.incubator.codec.quic.QuicSslContext;
+import io.netty.incubator.codec.quic.QuicStreamChannel;
+import io.netty.incubator.codec.quic.QuicStreamType;
+import io.netty.util.concurrent.ScheduledFuture;
+import me.internalizable.numdrassl.pipeline.codec.ProxyPacketDecoder;
+import me.internalizable.numdrassl.pipeline.codec.ProxyPacketEncoder;
+import me.internalizable.numdrassl.server.network.UdpOffload;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.net.InetSocketAddress;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A scripted Hytale client driving one proxy session.
+ *
+ * <p>Performs the full client-side handshake against the proxy, waits for the stub
+ * backend's welcome marker, then generates chat and echo traffic on every tick.
+ * Incoming uni-streams are drained and their chunk latency recorded. When the proxy
+ * sends a {@link ClientReferral} the client reconnects with the referral data, exactly
+ * as the real client does during a server transfer. A seamless switch shows up as a
+ * second welcome marker on the same connection.</p>
+ */
+final class SyntheticClient {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SyntheticClient.class);
+
+    private static final long UUID_MSB = 0x4C6F_6164_5465_7374L;
+
+    private final UUID uuid;
+    private final String username;
+    private final LoadTestOptions options;
+    private final LoadTestStats stats;
+    private final EventLoopGroup group;
+    private final UdpOffload udpOffload;
+    private final QuicSslContext sslContext;
+
+    private volatile QuicChannel quicChannel;
+    private volatile boolean joined;
+    private volatile boolean closing;
+    private volatile long connectStartedAt;
+    private volatile long transferRequestedAt;
+
+    SyntheticClient(
+            int index,
+            @Nonnull LoadTestOptions options,
+            @Nonnull LoadTestStats stats,
+            @Nonnull EventLoopGroup group,
+            @Nonnull UdpOffload udpOffload,
+            @Nonnull QuicSslContext sslContext) {
+        this.uuid = new UUID(UUID_MSB, index);
+        this.username = "lt-" + index;
+        this.options = Objects.requireNonNull(options, "options");
+        this.stats = Objects.requireNonNull(stats, "stats");
+        this.group = Objects.requireNonNull(group, "group");
+        this.udpOffload = Objects.requireNonNull(udpOffload, "udpOffload");
+        this.sslContext = Objects.requireNonNull(sslContext, "sslContext");
+    }
+
+    @Nonnull
+    UUID getUuid() {
+        return uuid;
+    }
+
+    boolean isJoined() {
+        return joined;
+    }
+
+    /**
+     * Records the moment a transfer was requested so the rejoin can be timed.
+     */
+    void markTransferRequested() {
+        transferRequestedAt = System.nanoTime();
+        stats.transfersRequested.increment();
+    }
+
+    // ==================== Connection ====================
+
+    void connect(@Nonnull InetSocketAddress proxyAddress) {
+        stats.loginsStarted.increment();
+        connect(proxyAddress, null);
+    }
+
+    private void connect(InetSocketAddress address, @Nullable byte[] referralData) {
+        connectStartedAt = System.nanoTime();
+
+        udpOffload.newBootstrap(group, createCodec())
+            .bind(0)
+            .addListener((ChannelFutureListener) bind -> {
+                if (!bind.isSuccess()) {
+                    onConnectFailed(bind.cause());
+                    return;
+                }
+                Channel datagram = bind.channel();
+                udpOffload.newQuicBootstrap(datagram)
+                    .streamHandler(new ChannelInitializer<QuicStreamChannel>() {
+                        @Override
+                        protected void initChannel(QuicStreamChannel ch) {
+                            ch.pipeline().addLast(new ProxyPacketDecoder("loadtest-uni", false));
+                            ch.pipeline().addLast(new UniStreamSink());
+                        }
+                    })
+                    .remoteAddress(address)
+                    .connect()
+                    .addListener(future -> {
+                        if (!future.isSuccess()) {
+                            datagram.close();
+                            onConnectFailed(future.cause());
+                            return;
+                        }
+                        QuicChannel channel = (QuicChannel) future.getNow();
+                        channel.closeFuture().addListener(f -> datagram.close());
+                        quicChannel = channel;
+                        openControlStream(channel, referralData);
+                    });
+            });
+    }
+
+    private ChannelHandler createCodec() {
+        return new QuicClientCodecBuilder()
+            .sslContext(sslContext)
+            .congestionControlAlgorithm(QuicCongestionControlAlgorithm.BBR)
+            .maxIdleTimeout(30, TimeUnit.SECONDS)
+            .initialMaxData(10_000_000)
+            .initialMaxStreamDataBidirectionalLocal(1_000_000)
+            .initialMaxStreamDataBidirectionalRemote(1_000_000)
+            .initialMaxStreamDataUnidirectional(1_000_000)
+            .initialMaxStreamsBidirectional(100)
+            .initialMaxStreamsUnidirectional(100)
+            .build();
+    }
+
+    private void openControlStream(QuicChannel channel, @Nullable byte[] referralData) {
+        channel.createStream(QuicStreamType.BIDIRECTIONAL, new ChannelInitializer<QuicStreamChannel>() {
+            @Override
+            protected void initChannel(QuicStreamChannel ch) {
+                ch.pipeline().addLast(new ProxyPacketDecoder("loadtest-client", false));
+                ch.pipeline().addLast(new ProxyPacketEncoder("loadtest-client", false));
+                ch.pipeline().addLast(new ControlStreamHandler());
+            }
+        }).addListener(future -> {
+            if (!future.isSuccess()) {
+                channel.close();
+                onConnectFailed(future.cause());
+                return;
+            }
+            QuicStreamChannel stream = (QuicStreamChannel) future.getNow();
+            stream.writeAndFlush(new Connect(
+                0, 0, "loadtest", ClientType.Game, uuid, username,
+                "loadtest-identity", "en-US", referralData, null));
+        });
+    }
+
+    private void onConnectFailed(Throwable cause) {
+        stats.connectFailures.increment();
+        LOGGER.debug("Client {}: connect failed", username, cause);
+    }
+
+    void close() {
+        closing = true;
+        QuicChannel channel = quicChannel;
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    // ==================== Control Stream ====================
+
+    private final class ControlStreamHandler extends SimpleChannelInboundHandler<Object> {
+
+        private ScheduledFuture<?> trafficTask;
+        private boolean referred;
+        private double chatCredit;
+        private double echoCredit;
+
+        @Override
+        protected void channelRead0(ChannelHandlerContext ctx, Object msg) {
+            if (msg instanceof ByteBuf raw) {
+                handleRaw(ctx, raw);
+            } else if (msg instanceof ServerMessage message) {
+                handleServerMessage(message);
+            } else if (msg instanceof AuthGrant) {
+                ctx.writeAndFlush(new AuthToken(LoadTestAuthenticator.ACCESS_TOKEN, "loadtest-server-grant"));
+            } else if (msg instanceof ClientReferral referral) {
+                handleReferral(referral);
+            } else if (msg instanceof Disconnect disconnect) {
+                LOGGER.debug("Client {}: disconnected by proxy: {}", username, disconnect.reason);
+            }
+        }
+
+        private void handleRaw(ChannelHandlerContext ctx, ByteBuf raw) {
+            int id = LoadTestPackets.packetId(raw);
+            if (id == LoadTestPackets.ECHO_ID) {
+                stats.echoReceived.increment();
+                stats.echoBytes.add(raw.readableBytes());
+                stats.echoRtt.recordNanos(System.nanoTime() - LoadTestPackets.sentAtNanos(raw));
+            } else if (id == LoadTestPackets.WELCOME_ID) {
+                onJoined(ctx);
+            }
+        }
+
+        private void handleServerMessage(ServerMessage message) {
+            String text = message.message != null ? message.message.rawText : null;
+            if (text == null || !text.startsWith(LoadTestPackets.CHAT_PREFIX)) {
+                return;
+            }
+            long sentAt = Long.parseLong(text, LoadTestPackets.CHAT_PREFIX.length(), text.length(), 10);
+            stats.chatReceived.increment();
+            stats.chatRtt.recordNanos(System.nanoTime() - sentAt);
+        }
+
+        private void onJoined(ChannelHandlerContext ctx) {
+            long now = System.nanoTime();
+            long requestedAt = transferRequestedAt;
+            if (requestedAt != 0) {
+                transferRequestedAt = 0;
+                stats.transfersCompleted.increment();
+                stats.transferLatency.recordNanos(now - requestedAt);
+            } else if (!joined) {
+                stats.loginsCompleted.increment();
+                stats.loginLatency.recordNanos(now - connectStartedAt);
+            }
+            joined = true;
+
+            // A seamless switch re-joins on the same stream; keep a single traffic task
+            stopTraffic();
+            long tick = options.getTickMillis();
+            trafficTask = ctx.executor().scheduleAtFixedRate(() -> trafficTick(ctx), tick, tick, TimeUnit.MILLISECONDS);
+        }
+
+        private void trafficTick(ChannelHandlerContext ctx) {
+            if (!ctx.channel().isWritable()) {
+                return;
+            }
+            double seconds = options.getTickMillis() / 1000.0;
+            chatCredit += options.getChatPerSecond() * seconds;
+            echoCredit += options.getEchoPerSecond() * seconds;
+
+            boolean wrote = false;
+            while (chatCredit >= 1) {
+                chatCredit -= 1;
+                ctx.write(new ChatMessage(LoadTestPackets.CHAT_PREFIX + System.nanoTime()));
+                stats.chatSent.increment();
+                wrote = true;
+            }
+            while (echoCredit >= 1) {
+                echoCredit -= 1;
+                ctx.write(LoadTestPackets.timestamped(ctx.alloc(), LoadTestPackets.ECHO_ID, options.getEchoPayloadBytes()));
+                stats.echoSent.increment();
+                wrote = true;
+            }
+            if (wrote) {
+                ctx.flush();
+            }
+        }
+
+        private void handleReferral(ClientReferral referral) {
+            if (referral.hostTo == null) {
+                return;
+            }
+            referred = true;
+            stopTraffic();
+
+            InetSocketAddress target = new InetSocketAddress(referral.hostTo.host, referral.hostTo.port & 0xFFFF);
+            byte[] data = referral.data;
+            QuicChannel channel = quicChannel;
+            if (channel != null) {
+                channel.close().addListener(f -> connect(target, data));
+            } else {
+                connect(target, data);
+            }
+        }
+
+        private void stopTraffic() {
+            if (trafficTask != null) {
+                trafficTask.cancel(false);
+                trafficTask = null;
+            }
+        }
+
+        @Override
+        public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+            stopTraffic();
+            if (!closing && !referred) {
+                joined = false;
+                stats.disconnects.increment();
+            }
+            super.channelInactive(ctx);
+        }
+
+        @Override
+        public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+            LOGGER.debug("Client {}: control stream error", username, cause);
+            ctx.close();
+        }
+    }
+
+    // ==================== Uni-Streams ====================
+
+    private final class UniStreamSink extends SimpleChannelInboundHandler<Object> {
+
+        @Override
+        protected void channelRead0(ChannelHandlerContext ctx, Object msg) {
+            if (msg instanceof ByteBuf raw && LoadTestPackets.packetId(raw) == LoadTestPackets.CHUNK_ID) {
+                stats.chunksReceived.increment();
+                stats.chunkBytes.add(raw.readableBytes());
+                stats.chunkLatency.recordNanos(System.nanoTime() - LoadTestPackets.sentAtNanos(raw));
+            }
+        }
+
+        @Override
+        public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+            LOGGER.debug("Client {}: uni-stream error", username, cause);
+            ctx.close();
+        }
+    }
+}
@@ -0,0 +1,30 @@
+/**
+ * In-process load generator for capacity planning.
+ *
+ * <p>Runs the real proxy against scripted clients and stub backends on localhost, so
+ * throughput and resource usage can be measured without Hytale clients or servers.</p>
+ *
+ * <h2>Key Classes</h2>
+ * <ul>
+ *   <li>{@link me.internalizable.numdrassl.loadtest.LoadTest} - Entry point; wires the
+ *       proxy, backends and clients together and prints the report.</li>
+ *   <li>{@link me.internalizable.numdrassl.loadtest.LoadTestAuthenticator} - Answers
+ *       client login calls locally so no credentials are needed.</li>
+ *   <li>{@code StubBackend} - Accepts signed Connect packets, answers ProxyPing and
+ *       floods uni-streams like a real server sending chunks.</li>
+ *   <li>{@code SyntheticClient} - Performs the client handshake, generates traffic and
+ *       follows transfer referrals.</li>
+ * </ul>
+ *
+ * <h2>Traffic Mix</h2>
+ * <pre>
+ *   chat      Client ─ChatMessage──► Proxy ──► Backend ─ServerMessage──► Client   (event pipeline)
+ *   echo      Client ─raw packet───► Proxy ──► Backend ─same packet────► Client   (raw fast path)
+ *   chunks    Backend ─uni-stream──► Proxy ─uni-stream─► Client                    (UniStreamForwarder)
+ *   storms    Backend ─ClientReferral("Numdrassl")─► Proxy ─ClientReferral─► Client reconnects
+ * </pre>
+ *
+ * <p>Proxy CPU and allocation are attributed per thread: every generator thread is named
+ * {@code loadtest-*}, everything else counts as proxy work.</p>
+ */
+package me.internalizable.numdrassl.loadtest;
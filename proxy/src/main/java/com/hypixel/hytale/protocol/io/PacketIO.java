@@ -17,6 +17,7 @@ import java.nio.charset.StandardCharsets;
 import java.util.UUID;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import me.internalizable.numdrassl.profiling.AllocationSite;
 
 public final class PacketIO {
     public static final int FRAME_HEADER_SIZE = 4;
@@ -268,7 +269,7 @@ public final class PacketIO {
             if (decompressedSize > (long)maxDecompressedSize) {
                 throw new ProtocolException("Decompressed size " + decompressedSize + " exceeds maximum " + maxDecompressedSize);
             }
-            ByteBuf dst = Unpooled.directBuffer((int)decompressedSize);
+            ByteBuf dst = AllocationSite.ZSTD.allocator().directBuffer((int)decompressedSize);
             ByteBuffer dstNio = dst.nioBuffer(0, (int)decompressedSize);
             int result = Zstd.decompress(dstNio, srcNio);
             if (Zstd.isError(result)) {
@@ -303,7 +304,7 @@ public final class PacketIO {
         int lengthIndex = out.writerIndex();
         out.writeIntLE(0);
         out.writeIntLE(id);
-        ByteBuf payloadBuf = Unpooled.buffer(Math.min(info.maxSize(), 65536));
+        ByteBuf payloadBuf = AllocationSite.ENCODER.allocator().heapBuffer(Math.min(info.maxSize(), 65536));
         try {
             packet.serialize(payloadBuf);
             int serializedSize = payloadBuf.readableBytes();
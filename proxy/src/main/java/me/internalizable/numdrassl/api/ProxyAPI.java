@@ -5,6 +5,7 @@ import me.internalizable.numdrassl.config.BackendServer;
 import me.internalizable.numdrassl.config.ProxyConfig;
 import me.internalizable.numdrassl.event.packet.PacketListener;
 import me.internalizable.numdrassl.server.ProxyCore;
+import me.internalizable.numdrassl.server.transfer.TransferPriority;
 import me.internalizable.numdrassl.session.ProxySession;
 
 import javax.annotation.Nonnull;
@@ -149,6 +150,27 @@ public final class ProxyAPI {
         session.sendToBackend(packet);
     }
 
+    /**
+     * Get all sessions on, or connecting to, a backend server.
+     *
+     * @param serverName the backend server name (case-insensitive)
+     * @return an unmodifiable live view of the backend's sessions
+     */
+    @Nonnull
+    public static Collection<ProxySession> getSessionsOnServer(@Nonnull String serverName) {
+        return getCore().getSessionManager().getSessionsOnBackend(serverName);
+    }
+
+    /**
+     * Get the number of sessions on, or connecting to, a backend server.
+     *
+     * @param serverName the backend server name (case-insensitive)
+     * @return the session count
+     */
+    public static int getSessionCountOnServer(@Nonnull String serverName) {
+        return getCore().getSessionManager().getSessionCountOnBackend(serverName);
+    }
+
     /**
      * Broadcast a packet to all connected players.
      *
@@ -167,19 +189,21 @@ public final class ProxyAPI {
 
     /**
      * Transfer a player to a different backend server by name.
+     * A backend group name transfers to one of the group's available members.
+     * The move is queued on the transfer orchestrator, so it is paced like any other transfer.
      *
      * @param session the player's session
-     * @param serverName the target server name
-     * @throws IllegalArgumentException if the server is not found
+     * @param serverName the target server or group name
+     * @throws IllegalArgumentException if the server is not found or the group has no available member
      */
     public static void transferPlayer(@Nonnull ProxySession session, @Nonnull String serverName) {
         java.util.Objects.requireNonNull(session, "session");
         java.util.Objects.requireNonNull(serverName, "serverName");
-        BackendServer backend = getCore().getConfig().getBackendByName(serverName);
+        BackendServer backend = getCore().getBackendBalancer().resolve(serverName);
         if (backend == null) {
-            throw new IllegalArgumentException("Unknown server: " + serverName);
+            throw new IllegalArgumentException("Unknown or unavailable server: " + serverName);
         }
-        new me.internalizable.numdrassl.server.transfer.PlayerTransfer(getCore()).transfer(session, backend);
+        getCore().getTransferOrchestrator().submit(session, serverName, TransferPriority.NORMAL);
     }
 
     /**
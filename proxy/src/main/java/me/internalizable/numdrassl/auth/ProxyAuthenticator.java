@@ -2,10 +2,12 @@ package me.internalizable.numdrassl.auth;
 
 import me.internalizable.numdrassl.auth.credential.CredentialStore;
 import me.internalizable.numdrassl.auth.http.HttpClientFactory;
+import me.internalizable.numdrassl.auth.http.SessionServiceClient;
 import me.internalizable.numdrassl.auth.oauth.OAuthDeviceFlow;
 import me.internalizable.numdrassl.auth.oauth.OAuthTokenRefresher;
 import me.internalizable.numdrassl.auth.session.BackendAuthHandler;
 import me.internalizable.numdrassl.auth.session.ClientAuthHandler;
+import me.internalizable.numdrassl.auth.session.ClientLoginService;
 import me.internalizable.numdrassl.auth.session.GameSessionManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -16,6 +18,8 @@ import java.net.http.HttpClient;
 import java.util.Objects;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * Facade for proxy authentication with Hytale's session service.
@@ -40,6 +44,14 @@ import java.util.concurrent.CompletableFuture;
  *     authenticator.pollDeviceCode(deviceCode.deviceCode(), deviceCode.interval()).join();
  * }
  * }</pre>
+ *
+ * <p>Session-service calls made during logins run through a bounded
+ * {@link SessionServiceClient}; blocking work such as the device flow runs on virtual
+ * threads. Neither uses the common ForkJoin pool.</p>
+ *
+ * <p>Offline tooling, such as the load generator in the {@code loadTest} source set,
+ * can pass a {@link ClientLoginService} that answers client logins without the
+ * session service.</p>
  */
 public final class ProxyAuthenticator implements AutoCloseable {
 
@@ -52,11 +64,13 @@ public final class ProxyAuthenticator implements AutoCloseable {
 
     // Components
     private final CredentialStore credentialStore;
+    private final ExecutorService executor;
     private final HttpClient httpClient;
+    private final SessionServiceClient sessionService;
     private final OAuthDeviceFlow deviceFlow;
     private final OAuthTokenRefresher tokenRefresher;
     private final GameSessionManager sessionManager;
-    private final ClientAuthHandler clientAuthHandler;
+    private final ClientLoginService clientLogin;
     private final BackendAuthHandler backendAuthHandler;
 
     /**
@@ -70,6 +84,40 @@ public final class ProxyAuthenticator implements AutoCloseable {
             @Nonnull String certPath,
             @Nonnull String keyPath,
             @Nonnull String credentialStorePath) {
+        this(certPath, keyPath, credentialStorePath, SessionServiceClient.Settings.DEFAULT);
+    }
+
+    /**
+     * Creates a new proxy authenticator with custom session-service limits.
+     *
+     * @param certPath path to the proxy's TLS certificate
+     * @param keyPath path to the proxy's TLS private key
+     * @param credentialStorePath path to store credentials
+     * @param sessionServiceSettings URL, concurrency, queue and timeout for login calls
+     */
+    public ProxyAuthenticator(
+            @Nonnull String certPath,
+            @Nonnull String keyPath,
+            @Nonnull String credentialStorePath,
+            @Nonnull SessionServiceClient.Settings sessionServiceSettings) {
+        this(certPath, keyPath, credentialStorePath, sessionServiceSettings, null);
+    }
+
+    /**
+     * Creates a new proxy authenticator whose client logins go through the given service.
+     *
+     * @param certPath path to the proxy's TLS certificate
+     * @param keyPath path to the proxy's TLS private key
+     * @param credentialStorePath path to store credentials
+     * @param sessionServiceSettings URL, concurrency, queue and timeout for login calls
+     * @param clientLogin the client login calls, or null to use the session service
+     */
+    public ProxyAuthenticator(
+            @Nonnull String certPath,
+            @Nonnull String keyPath,
+            @Nonnull String credentialStorePath,
+            @Nonnull SessionServiceClient.Settings sessionServiceSettings,
+            @Nullable ClientLoginService clientLogin) {
 
         this.certPath = Objects.requireNonNull(certPath, "certPath");
         this.keyPath = Objects.requireNonNull(keyPath, "keyPath");
@@ -79,12 +127,16 @@ public final class ProxyAuthenticator implements AutoCloseable {
 
         // Initialize components
         this.credentialStore = new CredentialStore(credentialStorePath);
-        this.httpClient = HttpClientFactory.createTlsClient();
+        this.executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("auth-", 0).factory());
+        this.httpClient = HttpClientFactory.createTlsClient(sessionServiceSettings.requestTimeout(), executor);
+        this.sessionService = new SessionServiceClient(httpClient, sessionServiceSettings);
         this.tokenRefresher = new OAuthTokenRefresher(httpClient, credentialStore);
-        this.deviceFlow = new OAuthDeviceFlow(httpClient, credentialStore);
+        this.deviceFlow = new OAuthDeviceFlow(httpClient, credentialStore, executor);
         this.sessionManager = new GameSessionManager(httpClient, credentialStore, tokenRefresher);
-        this.clientAuthHandler = new ClientAuthHandler(httpClient, sessionManager, proxyFingerprint);
-        this.backendAuthHandler = new BackendAuthHandler(httpClient, sessionManager, proxyFingerprint);
+        this.clientLogin = clientLogin != null
+            ? clientLogin
+            : new ClientAuthHandler(sessionService, sessionManager, proxyFingerprint);
+        this.backendAuthHandler = new BackendAuthHandler(sessionService, sessionManager, proxyFingerprint);
 
         LOGGER.info("ProxyAuthenticator initialized");
         if (proxyFingerprint != null) {
@@ -133,7 +185,7 @@ public final class ProxyAuthenticator implements AutoCloseable {
         return deviceFlow.pollForCompletion(deviceCode, interval)
             .thenCompose(success -> {
                 if (success) {
-                    return CompletableFuture.supplyAsync(sessionManager::createSession);
+                    return CompletableFuture.supplyAsync(sessionManager::createSession, executor);
                 }
                 return CompletableFuture.completedFuture(false);
             });
@@ -155,7 +207,7 @@ public final class ProxyAuthenticator implements AutoCloseable {
             @Nonnull String clientUsername,
             @Nullable String clientIdentityToken) {
 
-        return clientAuthHandler.requestAuthGrant(clientUuid, clientUsername, clientIdentityToken);
+        return clientLogin.requestAuthGrant(clientUuid, clientUsername, clientIdentityToken);
     }
 
     /**
@@ -166,7 +218,20 @@ public final class ProxyAuthenticator implements AutoCloseable {
      */
     @Nonnull
     public CompletableFuture<String> exchangeServerAuthGrant(@Nonnull String serverAuthGrant) {
-        return clientAuthHandler.exchangeServerAuthGrant(serverAuthGrant);
+        return exchangeServerAuthGrant(serverAuthGrant, null);
+    }
+
+    /**
+     * Exchanges a server authorization grant for an access token, caching the answer
+     * until the player leaves.
+     *
+     * @param serverAuthGrant the server authorization grant
+     * @param playerUuid the player the grant came from, or null
+     * @return the access token
+     */
+    @Nonnull
+    public CompletableFuture<String> exchangeServerAuthGrant(@Nonnull String serverAuthGrant, @Nullable UUID playerUuid) {
+        return clientLogin.exchangeServerAuthGrant(serverAuthGrant, playerUuid);
     }
 
     // ==================== Backend Authentication (Proxy as Client) ====================
@@ -214,6 +279,11 @@ public final class ProxyAuthenticator implements AutoCloseable {
 
     // ==================== Getters ====================
 
+    @Nonnull
+    public SessionServiceClient getSessionService() {
+        return sessionService;
+    }
+
     @Nullable
     public String getProxyFingerprint() {
         return proxyFingerprint;
@@ -230,7 +300,7 @@ public final class ProxyAuthenticator implements AutoCloseable {
     }
 
     public boolean isAuthenticated() {
-        return sessionManager.isAuthenticated();
+        return clientLogin.isAuthenticated();
     }
 
     @Nullable
@@ -246,6 +316,7 @@ public final class ProxyAuthenticator implements AutoCloseable {
     @Override
     public void close() {
         sessionManager.close();
+        executor.shutdown();
     }
 
     /**
@@ -4,6 +4,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import javax.net.ssl.SSLContext;
 import javax.net.ssl.TrustManager;
 import javax.net.ssl.X509TrustManager;
@@ -11,6 +12,7 @@ import java.net.http.HttpClient;
 import java.security.cert.X509Certificate;
 import java.time.Duration;
 import java.util.Objects;
+import java.util.concurrent.Executor;
 
 /**
  * Factory for creating configured HTTP clients.
@@ -30,7 +32,24 @@ public final class HttpClientFactory {
      */
     @Nonnull
     public static HttpClient createTlsClient(@Nonnull Duration connectTimeout) {
+        return createTlsClient(connectTimeout, null);
+    }
+
+    /**
+     * Creates an HTTP client with TLS support whose async work and dependent stages
+     * run on the given executor.
+     *
+     * @param connectTimeout connection timeout
+     * @param executor executor for async responses, or null for the client's default
+     * @return configured HTTP client
+     */
+    @Nonnull
+    public static HttpClient createTlsClient(@Nonnull Duration connectTimeout, @Nullable Executor executor) {
         Objects.requireNonNull(connectTimeout, "connectTimeout");
+        HttpClient.Builder builder = HttpClient.newBuilder().connectTimeout(connectTimeout);
+        if (executor != null) {
+            builder.executor(executor);
+        }
         try {
             SSLContext sslContext = SSLContext.getInstance("TLS");
             TrustManager[] trustAllCerts = new TrustManager[]{
@@ -41,10 +60,10 @@ public final class HttpClientFactory {
                 }
             };
             sslContext.init(null, trustAllCerts, new java.security.SecureRandom());
-            return HttpClient.newBuilder().sslContext(sslContext).connectTimeout(connectTimeout).build();
+            return builder.sslContext(sslContext).build();
         } catch (Exception e) {
             LOGGER.error("Failed to create TLS HTTP client", e);
-            return HttpClient.newBuilder().connectTimeout(connectTimeout).build();
+            return builder.build();
         }
     }
 
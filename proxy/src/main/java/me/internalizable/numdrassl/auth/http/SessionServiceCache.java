@@ -0,0 +1,242 @@
+package me.internalizable.numdrassl.auth.http;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces identical session-service calls and keeps reusable answers for a short time.
+ *
+ * <p>A call for a key that is already in flight shares that call's result. Calls marked
+ * cacheable keep their result for {@code ttl}, up to {@code maxEntries} entries with the
+ * least recently used evicted first. Only answers the session service would repeat
+ * for the same input are safe to cache; authorization grants are single use and must
+ * only be coalesced. Null results and failures are never cached.</p>
+ *
+ * <p>Entries can be tied to a player and are dropped by {@link #invalidate(UUID)} when
+ * that player leaves. Keys are hashed, so tokens are not kept as map keys.</p>
+ */
+public final class SessionServiceCache {
+
+    private final long ttlNanos;
+    private final int maxEntries;
+
+    private final Map<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    private final Object lock = new Object();
+    private final LinkedHashMap<String, Entry> entries; // Guarded by lock
+    private final Map<UUID, Set<String>> keysByOwner = new HashMap<>(); // Guarded by lock
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public SessionServiceCache(@Nonnull Duration ttl, int maxEntries) {
+        Objects.requireNonNull(ttl, "ttl");
+        this.ttlNanos = Math.max(0, ttl.toNanos());
+        this.maxEntries = Math.max(0, maxEntries);
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() <= SessionServiceCache.this.maxEntries) {
+                    return false;
+                }
+                evictions.increment();
+                unindex(eldest.getKey(), eldest.getValue());
+                return true;
+            }
+        };
+    }
+
+    // ==================== Lookup ====================
+
+    /**
+     * Returns the cached or in-flight result for a key, or starts the call.
+     *
+     * @param key       identifies the call; build it with {@link #key(String, String...)}
+     * @param owner     player the result belongs to, or null
+     * @param cacheable whether a non-null result may be reused after the call finished
+     * @param loader    makes the call; only invoked on a miss
+     * @return the result; callers get their own future, so completing it affects no one else
+     */
+    @Nonnull
+    @SuppressWarnings("unchecked")
+    public <V> CompletableFuture<V> load(@Nonnull String key, @Nullable UUID owner, boolean cacheable,
+                                         @Nonnull Supplier<CompletableFuture<V>> loader) {
+        Objects.requireNonNull(key, "key");
+        Objects.requireNonNull(loader, "loader");
+        cacheable &= ttlNanos > 0 && maxEntries > 0;
+
+        if (cacheable) {
+            Object cached = lookup(key);
+            if (cached != null) {
+                hits.increment();
+                return CompletableFuture.completedFuture((V) cached);
+            }
+        }
+
+        CompletableFuture<Object> promise = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key, promise);
+        if (existing != null) {
+            coalesced.increment();
+            return (CompletableFuture<V>) existing.copy();
+        }
+        misses.increment();
+
+        CompletableFuture<V> call;
+        try {
+            call = loader.get();
+        } catch (RuntimeException e) {
+            call = CompletableFuture.failedFuture(e);
+        }
+
+        boolean store = cacheable;
+        call.whenComplete((value, ex) -> {
+            if (ex == null && value != null && store) {
+                put(key, owner, value);
+            }
+            inFlight.remove(key, promise);
+            if (ex != null) {
+                promise.completeExceptionally(ex);
+            } else {
+                promise.complete(value);
+            }
+        });
+        return (CompletableFuture<V>) promise.copy();
+    }
+
+    /**
+     * Drops every cached result tied to the player.
+     */
+    public void invalidate(@Nonnull UUID owner) {
+        Objects.requireNonNull(owner, "owner");
+        synchronized (lock) {
+            Set<String> keys = keysByOwner.remove(owner);
+            if (keys != null) {
+                for (String key : keys) {
+                    entries.remove(key);
+                }
+            }
+        }
+    }
+
+    /**
+     * Drops all cached results, e.g. after the proxy's own session changed.
+     */
+    public void clear() {
+        synchronized (lock) {
+            entries.clear();
+            keysByOwner.clear();
+        }
+    }
+
+    @Nullable
+    private Object lookup(String key) {
+        synchronized (lock) {
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (System.nanoTime() - entry.expiresAtNanos > 0) {
+                entries.remove(key);
+                unindex(key, entry);
+                return null;
+            }
+            return entry.value;
+        }
+    }
+
+    private void put(String key, @Nullable UUID owner, Object value) {
+        synchronized (lock) {
+            Entry previous = entries.put(key, new Entry(value, System.nanoTime() + ttlNanos, owner));
+            if (previous != null) {
+                unindex(key, previous);
+            }
+            if (owner != null) {
+                keysByOwner.computeIfAbsent(owner, k -> new HashSet<>()).add(key);
+            }
+        }
+    }
+
+    private void unindex(String key, Entry entry) { // Caller holds lock
+        if (entry.owner == null) {
+            return;
+        }
+        Set<String> keys = keysByOwner.get(entry.owner);
+        if (keys != null && keys.remove(key) && keys.isEmpty()) {
+            keysByOwner.remove(entry.owner);
+        }
+    }
+
+    private record Entry(Object value, long expiresAtNanos, @Nullable UUID owner) {}
+
+    // ==================== Keys ====================
+
+    /**
+     * Builds a cache key from an operation name and the request inputs. The inputs are
+     * hashed, so the key can be kept without retaining tokens.
+     */
+    @Nonnull
+    public static String key(@Nonnull String operation, @Nonnull String... parts) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+        for (String part : parts) {
+            if (part != null) {
+                digest.update(part.getBytes(StandardCharsets.UTF_8));
+            }
+            digest.update((byte) 0);
+        }
+        return operation + ':' + Base64.getUrlEncoder().withoutPadding().encodeToString(digest.digest());
+    }
+
+    // ==================== Metrics ====================
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Calls that shared an identical call already in flight.
+     */
+    public long getCoalesced() {
+        return coalesced.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    public int getSize() {
+        synchronized (lock) {
+            return entries.size();
+        }
+    }
+
+    public int getInFlight() {
+        return inFlight.size();
+    }
+}
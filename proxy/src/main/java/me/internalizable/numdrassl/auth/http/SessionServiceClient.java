@@ -0,0 +1,261 @@
+package me.internalizable.numdrassl.auth.http;
+
+import me.internalizable.numdrassl.profiling.ProxyMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded, non-blocking stage for session-service calls made during logins.
+ *
+ * <p>Requests go out with {@link HttpClient#sendAsync}, so no thread waits on the
+ * network. At most {@code maxConcurrent} requests are in flight; further requests
+ * wait in a FIFO queue of at most {@code maxQueued} entries and are refused once it
+ * is full. Every request carries {@code requestTimeout}, and a request that waited in
+ * the queue for longer than that fails without being sent, since the client that
+ * triggered it has most likely given up.</p>
+ *
+ * <p>Identical calls can be shared through {@link #getCache()}, which coalesces calls
+ * already in flight and keeps reusable answers for {@link Settings#cacheTtl()}.</p>
+ *
+ * <p>Point {@link Settings#baseUrl()} at a local stub server to exercise the login
+ * pipeline without the real session service.</p>
+ */
+public final class SessionServiceClient {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SessionServiceClient.class);
+
+    private final HttpClient httpClient;
+    private final Settings settings;
+    private final String baseUrl;
+    private final long queueTimeoutNanos;
+    private final SessionServiceCache cache;
+
+    private final Object lock = new Object();
+    private final ArrayDeque<Call> queue = new ArrayDeque<>(); // Guarded by lock
+    private int inFlight; // Guarded by lock
+
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    public SessionServiceClient(@Nonnull HttpClient httpClient, @Nonnull Settings settings) {
+        this.httpClient = Objects.requireNonNull(httpClient, "httpClient");
+        this.settings = Objects.requireNonNull(settings, "settings");
+        this.baseUrl = settings.baseUrl().endsWith("/")
+            ? settings.baseUrl().substring(0, settings.baseUrl().length() - 1)
+            : settings.baseUrl();
+        this.queueTimeoutNanos = settings.requestTimeout().toNanos();
+        this.cache = new SessionServiceCache(settings.cacheTtl(), settings.cacheMaxEntries());
+    }
+
+    // ==================== Requests ====================
+
+    /**
+     * Starts a JSON request to a session-service path, with the common headers and the
+     * request timeout already set.
+     *
+     * @param path the endpoint path, e.g. {@code /server-join/auth-grant}
+     */
+    @Nonnull
+    public HttpRequest.Builder newRequest(@Nonnull String path) {
+        Objects.requireNonNull(path, "path");
+        return HttpRequest.newBuilder()
+            .uri(URI.create(baseUrl + path))
+            .header("Content-Type", "application/json")
+            .header("Accept", "application/json")
+            .header("User-Agent", HytaleEndpoints.USER_AGENT)
+            .timeout(settings.requestTimeout());
+    }
+
+    /**
+     * Sends a request once a slot is free.
+     *
+     * @param operation short name used for the latency metric, e.g. {@code auth_grant}
+     * @param request   the request
+     * @return the response; fails with {@link RejectedExecutionException} if the queue is
+     *         full, or {@link TimeoutException} if the request timed out
+     */
+    @Nonnull
+    public CompletableFuture<HttpResponse<String>> send(@Nonnull String operation, @Nonnull HttpRequest request) {
+        Objects.requireNonNull(operation, "operation");
+        Objects.requireNonNull(request, "request");
+
+        Call call = new Call(operation, request, System.nanoTime());
+        synchronized (lock) {
+            if (inFlight >= settings.maxConcurrent()) {
+                if (queue.size() >= settings.maxQueued()) {
+                    rejected.increment();
+                    return CompletableFuture.failedFuture(
+                        new RejectedExecutionException("Session service queue is full"));
+                }
+                queue.add(call);
+                return call.future;
+            }
+            inFlight++;
+        }
+
+        start(call);
+        return call.future;
+    }
+
+    private void start(Call call) {
+        long startedAt = System.nanoTime();
+        ProxyMetrics.getInstance().recordDuration("session_service_queue_wait", startedAt - call.enqueuedAtNanos);
+
+        CompletableFuture<HttpResponse<String>> response;
+        try {
+            response = httpClient.sendAsync(call.request, HttpResponse.BodyHandlers.ofString());
+        } catch (RuntimeException e) {
+            response = CompletableFuture.failedFuture(e);
+        }
+
+        response.whenComplete((res, ex) -> {
+            ProxyMetrics.getInstance().recordDuration("session_service_" + call.operation, System.nanoTime() - startedAt);
+            release();
+
+            if (ex == null) {
+                call.future.complete(res);
+                return;
+            }
+            Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+            if (cause instanceof HttpTimeoutException) {
+                timedOut.increment();
+                call.future.completeExceptionally(new TimeoutException(
+                    "Session service did not answer " + call.operation + " within " + settings.requestTimeout().toSeconds() + "s"));
+            } else {
+                failed.increment();
+                call.future.completeExceptionally(cause);
+            }
+        });
+    }
+
+    /**
+     * Hands the finished call's slot to the oldest queued call that has not expired.
+     */
+    private void release() {
+        while (true) {
+            Call next;
+            synchronized (lock) {
+                next = queue.poll();
+                if (next == null) {
+                    inFlight--;
+                    return;
+                }
+            }
+
+            if (System.nanoTime() - next.enqueuedAtNanos > queueTimeoutNanos) {
+                timedOut.increment();
+                LOGGER.debug("Session service {} expired after waiting in the queue", next.operation);
+                next.future.completeExceptionally(new TimeoutException(
+                    "Waited more than " + settings.requestTimeout().toSeconds() + "s for a session service slot"));
+                continue;
+            }
+
+            start(next);
+            return;
+        }
+    }
+
+    /**
+     * Coalescing cache for calls whose inputs identify their answer.
+     */
+    @Nonnull
+    public SessionServiceCache getCache() {
+        return cache;
+    }
+
+    // ==================== Metrics ====================
+
+    @Nonnull
+    public Settings getSettings() {
+        return settings;
+    }
+
+    public int getInFlight() {
+        synchronized (lock) {
+            return inFlight;
+        }
+    }
+
+    public int getQueued() {
+        synchronized (lock) {
+            return queue.size();
+        }
+    }
+
+    /**
+     * Requests refused because the queue was full.
+     */
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    /**
+     * Requests that timed out, in the queue or on the wire.
+     */
+    public long getTimedOutCount() {
+        return timedOut.sum();
+    }
+
+    /**
+     * Requests that failed for any other reason, e.g. a refused connection.
+     */
+    public long getFailedCount() {
+        return failed.sum();
+    }
+
+    // ==================== Types ====================
+
+    private static final class Call {
+        final String operation;
+        final HttpRequest request;
+        final long enqueuedAtNanos;
+        final CompletableFuture<HttpResponse<String>> future = new CompletableFuture<>();
+
+        Call(String operation, HttpRequest request, long enqueuedAtNanos) {
+            this.operation = operation;
+            this.request = request;
+            this.enqueuedAtNanos = enqueuedAtNanos;
+        }
+    }
+
+    /**
+     * Limits for the session-service stage.
+     *
+     * @param baseUrl        session service URL, without a trailing path
+     * @param maxConcurrent  requests in flight at once
+     * @param maxQueued      requests waiting for a slot before new ones are refused
+     * @param requestTimeout timeout per request, and the longest a request may wait in the queue
+     * @param cacheTtl        how long reusable answers are kept; zero only coalesces
+     * @param cacheMaxEntries reusable answers kept at most
+     */
+    public record Settings(@Nonnull String baseUrl, int maxConcurrent, int maxQueued, @Nonnull Duration requestTimeout,
+                           @Nonnull Duration cacheTtl, int cacheMaxEntries) {
+
+        public static final Settings DEFAULT = new Settings(HytaleEndpoints.SESSION_SERVICE_URL, 64, 2000, Duration.ofSeconds(10),
+            Duration.ofSeconds(30), 10000);
+
+        public Settings {
+            Objects.requireNonNull(baseUrl, "baseUrl");
+            Objects.requireNonNull(requestTimeout, "requestTimeout");
+            Objects.requireNonNull(cacheTtl, "cacheTtl");
+            maxConcurrent = Math.max(1, maxConcurrent);
+            maxQueued = Math.max(0, maxQueued);
+        }
+    }
+}
@@ -7,6 +7,10 @@
  *       Factory for configured HTTP clients</li>
  *   <li>{@link me.internalizable.numdrassl.auth.http.HytaleEndpoints} -
  *       Constants for Hytale API endpoints</li>
+ *   <li>{@link me.internalizable.numdrassl.auth.http.SessionServiceClient} -
+ *       Bounded async stage for session-service calls made during logins</li>
+ *   <li>{@link me.internalizable.numdrassl.auth.http.SessionServiceCache} -
+ *       Coalescing, short-lived cache for repeated session-service calls</li>
  * </ul>
  *
  * @see me.internalizable.numdrassl.auth.ProxyAuthenticator
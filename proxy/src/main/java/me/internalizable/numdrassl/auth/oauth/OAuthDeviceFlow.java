@@ -18,6 +18,7 @@ import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 /**
  * Handles OAuth device code authentication flow.
@@ -28,10 +29,17 @@ public final class OAuthDeviceFlow {
 
     private final HttpClient httpClient;
     private final CredentialStore credentialStore;
-
-    public OAuthDeviceFlow(@Nonnull HttpClient httpClient, @Nonnull CredentialStore credentialStore) {
+    private final Executor executor;
+
+    /**
+     * @param executor runs the blocking requests and the polling loop; must not be a
+     *                 shared pool, since polling sleeps between attempts
+     */
+    public OAuthDeviceFlow(@Nonnull HttpClient httpClient, @Nonnull CredentialStore credentialStore,
+                           @Nonnull Executor executor) {
         this.httpClient = Objects.requireNonNull(httpClient, "httpClient");
         this.credentialStore = Objects.requireNonNull(credentialStore, "credentialStore");
+        this.executor = Objects.requireNonNull(executor, "executor");
     }
 
     @Nonnull
@@ -67,7 +75,7 @@ public final class OAuthDeviceFlow {
                 LOGGER.error("Error starting device code flow", e);
                 return null;
             }
-        });
+        }, executor);
     }
 
     @Nonnull
@@ -116,7 +124,7 @@ public final class OAuthDeviceFlow {
                 LOGGER.error("Error polling device code", e);
                 return false;
             }
-        });
+        }, executor);
     }
 
     @Nullable private static String getStr(JsonObject obj, String key) {
@@ -3,61 +3,70 @@ package me.internalizable.numdrassl.auth.session;
 import com.google.gson.Gson;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
-import me.internalizable.numdrassl.auth.http.HytaleEndpoints;
+import me.internalizable.numdrassl.auth.http.SessionServiceCache;
+import me.internalizable.numdrassl.auth.http.SessionServiceClient;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
-import java.net.URI;
-import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
 import java.util.Objects;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 
 /**
  * Handles client authentication when the proxy acts as a server.
+ *
+ * <p>Requests go through the {@link SessionServiceClient}, so a login storm queues
+ * there instead of blocking shared pool threads. Duplicate requests share one call
+ * through the {@link SessionServiceCache}.</p>
  */
-public final class ClientAuthHandler {
+public final class ClientAuthHandler implements ClientLoginService {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(ClientAuthHandler.class);
     private static final Gson GSON = new Gson();
 
-    private final HttpClient httpClient;
+    private final SessionServiceClient sessionService;
     private final GameSessionManager sessionManager;
     private final String proxyFingerprint;
 
-    public ClientAuthHandler(@Nonnull HttpClient httpClient, @Nonnull GameSessionManager sessionManager,
+    public ClientAuthHandler(@Nonnull SessionServiceClient sessionService, @Nonnull GameSessionManager sessionManager,
                              @Nullable String proxyFingerprint) {
-        this.httpClient = Objects.requireNonNull(httpClient);
+        this.sessionService = Objects.requireNonNull(sessionService);
         this.sessionManager = Objects.requireNonNull(sessionManager);
         this.proxyFingerprint = proxyFingerprint;
     }
 
+    @Override
+    public boolean isAuthenticated() {
+        return sessionManager.isAuthenticated();
+    }
+
+    @Override
     @Nonnull
     public CompletableFuture<AuthGrantResult> requestAuthGrant(@Nonnull UUID clientUuid, @Nonnull String clientUsername,
                                                                @Nullable String clientIdentityToken) {
-        return CompletableFuture.supplyAsync(() -> {
-            try {
-                if (!sessionManager.isAuthenticated()) { LOGGER.error("Proxy not authenticated!"); return null; }
-                LOGGER.info("Requesting auth grant for {} ({})", clientUsername, clientUuid);
-
-                JsonObject body = new JsonObject();
-                if (clientIdentityToken != null && !clientIdentityToken.isEmpty()) body.addProperty("identityToken", clientIdentityToken);
-                else body.addProperty("uuid", clientUuid.toString());
-                if (proxyFingerprint != null) body.addProperty("x509Fingerprint", proxyFingerprint);
-
-                HttpRequest req = HttpRequest.newBuilder()
-                    .uri(URI.create(HytaleEndpoints.sessionServiceEndpoint("/server-join/auth-grant")))
-                    .header("Content-Type", "application/json").header("Accept", "application/json")
-                    .header("Authorization", "Bearer " + sessionManager.getSessionToken())
-                    .header("User-Agent", HytaleEndpoints.USER_AGENT)
-                    .POST(HttpRequest.BodyPublishers.ofString(GSON.toJson(body)))
-                    .timeout(HytaleEndpoints.REQUEST_TIMEOUT).build();
-
-                HttpResponse<String> res = httpClient.send(req, HttpResponse.BodyHandlers.ofString());
+        if (!sessionManager.isAuthenticated()) { LOGGER.error("Proxy not authenticated!"); return CompletableFuture.completedFuture(null); }
+        LOGGER.info("Requesting auth grant for {} ({})", clientUsername, clientUuid);
+
+        // Grants are single use: share a duplicate request in flight, never reuse the answer
+        boolean hasIdentityToken = clientIdentityToken != null && !clientIdentityToken.isEmpty();
+        String sessionToken = sessionManager.getSessionToken();
+        String key = SessionServiceCache.key("auth_grant", sessionToken,
+            hasIdentityToken ? clientIdentityToken : clientUuid.toString(), proxyFingerprint);
+
+        return sessionService.getCache().load(key, clientUuid, false, () -> {
+            JsonObject body = new JsonObject();
+            if (hasIdentityToken) body.addProperty("identityToken", clientIdentityToken);
+            else body.addProperty("uuid", clientUuid.toString());
+            if (proxyFingerprint != null) body.addProperty("x509Fingerprint", proxyFingerprint);
+
+            HttpRequest req = sessionService.newRequest("/server-join/auth-grant")
+                .header("Authorization", "Bearer " + sessionToken)
+                .POST(HttpRequest.BodyPublishers.ofString(GSON.toJson(body))).build();
+
+            return sessionService.send("auth_grant", req).thenApply(res -> {
                 if (res.statusCode() == 200) {
                     JsonObject json = JsonParser.parseString(res.body()).getAsJsonObject();
                     var ag = json.get("authorizationGrant");
@@ -66,37 +75,49 @@ public final class ClientAuthHandler {
                         return new AuthGrantResult(ag.getAsString(), sessionManager.getIdentityToken());
                     }
                 }
-                LOGGER.error("Failed to get auth grant: {}", res.body()); return null;
-            } catch (Exception e) { LOGGER.error("Error requesting auth grant", e); return null; }
-        });
+                LOGGER.error("Failed to get auth grant: {}", res.body()); return (AuthGrantResult) null;
+            });
+        }).exceptionally(e -> { LOGGER.error("Error requesting auth grant for {}: {}", clientUsername, e.toString()); return null; });
     }
 
     @Nonnull
     public CompletableFuture<String> exchangeServerAuthGrant(@Nonnull String serverAuthGrant) {
-        return CompletableFuture.supplyAsync(() -> {
-            try {
-                if (!sessionManager.isAuthenticated()) {
-                    LOGGER.error("Cannot exchange server auth grant: proxy not authenticated");
-                    return null;
-                }
-                if (proxyFingerprint == null) {
-                    LOGGER.error("Cannot exchange server auth grant: proxyFingerprint is null");
-                    return null;
-                }
-                LOGGER.debug("Exchanging server auth grant with fingerprint: {}", proxyFingerprint);
-                JsonObject body = new JsonObject();
-                body.addProperty("authorizationGrant", serverAuthGrant);
-                body.addProperty("x509Fingerprint", proxyFingerprint);
-
-                HttpRequest req = HttpRequest.newBuilder()
-                    .uri(URI.create(HytaleEndpoints.sessionServiceEndpoint("/server-join/auth-token")))
-                    .header("Content-Type", "application/json").header("Accept", "application/json")
-                    .header("Authorization", "Bearer " + sessionManager.getSessionToken())
-                    .header("User-Agent", HytaleEndpoints.USER_AGENT)
-                    .POST(HttpRequest.BodyPublishers.ofString(GSON.toJson(body)))
-                    .timeout(HytaleEndpoints.REQUEST_TIMEOUT).build();
-
-                HttpResponse<String> res = httpClient.send(req, HttpResponse.BodyHandlers.ofString());
+        return exchangeServerAuthGrant(serverAuthGrant, null);
+    }
+
+    /**
+     * Exchanges a server authorization grant for an access token. The same grant always
+     * yields the same token, so the answer is cached for a retried exchange; it is
+     * dropped when {@code owner} leaves.
+     *
+     * @param serverAuthGrant the grant the client issued for the proxy
+     * @param owner           the player the grant came from, or null
+     */
+    @Override
+    @Nonnull
+    public CompletableFuture<String> exchangeServerAuthGrant(@Nonnull String serverAuthGrant, @Nullable UUID owner) {
+        if (!sessionManager.isAuthenticated()) {
+            LOGGER.error("Cannot exchange server auth grant: proxy not authenticated");
+            return CompletableFuture.completedFuture(null);
+        }
+        if (proxyFingerprint == null) {
+            LOGGER.error("Cannot exchange server auth grant: proxyFingerprint is null");
+            return CompletableFuture.completedFuture(null);
+        }
+        String sessionToken = sessionManager.getSessionToken();
+        String key = SessionServiceCache.key("auth_token", sessionToken, serverAuthGrant, proxyFingerprint);
+
+        return sessionService.getCache().load(key, owner, true, () -> {
+            LOGGER.debug("Exchanging server auth grant with fingerprint: {}", proxyFingerprint);
+            JsonObject body = new JsonObject();
+            body.addProperty("authorizationGrant", serverAuthGrant);
+            body.addProperty("x509Fingerprint", proxyFingerprint);
+
+            HttpRequest req = sessionService.newRequest("/server-join/auth-token")
+                .header("Authorization", "Bearer " + sessionToken)
+                .POST(HttpRequest.BodyPublishers.ofString(GSON.toJson(body))).build();
+
+            return sessionService.send("auth_token", req).thenApply(res -> {
                 if (res.statusCode() == 200) {
                     var at = JsonParser.parseString(res.body()).getAsJsonObject().get("accessToken");
                     if (at != null) {
@@ -107,9 +128,9 @@ public final class ClientAuthHandler {
                     return null;
                 }
                 LOGGER.error("Failed to exchange server auth grant: HTTP {} - {}", res.statusCode(), res.body());
-                return null;
-            } catch (Exception e) { LOGGER.error("Error exchanging server auth grant", e); return null; }
-        });
+                return (String) null;
+            });
+        }).exceptionally(e -> { LOGGER.error("Error exchanging server auth grant: {}", e.toString()); return null; });
     }
 
     public record AuthGrantResult(@Nonnull String authorizationGrant, @Nullable String serverIdentityToken) {
@@ -0,0 +1,44 @@
+package me.internalizable.numdrassl.auth.session;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * The session-service calls made while a client logs in to the proxy.
+ *
+ * <p>{@link ClientAuthHandler} is the implementation used in production; offline
+ * tooling such as the load generator passes its own to
+ * {@link me.internalizable.numdrassl.auth.ProxyAuthenticator}.</p>
+ */
+public interface ClientLoginService {
+
+    /**
+     * Whether the proxy can authenticate clients.
+     */
+    boolean isAuthenticated();
+
+    /**
+     * Requests an authorization grant for a connecting client.
+     *
+     * @param clientUuid          client's UUID
+     * @param clientUsername      client's username
+     * @param clientIdentityToken client's identity token (optional)
+     * @return the grant, or null if it could not be obtained
+     */
+    @Nonnull
+    CompletableFuture<ClientAuthHandler.AuthGrantResult> requestAuthGrant(@Nonnull UUID clientUuid,
+                                                                          @Nonnull String clientUsername,
+                                                                          @Nullable String clientIdentityToken);
+
+    /**
+     * Exchanges the grant a client issued for the proxy for an access token.
+     *
+     * @param serverAuthGrant the grant the client issued for the proxy
+     * @param owner           the player the grant came from, or null
+     * @return the access token, or null if the exchange failed
+     */
+    @Nonnull
+    CompletableFuture<String> exchangeServerAuthGrant(@Nonnull String serverAuthGrant, @Nullable UUID owner);
+}
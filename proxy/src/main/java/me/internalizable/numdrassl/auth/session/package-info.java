@@ -7,6 +7,8 @@
  *       Creates and maintains game sessions</li>
  *   <li>{@link me.internalizable.numdrassl.auth.session.ClientAuthHandler} -
  *       Handles client authentication (proxy as server)</li>
+ *   <li>{@link me.internalizable.numdrassl.auth.session.ClientLoginService} -
+ *       The login calls, replaceable for offline tooling</li>
  *   <li>{@link me.internalizable.numdrassl.auth.session.BackendAuthHandler} -
  *       Handles backend authentication (proxy as client)</li>
  * </ul>
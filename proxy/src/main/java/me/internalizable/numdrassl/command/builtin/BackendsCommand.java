@@ -0,0 +1,67 @@
+package me.internalizable.numdrassl.command.builtin;
+
+import me.internalizable.numdrassl.api.command.Command;
+import me.internalizable.numdrassl.api.command.CommandResult;
+import me.internalizable.numdrassl.api.command.CommandSource;
+import me.internalizable.numdrassl.config.BackendServer;
+import me.internalizable.numdrassl.server.ProxyCore;
+import me.internalizable.numdrassl.server.health.BackendHealth;
+import me.internalizable.numdrassl.server.health.BackendHealthManager;
+import me.internalizable.numdrassl.server.health.CircuitBreaker;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Built-in backends command for showing each backend's health and circuit breaker state.
+ */
+public class BackendsCommand implements Command {
+
+    private static final String PERMISSION_BASE = "numdrassl.command.backends";
+
+    private final ProxyCore proxyCore;
+
+    public BackendsCommand(ProxyCore proxyCore) {
+        this.proxyCore = proxyCore;
+    }
+
+    @Override
+    @Nonnull
+    public String getName() {
+        return "backends";
+    }
+
+    @Override
+    public String getDescription() {
+        return "Show backend health and circuit breaker state";
+    }
+
+    @Override
+    public String getPermission() {
+        return PERMISSION_BASE;
+    }
+
+    @Override
+    @Nonnull
+    public CommandResult execute(@Nonnull CommandSource source, @Nonnull String[] args) {
+        BackendHealthManager healthManager = proxyCore.getBackendHealthManager();
+        var backends = proxyCore.getConfig().getBackends();
+        source.sendMessage("Backends: " + backends.size());
+
+        for (BackendServer backend : backends) {
+            BackendHealth health = healthManager.get(backend);
+            CircuitBreaker breaker = healthManager.getCircuitBreaker(backend);
+
+            int sessions = proxyCore.getSessionManager().getSessionCountOnBackend(backend.getName());
+            String players = backend.getMaxPlayers() > 0 ? sessions + "/" + backend.getMaxPlayers() : String.valueOf(sessions);
+            double rtt = health.getSmoothedRttMillis();
+
+            source.sendMessage("  - " + backend.getName() + " (" + backend.getHost() + ":" + backend.getPort() + "): " +
+                players + " players, " + health.getState() +
+                ", circuit " + breaker.getState() +
+                ", rtt " + (rtt < 0 ? "n/a" : String.format("%.1f ms", rtt)) +
+                (backend.isDraining() ? ", draining" : ""));
+        }
+
+        return CommandResult.success();
+    }
+}
@@ -0,0 +1,104 @@
+package me.internalizable.numdrassl.config;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Represents a named group of backend servers that share load.
+ *
+ * <p>A group name can be used anywhere a backend name is accepted. Each time it is
+ * resolved, one member is picked by the group's strategy.</p>
+ */
+public class BackendGroup {
+
+    private String name;
+    private String strategy;
+    private List<String> members = new ArrayList<>();
+    private Map<String, Integer> weights = new LinkedHashMap<>();
+    private boolean defaultServer;
+    private int maxPlayers;
+
+    public BackendGroup() {
+    }
+
+    public BackendGroup(String name, String strategy, List<String> members, boolean defaultServer) {
+        this.name = name;
+        this.strategy = strategy;
+        this.members = members;
+        this.defaultServer = defaultServer;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getStrategy() {
+        return strategy;
+    }
+
+    public void setStrategy(String strategy) {
+        this.strategy = strategy;
+    }
+
+    public List<String> getMembers() {
+        return members;
+    }
+
+    public void setMembers(List<String> members) {
+        this.members = members;
+    }
+
+    public Map<String, Integer> getWeights() {
+        return weights;
+    }
+
+    public void setWeights(Map<String, Integer> weights) {
+        this.weights = weights;
+    }
+
+    /**
+     * Returns the weight of a member for the weighted strategy. Members without an
+     * explicit weight count as 1.
+     */
+    public int getWeight(String member) {
+        if (weights == null) return 1;
+        Integer weight = weights.get(member);
+        return weight != null ? Math.max(0, weight) : 1;
+    }
+
+    public boolean isDefaultServer() {
+        return defaultServer;
+    }
+
+    public void setDefaultServer(boolean defaultServer) {
+        this.defaultServer = defaultServer;
+    }
+
+    /**
+     * Returns the cap on sessions across all members, or 0 for no cap.
+     */
+    public int getMaxPlayers() {
+        return maxPlayers;
+    }
+
+    public void setMaxPlayers(int maxPlayers) {
+        this.maxPlayers = maxPlayers;
+    }
+
+    @Override
+    public String toString() {
+        return "BackendGroup{" +
+            "name='" + name + '\'' +
+            ", strategy='" + strategy + '\'' +
+            ", members=" + members +
+            ", default=" + defaultServer +
+            ", maxPlayers=" + maxPlayers +
+            '}';
+    }
+}
@@ -10,6 +10,8 @@ public class BackendServer {
     private int port;
     private boolean defaultServer;
     private String fallbackServer;
+    private volatile boolean draining;
+    private int maxPlayers;
 
     public BackendServer() {
     }
@@ -62,6 +64,28 @@ public class BackendServer {
         return fallbackServer;
     }
 
+    /**
+     * A draining backend keeps its current players but is never picked by a backend group.
+     */
+    public boolean isDraining() {
+        return draining;
+    }
+
+    public void setDraining(boolean draining) {
+        this.draining = draining;
+    }
+
+    /**
+     * Players this backend accepts through transfers and group selection; 0 for no limit.
+     */
+    public int getMaxPlayers() {
+        return maxPlayers;
+    }
+
+    public void setMaxPlayers(int maxPlayers) {
+        this.maxPlayers = maxPlayers;
+    }
+
     @Override
     public String toString() {
         return "BackendServer{" +
@@ -70,6 +94,8 @@ public class BackendServer {
             ", port=" + port +
             ", default=" + defaultServer +
             ", fallbackServer=" + fallbackServer +
+            ", draining=" + draining +
+            ", maxPlayers=" + maxPlayers +
             '}';
     }
 }
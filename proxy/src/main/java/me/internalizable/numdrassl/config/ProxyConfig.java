@@ -11,7 +11,9 @@ import java.nio.file.Path;
 import java.security.SecureRandom;
 import java.util.ArrayList;
 import java.util.Base64;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 /**
@@ -24,6 +26,8 @@ public class ProxyConfig {
     private Integer bindPort;
     private String publicAddress;
     private Integer publicPort;
+    private Boolean udpOffloadEnabled;
+    private Integer udpGsoMaxSegments;
 
     // TLS configuration
     private String certificatePath;
@@ -32,6 +36,36 @@ public class ProxyConfig {
     // Connection limits
     private Integer maxConnections;
     private Integer connectionTimeoutSeconds;
+    private Boolean connectionRateLimitEnabled;
+    private Integer connectionsPerIpPerSecond;
+    private Integer connectionBurstPerIp;
+    private Integer connectionsPerSubnetPerSecond;
+    private Integer connectionBurstPerSubnet;
+    private Integer connectionRateLimitMaxTracked;
+    private List<String> connectionAllowlist;
+    private Boolean quicRetryEnabled;
+    private Integer quicRetryThresholdPerSecond;
+    private Integer quicRetryTokenLifetimeSeconds;
+
+    // Memory budget
+    private Integer memoryBudgetMb;
+    private Integer sessionMemoryQuotaMb;
+    private Integer memoryQuotaGraceSeconds;
+
+    // Backend connection pool
+    private Boolean backendPoolEnabled;
+    private Integer backendPoolMinIdle;
+    private Integer backendPoolMaxIdle;
+
+    // Backend circuit breaker
+    private Integer circuitBreakerFailureThreshold;
+    private Integer circuitBreakerOpenSeconds;
+    private Integer circuitBreakerHalfOpenTrials;
+
+    // Backend address resolution
+    private Integer backendDnsCacheSeconds;
+    private Integer backendDnsStaleSeconds;
+    private String backendHostsFile;
 
     // Debug options
     private Boolean debugMode;
@@ -43,10 +77,19 @@ public class ProxyConfig {
     // Backend servers
     private List<BackendServer> backends = new ArrayList<>();
 
+    // Backend groups
+    private List<BackendGroup> backendGroups;
+
     // Cluster/Redis configuration
     private Boolean clusterEnabled;
     private String proxyId;
     private String proxyRegion;
+    private Boolean clusterBinaryMessages;
+    private Integer clusterCompressionThreshold;
+    private Integer clusterPublishLingerMillis;
+    private Integer clusterPublishBatchSize;
+    private Integer clusterPublishQueueSize;
+    private String clusterPublishOverflowPolicy;
     private String redisHost;
     private Integer redisPort;
     private String redisPassword;
@@ -62,6 +105,38 @@ public class ProxyConfig {
     private Boolean fallbackEnabled;
     private String globalFallbackServer;
 
+    // Transfer configuration
+    private Boolean seamlessTransfers;
+    private Integer seamlessTransferTimeoutSeconds;
+    private Boolean transferTicketsEnabled;
+    private Integer transferTicketTtlSeconds;
+    private Integer transferRatePerSecond;
+    private Integer transferBurst;
+    private Integer transferMaxConcurrent;
+    private Integer transferJitterMillis;
+    private Integer transferQueueTimeoutSeconds;
+
+    // Login queue
+    private Boolean loginQueueEnabled;
+    private Integer loginQueueMaxSize;
+    private Integer loginQueueUpdateSeconds;
+    private Integer loginQueueMaxWaitSeconds;
+    private List<String> loginQueuePriorityPermissions;
+
+    // Session service
+    private String sessionServiceUrl;
+    private Integer sessionServiceMaxConcurrent;
+    private Integer sessionServiceMaxQueued;
+    private Integer sessionServiceTimeoutSeconds;
+    private Integer sessionServiceCacheTtlSeconds;
+    private Integer sessionServiceCacheMaxEntries;
+
+    // Async login
+    private Integer asyncLoginTaskTimeoutSeconds;
+    private Integer asyncLoginTimeoutSeconds;
+    private String asyncLoginTimeoutPolicy;
+    private Map<String, Integer> asyncLoginPluginTimeouts;
+
     private static final SecureRandom SECRET_RANDOM = new SecureRandom();
 
     public ProxyConfig() {
@@ -118,6 +193,12 @@ public class ProxyConfig {
             writer.write("publicAddress: " + formatValue(publicAddress) + "\n");
             writer.write("publicPort: " + publicPort + "\n\n");
 
+            writer.write("# Batch QUIC datagrams per syscall with UDP GSO/GRO (Linux epoll only,\n");
+            writer.write("# falls back to plain sockets when unsupported)\n");
+            writer.write("udpOffloadEnabled: " + udpOffloadEnabled + "\n");
+            writer.write("# Most datagrams sent to one peer in a single GSO write\n");
+            writer.write("udpGsoMaxSegments: " + udpGsoMaxSegments + "\n\n");
+
             // TLS configuration
             writer.write("# ==================== TLS Configuration ====================\n\n");
             writer.write("# TLS certificates (auto-generated if missing)\n");
@@ -129,7 +210,69 @@ public class ProxyConfig {
             writer.write("# Maximum concurrent connections\n");
             writer.write("maxConnections: " + maxConnections + "\n");
             writer.write("# Connection timeout in seconds\n");
-            writer.write("connectionTimeoutSeconds: " + connectionTimeoutSeconds + "\n\n");
+            writer.write("connectionTimeoutSeconds: " + connectionTimeoutSeconds + "\n");
+            writer.write("# Rate limit new connections per IP and per /24 (IPv4) or /64 (IPv6) subnet,\n");
+            writer.write("# before the TLS handshake and session-service authentication\n");
+            writer.write("connectionRateLimitEnabled: " + connectionRateLimitEnabled + "\n");
+            writer.write("connectionsPerIpPerSecond: " + connectionsPerIpPerSecond + "\n");
+            writer.write("connectionBurstPerIp: " + connectionBurstPerIp + "\n");
+            writer.write("connectionsPerSubnetPerSecond: " + connectionsPerSubnetPerSecond + "\n");
+            writer.write("connectionBurstPerSubnet: " + connectionBurstPerSubnet + "\n");
+            writer.write("# Addresses and subnets tracked at once; beyond this, new ones share one limit\n");
+            writer.write("connectionRateLimitMaxTracked: " + connectionRateLimitMaxTracked + "\n");
+            writer.write("# Addresses or CIDR ranges that are never rate limited\n");
+            if (getConnectionAllowlist().isEmpty()) {
+                writer.write("connectionAllowlist: []\n");
+            } else {
+                writer.write("connectionAllowlist:\n");
+                for (String entry : getConnectionAllowlist()) {
+                    writer.write("  - \"" + entry + "\"\n");
+                }
+            }
+            writer.write("# Answer new connections with a QUIC Retry, proving the client owns its address,\n");
+            writer.write("# once more than quicRetryThresholdPerSecond arrive per second (0 = always)\n");
+            writer.write("quicRetryEnabled: " + quicRetryEnabled + "\n");
+            writer.write("quicRetryThresholdPerSecond: " + quicRetryThresholdPerSecond + "\n");
+            writer.write("# How long a retry token stays valid\n");
+            writer.write("quicRetryTokenLifetimeSeconds: " + quicRetryTokenLifetimeSeconds + "\n\n");
+
+            // Memory budget
+            writer.write("# ==================== Memory Budget ====================\n\n");
+            writer.write("# Maximum memory (MB) held in buffers for all sessions and Redis handlers\n");
+            writer.write("# Keep this well below -XX:MaxDirectMemorySize\n");
+            writer.write("memoryBudgetMb: " + memoryBudgetMb + "\n");
+            writer.write("# Maximum buffered memory (MB) per session; reads pause when exceeded\n");
+            writer.write("sessionMemoryQuotaMb: " + sessionMemoryQuotaMb + "\n");
+            writer.write("# Seconds a session may stay over quota before it is disconnected\n");
+            writer.write("memoryQuotaGraceSeconds: " + memoryQuotaGraceSeconds + "\n\n");
+
+            // Backend connection pool
+            writer.write("# ==================== Backend Connection Pool ====================\n\n");
+            writer.write("# Keep handshaken QUIC connections to each backend ready for logins and transfers\n");
+            writer.write("backendPoolEnabled: " + backendPoolEnabled + "\n");
+            writer.write("# Idle connections kept per backend, even without recent logins\n");
+            writer.write("backendPoolMinIdle: " + backendPoolMinIdle + "\n");
+            writer.write("# Upper bound on idle connections per backend as the login rate grows\n");
+            writer.write("backendPoolMaxIdle: " + backendPoolMaxIdle + "\n\n");
+
+            // Backend circuit breaker
+            writer.write("# ==================== Backend Circuit Breaker ====================\n\n");
+            writer.write("# Consecutive connect or probe failures before a backend's circuit opens\n");
+            writer.write("# While open, logins and transfers to it fail at once instead of waiting for a timeout\n");
+            writer.write("circuitBreakerFailureThreshold: " + circuitBreakerFailureThreshold + "\n");
+            writer.write("# Seconds a circuit stays open before trial connects are let through\n");
+            writer.write("circuitBreakerOpenSeconds: " + circuitBreakerOpenSeconds + "\n");
+            writer.write("# Trial connects allowed at once while half-open; the first success closes the circuit\n");
+            writer.write("circuitBreakerHalfOpenTrials: " + circuitBreakerHalfOpenTrials + "\n\n");
+
+            // Backend address resolution
+            writer.write("# ==================== Backend Address Resolution ====================\n\n");
+            writer.write("# Seconds resolved backend addresses are cached; refreshed in the background while in use\n");
+            writer.write("backendDnsCacheSeconds: " + backendDnsCacheSeconds + "\n");
+            writer.write("# Seconds past expiry the last known addresses are still used while DNS lookups fail\n");
+            writer.write("backendDnsStaleSeconds: " + backendDnsStaleSeconds + "\n");
+            writer.write("# Optional hosts file checked before DNS, e.g. to list several addresses for one backend host\n");
+            writer.write("backendHostsFile: \"" + backendHostsFile + "\"\n\n");
 
             // Debug options
             writer.write("# ==================== Debug Options ====================\n\n");
@@ -148,6 +291,7 @@ public class ProxyConfig {
             // Backend servers
             writer.write("# ==================== Backend Servers ====================\n\n");
             writer.write("# List of backend servers players can connect to\n");
+            writer.write("# maxPlayers caps sessions on a backend for groups and queued transfers (0 = unlimited)\n");
             writer.write("backends:\n");
             for (BackendServer backend : backends) {
                 writer.write("  - name: \"" + backend.getName() + "\"\n");
@@ -155,6 +299,37 @@ public class ProxyConfig {
                 writer.write("    port: " + backend.getPort() + "\n");
                 writer.write("    defaultServer: " + backend.isDefaultServer() + "\n");
                 writer.write("    fallbackServer: " + backend.getFallbackServer() + "\n");
+                writer.write("    draining: " + backend.isDraining() + "\n");
+                writer.write("    maxPlayers: " + backend.getMaxPlayers() + "\n");
+            }
+            writer.write("\n");
+
+            // Backend groups
+            writer.write("# ==================== Backend Groups ====================\n\n");
+            writer.write("# Named groups of backends; a group name can be used wherever a backend name is accepted\n");
+            writer.write("# Strategies: least-connections, power-of-two, weighted, lowest-latency\n");
+            writer.write("# Members that are dead, unresponsive, draining, full (maxPlayers) or circuit-open are skipped\n");
+            writer.write("# maxPlayers caps sessions across all members of the group (0 = unlimited)\n");
+            if (getBackendGroups().isEmpty()) {
+                writer.write("backendGroups: []\n");
+            } else {
+                writer.write("backendGroups:\n");
+                for (BackendGroup group : getBackendGroups()) {
+                    writer.write("  - name: \"" + group.getName() + "\"\n");
+                    writer.write("    strategy: \"" + group.getStrategy() + "\"\n");
+                    writer.write("    defaultServer: " + group.isDefaultServer() + "\n");
+                    writer.write("    maxPlayers: " + group.getMaxPlayers() + "\n");
+                    writer.write("    members:\n");
+                    for (String member : group.getMembers()) {
+                        writer.write("      - \"" + member + "\"\n");
+                    }
+                    if (group.getWeights() != null && !group.getWeights().isEmpty()) {
+                        writer.write("    weights:\n");
+                        for (Map.Entry<String, Integer> weight : group.getWeights().entrySet()) {
+                            writer.write("      \"" + weight.getKey() + "\": " + weight.getValue() + "\n");
+                        }
+                    }
+                }
             }
             writer.write("\n");
 
@@ -167,7 +342,21 @@ public class ProxyConfig {
             writer.write("# Unique identifier for this proxy instance (auto-generated if null)\n");
             writer.write("proxyId: " + formatValue(proxyId) + "\n");
             writer.write("# Region identifier for load balancing (e.g., \"eu-west\", \"us-east\")\n");
-            writer.write("proxyRegion: \"" + proxyRegion + "\"\n\n");
+            writer.write("proxyRegion: \"" + proxyRegion + "\"\n");
+            writer.write("# Send cluster messages in the compact binary format instead of JSON\n");
+            writer.write("# Both formats are always read; set false while older proxies that only read JSON share the cluster\n");
+            writer.write("clusterBinaryMessages: " + clusterBinaryMessages + "\n");
+            writer.write("# Binary message bodies of at least this many bytes are Zstd compressed (0 = never)\n");
+            writer.write("clusterCompressionThreshold: " + clusterCompressionThreshold + "\n");
+            writer.write("# Outgoing messages are sent to Redis in pipelined batches; a batch waits at most this long\n");
+            writer.write("# for more messages (0 = send as soon as the previous batch is written)\n");
+            writer.write("clusterPublishLingerMillis: " + clusterPublishLingerMillis + "\n");
+            writer.write("# Most messages sent in one batch\n");
+            writer.write("clusterPublishBatchSize: " + clusterPublishBatchSize + "\n");
+            writer.write("# Messages waiting to be sent or awaiting Redis before the overflow policy applies\n");
+            writer.write("clusterPublishQueueSize: " + clusterPublishQueueSize + "\n");
+            writer.write("# When the queue is full: reject (fail the new message) or drop-oldest (fail the oldest queued one)\n");
+            writer.write("clusterPublishOverflowPolicy: \"" + clusterPublishOverflowPolicy + "\"\n\n");
 
             // Redis configuration
             writer.write("# ==================== Redis Configuration ====================\n\n");
@@ -196,6 +385,84 @@ public class ProxyConfig {
             writer.write("fallbackEnabled: " + fallbackEnabled + "\n");
             writer.write("# Global fallback server (used if no backend-specific fallback is set)\n");
             writer.write("globalFallbackServer: \"" + globalFallbackServer + "\"\n\n");
+
+            // Transfer configuration
+            writer.write("# ==================== Transfer Configuration ====================\n\n");
+            writer.write("# Experimental: switch backends inside the proxy without making the client reconnect\n");
+            writer.write("# No world reset is sent to the client; falls back to a ClientReferral if the\n");
+            writer.write("# new backend does not accept in time\n");
+            writer.write("seamlessTransfers: " + seamlessTransfers + "\n");
+            writer.write("# Seconds to wait for the new backend to accept before falling back\n");
+            writer.write("seamlessTransferTimeoutSeconds: " + seamlessTransferTimeoutSeconds + "\n");
+            writer.write("# Put a signed, single-use ticket in ClientReferral data so the reconnect\n");
+            writer.write("# skips the server grant exchange with the session service (requires a client certificate)\n");
+            writer.write("transferTicketsEnabled: " + transferTicketsEnabled + "\n");
+            writer.write("# Seconds a transfer ticket stays valid\n");
+            writer.write("transferTicketTtlSeconds: " + transferTicketTtlSeconds + "\n");
+            writer.write("# Fallback moves and backend-requested transfers are queued and paced per target:\n");
+            writer.write("# transfers started per second and burst size (multiplied by member count for groups)\n");
+            writer.write("transferRatePerSecond: " + transferRatePerSecond + "\n");
+            writer.write("transferBurst: " + transferBurst + "\n");
+            writer.write("# Transfers in progress at once per target\n");
+            writer.write("transferMaxConcurrent: " + transferMaxConcurrent + "\n");
+            writer.write("# Random delay (ms) added to each queued transfer to spread reconnects\n");
+            writer.write("transferJitterMillis: " + transferJitterMillis + "\n");
+            writer.write("# Seconds a transfer may wait for its target before it fails\n");
+            writer.write("transferQueueTimeoutSeconds: " + transferQueueTimeoutSeconds + "\n\n");
+
+            // Login queue
+            writer.write("# ==================== Login Queue ====================\n\n");
+            writer.write("# Hold logins in a waiting room while their backend or group is at maxPlayers\n");
+            writer.write("loginQueueEnabled: " + loginQueueEnabled + "\n");
+            writer.write("# Players waiting per backend or group before new logins are turned away\n");
+            writer.write("loginQueueMaxSize: " + loginQueueMaxSize + "\n");
+            writer.write("# Seconds between queue position messages\n");
+            writer.write("loginQueueUpdateSeconds: " + loginQueueUpdateSeconds + "\n");
+            writer.write("# Seconds a player may wait before being disconnected\n");
+            writer.write("loginQueueMaxWaitSeconds: " + loginQueueMaxWaitSeconds + "\n");
+            writer.write("# Permissions for priority tiers, highest first; players without any wait last\n");
+            if (getLoginQueuePriorityPermissions().isEmpty()) {
+                writer.write("loginQueuePriorityPermissions: []\n");
+            } else {
+                writer.write("loginQueuePriorityPermissions:\n");
+                for (String permission : getLoginQueuePriorityPermissions()) {
+                    writer.write("  - \"" + permission + "\"\n");
+                }
+            }
+            writer.write("\n");
+
+            // Session service
+            writer.write("# ==================== Session Service ====================\n\n");
+            writer.write("# Session service used to authenticate joining players\n");
+            writer.write("sessionServiceUrl: \"" + sessionServiceUrl + "\"\n");
+            writer.write("# Session service requests in flight at once; further logins wait in a queue\n");
+            writer.write("sessionServiceMaxConcurrent: " + sessionServiceMaxConcurrent + "\n");
+            writer.write("# Requests waiting for a slot before new logins are refused\n");
+            writer.write("sessionServiceMaxQueued: " + sessionServiceMaxQueued + "\n");
+            writer.write("# Timeout per request, and the longest a request may wait in the queue\n");
+            writer.write("sessionServiceTimeoutSeconds: " + sessionServiceTimeoutSeconds + "\n");
+            writer.write("# How long reusable answers (token exchanges) are cached; 0 only merges duplicate requests\n");
+            writer.write("sessionServiceCacheTtlSeconds: " + sessionServiceCacheTtlSeconds + "\n");
+            writer.write("# Cached answers kept at most\n");
+            writer.write("sessionServiceCacheMaxEntries: " + sessionServiceCacheMaxEntries + "\n\n");
+
+            // Async login
+            writer.write("# ==================== Async Login ====================\n\n");
+            writer.write("# Time each plugin's AsyncLoginEvent tasks get to finish\n");
+            writer.write("asyncLoginTaskTimeoutSeconds: " + asyncLoginTaskTimeoutSeconds + "\n");
+            writer.write("# Time all AsyncLoginEvent tasks together get to finish\n");
+            writer.write("asyncLoginTimeoutSeconds: " + asyncLoginTimeoutSeconds + "\n");
+            writer.write("# What to do when a deadline passes: deny (disconnect), allow, or log (allow and warn)\n");
+            writer.write("asyncLoginTimeoutPolicy: \"" + asyncLoginTimeoutPolicy + "\"\n");
+            writer.write("# Per-plugin overrides of asyncLoginTaskTimeoutSeconds, by plugin ID\n");
+            if (getAsyncLoginPluginTimeouts().isEmpty()) {
+                writer.write("asyncLoginPluginTimeouts: {}\n");
+            } else {
+                writer.write("asyncLoginPluginTimeouts:\n");
+                for (Map.Entry<String, Integer> entry : getAsyncLoginPluginTimeouts().entrySet()) {
+                    writer.write("  \"" + entry.getKey() + "\": " + entry.getValue() + "\n");
+                }
+            }
         }
     }
 
@@ -221,6 +488,15 @@ public class ProxyConfig {
             changed = true;
         }
 
+        if (udpOffloadEnabled == null) {
+            udpOffloadEnabled = true;
+            changed = true;
+        }
+        if (udpGsoMaxSegments == null || udpGsoMaxSegments <= 0) {
+            udpGsoMaxSegments = 16;
+            changed = true;
+        }
+
         if (certificatePath == null) {
             certificatePath = "certs/server.crt";
             changed = true;
@@ -238,6 +514,98 @@ public class ProxyConfig {
             connectionTimeoutSeconds = 30;
             changed = true;
         }
+        if (connectionRateLimitEnabled == null) {
+            connectionRateLimitEnabled = true;
+            changed = true;
+        }
+        if (connectionsPerIpPerSecond == null || connectionsPerIpPerSecond <= 0) {
+            connectionsPerIpPerSecond = 2;
+            changed = true;
+        }
+        if (connectionBurstPerIp == null || connectionBurstPerIp <= 0) {
+            connectionBurstPerIp = 5;
+            changed = true;
+        }
+        if (connectionsPerSubnetPerSecond == null || connectionsPerSubnetPerSecond <= 0) {
+            connectionsPerSubnetPerSecond = 10;
+            changed = true;
+        }
+        if (connectionBurstPerSubnet == null || connectionBurstPerSubnet <= 0) {
+            connectionBurstPerSubnet = 20;
+            changed = true;
+        }
+        if (connectionRateLimitMaxTracked == null || connectionRateLimitMaxTracked <= 0) {
+            connectionRateLimitMaxTracked = 65536;
+            changed = true;
+        }
+        if (connectionAllowlist == null) {
+            connectionAllowlist = new ArrayList<>(List.of("127.0.0.0/8", "::1/128"));
+            changed = true;
+        }
+        if (quicRetryEnabled == null) {
+            quicRetryEnabled = true;
+            changed = true;
+        }
+        if (quicRetryThresholdPerSecond == null || quicRetryThresholdPerSecond < 0) {
+            quicRetryThresholdPerSecond = 100;
+            changed = true;
+        }
+        if (quicRetryTokenLifetimeSeconds == null || quicRetryTokenLifetimeSeconds <= 0) {
+            quicRetryTokenLifetimeSeconds = 10;
+            changed = true;
+        }
+
+        if (memoryBudgetMb == null || memoryBudgetMb <= 0) {
+            memoryBudgetMb = 512;
+            changed = true;
+        }
+        if (sessionMemoryQuotaMb == null || sessionMemoryQuotaMb <= 0) {
+            sessionMemoryQuotaMb = 32;
+            changed = true;
+        }
+        if (memoryQuotaGraceSeconds == null || memoryQuotaGraceSeconds < 0) {
+            memoryQuotaGraceSeconds = 10;
+            changed = true;
+        }
+
+        if (backendPoolEnabled == null) {
+            backendPoolEnabled = true;
+            changed = true;
+        }
+        if (backendPoolMinIdle == null || backendPoolMinIdle < 0) {
+            backendPoolMinIdle = 1;
+            changed = true;
+        }
+        if (backendPoolMaxIdle == null || backendPoolMaxIdle < backendPoolMinIdle) {
+            backendPoolMaxIdle = Math.max(16, backendPoolMinIdle);
+            changed = true;
+        }
+
+        if (circuitBreakerFailureThreshold == null || circuitBreakerFailureThreshold <= 0) {
+            circuitBreakerFailureThreshold = 5;
+            changed = true;
+        }
+        if (circuitBreakerOpenSeconds == null || circuitBreakerOpenSeconds <= 0) {
+            circuitBreakerOpenSeconds = 10;
+            changed = true;
+        }
+        if (circuitBreakerHalfOpenTrials == null || circuitBreakerHalfOpenTrials <= 0) {
+            circuitBreakerHalfOpenTrials = 1;
+            changed = true;
+        }
+
+        if (backendDnsCacheSeconds == null || backendDnsCacheSeconds <= 0) {
+            backendDnsCacheSeconds = 30;
+            changed = true;
+        }
+        if (backendDnsStaleSeconds == null || backendDnsStaleSeconds < 0) {
+            backendDnsStaleSeconds = 300;
+            changed = true;
+        }
+        if (backendHostsFile == null) {
+            backendHostsFile = "";
+            changed = true;
+        }
 
         if (debugMode == null) {
             debugMode = false;
@@ -260,6 +628,21 @@ public class ProxyConfig {
             changed = true;
         }
 
+        if (backendGroups == null) {
+            backendGroups = new ArrayList<>();
+            changed = true;
+        }
+        for (BackendGroup group : backendGroups) {
+            if (group.getMembers() == null) {
+                group.setMembers(new ArrayList<>());
+                changed = true;
+            }
+            if (group.getStrategy() == null || group.getStrategy().isBlank()) {
+                group.setStrategy("least-connections");
+                changed = true;
+            }
+        }
+
         if (clusterEnabled == null) {
             clusterEnabled = false;
             changed = true;
@@ -274,6 +657,30 @@ public class ProxyConfig {
             proxyRegion = "default";
             changed = true;
         }
+        if (clusterBinaryMessages == null) {
+            clusterBinaryMessages = true;
+            changed = true;
+        }
+        if (clusterCompressionThreshold == null || clusterCompressionThreshold < 0) {
+            clusterCompressionThreshold = 1024;
+            changed = true;
+        }
+        if (clusterPublishLingerMillis == null || clusterPublishLingerMillis < 0) {
+            clusterPublishLingerMillis = 1;
+            changed = true;
+        }
+        if (clusterPublishBatchSize == null || clusterPublishBatchSize <= 0) {
+            clusterPublishBatchSize = 128;
+            changed = true;
+        }
+        if (clusterPublishQueueSize == null || clusterPublishQueueSize <= 0) {
+            clusterPublishQueueSize = 10000;
+            changed = true;
+        }
+        if (clusterPublishOverflowPolicy == null || clusterPublishOverflowPolicy.isBlank()) {
+            clusterPublishOverflowPolicy = "reject";
+            changed = true;
+        }
         if (redisHost == null || redisHost.isBlank()) {
             redisHost = "localhost";
             changed = true;
@@ -314,6 +721,114 @@ public class ProxyConfig {
             changed = true;
         }
 
+        if (seamlessTransfers == null) {
+            seamlessTransfers = false;
+            changed = true;
+        }
+
+        if (seamlessTransferTimeoutSeconds == null || seamlessTransferTimeoutSeconds <= 0) {
+            seamlessTransferTimeoutSeconds = 10;
+            changed = true;
+        }
+
+        if (transferTicketsEnabled == null) {
+            transferTicketsEnabled = true;
+            changed = true;
+        }
+
+        if (transferTicketTtlSeconds == null || transferTicketTtlSeconds <= 0) {
+            transferTicketTtlSeconds = 10;
+            changed = true;
+        }
+
+        if (transferRatePerSecond == null || transferRatePerSecond <= 0) {
+            transferRatePerSecond = 20;
+            changed = true;
+        }
+
+        if (transferBurst == null || transferBurst <= 0) {
+            transferBurst = 10;
+            changed = true;
+        }
+
+        if (transferMaxConcurrent == null || transferMaxConcurrent <= 0) {
+            transferMaxConcurrent = 8;
+            changed = true;
+        }
+
+        if (transferJitterMillis == null || transferJitterMillis < 0) {
+            transferJitterMillis = 200;
+            changed = true;
+        }
+
+        if (transferQueueTimeoutSeconds == null || transferQueueTimeoutSeconds <= 0) {
+            transferQueueTimeoutSeconds = 30;
+            changed = true;
+        }
+
+        if (loginQueueEnabled == null) {
+            loginQueueEnabled = true;
+            changed = true;
+        }
+        if (loginQueueMaxSize == null || loginQueueMaxSize <= 0) {
+            loginQueueMaxSize = 5000;
+            changed = true;
+        }
+        if (loginQueueUpdateSeconds == null || loginQueueUpdateSeconds <= 0) {
+            loginQueueUpdateSeconds = 5;
+            changed = true;
+        }
+        if (loginQueueMaxWaitSeconds == null || loginQueueMaxWaitSeconds <= 0) {
+            loginQueueMaxWaitSeconds = 900;
+            changed = true;
+        }
+        if (loginQueuePriorityPermissions == null) {
+            loginQueuePriorityPermissions = new ArrayList<>(List.of("numdrassl.queue.priority"));
+            changed = true;
+        }
+
+        if (sessionServiceUrl == null || sessionServiceUrl.isBlank()) {
+            sessionServiceUrl = "https://sessions.hytale.com";
+            changed = true;
+        }
+        if (sessionServiceMaxConcurrent == null || sessionServiceMaxConcurrent <= 0) {
+            sessionServiceMaxConcurrent = 64;
+            changed = true;
+        }
+        if (sessionServiceMaxQueued == null || sessionServiceMaxQueued < 0) {
+            sessionServiceMaxQueued = 2000;
+            changed = true;
+        }
+        if (sessionServiceTimeoutSeconds == null || sessionServiceTimeoutSeconds <= 0) {
+            sessionServiceTimeoutSeconds = 10;
+            changed = true;
+        }
+        if (sessionServiceCacheTtlSeconds == null || sessionServiceCacheTtlSeconds < 0) {
+            sessionServiceCacheTtlSeconds = 30;
+            changed = true;
+        }
+        if (sessionServiceCacheMaxEntries == null || sessionServiceCacheMaxEntries < 0) {
+            sessionServiceCacheMaxEntries = 10000;
+            changed = true;
+        }
+
+        if (asyncLoginTaskTimeoutSeconds == null || asyncLoginTaskTimeoutSeconds <= 0) {
+            asyncLoginTaskTimeoutSeconds = 10;
+            changed = true;
+        }
+        if (asyncLoginTimeoutSeconds == null || asyncLoginTimeoutSeconds <= 0) {
+            asyncLoginTimeoutSeconds = 30;
+            changed = true;
+        }
+        if (asyncLoginTimeoutPolicy == null || asyncLoginTimeoutPolicy.isBlank()) {
+            asyncLoginTimeoutPolicy = "deny";
+            changed = true;
+        }
+        if (asyncLoginPluginTimeouts == null) {
+            asyncLoginPluginTimeouts = new LinkedHashMap<>();
+            changed = true;
+        }
+
         return changed;
     }
 
@@ -366,6 +881,12 @@ public class ProxyConfig {
         this.publicPort = publicPort;
     }
 
+    public Boolean isUdpOffloadEnabled() { return udpOffloadEnabled; }
+    public void setUdpOffloadEnabled(Boolean udpOffloadEnabled) { this.udpOffloadEnabled = udpOffloadEnabled; }
+
+    public Integer getUdpGsoMaxSegments() { return udpGsoMaxSegments; }
+    public void setUdpGsoMaxSegments(Integer udpGsoMaxSegments) { this.udpGsoMaxSegments = udpGsoMaxSegments; }
+
     // ==================== TLS Getters/Setters ====================
 
     public String getCertificatePath() {
@@ -402,6 +923,140 @@ public class ProxyConfig {
         this.connectionTimeoutSeconds = connectionTimeoutSeconds;
     }
 
+    public Boolean isConnectionRateLimitEnabled() { return connectionRateLimitEnabled; }
+    public void setConnectionRateLimitEnabled(Boolean connectionRateLimitEnabled) { this.connectionRateLimitEnabled = connectionRateLimitEnabled; }
+
+    public Integer getConnectionsPerIpPerSecond() { return connectionsPerIpPerSecond; }
+    public void setConnectionsPerIpPerSecond(Integer connectionsPerIpPerSecond) { this.connectionsPerIpPerSecond = connectionsPerIpPerSecond; }
+
+    public Integer getConnectionBurstPerIp() { return connectionBurstPerIp; }
+    public void setConnectionBurstPerIp(Integer connectionBurstPerIp) { this.connectionBurstPerIp = connectionBurstPerIp; }
+
+    public Integer getConnectionsPerSubnetPerSecond() { return connectionsPerSubnetPerSecond; }
+    public void setConnectionsPerSubnetPerSecond(Integer connectionsPerSubnetPerSecond) { this.connectionsPerSubnetPerSecond = connectionsPerSubnetPerSecond; }
+
+    public Integer getConnectionBurstPerSubnet() { return connectionBurstPerSubnet; }
+    public void setConnectionBurstPerSubnet(Integer connectionBurstPerSubnet) { this.connectionBurstPerSubnet = connectionBurstPerSubnet; }
+
+    public Integer getConnectionRateLimitMaxTracked() { return connectionRateLimitMaxTracked; }
+    public void setConnectionRateLimitMaxTracked(Integer connectionRateLimitMaxTracked) { this.connectionRateLimitMaxTracked = connectionRateLimitMaxTracked; }
+
+    public List<String> getConnectionAllowlist() { return connectionAllowlist != null ? connectionAllowlist : List.of(); }
+    public void setConnectionAllowlist(List<String> connectionAllowlist) { this.connectionAllowlist = connectionAllowlist; }
+
+    public Boolean isQuicRetryEnabled() { return quicRetryEnabled; }
+    public void setQuicRetryEnabled(Boolean quicRetryEnabled) { this.quicRetryEnabled = quicRetryEnabled; }
+
+    public Integer getQuicRetryThresholdPerSecond() { return quicRetryThresholdPerSecond; }
+    public void setQuicRetryThresholdPerSecond(Integer quicRetryThresholdPerSecond) { this.quicRetryThresholdPerSecond = quicRetryThresholdPerSecond; }
+
+    public Integer getQuicRetryTokenLifetimeSeconds() { return quicRetryTokenLifetimeSeconds; }
+    public void setQuicRetryTokenLifetimeSeconds(Integer quicRetryTokenLifetimeSeconds) { this.quicRetryTokenLifetimeSeconds = quicRetryTokenLifetimeSeconds; }
+
+    // ==================== Memory Budget Getters/Setters ====================
+
+    public int getMemoryBudgetMb() {
+        return memoryBudgetMb;
+    }
+
+    public void setMemoryBudgetMb(int memoryBudgetMb) {
+        this.memoryBudgetMb = memoryBudgetMb;
+    }
+
+    public int getSessionMemoryQuotaMb() {
+        return sessionMemoryQuotaMb;
+    }
+
+    public void setSessionMemoryQuotaMb(int sessionMemoryQuotaMb) {
+        this.sessionMemoryQuotaMb = sessionMemoryQuotaMb;
+    }
+
+    public int getMemoryQuotaGraceSeconds() {
+        return memoryQuotaGraceSeconds;
+    }
+
+    public void setMemoryQuotaGraceSeconds(int memoryQuotaGraceSeconds) {
+        this.memoryQuotaGraceSeconds = memoryQuotaGraceSeconds;
+    }
+
+    // ==================== Backend Connection Pool Getters/Setters ====================
+
+    public Boolean isBackendPoolEnabled() {
+        return backendPoolEnabled;
+    }
+
+    public void setBackendPoolEnabled(Boolean backendPoolEnabled) {
+        this.backendPoolEnabled = backendPoolEnabled;
+    }
+
+    public int getBackendPoolMinIdle() {
+        return backendPoolMinIdle;
+    }
+
+    public void setBackendPoolMinIdle(int backendPoolMinIdle) {
+        this.backendPoolMinIdle = backendPoolMinIdle;
+    }
+
+    public int getBackendPoolMaxIdle() {
+        return backendPoolMaxIdle;
+    }
+
+    public void setBackendPoolMaxIdle(int backendPoolMaxIdle) {
+        this.backendPoolMaxIdle = backendPoolMaxIdle;
+    }
+
+    // ==================== Backend Circuit Breaker Getters/Setters ====================
+
+    public int getCircuitBreakerFailureThreshold() {
+        return circuitBreakerFailureThreshold;
+    }
+
+    public void setCircuitBreakerFailureThreshold(int circuitBreakerFailureThreshold) {
+        this.circuitBreakerFailureThreshold = circuitBreakerFailureThreshold;
+    }
+
+    public int getCircuitBreakerOpenSeconds() {
+        return circuitBreakerOpenSeconds;
+    }
+
+    public void setCircuitBreakerOpenSeconds(int circuitBreakerOpenSeconds) {
+        this.circuitBreakerOpenSeconds = circuitBreakerOpenSeconds;
+    }
+
+    public int getCircuitBreakerHalfOpenTrials() {
+        return circuitBreakerHalfOpenTrials;
+    }
+
+    public void setCircuitBreakerHalfOpenTrials(int circuitBreakerHalfOpenTrials) {
+        this.circuitBreakerHalfOpenTrials = circuitBreakerHalfOpenTrials;
+    }
+
+    // ==================== Backend Address Resolution Getters/Setters ====================
+
+    public int getBackendDnsCacheSeconds() {
+        return backendDnsCacheSeconds;
+    }
+
+    public void setBackendDnsCacheSeconds(int backendDnsCacheSeconds) {
+        this.backendDnsCacheSeconds = backendDnsCacheSeconds;
+    }
+
+    public int getBackendDnsStaleSeconds() {
+        return backendDnsStaleSeconds;
+    }
+
+    public void setBackendDnsStaleSeconds(int backendDnsStaleSeconds) {
+        this.backendDnsStaleSeconds = backendDnsStaleSeconds;
+    }
+
+    public String getBackendHostsFile() {
+        return backendHostsFile;
+    }
+
+    public void setBackendHostsFile(String backendHostsFile) {
+        this.backendHostsFile = backendHostsFile;
+    }
+
     // ==================== Debug Getters/Setters ====================
 
     public Boolean isDebugMode() {
@@ -454,6 +1109,30 @@ public class ProxyConfig {
                 .orElse(null);
     }
 
+    // ==================== Backend Group Getters/Setters ====================
+
+    public List<BackendGroup> getBackendGroups() {
+        return backendGroups != null ? backendGroups : List.of();
+    }
+
+    public void setBackendGroups(List<BackendGroup> backendGroups) {
+        this.backendGroups = backendGroups;
+    }
+
+    public BackendGroup getBackendGroup(String name) {
+        return getBackendGroups().stream()
+                .filter(g -> g.getName().equalsIgnoreCase(name))
+                .findFirst()
+                .orElse(null);
+    }
+
+    public BackendGroup getDefaultBackendGroup() {
+        return getBackendGroups().stream()
+                .filter(BackendGroup::isDefaultServer)
+                .findFirst()
+                .orElse(null);
+    }
+
     // ==================== Cluster Getters/Setters ====================
 
     public Boolean isClusterEnabled() {
@@ -480,6 +1159,54 @@ public class ProxyConfig {
         this.proxyRegion = proxyRegion;
     }
 
+    public boolean isClusterBinaryMessages() {
+        return clusterBinaryMessages;
+    }
+
+    public void setClusterBinaryMessages(boolean clusterBinaryMessages) {
+        this.clusterBinaryMessages = clusterBinaryMessages;
+    }
+
+    public int getClusterCompressionThreshold() {
+        return clusterCompressionThreshold;
+    }
+
+    public void setClusterCompressionThreshold(int clusterCompressionThreshold) {
+        this.clusterCompressionThreshold = clusterCompressionThreshold;
+    }
+
+    public int getClusterPublishLingerMillis() {
+        return clusterPublishLingerMillis;
+    }
+
+    public void setClusterPublishLingerMillis(int clusterPublishLingerMillis) {
+        this.clusterPublishLingerMillis = clusterPublishLingerMillis;
+    }
+
+    public int getClusterPublishBatchSize() {
+        return clusterPublishBatchSize;
+    }
+
+    public void setClusterPublishBatchSize(int clusterPublishBatchSize) {
+        this.clusterPublishBatchSize = clusterPublishBatchSize;
+    }
+
+    public int getClusterPublishQueueSize() {
+        return clusterPublishQueueSize;
+    }
+
+    public void setClusterPublishQueueSize(int clusterPublishQueueSize) {
+        this.clusterPublishQueueSize = clusterPublishQueueSize;
+    }
+
+    public String getClusterPublishOverflowPolicy() {
+        return clusterPublishOverflowPolicy;
+    }
+
+    public void setClusterPublishOverflowPolicy(String clusterPublishOverflowPolicy) {
+        this.clusterPublishOverflowPolicy = clusterPublishOverflowPolicy;
+    }
+
     // ==================== Redis Getters/Setters ====================
 
     public String getRedisHost() {
@@ -544,5 +1271,84 @@ public class ProxyConfig {
     public void setGlobalFallbackServer(String globalFallbackServer) {
         this.globalFallbackServer = globalFallbackServer;
     }
-}
 
+    // ==================== Transfer Getters/Setters ====================
+
+    public Boolean isSeamlessTransfers() { return seamlessTransfers; }
+    public void setSeamlessTransfers(Boolean seamlessTransfers) { this.seamlessTransfers = seamlessTransfers; }
+
+    public Integer getSeamlessTransferTimeoutSeconds() { return seamlessTransferTimeoutSeconds; }
+    public void setSeamlessTransferTimeoutSeconds(Integer seamlessTransferTimeoutSeconds) { this.seamlessTransferTimeoutSeconds = seamlessTransferTimeoutSeconds; }
+
+    public Boolean isTransferTicketsEnabled() { return transferTicketsEnabled; }
+    public void setTransferTicketsEnabled(Boolean transferTicketsEnabled) { this.transferTicketsEnabled = transferTicketsEnabled; }
+
+    public Integer getTransferTicketTtlSeconds() { return transferTicketTtlSeconds; }
+    public void setTransferTicketTtlSeconds(Integer transferTicketTtlSeconds) { this.transferTicketTtlSeconds = transferTicketTtlSeconds; }
+
+    public Integer getTransferRatePerSecond() { return transferRatePerSecond; }
+    public void setTransferRatePerSecond(Integer transferRatePerSecond) { this.transferRatePerSecond = transferRatePerSecond; }
+
+    public Integer getTransferBurst() { return transferBurst; }
+    public void setTransferBurst(Integer transferBurst) { this.transferBurst = transferBurst; }
+
+    public Integer getTransferMaxConcurrent() { return transferMaxConcurrent; }
+    public void setTransferMaxConcurrent(Integer transferMaxConcurrent) { this.transferMaxConcurrent = transferMaxConcurrent; }
+
+    public Integer getTransferJitterMillis() { return transferJitterMillis; }
+    public void setTransferJitterMillis(Integer transferJitterMillis) { this.transferJitterMillis = transferJitterMillis; }
+
+    public Integer getTransferQueueTimeoutSeconds() { return transferQueueTimeoutSeconds; }
+    public void setTransferQueueTimeoutSeconds(Integer transferQueueTimeoutSeconds) { this.transferQueueTimeoutSeconds = transferQueueTimeoutSeconds; }
+
+    // ==================== Login Queue Getters/Setters ====================
+
+    public Boolean isLoginQueueEnabled() { return loginQueueEnabled; }
+    public void setLoginQueueEnabled(Boolean loginQueueEnabled) { this.loginQueueEnabled = loginQueueEnabled; }
+
+    public Integer getLoginQueueMaxSize() { return loginQueueMaxSize; }
+    public void setLoginQueueMaxSize(Integer loginQueueMaxSize) { this.loginQueueMaxSize = loginQueueMaxSize; }
+
+    public Integer getLoginQueueUpdateSeconds() { return loginQueueUpdateSeconds; }
+    public void setLoginQueueUpdateSeconds(Integer loginQueueUpdateSeconds) { this.loginQueueUpdateSeconds = loginQueueUpdateSeconds; }
+
+    public Integer getLoginQueueMaxWaitSeconds() { return loginQueueMaxWaitSeconds; }
+    public void setLoginQueueMaxWaitSeconds(Integer loginQueueMaxWaitSeconds) { this.loginQueueMaxWaitSeconds = loginQueueMaxWaitSeconds; }
+
+    public List<String> getLoginQueuePriorityPermissions() { return loginQueuePriorityPermissions != null ? loginQueuePriorityPermissions : List.of(); }
+    public void setLoginQueuePriorityPermissions(List<String> loginQueuePriorityPermissions) { this.loginQueuePriorityPermissions = loginQueuePriorityPermissions; }
+
+    // ==================== Session Service Getters/Setters ====================
+
+    public String getSessionServiceUrl() { return sessionServiceUrl; }
+    public void setSessionServiceUrl(String sessionServiceUrl) { this.sessionServiceUrl = sessionServiceUrl; }
+
+    public Integer getSessionServiceMaxConcurrent() { return sessionServiceMaxConcurrent; }
+    public void setSessionServiceMaxConcurrent(Integer sessionServiceMaxConcurrent) { this.sessionServiceMaxConcurrent = sessionServiceMaxConcurrent; }
+
+    public Integer getSessionServiceMaxQueued() { return sessionServiceMaxQueued; }
+    public void setSessionServiceMaxQueued(Integer sessionServiceMaxQueued) { this.sessionServiceMaxQueued = sessionServiceMaxQueued; }
+
+    public Integer getSessionServiceTimeoutSeconds() { return sessionServiceTimeoutSeconds; }
+    public void setSessionServiceTimeoutSeconds(Integer sessionServiceTimeoutSeconds) { this.sessionServiceTimeoutSeconds = sessionServiceTimeoutSeconds; }
+
+    public Integer getSessionServiceCacheTtlSeconds() { return sessionServiceCacheTtlSeconds; }
+    public void setSessionServiceCacheTtlSeconds(Integer sessionServiceCacheTtlSeconds) { this.sessionServiceCacheTtlSeconds = sessionServiceCacheTtlSeconds; }
+
+    public Integer getSessionServiceCacheMaxEntries() { return sessionServiceCacheMaxEntries; }
+    public void setSessionServiceCacheMaxEntries(Integer sessionServiceCacheMaxEntries) { this.sessionServiceCacheMaxEntries = sessionServiceCacheMaxEntries; }
+
+    // ==================== Async Login Getters/Setters ====================
+
+    public Integer getAsyncLoginTaskTimeoutSeconds() { return asyncLoginTaskTimeoutSeconds; }
+    public void setAsyncLoginTaskTimeoutSeconds(Integer asyncLoginTaskTimeoutSeconds) { this.asyncLoginTaskTimeoutSeconds = asyncLoginTaskTimeoutSeconds; }
+
+    public Integer getAsyncLoginTimeoutSeconds() { return asyncLoginTimeoutSeconds; }
+    public void setAsyncLoginTimeoutSeconds(Integer asyncLoginTimeoutSeconds) { this.asyncLoginTimeoutSeconds = asyncLoginTimeoutSeconds; }
+
+    public String getAsyncLoginTimeoutPolicy() { return asyncLoginTimeoutPolicy; }
+    public void setAsyncLoginTimeoutPolicy(String asyncLoginTimeoutPolicy) { this.asyncLoginTimeoutPolicy = asyncLoginTimeoutPolicy; }
+
+    public Map<String, Integer> getAsyncLoginPluginTimeouts() { return asyncLoginPluginTimeouts != null ? asyncLoginPluginTimeouts : Map.of(); }
+    public void setAsyncLoginPluginTimeouts(Map<String, Integer> asyncLoginPluginTimeouts) { this.asyncLoginPluginTimeouts = asyncLoginPluginTimeouts; }
+}
@@ -12,6 +12,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import java.lang.invoke.MethodHandle;
 import java.lang.invoke.MethodHandles;
 import java.lang.reflect.Method;
@@ -20,6 +21,7 @@ import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiConsumer;
 
 /**
  * Plugin API event manager with priority-based ordering and async support.
@@ -252,6 +254,20 @@ public final class NumdrasslEventManager implements EventManager {
     @Override
     @Nonnull
     public <E> E fireSync(@Nonnull E event) {
+        return fireSync(event, null);
+    }
+
+    /**
+     * Fires an event synchronously, calling {@code afterHandler} with the owning plugin
+     * after each handler returns. Lets callers attribute changes a handler made to the
+     * event, such as registered tasks, to the plugin that made them.
+     *
+     * @param event        the event
+     * @param afterHandler called with the plugin instance and the event, or null
+     * @return the event
+     */
+    @Nonnull
+    public <E> E fireSync(@Nonnull E event, @Nullable BiConsumer<Object, E> afterHandler) {
         Objects.requireNonNull(event, "event");
 
         List<HandlerRegistration> handlers = collectHandlers(event.getClass());
@@ -263,6 +279,9 @@ public final class NumdrasslEventManager implements EventManager {
 
         for (HandlerRegistration handler : handlers) {
             executeHandler(event, handler);
+            if (afterHandler != null) {
+                afterHandler.accept(handler.getPlugin(), event);
+            }
         }
 
         return event;
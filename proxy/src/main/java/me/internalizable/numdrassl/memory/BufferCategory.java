@@ -0,0 +1,38 @@
+package me.internalizable.numdrassl.memory;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Kinds of data the proxy holds in memory on behalf of a peer.
+ *
+ * <p>Every reservation against a {@link MemoryBudget} is attributed to one category,
+ * so the reservation gauges show which buffer is responsible when the budget fills up.</p>
+ */
+public enum BufferCategory {
+
+    /** Backlog held by {@code UniStreamForwarder} until the client uni-stream is linked. */
+    UNI_STREAM("uni_stream"),
+
+    /** Chat messages queued on a session until it reaches {@code CONNECTED}. */
+    PENDING_MESSAGES("pending_messages"),
+
+    /** Data written to a QUIC stream that has not yet been accepted by the transport. */
+    STREAM_OUTBOUND("stream_outbound"),
+
+    /** Redis messages waiting in the handler executor queue. */
+    MESSAGING("messaging");
+
+    private final String tag;
+
+    BufferCategory(String tag) {
+        this.tag = tag;
+    }
+
+    /**
+     * Gets the value used for the {@code category} tag in Prometheus.
+     */
+    @Nonnull
+    public String tag() {
+        return tag;
+    }
+}
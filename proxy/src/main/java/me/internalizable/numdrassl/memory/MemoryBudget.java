@@ -0,0 +1,181 @@
+package me.internalizable.numdrassl.memory;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Proxy-wide limit on the bytes held in buffers on behalf of peers.
+ *
+ * <p>Buffers reserve from the budget before holding data and release when the data
+ * leaves the proxy. Session-bound buffers reserve through a {@link SessionMemory},
+ * which also enforces the per-session quota; proxy-wide buffers such as the Redis
+ * handler queue reserve here directly.</p>
+ *
+ * <p>Reservations are bookkeeping only: they do not allocate. Callers that already
+ * hold the data use {@link SessionMemory#reserve} and react to an exhausted budget
+ * by pausing reads; callers that can refuse new data use {@code tryReserve}.</p>
+ */
+public final class MemoryBudget {
+
+    private static final BufferCategory[] CATEGORIES = BufferCategory.values();
+
+    /**
+     * Paused reads resume once usage drops below this fraction of the limit,
+     * so a channel does not flap between paused and reading on every packet.
+     */
+    static final double RESUME_RATIO = 0.75;
+
+    private final long limitBytes;
+    private final long sessionQuotaBytes;
+    private final AtomicLong reserved = new AtomicLong();
+    private final AtomicLongArray reservedByCategory = new AtomicLongArray(CATEGORIES.length);
+    private final LongAdder[] rejections = new LongAdder[CATEGORIES.length];
+    private final AtomicLong pausedChannels = new AtomicLong();
+    private final LongAdder quotaDisconnects = new LongAdder();
+
+    /**
+     * @param limitBytes maximum bytes reserved across the whole proxy
+     * @param sessionQuotaBytes maximum bytes reserved by a single session
+     */
+    public MemoryBudget(long limitBytes, long sessionQuotaBytes) {
+        if (limitBytes <= 0 || sessionQuotaBytes <= 0) {
+            throw new IllegalArgumentException("Memory budget and session quota must be positive");
+        }
+        this.limitBytes = limitBytes;
+        this.sessionQuotaBytes = Math.min(sessionQuotaBytes, limitBytes);
+        for (int i = 0; i < rejections.length; i++) {
+            rejections[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Creates the quota handle for a new session.
+     */
+    @Nonnull
+    public SessionMemory openSession(long sessionId) {
+        return new SessionMemory(this, sessionId);
+    }
+
+    // ==================== Reservation ====================
+
+    /**
+     * Reserves proxy-wide memory only if it fits within the limit.
+     *
+     * @return true if the bytes were reserved
+     */
+    public boolean tryReserve(@Nonnull BufferCategory category, long bytes) {
+        long current;
+        do {
+            current = reserved.get();
+            if (current + bytes > limitBytes) {
+                recordRejection(category);
+                return false;
+            }
+        } while (!reserved.compareAndSet(current, current + bytes));
+        reservedByCategory.addAndGet(category.ordinal(), bytes);
+        return true;
+    }
+
+    /**
+     * Reserves memory for data that is already held, even if that exceeds the limit.
+     *
+     * @return true if the budget is still within its limit afterwards
+     */
+    boolean reserve(@Nonnull BufferCategory category, long bytes) {
+        reservedByCategory.addAndGet(category.ordinal(), bytes);
+        return reserved.addAndGet(bytes) <= limitBytes;
+    }
+
+    /**
+     * Returns a reservation made through {@link #tryReserve}.
+     */
+    public void release(@Nonnull BufferCategory category, long bytes) {
+        reservedByCategory.addAndGet(category.ordinal(), -bytes);
+        reserved.addAndGet(-bytes);
+    }
+
+    void recordRejection(BufferCategory category) {
+        rejections[category.ordinal()].increment();
+    }
+
+    void recordPause() {
+        pausedChannels.incrementAndGet();
+    }
+
+    void recordResume() {
+        pausedChannels.decrementAndGet();
+    }
+
+    void recordQuotaDisconnect() {
+        quotaDisconnects.increment();
+    }
+
+    // ==================== State ====================
+
+    public boolean isExhausted() {
+        return reserved.get() > limitBytes;
+    }
+
+    boolean hasHeadroom() {
+        return reserved.get() <= limitBytes * RESUME_RATIO;
+    }
+
+    public long getLimitBytes() {
+        return limitBytes;
+    }
+
+    public long getSessionQuotaBytes() {
+        return sessionQuotaBytes;
+    }
+
+    public long getReservedBytes() {
+        return reserved.get();
+    }
+
+    public long getReservedBytes(@Nonnull BufferCategory category) {
+        return reservedByCategory.get(category.ordinal());
+    }
+
+    public long getRejections(@Nonnull BufferCategory category) {
+        return rejections[category.ordinal()].sum();
+    }
+
+    public long getPausedChannels() {
+        return pausedChannels.get();
+    }
+
+    public long getQuotaDisconnects() {
+        return quotaDisconnects.sum();
+    }
+
+    /**
+     * Creates a point-in-time view of the budget for dashboards.
+     */
+    @Nonnull
+    public Snapshot snapshot() {
+        List<CategoryUsage> categories = new ArrayList<>(CATEGORIES.length);
+        for (BufferCategory category : CATEGORIES) {
+            categories.add(new CategoryUsage(category.tag(),
+                getReservedBytes(category), getRejections(category)));
+        }
+        return new Snapshot(limitBytes, sessionQuotaBytes, getReservedBytes(),
+            getPausedChannels(), getQuotaDisconnects(), List.copyOf(categories));
+    }
+
+    public record Snapshot(
+        long limitBytes,
+        long sessionQuotaBytes,
+        long reservedBytes,
+        long pausedChannels,
+        long quotaDisconnects,
+        List<CategoryUsage> categories
+    ) {
+    }
+
+    public record CategoryUsage(String category, long reservedBytes, long rejections) {
+    }
+}
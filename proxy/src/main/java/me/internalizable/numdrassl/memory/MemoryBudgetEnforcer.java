@@ -0,0 +1,113 @@
+package me.internalizable.numdrassl.memory;
+
+import me.internalizable.numdrassl.session.ProxySession;
+import me.internalizable.numdrassl.session.SessionManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodically enforces the {@link MemoryBudget}.
+ *
+ * <p>Pausing reads handles short bursts. A session that stays over its quota for
+ * longer than the grace period is disconnected, and while the proxy-wide budget stays
+ * exhausted the session holding the most memory is disconnected once per tick.
+ * Each tick also resumes paused channels whose headroom came back through
+ * releases made by other sessions.</p>
+ */
+public final class MemoryBudgetEnforcer {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MemoryBudgetEnforcer.class);
+    private static final long TICK_MILLIS = 1000;
+
+    private final MemoryBudget budget;
+    private final SessionManager sessionManager;
+    private final long graceMillis;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "memory-budget-enforcer");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private ScheduledFuture<?> task;
+    private long exhaustedSinceMillis;
+
+    public MemoryBudgetEnforcer(@Nonnull MemoryBudget budget, @Nonnull SessionManager sessionManager, long graceMillis) {
+        this.budget = Objects.requireNonNull(budget, "budget");
+        this.sessionManager = Objects.requireNonNull(sessionManager, "sessionManager");
+        this.graceMillis = graceMillis;
+    }
+
+    public void initialize() {
+        if (task != null) {
+            return;
+        }
+        task = scheduler.scheduleAtFixedRate(this::tick, TICK_MILLIS, TICK_MILLIS, TimeUnit.MILLISECONDS);
+        LOGGER.info("Memory budget: {} MB proxy-wide, {} MB per session",
+            budget.getLimitBytes() / (1024 * 1024), budget.getSessionQuotaBytes() / (1024 * 1024));
+    }
+
+    public void shutdown() {
+        if (task != null) {
+            task.cancel(false);
+            task = null;
+        }
+        scheduler.shutdownNow();
+    }
+
+    private void tick() {
+        try {
+            enforce(System.currentTimeMillis());
+        } catch (Exception e) {
+            LOGGER.error("Memory budget enforcement failed", e);
+        }
+    }
+
+    private void enforce(long now) {
+        ProxySession largest = null;
+        long largestBytes = 0;
+
+        for (ProxySession session : sessionManager.getAllSessions()) {
+            SessionMemory memory = session.getMemory();
+            memory.resumeIfRelieved();
+
+            long overQuotaMillis = memory.updateOverQuota(now);
+            if (overQuotaMillis > graceMillis) {
+                disconnect(session, "Exceeded memory quota");
+                continue;
+            }
+
+            long reserved = memory.getReservedBytes();
+            if (reserved > largestBytes) {
+                largest = session;
+                largestBytes = reserved;
+            }
+        }
+
+        if (!budget.isExhausted()) {
+            exhaustedSinceMillis = 0;
+            return;
+        }
+        if (exhaustedSinceMillis == 0) {
+            exhaustedSinceMillis = now;
+            LOGGER.warn("Memory budget exhausted: {} of {} bytes reserved",
+                budget.getReservedBytes(), budget.getLimitBytes());
+        } else if (now - exhaustedSinceMillis > graceMillis && largest != null) {
+            disconnect(largest, "Proxy memory budget exhausted");
+        }
+    }
+
+    private void disconnect(ProxySession session, String reason) {
+        LOGGER.warn("Session {}: {} ({} bytes reserved)",
+            session.getSessionId(), reason, session.getMemory().getReservedBytes());
+        budget.recordQuotaDisconnect();
+        session.disconnect(reason);
+    }
+}
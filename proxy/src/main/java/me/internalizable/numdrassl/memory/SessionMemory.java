@@ -0,0 +1,215 @@
+package me.internalizable.numdrassl.memory;
+
+import io.netty.channel.Channel;
+
+import javax.annotation.Nonnull;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A session's share of the {@link MemoryBudget}.
+ *
+ * <p>Every reservation counts against both the session quota and the proxy-wide
+ * limit. When either is exceeded the buffer owner calls {@link #pauseReads(Channel)}
+ * on the channel feeding it; paused channels resume once the session and the proxy
+ * are back under {@link MemoryBudget#RESUME_RATIO} of their limits.</p>
+ *
+ * <p>{@link #close()} returns whatever the session still holds, so late releases from
+ * write listeners that complete after the session is gone never double-count.</p>
+ */
+public final class SessionMemory {
+
+    private static final BufferCategory[] CATEGORIES = BufferCategory.values();
+
+    private final MemoryBudget budget;
+    private final long sessionId;
+    private final AtomicLong reserved = new AtomicLong();
+    private final AtomicLongArray reservedByCategory = new AtomicLongArray(CATEGORIES.length);
+    // Created on first pause; most sessions never pause
+    private volatile Set<Channel> pausedChannels;
+
+    private volatile long overQuotaSinceMillis;
+    private volatile boolean closed;
+
+    SessionMemory(@Nonnull MemoryBudget budget, long sessionId) {
+        this.budget = budget;
+        this.sessionId = sessionId;
+    }
+
+    public long getSessionId() {
+        return sessionId;
+    }
+
+    // ==================== Reservation ====================
+
+    /**
+     * Reserves memory only if it fits within both the session quota and the proxy limit.
+     * Used by buffers that can refuse new data.
+     *
+     * @return true if the bytes were reserved
+     */
+    public boolean tryReserve(@Nonnull BufferCategory category, long bytes) {
+        if (closed) {
+            return false;
+        }
+        long current;
+        do {
+            current = reserved.get();
+            if (current + bytes > budget.getSessionQuotaBytes()) {
+                budget.recordRejection(category);
+                return false;
+            }
+        } while (!reserved.compareAndSet(current, current + bytes));
+
+        if (!budget.tryReserve(category, bytes)) {
+            reserved.addAndGet(-bytes);
+            return false;
+        }
+        reservedByCategory.addAndGet(category.ordinal(), bytes);
+        return true;
+    }
+
+    /**
+     * Reserves memory for data the caller already holds, even if that exceeds a limit.
+     *
+     * @return true if both the session and the proxy are still within their limits;
+     *         false means the caller should stop reading until memory is released
+     */
+    public boolean reserve(@Nonnull BufferCategory category, long bytes) {
+        if (closed) {
+            return false;
+        }
+        reservedByCategory.addAndGet(category.ordinal(), bytes);
+        boolean withinQuota = reserved.addAndGet(bytes) <= budget.getSessionQuotaBytes();
+        boolean withinBudget = budget.reserve(category, bytes);
+        return withinQuota && withinBudget;
+    }
+
+    /**
+     * Releases a reservation. Never releases more than the session still holds in
+     * the category, which makes releases after {@link #close()} harmless.
+     */
+    public void release(@Nonnull BufferCategory category, long bytes) {
+        int index = category.ordinal();
+        long current;
+        long next;
+        do {
+            current = reservedByCategory.get(index);
+            next = Math.max(0, current - bytes);
+        } while (!reservedByCategory.compareAndSet(index, current, next));
+
+        long freed = current - next;
+        if (freed > 0) {
+            reserved.addAndGet(-freed);
+            budget.release(category, freed);
+        }
+        if (pausedChannels != null) {
+            resumeIfRelieved();
+        }
+    }
+
+    // ==================== Backpressure ====================
+
+    /**
+     * Stops reading from a channel until this session and the proxy have headroom again.
+     */
+    public void pauseReads(@Nonnull Channel channel) {
+        if (closed || !channel.isActive() || !pausedChannels().add(channel)) {
+            return;
+        }
+        channel.config().setAutoRead(false);
+        budget.recordPause();
+        // A release may have raced with the pause; make sure the channel is not left stuck
+        resumeIfRelieved();
+    }
+
+    /**
+     * Resumes paused channels if memory has drained far enough.
+     * Called on every release while channels are paused, and periodically by
+     * {@link MemoryBudgetEnforcer} for channels waiting on other sessions to release.
+     */
+    public void resumeIfRelieved() {
+        Set<Channel> paused = pausedChannels;
+        if (paused == null || paused.isEmpty() || !hasHeadroom()) {
+            return;
+        }
+        for (Channel channel : paused) {
+            if (paused.remove(channel)) {
+                budget.recordResume();
+                channel.config().setAutoRead(true);
+            }
+        }
+    }
+
+    private Set<Channel> pausedChannels() {
+        Set<Channel> paused = pausedChannels;
+        if (paused == null) {
+            synchronized (this) {
+                paused = pausedChannels;
+                if (paused == null) {
+                    paused = ConcurrentHashMap.newKeySet(2);
+                    pausedChannels = paused;
+                }
+            }
+        }
+        return paused;
+    }
+
+    private boolean hasHeadroom() {
+        return reserved.get() <= budget.getSessionQuotaBytes() * MemoryBudget.RESUME_RATIO
+            && budget.hasHeadroom();
+    }
+
+    // ==================== State ====================
+
+    public long getReservedBytes() {
+        return reserved.get();
+    }
+
+    public long getReservedBytes(@Nonnull BufferCategory category) {
+        return reservedByCategory.get(category.ordinal());
+    }
+
+    public boolean isOverQuota() {
+        return reserved.get() > budget.getSessionQuotaBytes();
+    }
+
+    /**
+     * Tracks how long the session has been continuously over quota.
+     *
+     * @return milliseconds spent over quota, or 0 if currently within quota
+     */
+    long updateOverQuota(long nowMillis) {
+        if (!isOverQuota()) {
+            overQuotaSinceMillis = 0;
+            return 0;
+        }
+        if (overQuotaSinceMillis == 0) {
+            overQuotaSinceMillis = nowMillis;
+        }
+        return nowMillis - overQuotaSinceMillis;
+    }
+
+    /**
+     * Returns everything the session still holds to the budget.
+     */
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        for (BufferCategory category : CATEGORIES) {
+            release(category, Long.MAX_VALUE);
+        }
+        Set<Channel> paused = pausedChannels;
+        if (paused != null) {
+            for (Channel channel : paused) {
+                if (paused.remove(channel)) {
+                    budget.recordResume();
+                }
+            }
+        }
+    }
+}
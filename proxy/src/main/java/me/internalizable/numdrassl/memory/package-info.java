@@ -0,0 +1,28 @@
+/**
+ * Proxy-wide memory budget for data buffered on behalf of peers.
+ *
+ * <p>Several places hold data the proxy has received but not yet delivered: the
+ * uni-stream backlog, chat messages queued before a session connects, writes waiting
+ * on a slow QUIC peer and Redis messages queued for handlers. Each reserves from one
+ * {@link me.internalizable.numdrassl.memory.MemoryBudget}, so a burst of sessions
+ * switching servers degrades into paused reads and disconnects instead of a direct
+ * memory {@code OutOfMemoryError}.</p>
+ *
+ * <h2>Key Classes</h2>
+ * <ul>
+ *   <li>{@link me.internalizable.numdrassl.memory.MemoryBudget} - Proxy-wide limit and
+ *       per-{@link me.internalizable.numdrassl.memory.BufferCategory} reservation totals</li>
+ *   <li>{@link me.internalizable.numdrassl.memory.SessionMemory} - Per-session quota;
+ *       pauses and resumes reads on the channels feeding the session's buffers</li>
+ *   <li>{@link me.internalizable.numdrassl.memory.MemoryBudgetEnforcer} - Disconnects
+ *       sessions that stay over quota past the grace period</li>
+ * </ul>
+ *
+ * <h2>Configuration</h2>
+ * <pre>{@code
+ * memoryBudgetMb: 512
+ * sessionMemoryQuotaMb: 32
+ * memoryQuotaGraceSeconds: 10
+ * }</pre>
+ */
+package me.internalizable.numdrassl.memory;
@@ -0,0 +1,447 @@
+package me.internalizable.numdrassl.messaging.codec;
+
+import com.github.luben.zstd.Zstd;
+import com.github.luben.zstd.ZstdException;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import me.internalizable.numdrassl.api.messaging.ChannelMessage;
+import me.internalizable.numdrassl.api.messaging.message.*;
+import me.internalizable.numdrassl.profiling.AllocationSite;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Compact binary encoding of the built-in {@link ChannelMessage} types.
+ *
+ * <p>Every field is written by hand, so no reflection or intermediate JSON tree is
+ * involved, and plugin payloads are carried as raw UTF-8 instead of being escaped into
+ * a second JSON document. Bodies of at least {@code compressionThreshold} bytes are
+ * Zstd compressed when that makes them smaller.</p>
+ *
+ * <p>Envelope format:</p>
+ * <pre>
+ * [1 byte]  Magic (0xB7, never the first byte of JSON text)
+ * [1 byte]  Envelope version
+ * [1 byte]  Flags (bit 0: body is Zstd compressed)
+ * [varint]  Message type ID
+ * [string]  Source proxy ID
+ * [8 bytes] Timestamp (unix millis, BE)
+ * [varint]  Uncompressed body length (only if compressed)
+ * [N bytes] Body, fields in record component order
+ * </pre>
+ *
+ * <p>Strings are a varint byte length followed by UTF-8. Nullable strings store
+ * length + 1, with 0 meaning null; nullable UUIDs are prefixed by a presence byte.</p>
+ *
+ * <p>Several encoded messages for the same channel can be sent as one batch frame,
+ * which the receiver splits before decoding each entry:</p>
+ * <pre>
+ * [1 byte]  Magic (0xB8)
+ * [1 byte]  Frame version
+ * [varint]  Message count
+ * [varint]  Message length, then the encoded message; repeated count times
+ * </pre>
+ */
+final class BinaryMessageCodec {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BinaryMessageCodec.class);
+
+    static final int MAGIC = 0xB7;
+    static final int VERSION = 1;
+    static final int BATCH_MAGIC = 0xB8;
+    static final int BATCH_VERSION = 1;
+
+    private static final int FLAG_ZSTD = 1;
+    private static final int MAX_BODY_LENGTH = 8 * 1024 * 1024;
+    private static final int MAX_BATCH_COUNT = 65536;
+    private static final int INITIAL_CAPACITY = 256;
+
+    // Type IDs are part of the wire format; never renumber or reuse them
+    private static final int HEARTBEAT = 1;
+    private static final int PLAYER_COUNT = 2;
+    private static final int CHAT = 3;
+    private static final int TRANSFER = 4;
+    private static final int PLUGIN = 5;
+    private static final int BROADCAST = 6;
+
+    private final int compressionThreshold;
+
+    /**
+     * @param compressionThreshold smallest body compressed, or 0 to never compress
+     */
+    BinaryMessageCodec(int compressionThreshold) {
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    static boolean isBinary(@Nonnull byte[] data) {
+        return data.length > 0 && (data[0] & 0xFF) == MAGIC;
+    }
+
+    static boolean isBatch(@Nonnull byte[] data) {
+        return data.length > 0 && (data[0] & 0xFF) == BATCH_MAGIC;
+    }
+
+    // ==================== Encoding ====================
+
+    /**
+     * Encodes a message.
+     *
+     * @return the encoded message, or null if its type has no binary form
+     */
+    @Nullable
+    byte[] encode(@Nonnull ChannelMessage message) {
+        int type = typeId(message);
+        if (type == 0) {
+            return null;
+        }
+
+        ByteBuf out = AllocationSite.MESSAGING.allocator().heapBuffer(INITIAL_CAPACITY);
+        try {
+            out.writeByte(MAGIC);
+            out.writeByte(VERSION);
+            int flagsIndex = out.writerIndex();
+            out.writeByte(0);
+            writeVarInt(out, type);
+            writeString(out, message.sourceProxyId());
+            out.writeLong(message.timestamp().toEpochMilli());
+
+            int bodyIndex = out.writerIndex();
+            writeBody(out, message);
+            int bodyLength = out.writerIndex() - bodyIndex;
+
+            if (compressionThreshold > 0 && bodyLength >= compressionThreshold) {
+                byte[] compressed = compress(out, bodyIndex, bodyLength);
+                if (compressed != null) {
+                    out.writerIndex(bodyIndex);
+                    out.setByte(flagsIndex, FLAG_ZSTD);
+                    writeVarInt(out, bodyLength);
+                    out.writeBytes(compressed);
+                }
+            }
+            return ByteBufUtil.getBytes(out);
+        } finally {
+            out.release();
+        }
+    }
+
+    private static int typeId(ChannelMessage message) {
+        return switch (message) {
+            case HeartbeatMessage ignored -> HEARTBEAT;
+            case PlayerCountMessage ignored -> PLAYER_COUNT;
+            case ChatMessage ignored -> CHAT;
+            case TransferMessage ignored -> TRANSFER;
+            case PluginMessage ignored -> PLUGIN;
+            case BroadcastMessage ignored -> BROADCAST;
+            default -> 0;
+        };
+    }
+
+    private static void writeBody(ByteBuf out, ChannelMessage message) {
+        switch (message) {
+            case HeartbeatMessage m -> {
+                writeString(out, m.region());
+                writeString(out, m.host());
+                writeVarInt(out, m.port());
+                writeVarInt(out, m.playerCount());
+                writeVarLong(out, m.uptimeMillis());
+                out.writeBoolean(m.shuttingDown());
+            }
+            case PlayerCountMessage m -> {
+                writeVarInt(out, m.playerCount());
+                writeVarInt(out, m.maxPlayers());
+            }
+            case ChatMessage m -> {
+                writeNullableUuid(out, m.targetPlayerUuid());
+                writeNullableString(out, m.targetPlayerName());
+                writeString(out, m.message());
+                writeString(out, m.senderName());
+                writeNullableUuid(out, m.senderUuid());
+            }
+            case TransferMessage m -> {
+                writeUuid(out, m.playerUuid());
+                writeString(out, m.playerName());
+                writeString(out, m.targetProxyId());
+                writeString(out, m.targetServer());
+                writeNullableString(out, m.transferToken());
+            }
+            case PluginMessage m -> {
+                writeString(out, m.pluginId());
+                writeString(out, m.channel());
+                writeString(out, m.payload());
+            }
+            case BroadcastMessage m -> {
+                writeString(out, m.broadcastType());
+                writeString(out, m.content());
+            }
+            default -> throw new IllegalArgumentException("No binary form for " + message.messageType());
+        }
+    }
+
+    /**
+     * Compresses the body, or returns null if that would not make it smaller.
+     */
+    @Nullable
+    private static byte[] compress(ByteBuf buf, int index, int length) {
+        byte[] src = buf.hasArray() ? buf.array() : ByteBufUtil.getBytes(buf, index, length);
+        int srcOffset = buf.hasArray() ? buf.arrayOffset() + index : 0;
+        byte[] dst = new byte[(int) Zstd.compressBound(length)];
+        long size = Zstd.compressByteArray(dst, 0, dst.length, src, srcOffset, length, Zstd.defaultCompressionLevel());
+        if (Zstd.isError(size) || size >= length) {
+            return null;
+        }
+        return Arrays.copyOf(dst, (int) size);
+    }
+
+    // ==================== Decoding ====================
+
+    /**
+     * Decodes a message that {@link #isBinary(byte[])} accepted.
+     *
+     * @return the message, or null if it is malformed or of an unknown version or type
+     */
+    @Nullable
+    ChannelMessage decode(@Nonnull byte[] data) {
+        ByteBuf in = Unpooled.wrappedBuffer(data);
+        try {
+            in.skipBytes(1);
+            int version = in.readUnsignedByte();
+            if (version != VERSION) {
+                LOGGER.warn("Unsupported binary message version: {}", version);
+                return null;
+            }
+
+            int flags = in.readUnsignedByte();
+            int type = readVarInt(in);
+            String sourceProxyId = readString(in);
+            Instant timestamp = Instant.ofEpochMilli(in.readLong());
+
+            ByteBuf body = in;
+            if ((flags & FLAG_ZSTD) != 0) {
+                body = decompress(data, in);
+                if (body == null) {
+                    return null;
+                }
+            }
+            return readBody(type, sourceProxyId, timestamp, body);
+        } catch (IndexOutOfBoundsException | IllegalArgumentException | NullPointerException e) {
+            LOGGER.error("Failed to decode binary message: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    @Nullable
+    private static ByteBuf decompress(byte[] data, ByteBuf in) {
+        int length = readVarInt(in);
+        if (length < 0 || length > MAX_BODY_LENGTH) {
+            LOGGER.warn("Invalid uncompressed message length: {}", length);
+            return null;
+        }
+        byte[] body = new byte[length];
+        try {
+            long size = Zstd.decompressByteArray(body, 0, length, data, in.readerIndex(), in.readableBytes());
+            if (Zstd.isError(size) || size != length) {
+                LOGGER.warn("Failed to decompress message: {}",
+                        Zstd.isError(size) ? Zstd.getErrorName(size) : size + " of " + length + " bytes");
+                return null;
+            }
+        } catch (ZstdException e) {
+            LOGGER.warn("Failed to decompress message: {}", e.getMessage());
+            return null;
+        }
+        return Unpooled.wrappedBuffer(body);
+    }
+
+    @Nullable
+    private static ChannelMessage readBody(int type, String sourceProxyId, Instant timestamp, ByteBuf in) {
+        return switch (type) {
+            case HEARTBEAT -> new HeartbeatMessage(sourceProxyId, timestamp,
+                    readString(in), readString(in), readVarInt(in), readVarInt(in), readVarLong(in), in.readBoolean());
+            case PLAYER_COUNT -> new PlayerCountMessage(sourceProxyId, timestamp,
+                    readVarInt(in), readVarInt(in));
+            case CHAT -> new ChatMessage(sourceProxyId, timestamp,
+                    readNullableUuid(in), readNullableString(in), readString(in), readString(in), readNullableUuid(in));
+            case TRANSFER -> new TransferMessage(sourceProxyId, timestamp,
+                    readUuid(in), readString(in), readString(in), readString(in), readNullableString(in));
+            case PLUGIN -> new PluginMessage(sourceProxyId, timestamp,
+                    readString(in), readString(in), readString(in));
+            case BROADCAST -> new BroadcastMessage(sourceProxyId, timestamp,
+                    readString(in), readString(in));
+            default -> {
+                LOGGER.warn("Unknown binary message type: {}", type);
+                yield null;
+            }
+        };
+    }
+
+    // ==================== Batch Frames ====================
+
+    /**
+     * Packs already encoded messages into one batch frame.
+     */
+    @Nonnull
+    static byte[] encodeBatch(@Nonnull List<byte[]> messages) {
+        int capacity = 2 + 5;
+        for (byte[] message : messages) {
+            capacity += 5 + message.length;
+        }
+
+        ByteBuf out = AllocationSite.MESSAGING.allocator().heapBuffer(capacity);
+        try {
+            out.writeByte(BATCH_MAGIC);
+            out.writeByte(BATCH_VERSION);
+            writeVarInt(out, messages.size());
+            for (byte[] message : messages) {
+                writeVarInt(out, message.length);
+                out.writeBytes(message);
+            }
+            return ByteBufUtil.getBytes(out);
+        } finally {
+            out.release();
+        }
+    }
+
+    /**
+     * Splits a frame that {@link #isBatch(byte[])} accepted into its encoded messages.
+     *
+     * @return the messages, or null if the frame is malformed or of an unknown version
+     */
+    @Nullable
+    static List<byte[]> decodeBatch(@Nonnull byte[] data) {
+        ByteBuf in = Unpooled.wrappedBuffer(data);
+        try {
+            in.skipBytes(1);
+            int version = in.readUnsignedByte();
+            if (version != BATCH_VERSION) {
+                LOGGER.warn("Unsupported message batch version: {}", version);
+                return null;
+            }
+
+            int count = readVarInt(in);
+            if (count < 0 || count > MAX_BATCH_COUNT) {
+                LOGGER.warn("Invalid message batch count: {}", count);
+                return null;
+            }
+            List<byte[]> messages = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                int length = readVarInt(in);
+                if (length < 0 || length > in.readableBytes()) {
+                    LOGGER.warn("Truncated message batch: entry {} of {}", i + 1, count);
+                    return null;
+                }
+                byte[] message = new byte[length];
+                in.readBytes(message);
+                messages.add(message);
+            }
+            return messages;
+        } catch (IndexOutOfBoundsException | IllegalArgumentException e) {
+            LOGGER.error("Failed to decode message batch: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    // ==================== Primitives ====================
+
+    private static void writeVarInt(ByteBuf out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int readVarInt(ByteBuf in) {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte b = in.readByte();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("VarInt too long");
+    }
+
+    private static void writeVarLong(ByteBuf out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static long readVarLong(ByteBuf in) {
+        long value = 0;
+        for (int shift = 0; shift < 70; shift += 7) {
+            byte b = in.readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("VarLong too long");
+    }
+
+    private static void writeString(ByteBuf out, String value) {
+        writeVarInt(out, ByteBufUtil.utf8Bytes(value));
+        ByteBufUtil.writeUtf8(out, value);
+    }
+
+    private static String readString(ByteBuf in) {
+        return readUtf8(in, readVarInt(in));
+    }
+
+    private static void writeNullableString(ByteBuf out, @Nullable String value) {
+        if (value == null) {
+            writeVarInt(out, 0);
+            return;
+        }
+        writeVarInt(out, ByteBufUtil.utf8Bytes(value) + 1);
+        ByteBufUtil.writeUtf8(out, value);
+    }
+
+    @Nullable
+    private static String readNullableString(ByteBuf in) {
+        int length = readVarInt(in);
+        return length == 0 ? null : readUtf8(in, length - 1);
+    }
+
+    private static String readUtf8(ByteBuf in, int length) {
+        if (length < 0 || length > in.readableBytes()) {
+            throw new IllegalArgumentException("Invalid string length: " + length);
+        }
+        String value = in.toString(in.readerIndex(), length, StandardCharsets.UTF_8);
+        in.skipBytes(length);
+        return value;
+    }
+
+    private static void writeUuid(ByteBuf out, UUID uuid) {
+        out.writeLong(uuid.getMostSignificantBits());
+        out.writeLong(uuid.getLeastSignificantBits());
+    }
+
+    private static UUID readUuid(ByteBuf in) {
+        return new UUID(in.readLong(), in.readLong());
+    }
+
+    private static void writeNullableUuid(ByteBuf out, @Nullable UUID uuid) {
+        out.writeBoolean(uuid != null);
+        if (uuid != null) {
+            writeUuid(out, uuid);
+        }
+    }
+
+    @Nullable
+    private static UUID readNullableUuid(ByteBuf in) {
+        return in.readBoolean() ? readUuid(in) : null;
+    }
+}
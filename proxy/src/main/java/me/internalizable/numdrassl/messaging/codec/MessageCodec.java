@@ -7,6 +7,7 @@ import com.google.gson.JsonDeserializer;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
 import com.google.gson.JsonPrimitive;
 import com.google.gson.JsonSerializationContext;
 import com.google.gson.JsonSerializer;
@@ -19,13 +20,21 @@ import org.slf4j.LoggerFactory;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
- * JSON codec for serializing/deserializing channel messages.
+ * Codec for serializing/deserializing channel messages.
+ *
+ * <p>Messages are sent in the compact binary format of {@link BinaryMessageCodec} when
+ * enabled, and as Gson JSON otherwise. {@link #decode(byte[])} reads both, telling
+ * them apart by the first byte, so proxies of different versions can share a cluster
+ * during a rolling upgrade. With the binary format enabled, several messages for one
+ * channel can also be sent as a single batch frame, see {@link #encodeBatch(List)}.</p>
  *
  * <p>Uses Gson with custom type adapters for proper polymorphic deserialization
  * of the sealed {@link ChannelMessage} hierarchy.</p>
@@ -37,9 +46,24 @@ public final class MessageCodec {
     private static final Logger LOGGER = LoggerFactory.getLogger(MessageCodec.class);
 
     private final Map<Class<?>, TypeAdapter<?>> customAdapters = new ConcurrentHashMap<>();
+    private final BinaryMessageCodec binary;
+    private final boolean binaryEnabled;
     private volatile Gson gson;
 
+    /**
+     * Creates a codec that sends JSON.
+     */
     public MessageCodec() {
+        this(false, 0);
+    }
+
+    /**
+     * @param binaryEnabled        send the binary format instead of JSON
+     * @param compressionThreshold smallest binary body that is Zstd compressed, or 0 to never compress
+     */
+    public MessageCodec(boolean binaryEnabled, int compressionThreshold) {
+        this.binary = new BinaryMessageCodec(compressionThreshold);
+        this.binaryEnabled = binaryEnabled;
         this.gson = buildGson();
     }
 
@@ -119,6 +143,74 @@ public final class MessageCodec {
         }
     }
 
+    /**
+     * Serialize a message for publishing: binary when enabled and the message type has
+     * a binary form, UTF-8 JSON otherwise.
+     *
+     * @param message the message to serialize
+     * @return the encoded bytes
+     */
+    @Nonnull
+    public byte[] encodeBytes(@Nonnull ChannelMessage message) {
+        if (binaryEnabled) {
+            byte[] encoded = binary.encode(message);
+            if (encoded != null) {
+                return encoded;
+            }
+        }
+        return encode(message).getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Whether messages are sent in the binary format. Batch frames are only read by
+     * proxies that read the binary format, so senders only batch when this is true.
+     */
+    public boolean isBinaryEnabled() {
+        return binaryEnabled;
+    }
+
+    /**
+     * Pack messages from {@link #encodeBytes(ChannelMessage)} for the same channel into
+     * one batch frame.
+     *
+     * @param messages the encoded messages
+     * @return the batch frame
+     */
+    @Nonnull
+    public byte[] encodeBatch(@Nonnull List<byte[]> messages) {
+        return BinaryMessageCodec.encodeBatch(messages);
+    }
+
+    /**
+     * Split received bytes into the encoded messages they carry: the entries of a batch
+     * frame, or the bytes themselves for a single message.
+     *
+     * @param data the received bytes
+     * @return the encoded messages, empty if a batch frame is malformed
+     */
+    @Nonnull
+    public List<byte[]> unpack(@Nonnull byte[] data) {
+        if (!BinaryMessageCodec.isBatch(data)) {
+            return List.of(data);
+        }
+        List<byte[]> messages = BinaryMessageCodec.decodeBatch(data);
+        return messages != null ? messages : List.of();
+    }
+
+    /**
+     * Deserialize a message in either the binary or the JSON format.
+     *
+     * @param data the received bytes
+     * @return the deserialized message, or null if parsing fails
+     */
+    @Nullable
+    public ChannelMessage decode(@Nonnull byte[] data) {
+        if (BinaryMessageCodec.isBinary(data)) {
+            return binary.decode(data);
+        }
+        return decode(new String(data, StandardCharsets.UTF_8));
+    }
+
     /**
      * Serialize a message to JSON.
      *
@@ -222,7 +314,6 @@ public final class MessageCodec {
             implements JsonSerializer<T>, JsonDeserializer<T> {
 
         private final TypeAdapter<T> adapter;
-        private final Gson internalGson = new Gson();
 
         GsonTypeAdapterWrapper(TypeAdapter<T> adapter) {
             this.adapter = adapter;
@@ -230,14 +321,12 @@ public final class MessageCodec {
 
         @Override
         public JsonElement serialize(T src, Type typeOfSrc, JsonSerializationContext context) {
-            String json = adapter.serialize(src);
-            return internalGson.fromJson(json, JsonElement.class);
+            return JsonParser.parseString(adapter.serialize(src));
         }
 
         @Override
         public T deserialize(JsonElement json, Type typeOfT, JsonDeserializationContext context) {
-            String jsonStr = internalGson.toJson(json);
-            return adapter.deserialize(jsonStr);
+            return adapter.deserialize(json.toString());
         }
     }
 }
@@ -1,14 +1,24 @@
 /**
  * Message serialization and deserialization.
  *
- * <p>Contains the {@link MessageCodec} for JSON encoding/decoding of
- * {@link me.internalizable.numdrassl.api.messaging.ChannelMessage} instances.</p>
+ * <p>Contains the {@link MessageCodec} for encoding/decoding of
+ * {@link me.internalizable.numdrassl.api.messaging.ChannelMessage} instances, in a
+ * compact binary format or as JSON.</p>
  *
- * <h2>Key Class</h2>
+ * <h2>Key Classes</h2>
  * <ul>
- *   <li>{@link MessageCodec} - Gson-based JSON codec with polymorphic support</li>
+ *   <li>{@link MessageCodec} - Picks the wire format and decodes both; Gson-based JSON
+ *       with polymorphic support</li>
+ *   <li>{@link BinaryMessageCodec} - Hand-written binary envelope and bodies with
+ *       optional Zstd compression, and batch frames of several messages</li>
  * </ul>
  *
+ * <h2>Configuration</h2>
+ * <pre>
+ * clusterBinaryMessages: true
+ * clusterCompressionThreshold: 1024
+ * </pre>
+ *
  * @see me.internalizable.numdrassl.api.messaging.TypeAdapter
  */
 @javax.annotation.ParametersAreNonnullByDefault
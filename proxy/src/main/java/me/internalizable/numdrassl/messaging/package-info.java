@@ -7,7 +7,7 @@
  * <ul>
  *   <li>{@link me.internalizable.numdrassl.messaging.redis} - Redis messaging service implementation</li>
  *   <li>{@link me.internalizable.numdrassl.messaging.local} - Local-only fallback implementation</li>
- *   <li>{@link me.internalizable.numdrassl.messaging.codec} - JSON message serialization</li>
+ *   <li>{@link me.internalizable.numdrassl.messaging.codec} - Binary and JSON message serialization</li>
  *   <li>{@link me.internalizable.numdrassl.messaging.processing} - Annotation processing utilities</li>
  *   <li>{@link me.internalizable.numdrassl.messaging.subscription} - Subscription management</li>
  * </ul>
@@ -15,10 +15,10 @@
  * <h2>Usage</h2>
  * <pre>{@code
  * // Use factory method for proper resource management
- * RedisMessagingService service = RedisMessagingService.create(proxyId, config);
+ * RedisMessagingService service = RedisMessagingService.create(proxyId, config, memoryBudget);
  *
  * // Or async initialization
- * RedisMessagingService.createAsync(proxyId, config)
+ * RedisMessagingService.createAsync(proxyId, config, memoryBudget)
  *     .thenAccept(service -> { ... });
  *
  * // For non-clustered deployments
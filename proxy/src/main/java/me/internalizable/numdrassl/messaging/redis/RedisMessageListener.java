@@ -12,23 +12,23 @@ import java.util.function.BiConsumer;
  * <p>Receives raw messages from Redis and forwards them to the
  * configured handler for processing.</p>
  */
-public final class RedisMessageListener extends RedisPubSubAdapter<String, String> {
+public final class RedisMessageListener extends RedisPubSubAdapter<String, byte[]> {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(RedisMessageListener.class);
 
-    private final BiConsumer<String, String> messageHandler;
+    private final BiConsumer<String, byte[]> messageHandler;
 
     /**
      * Create a new Redis message listener.
      *
-     * @param messageHandler receives (channel, json) for each message
+     * @param messageHandler receives (channel, encoded message) for each message
      */
-    public RedisMessageListener(BiConsumer<String, String> messageHandler) {
+    public RedisMessageListener(BiConsumer<String, byte[]> messageHandler) {
         this.messageHandler = messageHandler;
     }
 
     @Override
-    public void message(String channel, String message) {
+    public void message(String channel, byte[] message) {
         try {
             messageHandler.accept(channel, message);
         } catch (Exception e) {
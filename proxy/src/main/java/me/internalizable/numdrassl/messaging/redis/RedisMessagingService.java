@@ -3,8 +3,16 @@ package me.internalizable.numdrassl.messaging.redis;
 import io.lettuce.core.RedisClient;
 import io.lettuce.core.RedisURI;
 import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.api.async.RedisAsyncCommands;
+import io.lettuce.core.codec.ByteArrayCodec;
+import io.lettuce.core.codec.RedisCodec;
+import io.lettuce.core.codec.StringCodec;
 import io.lettuce.core.pubsub.StatefulRedisPubSubConnection;
 import io.lettuce.core.pubsub.api.async.RedisPubSubAsyncCommands;
+import io.lettuce.core.resource.ClientResources;
+import io.lettuce.core.resource.NettyCustomizer;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.channel.ChannelOption;
 import me.internalizable.numdrassl.api.messaging.*;
 import me.internalizable.numdrassl.api.messaging.annotation.MessageSubscribe;
 import me.internalizable.numdrassl.api.messaging.annotation.TypeAdapter;
@@ -14,12 +22,16 @@ import me.internalizable.numdrassl.api.messaging.handler.MessageHandler;
 import me.internalizable.numdrassl.api.messaging.handler.PluginMessageHandler;
 import me.internalizable.numdrassl.api.messaging.message.PluginMessage;
 import me.internalizable.numdrassl.config.ProxyConfig;
+import me.internalizable.numdrassl.memory.BufferCategory;
+import me.internalizable.numdrassl.memory.MemoryBudget;
 import me.internalizable.numdrassl.messaging.codec.MessageCodec;
 import me.internalizable.numdrassl.messaging.processing.PluginIdExtractor;
 import me.internalizable.numdrassl.messaging.processing.SubscribeMethodProcessor;
 import me.internalizable.numdrassl.messaging.subscription.CompositeSubscription;
 import me.internalizable.numdrassl.messaging.subscription.RedisSubscription;
 import me.internalizable.numdrassl.messaging.subscription.SubscriptionEntry;
+import me.internalizable.numdrassl.profiling.AllocationSite;
+import me.internalizable.numdrassl.profiling.ProxyMetrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -31,6 +43,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutorService;
@@ -48,8 +61,9 @@ import java.util.concurrent.atomic.AtomicLong;
  * <h2>Features</h2>
  * <ul>
  *   <li>Non-blocking async operations via Lettuce's async API</li>
+ *   <li>Pipelined, micro-batched publishing via {@link RedisPublishQueue}</li>
  *   <li>Automatic reconnection on connection loss</li>
- *   <li>JSON message serialization via {@link MessageCodec}</li>
+ *   <li>Binary or JSON message serialization via {@link MessageCodec}</li>
  *   <li>Message filtering by type and source proxy</li>
  *   <li>Annotation-based subscription support</li>
  * </ul>
@@ -58,13 +72,18 @@ public final class RedisMessagingService implements MessagingService {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(RedisMessagingService.class);
     private static final Duration CONNECTION_TIMEOUT = Duration.ofSeconds(10);
+    private static final RedisCodec<String, byte[]> MESSAGE_CODEC = RedisCodec.of(StringCodec.UTF8, ByteArrayCodec.INSTANCE);
 
     private final String localProxyId;
     private final MessageCodec codec;
+    private final MemoryBudget memoryBudget;
+    private final ClientResources clientResources;
     private final RedisClient redisClient;
-    private final StatefulRedisPubSubConnection<String, String> pubSubConnection;
+    private final StatefulRedisPubSubConnection<String, byte[]> pubSubConnection;
     private final StatefulRedisConnection<String, String> publishConnection;
-    private final RedisPubSubAsyncCommands<String, String> pubSubCommands;
+    private final StatefulRedisConnection<String, byte[]> messageConnection;
+    private final RedisPubSubAsyncCommands<String, byte[]> pubSubCommands;
+    private final RedisPublishQueue publishQueue;
     private final SubscribeMethodProcessor methodProcessor;
 
     private final Map<String, List<SubscriptionEntry>> subscriptions = new ConcurrentHashMap<>();
@@ -77,15 +96,29 @@ public final class RedisMessagingService implements MessagingService {
 
     private RedisMessagingService(
             @Nonnull String localProxyId,
+            @Nonnull ProxyConfig config,
+            @Nonnull MemoryBudget memoryBudget,
+            @Nonnull ClientResources clientResources,
             @Nonnull RedisClient redisClient,
-            @Nonnull StatefulRedisPubSubConnection<String, String> pubSubConnection,
-            @Nonnull StatefulRedisConnection<String, String> publishConnection) {
+            @Nonnull StatefulRedisPubSubConnection<String, byte[]> pubSubConnection,
+            @Nonnull StatefulRedisConnection<String, String> publishConnection,
+            @Nonnull StatefulRedisConnection<String, byte[]> messageConnection) {
         this.localProxyId = localProxyId;
-        this.codec = new MessageCodec();
+        this.codec = new MessageCodec(config.isClusterBinaryMessages(), config.getClusterCompressionThreshold());
+        this.memoryBudget = memoryBudget;
+        this.clientResources = clientResources;
         this.redisClient = redisClient;
         this.pubSubConnection = pubSubConnection;
         this.publishConnection = publishConnection;
+        this.messageConnection = messageConnection;
         this.pubSubCommands = pubSubConnection.async();
+
+        // Only the publish queue writes to this connection, and it flushes once per batch
+        messageConnection.setAutoFlushCommands(false);
+        this.publishQueue = new RedisPublishQueue(new ConnectionSink(messageConnection), codec, config);
+        if (config.isMetricsEnabled()) {
+            ProxyMetrics.getInstance().bindClusterPublisher(publishQueue);
+        }
         this.methodProcessor = new SubscribeMethodProcessor(localProxyId, codec, createSubscriptionFactory());
 
         // Bounded executor for message handlers - prevents blocking Redis I/O thread
@@ -98,7 +131,10 @@ public final class RedisMessagingService implements MessagingService {
                     t.setDaemon(true);
                     return t;
                 },
-                (r, executor) -> LOGGER.warn("Message handler queue full, dropping task")
+                (r, executor) -> {
+                    ((HandlerTask) r).release();
+                    LOGGER.warn("Message handler queue full, dropping task");
+                }
         );
 
         pubSubConnection.addListener(new RedisMessageListener(this::handleMessage));
@@ -110,32 +146,42 @@ public final class RedisMessagingService implements MessagingService {
      *
      * @param localProxyId the local proxy identifier
      * @param config the proxy configuration containing Redis settings
+     * @param memoryBudget the budget queued handler messages reserve from
      * @return a new connected Redis messaging service
      * @throws RedisConnectionException if connection to Redis fails
      */
     @Nonnull
-    public static RedisMessagingService create(@Nonnull String localProxyId, @Nonnull ProxyConfig config) {
+    public static RedisMessagingService create(
+            @Nonnull String localProxyId,
+            @Nonnull ProxyConfig config,
+            @Nonnull MemoryBudget memoryBudget) {
         RedisURI redisUri = buildRedisUri(config);
         LOGGER.info("Connecting to Redis at {}:{}", config.getRedisHost(), config.getRedisPort());
 
-        RedisClient redisClient = RedisClient.create(redisUri);
-        StatefulRedisPubSubConnection<String, String> pubSubConnection = null;
+        ClientResources clientResources = createClientResources();
+        RedisClient redisClient = RedisClient.create(clientResources, redisUri);
+        StatefulRedisPubSubConnection<String, byte[]> pubSubConnection = null;
         StatefulRedisConnection<String, String> publishConnection = null;
+        StatefulRedisConnection<String, byte[]> messageConnection = null;
 
         try {
-            pubSubConnection = redisClient.connectPubSub();
+            pubSubConnection = redisClient.connectPubSub(MESSAGE_CODEC);
             publishConnection = redisClient.connect();
+            messageConnection = redisClient.connect(MESSAGE_CODEC);
 
             RedisMessagingService service = new RedisMessagingService(
-                    localProxyId, redisClient, pubSubConnection, publishConnection
+                    localProxyId, config, memoryBudget, clientResources, redisClient,
+                    pubSubConnection, publishConnection, messageConnection
             );
 
             LOGGER.info("Redis messaging service connected");
             return service;
         } catch (Exception e) {
+            closeQuietly(messageConnection);
             closeQuietly(publishConnection);
             closeQuietly(pubSubConnection);
             shutdownQuietly(redisClient);
+            clientResources.shutdown();
 
             LOGGER.error("Failed to connect to Redis: {}", e.getMessage());
             throw new RedisConnectionException("Failed to connect to Redis", e);
@@ -147,13 +193,15 @@ public final class RedisMessagingService implements MessagingService {
      *
      * @param localProxyId the local proxy identifier
      * @param config the proxy configuration
+     * @param memoryBudget the budget queued handler messages reserve from
      * @return a future that completes with the messaging service
      */
     @Nonnull
     public static CompletableFuture<RedisMessagingService> createAsync(
             @Nonnull String localProxyId,
-            @Nonnull ProxyConfig config) {
-        return CompletableFuture.supplyAsync(() -> create(localProxyId, config));
+            @Nonnull ProxyConfig config,
+            @Nonnull MemoryBudget memoryBudget) {
+        return CompletableFuture.supplyAsync(() -> create(localProxyId, config, memoryBudget));
     }
 
     private static RedisURI buildRedisUri(ProxyConfig config) {
@@ -174,6 +222,21 @@ public final class RedisMessagingService implements MessagingService {
         return uriBuilder.build();
     }
 
+    /**
+     * Creates client resources whose channels allocate through the messaging
+     * {@link AllocationSite}, so Redis buffers show up in the allocator breakdown.
+     */
+    private static ClientResources createClientResources() {
+        return ClientResources.builder()
+                .nettyCustomizer(new NettyCustomizer() {
+                    @Override
+                    public void afterBootstrapInitialized(Bootstrap bootstrap) {
+                        bootstrap.option(ChannelOption.ALLOCATOR, AllocationSite.MESSAGING.allocator());
+                    }
+                })
+                .build();
+    }
+
     private SubscribeMethodProcessor.SubscriptionFactory createSubscriptionFactory() {
         return new SubscribeMethodProcessor.SubscriptionFactory() {
             @Override
@@ -215,21 +278,26 @@ public final class RedisMessagingService implements MessagingService {
         LOGGER.info("Shutting down Redis messaging service");
         connected.set(false);
 
+        // Send what is still queued before the connections close
+        publishQueue.shutdown();
+
         // Shutdown handler executor gracefully
         handlerExecutor.shutdown();
         try {
             if (!handlerExecutor.awaitTermination(5, TimeUnit.SECONDS)) {
-                handlerExecutor.shutdownNow();
+                releaseUnrunTasks(handlerExecutor.shutdownNow());
             }
         } catch (InterruptedException e) {
-            handlerExecutor.shutdownNow();
+            releaseUnrunTasks(handlerExecutor.shutdownNow());
             Thread.currentThread().interrupt();
         }
 
         try {
             pubSubConnection.close();
+            messageConnection.close();
             publishConnection.close();
             redisClient.shutdown();
+            clientResources.shutdown();
         } catch (Exception e) {
             LOGGER.error("Error during Redis shutdown", e);
         }
@@ -245,12 +313,10 @@ public final class RedisMessagingService implements MessagingService {
             return CompletableFuture.failedFuture(new IllegalStateException("Not connected to Redis"));
         }
 
-        String json = codec.encode(message);
-        return publishConnection.async()
-                .publish(channel.getId(), json)
+        byte[] data = codec.encodeBytes(message);
+        return publishQueue.publish(channel.getId(), data)
                 .thenAccept(count -> LOGGER.debug("Published {} to {} ({} subscribers)",
-                        message.messageType(), channel, count))
-                .toCompletableFuture();
+                        message.messageType(), channel, count));
     }
 
     @Override
@@ -462,18 +528,13 @@ public final class RedisMessagingService implements MessagingService {
         return new RedisSubscription(entry, this::isConnected, this::removeSubscription);
     }
 
-    private void handleMessage(String channelName, String json) {
+    private void handleMessage(String channelName, byte[] data) {
         MessageChannel channel = Channels.get(channelName);
         if (channel == null) {
             LOGGER.warn("Received message on unknown channel: {}", channelName);
             return;
         }
 
-        ChannelMessage message = codec.decode(json);
-        if (message == null) {
-            return;
-        }
-
         List<SubscriptionEntry> handlers;
         synchronized (subscriptions) {
             handlers = subscriptions.get(channelName);
@@ -483,6 +544,16 @@ public final class RedisMessagingService implements MessagingService {
             return;
         }
 
+        // A batch frame carries several messages published together on this channel
+        for (byte[] encoded : codec.unpack(data)) {
+            ChannelMessage message = codec.decode(encoded);
+            if (message != null) {
+                dispatch(channel, message, encoded.length, handlers);
+            }
+        }
+    }
+
+    private void dispatch(MessageChannel channel, ChannelMessage message, int size, List<SubscriptionEntry> handlers) {
         // Process each handler off the Lettuce I/O thread
         for (SubscriptionEntry entry : handlers) {
             if (!entry.isActive()) {
@@ -497,14 +568,73 @@ public final class RedisMessagingService implements MessagingService {
                 continue;
             }
 
+            // Queued messages count against the memory budget until their handler runs
+            if (!memoryBudget.tryReserve(BufferCategory.MESSAGING, size)) {
+                LOGGER.warn("Memory budget exhausted, dropping message on channel {}", channel);
+                continue;
+            }
+
             // Submit handler execution to bounded executor
-            handlerExecutor.execute(() -> {
+            handlerExecutor.execute(new HandlerTask(size, () -> {
                 try {
                     entry.getHandler().handle(channel, message);
                 } catch (Exception e) {
                     LOGGER.error("Error in message handler for channel {}", channel, e);
                 }
-            });
+            }));
+        }
+    }
+
+    private static void releaseUnrunTasks(List<Runnable> tasks) {
+        for (Runnable task : tasks) {
+            ((HandlerTask) task).release();
+        }
+    }
+
+    /**
+     * Handler invocation that holds a messaging reservation while queued.
+     */
+    private final class HandlerTask implements Runnable {
+        private final long reservedBytes;
+        private final Runnable handler;
+
+        HandlerTask(long reservedBytes, Runnable handler) {
+            this.reservedBytes = reservedBytes;
+            this.handler = handler;
+        }
+
+        @Override
+        public void run() {
+            release();
+            handler.run();
+        }
+
+        void release() {
+            memoryBudget.release(BufferCategory.MESSAGING, reservedBytes);
+        }
+    }
+
+    /**
+     * Publish queue sink that pipelines commands on a connection with auto-flush disabled.
+     */
+    private static final class ConnectionSink implements RedisPublishQueue.Sink {
+        private final StatefulRedisConnection<String, byte[]> connection;
+        private final RedisAsyncCommands<String, byte[]> commands;
+
+        ConnectionSink(StatefulRedisConnection<String, byte[]> connection) {
+            this.connection = connection;
+            this.commands = connection.async();
+        }
+
+        @Override
+        @Nonnull
+        public CompletionStage<Long> publish(@Nonnull String channel, @Nonnull byte[] data) {
+            return commands.publish(channel, data);
+        }
+
+        @Override
+        public void flush() {
+            connection.flushCommands();
         }
     }
 
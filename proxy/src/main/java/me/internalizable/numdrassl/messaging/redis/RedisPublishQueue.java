@@ -0,0 +1,386 @@
+package me.internalizable.numdrassl.messaging.redis;
+
+import me.internalizable.numdrassl.config.ProxyConfig;
+import me.internalizable.numdrassl.messaging.codec.MessageCodec;
+import me.internalizable.numdrassl.profiling.ProxyMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Outbound queue that sends cluster messages to Redis in micro-batches.
+ *
+ * <p>Publishing one message at a time costs a round trip and a command for each, which
+ * dominates under bursts of small broadcasts and per-player events. Messages are queued
+ * instead, and a single publisher thread takes up to {@code clusterPublishBatchSize} of
+ * them, waiting at most {@code clusterPublishLingerMillis} after the first for more.
+ * The batch is written to the connection as one pipeline and flushed with one write.</p>
+ *
+ * <p>With the binary format enabled, messages of a batch that share a channel are also
+ * packed into one batch frame, so Redis handles one {@code PUBLISH} per channel instead
+ * of one per message; receivers split the frame with {@link MessageCodec#unpack}.
+ * Messages keep their order within a channel, but not across channels.</p>
+ *
+ * <p>Messages count against {@code clusterPublishQueueSize} until Redis acknowledges
+ * them, so a slow or disconnected Redis fills the queue rather than memory. When it is
+ * full, {@code clusterPublishOverflowPolicy} either fails the new message or the oldest
+ * queued one with a {@link RejectedExecutionException}.</p>
+ */
+public final class RedisPublishQueue {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RedisPublishQueue.class);
+
+    // Largest batch frame; larger groups are split into several frames
+    private static final int MAX_FRAME_BYTES = 256 * 1024;
+    private static final long POLL_MILLIS = 100;
+    private static final long SHUTDOWN_MILLIS = 5000;
+
+    /**
+     * Where batches are written, normally a Redis connection with auto-flush disabled.
+     */
+    interface Sink {
+
+        /**
+         * Queues a {@code PUBLISH} without flushing it.
+         *
+         * @return the number of subscribers that received it
+         */
+        @Nonnull
+        CompletionStage<Long> publish(@Nonnull String channel, @Nonnull byte[] data);
+
+        /**
+         * Writes everything queued since the last flush.
+         */
+        void flush();
+    }
+
+    /**
+     * What to do with a message when the queue is full.
+     */
+    enum OverflowPolicy {
+        REJECT,
+        DROP_OLDEST;
+
+        @Nullable
+        static OverflowPolicy fromConfig(@Nullable String value) {
+            if (value == null) {
+                return null;
+            }
+            try {
+                return valueOf(value.trim().replace('-', '_').toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+    }
+
+    private record Pending(String channel, byte[] data, CompletableFuture<Long> future, long enqueuedAtNanos) {
+    }
+
+    private final Sink sink;
+    private final MessageCodec codec;
+    private final int batchSize;
+    private final long lingerNanos;
+    private final int capacity;
+    private final OverflowPolicy overflowPolicy;
+
+    private final ArrayBlockingQueue<Pending> queue;
+    // One permit per message, held from enqueue until Redis answers
+    private final Semaphore permits;
+    private final Thread publisher;
+    private volatile boolean running = true;
+
+    private final LongAdder published = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder commands = new LongAdder();
+
+    RedisPublishQueue(@Nonnull Sink sink, @Nonnull MessageCodec codec, @Nonnull ProxyConfig config) {
+        this.sink = Objects.requireNonNull(sink, "sink");
+        this.codec = Objects.requireNonNull(codec, "codec");
+        this.batchSize = config.getClusterPublishBatchSize();
+        this.lingerNanos = TimeUnit.MILLISECONDS.toNanos(config.getClusterPublishLingerMillis());
+        this.capacity = config.getClusterPublishQueueSize();
+
+        OverflowPolicy policy = OverflowPolicy.fromConfig(config.getClusterPublishOverflowPolicy());
+        if (policy == null) {
+            LOGGER.warn("Unknown clusterPublishOverflowPolicy '{}', using reject", config.getClusterPublishOverflowPolicy());
+            policy = OverflowPolicy.REJECT;
+        }
+        this.overflowPolicy = policy;
+
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.permits = new Semaphore(capacity);
+        this.publisher = new Thread(this::run, "numdrassl-redis-publish");
+        this.publisher.setDaemon(true);
+        this.publisher.start();
+    }
+
+    // ==================== Publishing ====================
+
+    /**
+     * Queues a message for the next batch.
+     *
+     * @param channel the Redis channel
+     * @param data    the encoded message
+     * @return completes with the subscriber count once Redis answers; fails with
+     *         {@link RejectedExecutionException} if the message was dropped on overflow
+     */
+    @Nonnull
+    public CompletableFuture<Long> publish(@Nonnull String channel, @Nonnull byte[] data) {
+        if (!running) {
+            return CompletableFuture.failedFuture(new IllegalStateException("Publish queue is shut down"));
+        }
+
+        Pending pending = new Pending(channel, data, new CompletableFuture<>(), System.nanoTime());
+        while (!permits.tryAcquire()) {
+            if (overflowPolicy == OverflowPolicy.REJECT) {
+                return reject(pending);
+            }
+            // Sent messages awaiting Redis cannot be recalled; only queued ones can be dropped
+            Pending oldest = queue.poll();
+            if (oldest == null) {
+                return reject(pending);
+            }
+            drop(oldest);
+            permits.release();
+        }
+
+        queue.add(pending);
+        if (!running && queue.remove(pending)) {
+            fail(List.of(pending), new IllegalStateException("Publish queue is shut down"));
+        }
+        return pending.future;
+    }
+
+    private CompletableFuture<Long> reject(Pending pending) {
+        drop(pending);
+        return pending.future;
+    }
+
+    private void drop(Pending pending) {
+        dropped.increment();
+        pending.future.completeExceptionally(new RejectedExecutionException("Cluster publish queue is full"));
+    }
+
+    // ==================== Publisher Thread ====================
+
+    private void run() {
+        List<Pending> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                collect(batch, first.enqueuedAtNanos + lingerNanos);
+                send(batch);
+            } catch (InterruptedException e) {
+                fail(batch, new IllegalStateException("Publish queue is shut down"));
+                break;
+            } catch (RuntimeException e) {
+                LOGGER.error("Failed to publish batch of {} message(s)", batch.size(), e);
+                fail(batch, e);
+            }
+            batch.clear();
+        }
+    }
+
+    /**
+     * Adds queued messages to the batch until it is full or the deadline passes.
+     */
+    private void collect(List<Pending> batch, long deadline) throws InterruptedException {
+        queue.drainTo(batch, batchSize - batch.size());
+        while (batch.size() < batchSize && running) {
+            long wait = deadline - System.nanoTime();
+            if (wait <= 0) {
+                return;
+            }
+            Pending next = queue.poll(wait, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+            queue.drainTo(batch, batchSize - batch.size());
+        }
+    }
+
+    private void send(List<Pending> batch) {
+        int sent = 0;
+        if (!codec.isBinaryEnabled()) {
+            for (Pending pending : batch) {
+                publish(pending.channel, pending.data, List.of(pending));
+                sent++;
+            }
+        } else {
+            Map<String, List<Pending>> byChannel = new LinkedHashMap<>();
+            for (Pending pending : batch) {
+                byChannel.computeIfAbsent(pending.channel, k -> new ArrayList<>()).add(pending);
+            }
+            for (Map.Entry<String, List<Pending>> entry : byChannel.entrySet()) {
+                sent += publishFramed(entry.getKey(), entry.getValue());
+            }
+        }
+        sink.flush();
+
+        batches.increment();
+        commands.add(sent);
+        ProxyMetrics.getInstance().recordClusterPublishBatch(batch.size());
+    }
+
+    /**
+     * Publishes messages for one channel as batch frames of at most {@link #MAX_FRAME_BYTES}.
+     *
+     * @return the number of {@code PUBLISH} commands sent
+     */
+    private int publishFramed(String channel, List<Pending> messages) {
+        int sent = 0;
+        int start = 0;
+        int frameBytes = 0;
+        for (int i = 0; i < messages.size(); i++) {
+            int length = messages.get(i).data.length;
+            if (i > start && frameBytes + length > MAX_FRAME_BYTES) {
+                publishFrame(channel, messages.subList(start, i));
+                sent++;
+                start = i;
+                frameBytes = 0;
+            }
+            frameBytes += length;
+        }
+        publishFrame(channel, messages.subList(start, messages.size()));
+        return sent + 1;
+    }
+
+    private void publishFrame(String channel, List<Pending> messages) {
+        if (messages.size() == 1) {
+            Pending pending = messages.get(0);
+            publish(channel, pending.data, messages);
+            return;
+        }
+        List<byte[]> encoded = new ArrayList<>(messages.size());
+        for (Pending pending : messages) {
+            encoded.add(pending.data);
+        }
+        publish(channel, codec.encodeBatch(encoded), messages);
+    }
+
+    private void publish(String channel, byte[] data, List<Pending> messages) {
+        CompletionStage<Long> result;
+        try {
+            result = sink.publish(channel, data);
+        } catch (RuntimeException e) {
+            result = CompletableFuture.failedFuture(e);
+        }
+        result.whenComplete((subscribers, error) -> complete(messages, subscribers, error));
+    }
+
+    private void complete(List<Pending> messages, @Nullable Long subscribers, @Nullable Throwable error) {
+        if (error != null) {
+            fail(messages, error);
+            return;
+        }
+        long now = System.nanoTime();
+        for (Pending pending : messages) {
+            if (pending.future.complete(subscribers)) {
+                published.increment();
+                permits.release();
+                ProxyMetrics.getInstance().recordDuration("cluster_publish", now - pending.enqueuedAtNanos);
+            }
+        }
+    }
+
+    private void fail(List<Pending> messages, Throwable error) {
+        for (Pending pending : messages) {
+            if (pending.future.completeExceptionally(error)) {
+                failed.increment();
+                permits.release();
+            }
+        }
+    }
+
+    // ==================== Lifecycle ====================
+
+    /**
+     * Stops accepting messages and sends the ones already queued, waiting up to five
+     * seconds for the publisher; messages still queued after that fail.
+     */
+    void shutdown() {
+        running = false;
+        try {
+            publisher.join(SHUTDOWN_MILLIS);
+            if (publisher.isAlive()) {
+                publisher.interrupt();
+                publisher.join(POLL_MILLIS);
+            }
+        } catch (InterruptedException e) {
+            publisher.interrupt();
+            Thread.currentThread().interrupt();
+        }
+
+        List<Pending> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        if (!remaining.isEmpty()) {
+            LOGGER.warn("Dropping {} unsent cluster message(s) at shutdown", remaining.size());
+            fail(remaining, new IllegalStateException("Publish queue is shut down"));
+        }
+    }
+
+    // ==================== Metrics ====================
+
+    /**
+     * Messages queued or sent and not yet acknowledged by Redis.
+     */
+    public int getPending() {
+        return capacity - permits.availablePermits();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public long getPublished() {
+        return published.sum();
+    }
+
+    /**
+     * Messages that Redis did not accept, or that were still queued at shutdown.
+     */
+    public long getFailed() {
+        return failed.sum();
+    }
+
+    /**
+     * Messages dropped by the overflow policy.
+     */
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    public long getBatches() {
+        return batches.sum();
+    }
+
+    /**
+     * {@code PUBLISH} commands sent; fewer than the messages when batch frames are used.
+     */
+    public long getCommands() {
+        return commands.sum();
+    }
+}
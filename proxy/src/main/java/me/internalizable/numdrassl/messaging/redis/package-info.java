@@ -6,10 +6,20 @@
  * <h2>Key Classes</h2>
  * <ul>
  *   <li>{@link RedisMessagingService} - Main Redis messaging implementation</li>
+ *   <li>{@link RedisPublishQueue} - Bounded queue that publishes in pipelined
+ *       batches, packing messages per channel into batch frames</li>
  *   <li>{@link RedisMessageListener} - Listener adapter for Redis pub/sub</li>
  *   <li>{@link RedisConnectionException} - Exception for connection failures</li>
  * </ul>
  *
+ * <h2>Configuration</h2>
+ * <pre>
+ * clusterPublishLingerMillis: 1
+ * clusterPublishBatchSize: 128
+ * clusterPublishQueueSize: 10000
+ * clusterPublishOverflowPolicy: "reject"
+ * </pre>
+ *
  * @see me.internalizable.numdrassl.api.messaging.MessagingService
  */
 @javax.annotation.ParametersAreNonnullByDefault
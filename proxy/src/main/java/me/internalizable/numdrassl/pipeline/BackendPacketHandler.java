@@ -10,6 +10,7 @@ import io.netty.channel.SimpleChannelInboundHandler;
 import io.netty.util.ReferenceCountUtil;
 import me.internalizable.numdrassl.profiling.ProxyMetrics;
 import me.internalizable.numdrassl.server.ProxyCore;
+import me.internalizable.numdrassl.server.transfer.TransferPriority;
 import me.internalizable.numdrassl.session.ProxySession;
 import me.internalizable.numdrassl.session.SessionState;
 import org.slf4j.Logger;
@@ -21,7 +22,6 @@ import java.util.Arrays;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
-import java.util.concurrent.CompletableFuture;
 
 /**
  * Handles packets from the upstream backend server.
@@ -60,6 +60,11 @@ public final class BackendPacketHandler extends SimpleChannelInboundHandler<Obje
 
     @Override
     protected void channelRead0(ChannelHandlerContext ctx, Object msg) throws Exception {
+        if (isReplaced(ctx)) {
+            // Late packet from a backend the session has already switched away from
+            return;
+        }
+
         if (session.getCurrentBackend() != null && proxyCore.getBackendHealthManager() != null) {
             proxyCore.getBackendHealthManager().get(session.getCurrentBackend()).markPassiveResponse();
         }
@@ -87,7 +92,10 @@ public final class BackendPacketHandler extends SimpleChannelInboundHandler<Obje
         if (!pendingRawToClient.isEmpty()) {
             List<ByteBuf> batch = pendingRawToClient;
             pendingRawToClient = new ArrayList<>();
-            session.sendRawBatchToClient(batch);
+            if (!session.sendRawBatchToClient(batch)) {
+                // The other side is not draining fast enough; stop reading until it does
+                session.getMemory().pauseReads(ctx.channel());
+            }
         }
         super.channelReadComplete(ctx);
     }
@@ -213,11 +221,18 @@ public final class BackendPacketHandler extends SimpleChannelInboundHandler<Obje
         LOGGER.info("Session {}: Backend {} requested transfer to {}",
                 session.getSessionId(), Objects.requireNonNull(session.getCurrentBackend()).getName(), targetServerName);
 
-        // Dispatch off the Netty event loop to avoid blocking I/O for other sessions.
-        // PlayerTransfer.transfer() fires PlayerTransferEvent synchronously — with mass transfers
-        // (e.g. 2000 referToServer() in a loop), this would block the event loop thread for all
-        // synchronous event handler executions if run inline.
-        CompletableFuture.runAsync(() -> proxyCore.getPlayerTransfer().transfer(session, targetServerName));
+        // Queue on the orchestrator rather than transferring inline. PlayerTransfer.transfer()
+        // fires PlayerTransferEvent synchronously, which must not run on the Netty event loop,
+        // and a backend calling referToServer() for 2000 players in a loop must not send them
+        // all to the target at once.
+        proxyCore.getTransferOrchestrator()
+                .submit(session, targetServerName, TransferPriority.NORMAL)
+                .thenAccept(result -> {
+                    if (!result.isSuccess()) {
+                        LOGGER.warn("Session {}: Transfer to {} failed: {}",
+                                session.getSessionId(), targetServerName, result.getMessage());
+                    }
+                });
     }
 
     private boolean isTransferring() {
@@ -237,7 +252,7 @@ public final class BackendPacketHandler extends SimpleChannelInboundHandler<Obje
         LOGGER.info("Session {}: Backend stream closed", session.getSessionId());
         releasePendingBuffers();
 
-        if (shouldDisconnectClient()) {
+        if (!isReplaced(ctx) && shouldDisconnectClient()) {
             session.disconnect("Backend connection lost");
         }
 
@@ -251,6 +266,15 @@ public final class BackendPacketHandler extends SimpleChannelInboundHandler<Obje
         pendingRawToClient.clear();
     }
 
+    /**
+     * Returns true if the session has been switched to another backend stream,
+     * making this handler's stream a leftover that is about to close.
+     */
+    private boolean isReplaced(ChannelHandlerContext ctx) {
+        var current = session.getBackendStream();
+        return current != null && current != ctx.channel();
+    }
+
     private boolean shouldDisconnectClient() {
         SessionState state = session.getState();
         return state != SessionState.DISCONNECTED
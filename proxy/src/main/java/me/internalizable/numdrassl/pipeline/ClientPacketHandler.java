@@ -8,6 +8,7 @@ import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.SimpleChannelInboundHandler;
 import io.netty.util.ReferenceCountUtil;
+import me.internalizable.numdrassl.auth.ProxyAuthenticator;
 import me.internalizable.numdrassl.pipeline.handler.BackendConnectionHandler;
 import me.internalizable.numdrassl.pipeline.handler.ClientAuthenticationHandler;
 import me.internalizable.numdrassl.profiling.ProxyMetrics;
@@ -78,7 +79,10 @@ public final class ClientPacketHandler extends SimpleChannelInboundHandler<Objec
         if (!pendingRawToBackend.isEmpty()) {
             List<ByteBuf> batch = pendingRawToBackend;
             pendingRawToBackend = new ArrayList<>();
-            session.sendRawBatchToBackend(batch);
+            if (!session.sendRawBatchToBackend(batch)) {
+                // The other side is not draining fast enough; stop reading until it does
+                session.getMemory().pauseReads(ctx.channel());
+            }
         }
         super.channelReadComplete(ctx);
     }
@@ -162,11 +166,19 @@ public final class ClientPacketHandler extends SimpleChannelInboundHandler<Objec
     private void cleanupSession() {
         session.close();
         proxyCore.getSessionManager().removeSession(session);
+        invalidateSessionServiceCache();
         proxyCore.getEventManager().dispatchSessionClosed(session);
         ProxyMetrics.getInstance().recordConnectionClosed();
         ProxyMetrics.getInstance().decrementActiveSession();
     }
 
+    private void invalidateSessionServiceCache() {
+        ProxyAuthenticator authenticator = proxyCore.getAuthenticator();
+        if (authenticator != null && session.getPlayerUuid() != null) {
+            authenticator.getSessionService().getCache().invalidate(session.getPlayerUuid());
+        }
+    }
+
     @Override
     public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
         LOGGER.error("Session {}: Exception in client handler", session.getSessionId(), cause);
@@ -5,6 +5,10 @@ import io.netty.buffer.CompositeByteBuf;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelInboundHandlerAdapter;
 import io.netty.incubator.codec.quic.QuicStreamChannel;
+import me.internalizable.numdrassl.memory.BufferCategory;
+import me.internalizable.numdrassl.memory.SessionMemory;
+import me.internalizable.numdrassl.profiling.AllocationSite;
+import me.internalizable.numdrassl.profiling.TrackingByteBufAllocator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -17,6 +21,11 @@ import java.util.concurrent.atomic.AtomicReference;
  * 1:1 to the corresponding client unidirectional stream. Data is buffered until
  * the client stream becomes available, then the backlog is flushed.</p>
  *
+ * <p>Both the backlog and data written to the client stream reserve memory from the
+ * session's {@link SessionMemory}. When the session or the proxy runs out of budget,
+ * reads from the backend stream are paused, which lets QUIC flow control push back
+ * on the backend instead of buffering without limit.</p>
+ *
  * <p>Used for Hytale's multi-channel architecture where Chunks and WorldMap data
  * are sent on dedicated server-initiated unidirectional streams.</p>
  */
@@ -24,16 +33,20 @@ public final class UniStreamForwarder extends ChannelInboundHandlerAdapter {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(UniStreamForwarder.class);
     private static final int MAX_BUFFER_SIZE = 10 * 1024 * 1024; // 10 MB
+    private static final TrackingByteBufAllocator ALLOCATOR = AllocationSite.UNI_STREAM.allocator();
 
     private final long sessionId;
     private final long backendStreamId;
+    private final SessionMemory memory;
     private final AtomicReference<QuicStreamChannel> clientStream = new AtomicReference<>();
+    private ChannelHandlerContext ctx;
     private CompositeByteBuf pendingBuffer;
     private boolean closed;
 
-    public UniStreamForwarder(long sessionId, long backendStreamId) {
+    public UniStreamForwarder(long sessionId, long backendStreamId, SessionMemory memory) {
         this.sessionId = sessionId;
         this.backendStreamId = backendStreamId;
+        this.memory = memory;
     }
 
     /**
@@ -43,11 +56,22 @@ public final class UniStreamForwarder extends ChannelInboundHandlerAdapter {
         clientStream.set(stream);
         LOGGER.debug("Session {}: UniStream forwarder backend={} -> client={} linked",
                 sessionId, backendStreamId, stream.streamId());
+
+        // Reads may be paused with a backlog waiting; without a new read nothing would flush it
+        ChannelHandlerContext context = ctx;
+        if (context != null) {
+            context.executor().execute(() -> {
+                if (!closed && stream.isActive()) {
+                    flushPendingBuffer(stream);
+                }
+            });
+        }
     }
 
     @Override
     public void handlerAdded(ChannelHandlerContext ctx) {
-        pendingBuffer = ctx.alloc().compositeBuffer(256);
+        this.ctx = ctx;
+        pendingBuffer = ALLOCATOR.compositeBuffer(256);
     }
 
     @Override
@@ -69,7 +93,7 @@ public final class UniStreamForwarder extends ChannelInboundHandlerAdapter {
             // Flush any pending buffer first
             flushPendingBuffer(target);
             // Forward directly
-            target.writeAndFlush(data.retain());
+            write(ctx, target, data.retain());
         } else {
             // Buffer until client stream is ready
             if (pendingBuffer.readableBytes() + data.readableBytes() > MAX_BUFFER_SIZE) {
@@ -80,6 +104,10 @@ public final class UniStreamForwarder extends ChannelInboundHandlerAdapter {
                 return;
             }
             pendingBuffer.addComponent(true, data.retain());
+            ALLOCATOR.recordRetained(data.readableBytes());
+            if (!memory.reserve(BufferCategory.UNI_STREAM, data.readableBytes())) {
+                memory.pauseReads(ctx.channel());
+            }
             LOGGER.debug("Session {}: Buffering {} bytes for backend uni-stream {} (total buffered: {})",
                     sessionId, data.readableBytes(), backendStreamId, pendingBuffer.readableBytes());
         }
@@ -99,10 +127,28 @@ public final class UniStreamForwarder extends ChannelInboundHandlerAdapter {
         if (pendingBuffer != null && pendingBuffer.isReadable()) {
             LOGGER.debug("Session {}: Flushing {} buffered bytes to client uni-stream",
                     sessionId, pendingBuffer.readableBytes());
-            ByteBuf copy = pendingBuffer.copy();
-            target.writeAndFlush(copy);
-            pendingBuffer.clear();
+            int buffered = pendingBuffer.readableBytes();
+            ByteBuf copy = ALLOCATOR.buffer(buffered);
+            copy.writeBytes(pendingBuffer);
+            // clear() would only reset indices and keep the flushed components alive
+            pendingBuffer.discardReadComponents();
+            ALLOCATOR.recordRetained(-buffered);
+            memory.release(BufferCategory.UNI_STREAM, buffered);
+            write(ctx, target, copy);
+        }
+    }
+
+    /**
+     * Writes to the client stream, holding an outbound reservation until the
+     * stream has accepted the data.
+     */
+    private void write(ChannelHandlerContext ctx, QuicStreamChannel target, ByteBuf data) {
+        int bytes = data.readableBytes();
+        if (!memory.reserve(BufferCategory.STREAM_OUTBOUND, bytes)) {
+            memory.pauseReads(ctx.channel());
         }
+        target.writeAndFlush(data)
+            .addListener(future -> memory.release(BufferCategory.STREAM_OUTBOUND, bytes));
     }
 
     @Override
@@ -110,6 +156,8 @@ public final class UniStreamForwarder extends ChannelInboundHandlerAdapter {
         closed = true;
         LOGGER.debug("Session {}: Backend uni-stream {} closed", sessionId, backendStreamId);
         if (pendingBuffer != null) {
+            ALLOCATOR.recordRetained(-pendingBuffer.readableBytes());
+            memory.release(BufferCategory.UNI_STREAM, pendingBuffer.readableBytes());
             pendingBuffer.release();
             pendingBuffer = null;
         }
@@ -8,6 +8,8 @@ import com.hypixel.hytale.protocol.io.ProtocolException;
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.ByteToMessageDecoder;
+import me.internalizable.numdrassl.profiling.AllocationSite;
+import me.internalizable.numdrassl.profiling.TrackingByteBufAllocator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -28,12 +30,17 @@ public final class ProxyPacketDecoder extends ByteToMessageDecoder {
     private static final int HEADER_SIZE = 8;           // 4 bytes length + 4 bytes packet ID
     private static final int MAX_PAYLOAD_SIZE = 100_000_000; // 100MB
 
+    private static final TrackingByteBufAllocator ALLOCATOR = AllocationSite.DECODER.allocator();
+    private static final Cumulator TRACKED_CUMULATOR =
+        (alloc, cumulation, in) -> MERGE_CUMULATOR.cumulate(ALLOCATOR, cumulation, in);
+
     private final String connectionType;
     private final boolean debugMode;
 
     public ProxyPacketDecoder(@Nonnull String connectionType, boolean debugMode) {
         this.connectionType = Objects.requireNonNull(connectionType, "connectionType");
         this.debugMode = debugMode;
+        setCumulator(TRACKED_CUMULATOR);
     }
 
     @Override
@@ -93,7 +100,7 @@ public final class ProxyPacketDecoder extends ByteToMessageDecoder {
         // Copy raw bytes for forwarding
         in.resetReaderIndex();
         int totalSize = HEADER_SIZE + payloadLength;
-        ByteBuf rawCopy = ctx.alloc().buffer(totalSize);
+        ByteBuf rawCopy = ALLOCATOR.buffer(totalSize);
 
         try {
             in.readBytes(rawCopy, totalSize);
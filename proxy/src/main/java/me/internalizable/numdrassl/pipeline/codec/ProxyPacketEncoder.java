@@ -4,9 +4,11 @@ import com.hypixel.hytale.protocol.Packet;
 import com.hypixel.hytale.protocol.io.PacketIO;
 import com.hypixel.hytale.protocol.io.PacketStatsRecorder;
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
 import io.netty.channel.ChannelHandler;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.MessageToByteEncoder;
+import me.internalizable.numdrassl.profiling.AllocationSite;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -49,6 +51,17 @@ public final class ProxyPacketEncoder extends MessageToByteEncoder<Object> {
         }
     }
 
+    @Override
+    protected ByteBuf allocateBuffer(ChannelHandlerContext ctx, Object msg, boolean preferDirect) {
+        ByteBufAllocator alloc = AllocationSite.ENCODER.allocator();
+        // Raw packets are copied verbatim, so size the output exactly instead of growing from 256
+        if (msg instanceof ByteBuf raw) {
+            int size = raw.readableBytes();
+            return preferDirect ? alloc.ioBuffer(size) : alloc.heapBuffer(size);
+        }
+        return preferDirect ? alloc.ioBuffer() : alloc.heapBuffer();
+    }
+
     private void encodeRawPacket(ByteBuf raw, ByteBuf out) {
         int packetId = extractPacketId(raw);
 
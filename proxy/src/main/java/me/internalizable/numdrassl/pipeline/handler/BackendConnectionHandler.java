@@ -2,9 +2,13 @@ package me.internalizable.numdrassl.pipeline.handler;
 
 import com.hypixel.hytale.protocol.packets.connection.Connect;
 import me.internalizable.numdrassl.api.event.player.PlayerChooseInitialServerEvent;
+import me.internalizable.numdrassl.config.BackendGroup;
 import me.internalizable.numdrassl.config.BackendServer;
 import me.internalizable.numdrassl.plugin.NumdrasslProxy;
 import me.internalizable.numdrassl.server.ProxyCore;
+import me.internalizable.numdrassl.server.balance.BackendBalancer;
+import me.internalizable.numdrassl.server.health.BackendHealthManager;
+import me.internalizable.numdrassl.server.queue.LoginQueue;
 import me.internalizable.numdrassl.session.ProxySession;
 import me.internalizable.numdrassl.session.SessionState;
 import org.slf4j.Logger;
@@ -20,8 +24,11 @@ import java.util.Optional;
  * <p>Determines the appropriate backend based on:</p>
  * <ul>
  *   <li>Pending referrals (server transfers)</li>
- *   <li>Default backend server</li>
+ *   <li>Default backend server or backend group</li>
  * </ul>
+ *
+ * <p>If that backend or group is full, the session waits in the {@link LoginQueue}
+ * until it has room.</p>
  */
 public final class BackendConnectionHandler {
 
@@ -50,41 +57,95 @@ public final class BackendConnectionHandler {
             return;
         }
 
-        BackendServer backend = resolveBackend(originalConnect);
+        String targetName = resolveTargetName(originalConnect);
+
+        // Hold the player on the proxy while the target is full
+        LoginQueue loginQueue = proxyCore.getLoginQueue();
+        if (targetName != null && loginQueue.shouldQueue(targetName)) {
+            if (!loginQueue.enqueue(session, targetName, () -> connectToTarget(targetName, originalConnect))) {
+                LOGGER.warn("Session {}: Queue for {} is full", session.getSessionId(), targetName);
+                session.disconnect(targetName + " is full, please try again later");
+            }
+            return;
+        }
+
+        connectToTarget(targetName, originalConnect);
+    }
+
+    // ==================== Internal Methods ====================
+
+    private void connectToTarget(String targetName, Connect connect) {
+        BackendServer backend = targetName != null ? proxyCore.getBackendBalancer().resolve(targetName) : null;
+        if (backend != null) {
+            backend = avoidOpenCircuit(backend);
+        }
         if (backend == null) {
             LOGGER.error("Session {}: No backend server available", session.getSessionId());
             session.disconnect("No backend server available");
             return;
         }
 
-        initiateConnection(backend, originalConnect);
+        initiateConnection(backend, connect);
     }
 
-    // ==================== Internal Methods ====================
-
-    private BackendServer resolveBackend(Connect connect) {
+    /**
+     * Returns the backend or group name the login goes to, or null if there is none.
+     */
+    private String resolveTargetName(Connect connect) {
         // Check for pending referral (server transfer)
         if (connect.uuid != null) {
             Optional<BackendServer> referral = proxyCore.getReferralManager()
-                .consumeReferral(connect.uuid, connect.referralData);
+                .consumeReferral(connect.uuid, connect.referralData, session);
 
             if (referral.isPresent()) {
                 BackendServer backend = referral.get();
                 LOGGER.info("Session {}: Player {} transferred to backend {}",
                     session.getSessionId(), connect.username, backend.getName());
-                return backend;
+                return backend.getName();
             }
         }
 
         PlayerChooseInitialServerEvent.InitialServerResult initialServerResult = firePlayerChooseInitialServerEvent();
         if (initialServerResult.getMode().equals(PlayerChooseInitialServerEvent.InitialServerResult.InitialServerMode.CUSTOM)) {
             if (initialServerResult.getInitialServer() != null) {
-                return proxyCore.getConfig().getBackendByName(initialServerResult.getInitialServer().getName());
+                return initialServerResult.getInitialServer().getName();
             }
         }
 
-        // Fall back to default backend
-        return proxyCore.getConfig().getDefaultBackend();
+        // Fall back to the default group, or the default backend
+        BackendGroup defaultGroup = proxyCore.getConfig().getDefaultBackendGroup();
+        if (defaultGroup != null) {
+            return defaultGroup.getName();
+        }
+        BackendServer defaultBackend = proxyCore.getConfig().getDefaultBackend();
+        return defaultBackend != null ? defaultBackend.getName() : null;
+    }
+
+    /**
+     * Swaps a backend whose circuit is open for its fallback, or the global fallback,
+     * so the player is not held for a connect timeout against a backend known to be down.
+     *
+     * @return the backend to connect to, or null if every candidate is open
+     */
+    private BackendServer avoidOpenCircuit(BackendServer backend) {
+        BackendHealthManager healthManager = proxyCore.getBackendHealthManager();
+        if (!healthManager.getCircuitBreaker(backend).isRejecting()) {
+            return backend;
+        }
+
+        BackendBalancer balancer = proxyCore.getBackendBalancer();
+        for (String fallbackName : new String[]{backend.getFallbackServer(), proxyCore.getConfig().getGlobalFallbackServer()}) {
+            if (fallbackName == null || fallbackName.isBlank()) {
+                continue;
+            }
+            BackendServer fallback = balancer.resolve(fallbackName, backend);
+            if (fallback != null && fallback != backend && !healthManager.getCircuitBreaker(fallback).isRejecting()) {
+                LOGGER.info("Session {}: Backend {} circuit is open, connecting to {} instead",
+                    session.getSessionId(), backend.getName(), fallback.getName());
+                return fallback;
+            }
+        }
+        return null;
     }
 
     private void initiateConnection(BackendServer backend, Connect connect) {
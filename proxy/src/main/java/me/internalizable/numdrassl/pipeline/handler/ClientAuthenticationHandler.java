@@ -13,6 +13,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import java.util.Objects;
 
 /**
@@ -27,6 +28,11 @@ import java.util.Objects;
  *   <li>Proxy exchanges server_authorization_grant</li>
  *   <li>Proxy sends ServerAuthToken to client</li>
  * </ol>
+ *
+ * <p>A client reconnecting through a {@code ClientReferral} with a valid transfer
+ * ticket goes through the same steps, but step 5 is skipped: the proxy authenticated
+ * the same player on the same certificate moments earlier, and sends the server
+ * access token it got then.</p>
  */
 public final class ClientAuthenticationHandler {
 
@@ -36,6 +42,9 @@ public final class ClientAuthenticationHandler {
     private final ProxySession session;
     private final Runnable onAuthenticationComplete;
 
+    // Server access token carried over by a valid transfer ticket
+    private volatile String ticketAccessToken;
+
     public ClientAuthenticationHandler(
             @Nonnull ProxyCore proxyCore,
             @Nonnull ProxySession session,
@@ -68,9 +77,20 @@ public final class ClientAuthenticationHandler {
         // Store the connect packet - LoginEvent will be fired after authentication completes
         // in completeAuthentication() to give async permission loading time to complete.
         session.setOriginalConnect(connect);
+
+        ticketAccessToken = redeemTransferTicket(connect);
         requestAuthGrant(connect);
     }
 
+    @Nullable
+    private String redeemTransferTicket(Connect connect) {
+        if (connect.uuid == null || connect.username == null) {
+            return null;
+        }
+        return proxyCore.getReferralManager().redeemTicket(
+            connect.uuid, connect.username, session.getClientCertificateFingerprint(), connect.referralData);
+    }
+
     /**
      * Fires the PermissionSetupEvent to allow plugins to set up permissions.
      * This is called early in the connection flow to give async plugins time to load data.
@@ -177,17 +197,27 @@ public final class ClientAuthenticationHandler {
     }
 
     private void exchangeServerAuthGrant(ProxyAuthenticator authenticator, String serverAuthGrant) {
-        if (serverAuthGrant != null && !serverAuthGrant.isEmpty()) {
-            LOGGER.info("Session {}: Exchanging server authorization grant", session.getSessionId());
-
-            authenticator.exchangeServerAuthGrant(serverAuthGrant)
-                .thenAccept(this::handleServerAccessToken)
-                .exceptionally(this::handleExchangeError);
-        } else {
+        if (serverAuthGrant == null || serverAuthGrant.isEmpty()) {
             LOGGER.warn("Session {}: No server auth grant, proceeding without mutual auth",
                 session.getSessionId());
             completeAuthentication(null);
+            return;
         }
+
+        String carried = ticketAccessToken;
+        if (carried != null) {
+            LOGGER.info("Session {}: Valid transfer ticket, skipping server auth grant exchange",
+                session.getSessionId());
+            ticketAccessToken = null;
+            completeAuthentication(carried);
+            return;
+        }
+
+        LOGGER.info("Session {}: Exchanging server authorization grant", session.getSessionId());
+
+        authenticator.exchangeServerAuthGrant(serverAuthGrant, session.getPlayerUuid())
+            .thenAccept(this::handleServerAccessToken)
+            .exceptionally(this::handleExchangeError);
     }
 
     private void handleServerAccessToken(String serverAccessToken) {
@@ -217,12 +247,21 @@ public final class ClientAuthenticationHandler {
      *
      * @param serverAccessToken The access token verified by the central auth server.
      */
-    private void completeAuthentication(String serverAccessToken) {
-        // 1. Send success packet to client immediately to prevent protocol timeouts
+    private void completeAuthentication(@Nullable String serverAccessToken) {
+        // Kept so a transfer ticket can hand it to the reconnecting session
+        session.setServerAccessToken(serverAccessToken);
+
+        // Send success packet to client immediately to prevent protocol timeouts
         ServerAuthToken serverAuthToken = new ServerAuthToken(serverAccessToken, null);
         session.sendToClient(serverAuthToken);
 
-        // 2. Get lifecycle handler
+        runAsyncLogin();
+    }
+
+    /**
+     * Runs the async login phase and continues to the backend once plugins allow it.
+     */
+    private void runAsyncLogin() {
         var apiProxy = proxyCore.getApiProxy();
         if (apiProxy == null) {
             LOGGER.error("Session {}: API Proxy not initialized during login sequence",
@@ -233,7 +272,7 @@ public final class ClientAuthenticationHandler {
 
         var lifecycleHandler = apiProxy.getEventBridge().getLifecycleHandler();
 
-        // 3. Execute async login phase (delegates all async barrier logic)
+        // Execute async login phase (delegates all async barrier logic)
         lifecycleHandler.onAsyncLogin(session)
                 .thenAccept(result -> {
 
@@ -75,6 +75,10 @@ public final class NumdrasslProxy implements ProxyServer {
 
     // Server registry
     private final Map<String, NumdrasslRegisteredServer> servers = new ConcurrentHashMap<>();
+    private final Collection<RegisteredServer> serversView = Collections.unmodifiableCollection(servers.values());
+
+    // Live view over identified sessions, so getAllPlayers() never copies
+    private final Collection<Player> playersView = new PlayerView();
 
     // Paths
     private final Path dataDirectory;
@@ -133,7 +137,8 @@ public final class NumdrasslProxy implements ProxyServer {
             try {
                 this.messagingService = RedisMessagingService.create(
                         clusterManager.getLocalProxyId(),
-                        config
+                        config,
+                        core.getMemoryBudget()
                 );
                 clusterManager.initialize(messagingService, eventManager);
                 LOGGER.info("Cluster mode enabled - connected to Redis");
@@ -154,6 +159,7 @@ public final class NumdrasslProxy implements ProxyServer {
     private void registerBuiltinCommands() {
         commandManager.register(this, new AuthCommand(core));
         commandManager.register(this, new SessionsCommand(core));
+        commandManager.register(this, new BackendsCommand(core));
         commandManager.register(this, new StopCommand(core), "shutdown", "end");
         commandManager.register(this, new ServerCommand(), "srv", "send");
         commandManager.register(this, new FindCommand(), "find-server");
@@ -264,14 +270,7 @@ public final class NumdrasslProxy implements ProxyServer {
     @Override
     @Nonnull
     public Collection<Player> getAllPlayers() {
-        List<Player> players = new ArrayList<>();
-        for (ProxySession session : core.getSessionManager().getAllSessions()) {
-            Player player = getOrCreatePlayer(session);
-            if (player != null) {
-                players.add(player);
-            }
-        }
-        return Collections.unmodifiableList(players);
+        return playersView;
     }
 
     @Override
@@ -286,12 +285,8 @@ public final class NumdrasslProxy implements ProxyServer {
     @Nonnull
     public Optional<Player> getPlayer(@Nonnull String username) {
         Objects.requireNonNull(username, "username");
-        for (ProxySession session : core.getSessionManager().getAllSessions()) {
-            if (username.equalsIgnoreCase(session.getUsername())) {
-                return Optional.ofNullable(getOrCreatePlayer(session));
-            }
-        }
-        return Optional.empty();
+        return core.getSessionManager().findByUsername(username)
+            .map(this::getOrCreatePlayer);
     }
 
     /**
@@ -319,12 +314,51 @@ public final class NumdrasslProxy implements ProxyServer {
         return core.getSessionManager().getSessionCount();
     }
 
+    /**
+     * Unmodifiable view of the players behind the identified sessions. Iteration and
+     * {@code size()} read the session manager directly.
+     */
+    private final class PlayerView extends AbstractCollection<Player> {
+
+        @Override
+        @Nonnull
+        public Iterator<Player> iterator() {
+            Iterator<ProxySession> sessions = core.getSessionManager().getIdentifiedSessions().iterator();
+            return new Iterator<>() {
+                @Override
+                public boolean hasNext() {
+                    return sessions.hasNext();
+                }
+
+                @Override
+                public Player next() {
+                    return getOrCreatePlayer(sessions.next());
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return core.getSessionManager().getIdentifiedSessionCount();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            if (!(o instanceof Player player) || player.getUniqueId() == null) {
+                return false;
+            }
+            return core.getSessionManager().findByUuid(player.getUniqueId())
+                .map(session -> session.getCachedPlayer() == player)
+                .orElse(false);
+        }
+    }
+
     // ==================== Server Management ====================
 
     @Override
     @Nonnull
     public Collection<RegisteredServer> getAllServers() {
-        return Collections.unmodifiableCollection(servers.values());
+        return serversView;
     }
 
     @Override
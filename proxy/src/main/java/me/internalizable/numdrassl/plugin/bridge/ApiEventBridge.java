@@ -82,6 +82,15 @@ public final class ApiEventBridge implements PacketListener {
         lifecycleHandler.onServerConnected(session, previousSession);
     }
 
+    /**
+     * Fires ServerConnectedEvent after an in-proxy backend switch.
+     */
+    public void fireServerSwitchedEvent(
+            @Nonnull ProxySession session,
+            @Nullable BackendServer previousBackend) {
+        lifecycleHandler.onServerSwitched(session, previousBackend);
+    }
+
     public ServerDisconnectedResult fireServerDisconnectedEvent(@Nonnull ProxySession session, String disconnectReason) {
         return lifecycleHandler.onServerDisconnected(session, disconnectReason);
     }
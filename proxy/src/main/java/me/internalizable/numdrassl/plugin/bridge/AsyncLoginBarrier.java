@@ -0,0 +1,191 @@
+package me.internalizable.numdrassl.plugin.bridge;
+
+import me.internalizable.numdrassl.api.event.connection.AsyncLoginEvent;
+import me.internalizable.numdrassl.config.ProxyConfig;
+import me.internalizable.numdrassl.profiling.ProxyMetrics;
+import me.internalizable.numdrassl.server.ProxyCore;
+import me.internalizable.numdrassl.session.ProxySession;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Waits for the tasks plugins registered on an {@link AsyncLoginEvent}, with deadlines.
+ *
+ * <p>Each plugin's tasks must finish within {@code asyncLoginTaskTimeoutSeconds}, or the
+ * plugin's entry in {@code asyncLoginPluginTimeouts}, and all of them within
+ * {@code asyncLoginTimeoutSeconds}. What happens when a deadline passes is set by
+ * {@code asyncLoginTimeoutPolicy}:</p>
+ * <ul>
+ *   <li>{@link Policy#DENY} - the player is disconnected</li>
+ *   <li>{@link Policy#ALLOW} - the login continues with the event's result as it was when
+ *   the deadline passed</li>
+ *   <li>{@link Policy#LOG} - like {@code ALLOW}, but logs a warning naming the plugin</li>
+ * </ul>
+ *
+ * <p>A task that fails denies the login at once, without waiting for the other
+ * plugins. Once any deadline has passed, results set on the event by tasks still
+ * running are ignored.</p>
+ */
+final class AsyncLoginBarrier {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AsyncLoginBarrier.class);
+
+    static final String TIMEOUT_MESSAGE = "Login timed out while loading your data, please try again";
+
+    private final ProxyCore core;
+
+    AsyncLoginBarrier(@Nonnull ProxyCore core) {
+        this.core = Objects.requireNonNull(core, "core");
+    }
+
+    /**
+     * Waits for the tasks, grouped by the plugin that registered them.
+     *
+     * @param session       the logging-in session
+     * @param event         the fired event
+     * @param tasksByPlugin registered tasks by plugin ID, in handler order
+     * @return the login result; completes exceptionally if a task failed or the session closed
+     */
+    @Nonnull
+    CompletableFuture<AsyncLoginEvent.AsyncLoginResult> await(@Nonnull ProxySession session,
+                                                              @Nonnull AsyncLoginEvent event,
+                                                              @Nonnull Map<String, List<CompletableFuture<?>>> tasksByPlugin) {
+        ProxyConfig config = core.getConfig();
+        Policy policy = policy(config);
+        CompletableFuture<AsyncLoginEvent.AsyncLoginResult> result = new CompletableFuture<>();
+        AtomicInteger remaining = new AtomicInteger(tasksByPlugin.size());
+        List<String> pending = new ArrayList<>(tasksByPlugin.keySet()); // Guarded by itself
+        // The event's result when the first deadline passed
+        AtomicReference<AsyncLoginEvent.AsyncLoginResult> snapshot = new AtomicReference<>();
+
+        for (Map.Entry<String, List<CompletableFuture<?>>> entry : tasksByPlugin.entrySet()) {
+            String plugin = entry.getKey();
+            long timeoutMillis = TimeUnit.SECONDS.toMillis(pluginTimeoutSeconds(config, plugin));
+            long startedAt = System.nanoTime();
+
+            CompletableFuture.allOf(entry.getValue().toArray(new CompletableFuture[0]))
+                .orTimeout(timeoutMillis, TimeUnit.MILLISECONDS)
+                .whenComplete((v, ex) -> {
+                    synchronized (pending) {
+                        pending.remove(plugin);
+                    }
+                    Throwable cause = unwrap(ex);
+                    String outcome = cause == null ? "ok" : cause instanceof TimeoutException ? "timeout" : "failed";
+                    ProxyMetrics.getInstance().recordAsyncLoginTask(plugin, outcome, System.nanoTime() - startedAt);
+
+                    if (cause instanceof TimeoutException) {
+                        snapshot.compareAndSet(null, event.getResult());
+                        onTimeout(session, plugin, policy, timeoutMillis, result);
+                    } else if (cause != null) {
+                        LOGGER.error("Session {}: Async login task from plugin {} failed",
+                            session.getSessionId(), plugin, cause);
+                        result.completeExceptionally(cause);
+                        return;
+                    }
+
+                    if (remaining.decrementAndGet() == 0) {
+                        finish(session, event, snapshot, result);
+                    }
+                });
+        }
+
+        long globalMillis = TimeUnit.SECONDS.toMillis(config.getAsyncLoginTimeoutSeconds());
+        CompletableFuture.delayedExecutor(globalMillis, TimeUnit.MILLISECONDS).execute(() -> {
+            if (result.isDone()) {
+                return;
+            }
+            snapshot.compareAndSet(null, event.getResult());
+            List<String> stillPending;
+            synchronized (pending) {
+                stillPending = List.copyOf(pending);
+            }
+            ProxyMetrics.getInstance().recordAsyncLoginDeadlineExceeded();
+            LOGGER.warn("Session {}: Async login tasks did not finish within {}s (waiting on {}), policy {}",
+                session.getSessionId(), config.getAsyncLoginTimeoutSeconds(), stillPending, policy);
+            if (policy == Policy.DENY) {
+                result.complete(AsyncLoginEvent.AsyncLoginResult.denied(TIMEOUT_MESSAGE));
+            } else {
+                finish(session, event, snapshot, result);
+            }
+        });
+
+        return result;
+    }
+
+    private void onTimeout(ProxySession session, String plugin, Policy policy, long timeoutMillis,
+                           CompletableFuture<AsyncLoginEvent.AsyncLoginResult> result) {
+        switch (policy) {
+            case DENY -> {
+                LOGGER.warn("Session {}: Async login task from plugin {} did not finish within {} ms, denying login",
+                    session.getSessionId(), plugin, timeoutMillis);
+                result.complete(AsyncLoginEvent.AsyncLoginResult.denied(TIMEOUT_MESSAGE));
+            }
+            case LOG -> LOGGER.warn("Session {}: Async login task from plugin {} did not finish within {} ms, continuing",
+                session.getSessionId(), plugin, timeoutMillis);
+            case ALLOW -> LOGGER.debug("Session {}: Async login task from plugin {} timed out, continuing",
+                session.getSessionId(), plugin);
+        }
+    }
+
+    private static void finish(ProxySession session, AsyncLoginEvent event,
+                               AtomicReference<AsyncLoginEvent.AsyncLoginResult> snapshot,
+                               CompletableFuture<AsyncLoginEvent.AsyncLoginResult> result) {
+        if (!session.isActive()) {
+            LOGGER.debug("Session {}: Client disconnected during async wait. Aborting login.", session.getSessionId());
+            result.completeExceptionally(new IllegalStateException("Session closed during async login"));
+            return;
+        }
+        AsyncLoginEvent.AsyncLoginResult atDeadline = snapshot.get();
+        result.complete(atDeadline != null ? atDeadline : event.getResult());
+    }
+
+    private static int pluginTimeoutSeconds(ProxyConfig config, String plugin) {
+        Integer seconds = config.getAsyncLoginPluginTimeouts().get(plugin);
+        return seconds != null && seconds > 0 ? seconds : config.getAsyncLoginTaskTimeoutSeconds();
+    }
+
+    private static Policy policy(ProxyConfig config) {
+        Policy policy = Policy.fromConfig(config.getAsyncLoginTimeoutPolicy());
+        return policy != null ? policy : Policy.DENY;
+    }
+
+    @Nullable
+    private static Throwable unwrap(@Nullable Throwable ex) {
+        return ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+    }
+
+    /**
+     * What to do with a login whose async tasks missed a deadline.
+     */
+    enum Policy {
+        DENY,
+        ALLOW,
+        LOG;
+
+        @Nullable
+        static Policy fromConfig(@Nullable String value) {
+            if (value == null) {
+                return null;
+            }
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+    }
+}
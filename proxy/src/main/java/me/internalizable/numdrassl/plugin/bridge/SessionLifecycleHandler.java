@@ -26,7 +26,10 @@ import org.slf4j.LoggerFactory;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
 
@@ -49,10 +52,12 @@ public final class SessionLifecycleHandler {
 
     private final NumdrasslProxy proxy;
     private final NumdrasslEventManager eventManager;
+    private final AsyncLoginBarrier loginBarrier;
 
     public SessionLifecycleHandler(@Nonnull NumdrasslProxy proxy) {
         this.proxy = Objects.requireNonNull(proxy, "proxy");
         this.eventManager = proxy.getNumdrasslEventManager();
+        this.loginBarrier = new AsyncLoginBarrier(proxy.getCore());
     }
 
     // ==================== Connection Events ====================
@@ -148,49 +153,38 @@ public final class SessionLifecycleHandler {
             return future;
         }
 
-        // 2. Instantiate and fire the AsyncLoginEvent
+        // 2. Instantiate and fire the AsyncLoginEvent, noting which plugin registered each task
         AsyncLoginEvent asyncEvent = new AsyncLoginEvent(player);
-        eventManager.fireSync(asyncEvent);
+        Map<String, List<CompletableFuture<?>>> tasksByPlugin = new LinkedHashMap<>();
+        int[] seen = {0};
+        eventManager.fireSync(asyncEvent, (plugin, event) -> {
+            List<CompletableFuture<?>> tasks = event.getLoginTasks();
+            if (tasks.size() > seen[0]) {
+                tasksByPlugin.computeIfAbsent(pluginId(plugin), k -> new ArrayList<>())
+                        .addAll(tasks.subList(seen[0], tasks.size()));
+                seen[0] = tasks.size();
+            }
+        });
 
         // 3. Handle Async Barriers (Synchronization Barrier Pattern)
-        List<CompletableFuture<?>> tasks = asyncEvent.getLoginTasks();
-
-        if (tasks.isEmpty()) {
+        if (tasksByPlugin.isEmpty()) {
             // Fast Path: No plugins requested a wait. Return immediately with result.
             LOGGER.debug("Session {}: No async login tasks registered, proceeding immediately",
                     session.getSessionId());
             return CompletableFuture.completedFuture(asyncEvent.getResult());
         }
 
-        // Slow Path: Wait for all registered futures (e.g., Database, API calls) to complete.
-        LOGGER.info("Session {}: Waiting for {} async login tasks...",
-                session.getSessionId(), tasks.size());
-
-        CompletableFuture<AsyncLoginEvent.AsyncLoginResult> resultFuture = new CompletableFuture<>();
-
-        CompletableFuture.allOf(tasks.toArray(new CompletableFuture[0]))
-                .whenComplete((v, ex) -> {
-                    if (ex != null) {
-                        LOGGER.error("Session {}: Async login task failed unexpectedly",
-                                session.getSessionId(), ex);
-                        resultFuture.completeExceptionally(ex);
-                        return;
-                    }
-
-                    if (!session.isActive()) {
-                        LOGGER.debug("Session {}: Client disconnected during async wait. Aborting login.",
-                                session.getSessionId());
-                        resultFuture.completeExceptionally(
-                                new IllegalStateException("Session closed during async login"));
-                        return;
-                    }
-
-                    LOGGER.debug("Session {}: All {} async login tasks completed successfully",
-                            session.getSessionId(), tasks.size());
-                    resultFuture.complete(asyncEvent.getResult());
-                });
-
-        return resultFuture;
+        // Slow Path: Wait for the registered futures (e.g., Database, API calls), within their deadlines
+        LOGGER.info("Session {}: Waiting for {} async login tasks from {}...",
+                session.getSessionId(), seen[0], tasksByPlugin.keySet());
+
+        return loginBarrier.await(session, asyncEvent, tasksByPlugin);
+    }
+
+    private String pluginId(Object plugin) {
+        return proxy.getPluginManager().fromInstance(plugin)
+                .map(container -> container.getDescription().getId())
+                .orElseGet(() -> plugin.getClass().getSimpleName());
     }
 
     /**
@@ -280,6 +274,31 @@ public final class SessionLifecycleHandler {
 
         Objects.requireNonNull(session, "session");
 
+        RegisteredServer previousServer = previousSession != null
+            ? resolveServerFromSession(previousSession)
+            : null;
+        handleServerConnected(session, previousServer);
+    }
+
+    /**
+     * Handles an in-proxy switch from one backend to another on the same session.
+     *
+     * @param session the player session, already bound to the new backend
+     * @param previousBackend the backend the player was moved away from
+     */
+    public void onServerSwitched(
+            @Nonnull ProxySession session,
+            @Nullable BackendServer previousBackend) {
+
+        Objects.requireNonNull(session, "session");
+
+        RegisteredServer previousServer = previousBackend != null
+            ? proxy.getServer(previousBackend.getName()).orElse(null)
+            : null;
+        handleServerConnected(session, previousServer);
+    }
+
+    private void handleServerConnected(ProxySession session, @Nullable RegisteredServer previousServer) {
         // Flush any pending messages now that player is connected
         session.flushPendingMessages();
 
@@ -293,10 +312,6 @@ public final class SessionLifecycleHandler {
             session.getCurrentServerName());
 
         if (player != null && server != null) {
-            RegisteredServer previousServer = previousSession != null
-                ? resolveServerFromSession(previousSession)
-                : null;
-
             // Remove from previous server
             if (previousServer instanceof NumdrasslRegisteredServer prevNumdrasslServer) {
                 prevNumdrasslServer.removePlayer(player);
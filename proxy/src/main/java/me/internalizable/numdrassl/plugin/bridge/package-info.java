@@ -10,6 +10,8 @@
  *       composes the specialized handlers and implements {@code PacketListener}.</li>
  *   <li>{@link me.internalizable.numdrassl.plugin.bridge.SessionLifecycleHandler} - Handles
  *       session lifecycle events (PreLogin, PostLogin, Disconnect, ServerConnect).</li>
+ *   <li>{@link me.internalizable.numdrassl.plugin.bridge.AsyncLoginBarrier} - Waits for
+ *       AsyncLoginEvent tasks per plugin, with deadlines and a timeout policy.</li>
  *   <li>{@link me.internalizable.numdrassl.plugin.bridge.PacketEventBridge} - Handles
  *       packet-to-event translation via {@code PacketEventRegistry}.</li>
  *   <li>{@link me.internalizable.numdrassl.plugin.bridge.ServerPreConnectResult} - Result
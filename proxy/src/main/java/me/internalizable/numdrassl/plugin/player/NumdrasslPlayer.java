@@ -11,6 +11,7 @@ import me.internalizable.numdrassl.api.player.PlayerSettings;
 import me.internalizable.numdrassl.api.player.TransferResult;
 import me.internalizable.numdrassl.api.server.RegisteredServer;
 import me.internalizable.numdrassl.plugin.NumdrasslProxy;
+import me.internalizable.numdrassl.server.transfer.TransferPriority;
 import me.internalizable.numdrassl.session.ProxySession;
 
 import javax.annotation.Nonnull;
@@ -207,8 +208,8 @@ public final class NumdrasslPlayer implements Player {
             );
         }
 
-        // Use PlayerTransfer which sends ClientReferral
-        return proxy.getCore().getPlayerTransfer().transfer(session, backend);
+        // Queued on the orchestrator so plugin moves share the per-target pacing
+        return proxy.getCore().getTransferOrchestrator().submit(session, backend.getName(), TransferPriority.NORMAL);
     }
 
     @Override
@@ -216,8 +217,8 @@ public final class NumdrasslPlayer implements Player {
     public CompletableFuture<TransferResult> transfer(@Nonnull String serverName) {
         Objects.requireNonNull(serverName, "serverName");
 
-        // Use PlayerTransfer which sends ClientReferral
-        return proxy.getCore().getPlayerTransfer().transfer(session, serverName);
+        // Queued on the orchestrator so plugin moves share the per-target pacing
+        return proxy.getCore().getTransferOrchestrator().submit(session, serverName, TransferPriority.NORMAL);
     }
 
     // ==================== Permissions ====================
@@ -29,6 +29,7 @@ public final class NumdrasslRegisteredServer implements RegisteredServer {
     private final String name;
     private final InetSocketAddress address;
     private final Set<Player> connectedPlayers = ConcurrentHashMap.newKeySet();
+    private final Collection<Player> connectedPlayersView = Collections.unmodifiableSet(connectedPlayers);
     private volatile boolean defaultServer;
 
     public NumdrasslRegisteredServer(@Nonnull String name, @Nonnull InetSocketAddress address) {
@@ -65,7 +66,7 @@ public final class NumdrasslRegisteredServer implements RegisteredServer {
     @Override
     @Nonnull
     public Collection<Player> getPlayers() {
-        return Collections.unmodifiableSet(connectedPlayers);
+        return connectedPlayersView;
     }
 
     @Override
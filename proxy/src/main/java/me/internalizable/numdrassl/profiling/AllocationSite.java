@@ -0,0 +1,55 @@
+package me.internalizable.numdrassl.profiling;
+
+import io.netty.buffer.ByteBufAllocator;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Proxy call sites whose buffer allocations are attributed separately.
+ *
+ * <p>Each site owns a {@link TrackingByteBufAllocator} wrapping
+ * {@link ByteBufAllocator#DEFAULT}, so switching a call site from {@code ctx.alloc()}
+ * to {@code AllocationSite.X.allocator()} keeps the same pooling behaviour while
+ * making its allocations visible in {@link ProxyMetrics}.</p>
+ */
+public enum AllocationSite {
+
+    /** Raw packet copies and cumulation buffers in the packet decoder. */
+    DECODER("decoder"),
+
+    /** Outbound buffers produced by the packet encoder, including serialization scratch space. */
+    ENCODER("encoder"),
+
+    /** Direct buffers holding Zstd-decompressed packet payloads. */
+    ZSTD("zstd"),
+
+    /** Backlog held by {@code UniStreamForwarder} until the client stream is ready. */
+    UNI_STREAM("uni_stream"),
+
+    /** Netty buffers used by the Redis messaging connections. */
+    MESSAGING("messaging");
+
+    private final String tag;
+    private final TrackingByteBufAllocator allocator;
+
+    AllocationSite(String tag) {
+        this.tag = tag;
+        this.allocator = new TrackingByteBufAllocator(ByteBufAllocator.DEFAULT);
+    }
+
+    /**
+     * Gets the value used for the {@code site} tag in Prometheus.
+     */
+    @Nonnull
+    public String tag() {
+        return tag;
+    }
+
+    /**
+     * Gets the tracking allocator for this site.
+     */
+    @Nonnull
+    public TrackingByteBufAllocator allocator() {
+        return allocator;
+    }
+}
@@ -0,0 +1,203 @@
+package me.internalizable.numdrassl.profiling;
+
+import com.google.gson.Gson;
+import com.sun.net.httpserver.HttpExchange;
+import me.internalizable.numdrassl.memory.MemoryBudget;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pushes live stats to dashboards over Server-Sent Events.
+ *
+ * <p>{@link #publish(ProxyMetrics)} is called once per tick by {@link MetricsHttpServer}.
+ * It collects one snapshot, serializes it once, and hands the same bytes to every
+ * subscriber. A new subscriber first receives a full {@code snapshot} event, then
+ * {@code delta} events containing only the fields that changed since the previous tick.</p>
+ *
+ * <p>Each subscriber is served by its own (virtual) request thread with a one-slot
+ * queue. A subscriber that cannot keep up has its pending delta replaced by a full
+ * snapshot, so it never applies a delta on top of a missed one.</p>
+ */
+final class LiveStatsBroadcaster {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LiveStatsBroadcaster.class);
+
+    private static final Gson GSON = new Gson();
+    private static final int MAX_SUBSCRIBERS = 64;
+    private static final long HEARTBEAT_SECONDS = 15;
+    private static final byte[] HEARTBEAT = ": keep-alive\n\n".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] RETRY = "retry: 2000\n\n".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] CLOSE = new byte[0];
+
+    private final Set<BlockingQueue<byte[]>> subscribers = ConcurrentHashMap.newKeySet();
+
+    private volatile Map<String, Object> lastFields = Map.of();
+    private volatile byte[] lastSnapshotEvent;
+    private volatile String lastSnapshotJson = "{}";
+    private long tick;
+
+    // ==================== Publishing ====================
+
+    /**
+     * Collects a snapshot and sends it to all subscribers. Called from the tick thread only.
+     */
+    void publish(@Nonnull ProxyMetrics metrics) {
+        Map<String, Object> fields = collect(metrics);
+        Map<String, Object> previous = lastFields;
+        tick++;
+
+        String json = GSON.toJson(fields);
+        byte[] snapshotEvent = event("snapshot", json);
+        lastFields = fields;
+        lastSnapshotJson = json;
+        lastSnapshotEvent = snapshotEvent;
+
+        if (subscribers.isEmpty()) {
+            return;
+        }
+
+        Map<String, Object> delta = new LinkedHashMap<>();
+        for (Map.Entry<String, Object> entry : fields.entrySet()) {
+            if (!Objects.equals(entry.getValue(), previous.get(entry.getKey()))) {
+                delta.put(entry.getKey(), entry.getValue());
+            }
+        }
+        byte[] deltaEvent = event("delta", GSON.toJson(delta));
+
+        for (BlockingQueue<byte[]> queue : subscribers) {
+            if (!queue.offer(deltaEvent)) {
+                // Subscriber is behind; a full snapshot supersedes whatever it has not sent yet
+                queue.clear();
+                queue.offer(snapshotEvent);
+            }
+        }
+    }
+
+    /**
+     * Gets the JSON of the most recent snapshot.
+     */
+    @Nonnull
+    String getSnapshotJson() {
+        return lastSnapshotJson;
+    }
+
+    int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    private Map<String, Object> collect(ProxyMetrics metrics) {
+        ProxyMetrics.MetricsSnapshot snapshot = metrics.createSnapshot();
+        ProxyMetrics.BufferSnapshot buffers = metrics.createBufferSnapshot();
+        Runtime runtime = Runtime.getRuntime();
+
+        Map<String, Object> fields = new LinkedHashMap<>();
+        fields.put("timestamp", System.currentTimeMillis());
+        fields.put("uptimeSeconds", snapshot.uptimeSeconds());
+        fields.put("activeSessions", snapshot.activeSessions());
+        fields.put("connectionsAccepted", snapshot.connectionsAccepted());
+        fields.put("connectionsClosed", snapshot.connectionsClosed());
+        fields.put("packetsPerSecIn", round(snapshot.packetsPerSecIn()));
+        fields.put("packetsPerSecOut", round(snapshot.packetsPerSecOut()));
+        fields.put("bytesPerSecIn", round(snapshot.bytesPerSecIn()));
+        fields.put("bytesPerSecOut", round(snapshot.bytesPerSecOut()));
+        fields.put("avgResponseTimeMs", round(snapshot.avgResponseTimeMs()));
+        fields.put("hangingRequests", snapshot.hangingRequests());
+        fields.put("authFailures", snapshot.authFailures());
+        fields.put("backendFailures", snapshot.backendFailures());
+        fields.put("heapUsedBytes", runtime.totalMemory() - runtime.freeMemory());
+        fields.put("heapMaxBytes", runtime.maxMemory());
+        fields.put("directUsedBytes", buffers.allocatorDirectBytes());
+        MemoryBudget.Snapshot budget = metrics.createMemoryBudgetSnapshot();
+        if (budget != null) {
+            fields.put("memoryBudgetReservedBytes", budget.reservedBytes());
+            fields.put("memoryBudgetPausedChannels", budget.pausedChannels());
+        }
+        List<ProxyMetrics.BackendSessionCount> backendCounts = metrics.createBackendSessionCounts();
+        if (!backendCounts.isEmpty()) {
+            Map<String, Integer> backendSessions = new LinkedHashMap<>();
+            for (ProxyMetrics.BackendSessionCount count : backendCounts) {
+                backendSessions.put(count.backend(), count.sessions());
+            }
+            fields.put("backendSessions", backendSessions);
+        }
+        return fields;
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 10) / 10.0;
+    }
+
+    private byte[] event(String type, String json) {
+        return ("id: " + tick + "\nevent: " + type + "\ndata: " + json + "\n\n")
+            .getBytes(StandardCharsets.UTF_8);
+    }
+
+    // ==================== Streaming ====================
+
+    /**
+     * Serves one SSE subscriber until it disconnects or the server stops.
+     * Blocks the calling request thread for the lifetime of the stream.
+     */
+    void stream(@Nonnull HttpExchange exchange) throws IOException {
+        if (subscribers.size() >= MAX_SUBSCRIBERS) {
+            exchange.sendResponseHeaders(503, -1);
+            exchange.close();
+            return;
+        }
+
+        exchange.getResponseHeaders().set("Content-Type", "text/event-stream; charset=utf-8");
+        exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+        exchange.getResponseHeaders().set("X-Accel-Buffering", "no");
+        exchange.sendResponseHeaders(200, 0);
+
+        BlockingQueue<byte[]> queue = new LinkedBlockingQueue<>(1);
+        subscribers.add(queue);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(RETRY);
+            byte[] snapshot = lastSnapshotEvent;
+            if (snapshot != null) {
+                os.write(snapshot);
+            }
+            os.flush();
+
+            while (true) {
+                byte[] event = queue.poll(HEARTBEAT_SECONDS, TimeUnit.SECONDS);
+                if (event == CLOSE) {
+                    break;
+                }
+                os.write(event != null ? event : HEARTBEAT);
+                os.flush();
+            }
+        } catch (IOException e) {
+            LOGGER.debug("Live stats subscriber disconnected: {}", e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            subscribers.remove(queue);
+        }
+    }
+
+    /**
+     * Ends all open streams.
+     */
+    void close() {
+        for (BlockingQueue<byte[]> queue : subscribers) {
+            queue.clear();
+            queue.offer(CLOSE);
+        }
+    }
+}
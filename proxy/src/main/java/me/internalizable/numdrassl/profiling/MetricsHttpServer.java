@@ -2,6 +2,7 @@ package me.internalizable.numdrassl.profiling;
 
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpServer;
+import me.internalizable.numdrassl.memory.MemoryBudget;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -9,7 +10,10 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.net.InetSocketAddress;
 import java.nio.charset.StandardCharsets;
+import java.util.List;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Embedded HTTP server for exposing metrics endpoints.
@@ -18,9 +22,15 @@ import java.util.concurrent.Executors;
  * <ul>
  *   <li><b>/metrics</b> - Prometheus-compatible metrics scrape endpoint</li>
  *   <li><b>/health</b> - Simple health check (returns 200 OK)</li>
- *   <li><b>/stats</b> - Human-readable metrics summary</li>
+ *   <li><b>/stats</b> - Human-readable metrics summary ({@code ?format=json} for JSON)</li>
+ *   <li><b>/stats/stream</b> - Live stats as Server-Sent Events</li>
  * </ul>
  *
+ * <p>Stats are computed once per one-second tick and shared by every viewer: the tick
+ * refreshes throughput, builds the live snapshot and pushes it to SSE subscribers, and
+ * rendered bodies (including the Prometheus scrape) are cached for the same tick.
+ * Clients sending {@code Accept-Encoding: gzip} get large bodies compressed.</p>
+ *
  * <p>Example usage:</p>
  * <pre>{@code
  * MetricsHttpServer server = new MetricsHttpServer(9090);
@@ -43,9 +53,15 @@ public final class MetricsHttpServer {
     private static final String CONTENT_TYPE_TEXT = "text/plain; charset=utf-8";
     private static final String CONTENT_TYPE_PROMETHEUS = "text/plain; version=0.0.4; charset=utf-8";
     private static final String CONTENT_TYPE_HTML = "text/html; charset=utf-8";
+    private static final String CONTENT_TYPE_JSON = "application/json; charset=utf-8";
+
+    private static final long TICK_MILLIS = 1000;
 
     private final int port;
+    private final ResponseCache cache = new ResponseCache(TICK_MILLIS);
+    private final LiveStatsBroadcaster broadcaster = new LiveStatsBroadcaster();
     private HttpServer server;
+    private ScheduledExecutorService ticker;
     private volatile boolean running = false;
 
     /**
@@ -78,10 +94,18 @@ public final class MetricsHttpServer {
         server.createContext("/metrics", this::handleMetrics);
         server.createContext("/health", this::handleHealth);
         server.createContext("/stats", this::handleStats);
+        server.createContext("/stats/stream", this::handleStatsStream);
         server.createContext("/history", this::handleHistory);
         server.createContext("/report", this::handleReport);
         server.createContext("/", this::handleRoot);
 
+        ticker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "MetricsHttpServer-tick");
+            t.setDaemon(true);
+            return t;
+        });
+        ticker.scheduleAtFixedRate(this::tick, 0, TICK_MILLIS, TimeUnit.MILLISECONDS);
+
         server.start();
         running = true;
 
@@ -89,6 +113,7 @@ public final class MetricsHttpServer {
         LOGGER.info("  /metrics  - Prometheus scrape endpoint");
         LOGGER.info("  /health   - Health check endpoint");
         LOGGER.info("  /stats    - Real-time stats dashboard");
+        LOGGER.info("  /stats/stream - Live stats (Server-Sent Events)");
         LOGGER.info("  /history  - Historical data & peaks");
         LOGGER.info("  /report   - Shareable text report");
     }
@@ -101,6 +126,8 @@ public final class MetricsHttpServer {
             return;
         }
 
+        ticker.shutdownNow();
+        broadcaster.close();
         server.stop(1);
         running = false;
         LOGGER.info("Metrics HTTP server stopped");
@@ -114,6 +141,19 @@ public final class MetricsHttpServer {
         return port;
     }
 
+    // ==================== Tick ====================
+
+    private void tick() {
+        try {
+            ProxyMetrics metrics = ProxyMetrics.getInstance();
+            metrics.updateThroughput();
+            metrics.checkHangingRequests();
+            broadcaster.publish(metrics);
+        } catch (Exception e) {
+            LOGGER.warn("Failed to update live stats", e);
+        }
+    }
+
     // ==================== Handlers ====================
 
     private void handleMetrics(HttpExchange exchange) throws IOException {
@@ -122,8 +162,8 @@ public final class MetricsHttpServer {
             return;
         }
 
-        String metrics = ProxyMetrics.getInstance().scrape();
-        sendResponse(exchange, 200, CONTENT_TYPE_PROMETHEUS, metrics);
+        ProxyMetrics metrics = ProxyMetrics.getInstance();
+        sendCached(exchange, CONTENT_TYPE_PROMETHEUS, cache.get("metrics", metrics::scrape));
     }
 
     private void handleHealth(HttpExchange exchange) throws IOException {
@@ -139,8 +179,8 @@ public final class MetricsHttpServer {
             }
             """.formatted(System.currentTimeMillis());
 
-        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
-        sendResponse(exchange, 200, "application/json; charset=utf-8", response);
+        exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE_JSON);
+        sendResponse(exchange, 200, CONTENT_TYPE_JSON, response);
     }
 
     private void handleStats(HttpExchange exchange) throws IOException {
@@ -149,10 +189,17 @@ public final class MetricsHttpServer {
             return;
         }
 
-        ProxyMetrics metrics = ProxyMetrics.getInstance();
-        metrics.updateThroughput(); // Update throughput calculations
-        metrics.checkHangingRequests(); // Check for hanging requests
+        String query = exchange.getRequestURI().getQuery();
+        if (query != null && query.contains("format=json")) {
+            sendCached(exchange, CONTENT_TYPE_JSON, cache.get("stats-json", broadcaster::getSnapshotJson));
+            return;
+        }
 
+        sendCached(exchange, CONTENT_TYPE_HTML, cache.get("stats", this::renderStats));
+    }
+
+    private String renderStats() {
+        ProxyMetrics metrics = ProxyMetrics.getInstance();
         ProxyMetrics.MetricsSnapshot snapshot = metrics.createSnapshot();
         Runtime runtime = Runtime.getRuntime();
 
@@ -286,7 +333,11 @@ public final class MetricsHttpServer {
                         <tr><td>Available Processors</td><td>%d</td></tr>
                     </table>
                 </div>
-                
+
+                %s
+
+                %s
+
                 <div class="stat-group">
                     <h2>⚠️ Errors</h2>
                     <div class="stat">
@@ -338,6 +389,8 @@ public final class MetricsHttpServer {
             formatBytes(totalMemory),
             formatBytes(maxMemory),
             runtime.availableProcessors(),
+            renderBufferMemory(metrics.createBufferSnapshot(), metrics.createMemoryBudgetSnapshot()),
+            renderBackendSessions(metrics.createBackendSessionCounts()),
             snapshot.authFailures() > 0 ? "warn" : "good",
             snapshot.authFailures(),
             snapshot.backendFailures() > 0 ? "warn" : "good",
@@ -345,7 +398,112 @@ public final class MetricsHttpServer {
             java.time.LocalDateTime.now()
         );
 
-        sendResponse(exchange, 200, CONTENT_TYPE_HTML, html);
+        return html;
+    }
+
+    private static String renderBackendSessions(List<ProxyMetrics.BackendSessionCount> counts) {
+        if (counts.isEmpty()) {
+            return "";
+        }
+
+        StringBuilder rows = new StringBuilder();
+        for (ProxyMetrics.BackendSessionCount count : counts) {
+            rows.append("<tr><td>%s</td><td>%,d</td></tr>".formatted(count.backend(), count.sessions()));
+        }
+
+        return """
+            <div class="stat-group">
+                <h2>🖥️ Backends</h2>
+                <table>
+                    <tr><th>Backend</th><th>Sessions</th></tr>
+                    %s
+                </table>
+            </div>
+            """.formatted(rows);
+    }
+
+    private static String renderBufferMemory(ProxyMetrics.BufferSnapshot buffers, MemoryBudget.Snapshot budget) {
+        StringBuilder rows = new StringBuilder();
+        for (ProxyMetrics.SiteAllocation site : buffers.sites()) {
+            rows.append("<tr><td>%s</td><td>%,d</td><td>%s</td><td>%s</td></tr>".formatted(
+                site.site(), site.allocations(),
+                formatBytes(site.allocatedBytes()), formatBytes(site.retainedBytes())));
+        }
+
+        String pooled = buffers.directArenas() > 0
+            ? "<tr><td>Direct Arenas / Thread Caches</td><td>%d / %d</td></tr><tr><td>Active Huge Allocations</td><td>%d</td></tr>"
+                .formatted(buffers.directArenas(), buffers.threadCaches(), buffers.activeHugeAllocations())
+            : "";
+
+        return """
+            <div class="stat-group">
+                <h2>🧠 Buffer Memory</h2>
+                <table>
+                    <tr><td>Allocator</td><td>%s</td></tr>
+                    <tr><td>Allocator Direct / Heap</td><td>%s / %s</td></tr>
+                    <tr><td>JVM Direct Buffers</td><td>%s</td></tr>
+                    <tr><td>Netty Direct Counter</td><td>%s</td></tr>
+                    <tr><td>Max Direct Memory</td><td>%s</td></tr>
+                    %s
+                </table>
+                <table>
+                    <tr>
+                        <th>Call Site</th>
+                        <th>Allocations</th>
+                        <th>Allocated</th>
+                        <th>Retained</th>
+                    </tr>
+                    %s
+                </table>
+                %s
+            </div>
+            """.formatted(
+            buffers.allocatorType(),
+            formatBytesOrNa(buffers.allocatorDirectBytes()),
+            formatBytesOrNa(buffers.allocatorHeapBytes()),
+            formatBytesOrNa(buffers.jvmDirectBytes()),
+            formatBytesOrNa(buffers.nettyDirectBytes()),
+            formatBytesOrNa(buffers.maxDirectBytes()),
+            pooled,
+            rows,
+            renderMemoryBudget(budget)
+        );
+    }
+
+    private static String renderMemoryBudget(MemoryBudget.Snapshot budget) {
+        if (budget == null) {
+            return "";
+        }
+
+        StringBuilder rows = new StringBuilder();
+        for (MemoryBudget.CategoryUsage category : budget.categories()) {
+            rows.append("<tr><td>%s</td><td>%s</td><td>%,d</td></tr>".formatted(
+                category.category(), formatBytes(category.reservedBytes()), category.rejections()));
+        }
+
+        return """
+            <table>
+                <tr><td>Budget Reserved / Limit</td><td class="%s">%s / %s</td></tr>
+                <tr><td>Session Quota</td><td>%s</td></tr>
+                <tr><td>Paused Streams / Quota Disconnects</td><td>%d / %d</td></tr>
+            </table>
+            <table>
+                <tr>
+                    <th>Budget Category</th>
+                    <th>Reserved</th>
+                    <th>Rejected</th>
+                </tr>
+                %s
+            </table>
+            """.formatted(
+            budget.reservedBytes() > budget.limitBytes() ? "bad" : "good",
+            formatBytes(budget.reservedBytes()),
+            formatBytes(budget.limitBytes()),
+            formatBytes(budget.sessionQuotaBytes()),
+            budget.pausedChannels(),
+            budget.quotaDisconnects(),
+            rows
+        );
     }
 
     private void handleReport(HttpExchange exchange) throws IOException {
@@ -355,11 +513,7 @@ public final class MetricsHttpServer {
         }
 
         ProxyMetrics metrics = ProxyMetrics.getInstance();
-        metrics.updateThroughput();
-        metrics.checkHangingRequests();
-
-        String report = metrics.createShareableReport();
-        sendResponse(exchange, 200, CONTENT_TYPE_TEXT, report);
+        sendCached(exchange, CONTENT_TYPE_TEXT, cache.get("report", metrics::createShareableReport));
     }
 
     private void handleHistory(HttpExchange exchange) throws IOException {
@@ -371,11 +525,15 @@ public final class MetricsHttpServer {
         // Check for text format query param
         String query = exchange.getRequestURI().getQuery();
         if (query != null && query.contains("format=text")) {
-            String report = MetricsHistory.getInstance().createHistoricalReport();
-            sendResponse(exchange, 200, CONTENT_TYPE_TEXT, report);
+            MetricsHistory history = MetricsHistory.getInstance();
+            sendCached(exchange, CONTENT_TYPE_TEXT, cache.get("history-text", history::createHistoricalReport));
             return;
         }
 
+        sendCached(exchange, CONTENT_TYPE_HTML, cache.get("history", this::renderHistory));
+    }
+
+    private String renderHistory() {
         MetricsHistory history = MetricsHistory.getInstance();
         MetricsHistory.HistoricalSnapshot peak = history.getPeakSessions();
         MetricsHistory.AverageStats avg5m = history.getAveragesSince(5, java.util.concurrent.TimeUnit.MINUTES);
@@ -609,7 +767,7 @@ public final class MetricsHttpServer {
             timelineData.toString()
         );
 
-        sendResponse(exchange, 200, CONTENT_TYPE_HTML, html);
+        return html;
     }
 
     private void handleRoot(HttpExchange exchange) throws IOException {
@@ -631,6 +789,7 @@ public final class MetricsHttpServer {
                 <h1>🚀 Numdrassl Proxy Metrics</h1>
                 <ul>
                     <li><a href="/stats">/stats</a> - <span class="highlight">Real-time dashboard</span></li>
+                    <li><a href="/stats/stream">/stats/stream</a> - Live stats stream (Server-Sent Events)</li>
                     <li><a href="/history">/history</a> - <span class="highlight">Historical data & peaks</span></li>
                     <li><a href="/report">/report</a> - Shareable text report</li>
                     <li><a href="/metrics">/metrics</a> - Prometheus scrape endpoint</li>
@@ -642,6 +801,34 @@ public final class MetricsHttpServer {
         sendResponse(exchange, 200, CONTENT_TYPE_HTML, html);
     }
 
+    private void handleStatsStream(HttpExchange exchange) throws IOException {
+        if (!"GET".equals(exchange.getRequestMethod())) {
+            sendResponse(exchange, 405, CONTENT_TYPE_TEXT, "Method Not Allowed");
+            return;
+        }
+        broadcaster.stream(exchange);
+    }
+
+    private void sendCached(HttpExchange exchange, String contentType, ResponseCache.CachedBody body)
+            throws IOException {
+        byte[] bytes = body.plain();
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.getResponseHeaders().set("Vary", "Accept-Encoding");
+        if (body.isCompressible() && acceptsGzip(exchange)) {
+            bytes = body.gzipped();
+            exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+        }
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(bytes);
+        }
+    }
+
+    private static boolean acceptsGzip(HttpExchange exchange) {
+        String accept = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+        return accept != null && accept.contains("gzip");
+    }
+
     private void sendResponse(HttpExchange exchange, int status, String contentType, String body)
             throws IOException {
         byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
@@ -659,6 +846,10 @@ public final class MetricsHttpServer {
         return String.format("%.2f GB", bytes / (1024.0 * 1024 * 1024));
     }
 
+    private static String formatBytesOrNa(long bytes) {
+        return bytes < 0 ? "n/a" : formatBytes(bytes);
+    }
+
     private static String formatBytesRate(double bytesPerSec) {
         if (bytesPerSec < 1024) return String.format("%.0f B", bytesPerSec);
         if (bytesPerSec < 1024 * 1024) return String.format("%.1f KB", bytesPerSec / 1024.0);
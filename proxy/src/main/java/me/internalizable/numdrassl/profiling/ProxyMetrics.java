@@ -7,18 +7,51 @@ import io.micrometer.core.instrument.binder.system.UptimeMetrics;
 import io.micrometer.core.instrument.distribution.HistogramSnapshot;
 import io.micrometer.prometheus.PrometheusConfig;
 import io.micrometer.prometheus.PrometheusMeterRegistry;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.ByteBufAllocatorMetric;
+import io.netty.buffer.ByteBufAllocatorMetricProvider;
+import io.netty.buffer.PoolArenaMetric;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.buffer.PooledByteBufAllocatorMetric;
+import io.netty.util.internal.PlatformDependent;
+import me.internalizable.numdrassl.auth.http.SessionServiceCache;
+import me.internalizable.numdrassl.auth.http.SessionServiceClient;
+import me.internalizable.numdrassl.config.BackendGroup;
+import me.internalizable.numdrassl.config.BackendServer;
+import me.internalizable.numdrassl.config.ProxyConfig;
+import me.internalizable.numdrassl.memory.BufferCategory;
+import me.internalizable.numdrassl.memory.MemoryBudget;
+import me.internalizable.numdrassl.messaging.redis.RedisPublishQueue;
+import me.internalizable.numdrassl.server.admission.ConnectionAdmission;
+import me.internalizable.numdrassl.server.admission.RetryTokenHandler;
+import me.internalizable.numdrassl.server.balance.BackendBalancer;
+import me.internalizable.numdrassl.server.network.BackendAddressResolver;
+import me.internalizable.numdrassl.server.network.UdpOffload;
+import me.internalizable.numdrassl.server.health.BackendHealthManager;
+import me.internalizable.numdrassl.server.pool.BackendConnectionPool;
+import me.internalizable.numdrassl.server.queue.LoginQueue;
+import me.internalizable.numdrassl.server.transfer.ReferralManager;
+import me.internalizable.numdrassl.server.transfer.TransferOrchestrator;
+import me.internalizable.numdrassl.server.transfer.TransferPriority;
 import me.internalizable.numdrassl.session.SessionManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
 import java.util.Objects;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
 
 /**
  * Central metrics registry for the Numdrassl proxy.
@@ -30,6 +63,7 @@ import java.util.function.Supplier;
  *   <li><b>Packet Metrics</b>: Throughput, latency, packet types</li>
  *   <li><b>Backend Metrics</b>: Connection pool status, response times</li>
  *   <li><b>Network I/O</b>: Bytes sent/received per direction</li>
+ *   <li><b>Buffer Memory</b>: Allocator usage, direct memory, allocations per {@link AllocationSite}</li>
  * </ul>
  *
  * <p>Usage:</p>
@@ -84,6 +118,9 @@ public final class ProxyMetrics {
     private final Counter serverTransfersCompleted;
     private final Counter serverTransfersFailed;
 
+    // Async login counters
+    private final Counter asyncLoginDeadlinesExceeded;
+
     // ==================== Gauges ====================
 
     private final AtomicLong activeSessionsGauge = new AtomicLong(0);
@@ -102,11 +139,13 @@ public final class ProxyMetrics {
     private final DistributionSummary packetSizeToClient;
     private final DistributionSummary packetSizeFromBackend;
     private final DistributionSummary packetSizeToBackend;
+    private final DistributionSummary clusterPublishBatchSize;
 
     // ==================== Per-packet-type tracking ====================
 
     private final ConcurrentHashMap<String, Counter> packetTypeCounters = new ConcurrentHashMap<>();
     private final ConcurrentHashMap<String, Timer> packetTypeTimers = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Timer> asyncLoginTaskTimers = new ConcurrentHashMap<>();
 
     // ==================== Per-backend tracking ====================
 
@@ -133,6 +172,7 @@ public final class ProxyMetrics {
 
     // ==================== Throughput tracking ====================
 
+    private static final long MIN_THROUGHPUT_INTERVAL_MS = 500;
     private final AtomicLong lastThroughputUpdate = new AtomicLong(System.currentTimeMillis());
     private final AtomicLong lastPacketsFromClient = new AtomicLong(0);
     private final AtomicLong lastPacketsToClient = new AtomicLong(0);
@@ -156,6 +196,15 @@ public final class ProxyMetrics {
 
     private final long startTimeMillis = System.currentTimeMillis();
 
+    // ==================== Memory budget ====================
+
+    private volatile MemoryBudget memoryBudget;
+
+    // ==================== Backend sessions ====================
+
+    private volatile SessionManager sessionManager;
+    private volatile List<BackendServer> backends = List.of();
+
     // ==================== Construction ====================
 
     private ProxyMetrics() {
@@ -165,6 +214,9 @@ public final class ProxyMetrics {
         // Register JVM metrics
         registerJvmMetrics();
 
+        // Register ByteBuf allocator and direct memory metrics
+        registerBufferMetrics();
+
         // Initialize connection counters
         this.connectionsAccepted = Counter.builder("proxy_connections_accepted_total")
             .description("Total number of client connections accepted")
@@ -261,6 +313,10 @@ public final class ProxyMetrics {
             .description("Total server transfers failed")
             .register(registry);
 
+        this.asyncLoginDeadlinesExceeded = Counter.builder("proxy_async_login_global_timeouts_total")
+            .description("Logins whose async login tasks missed the overall deadline")
+            .register(registry);
+
         // Initialize gauges
         Gauge.builder("proxy_sessions_active", activeSessionsGauge, AtomicLong::get)
             .description("Number of currently active sessions")
@@ -324,6 +380,11 @@ public final class ProxyMetrics {
             .publishPercentiles(0.5, 0.95, 0.99)
             .register(registry);
 
+        this.clusterPublishBatchSize = DistributionSummary.builder("proxy_cluster_publish_batch_size")
+            .description("Messages sent to Redis per publish batch")
+            .publishPercentiles(0.5, 0.95, 0.99)
+            .register(registry);
+
         // Backend response timer
         this.backendResponseTimer = Timer.builder("proxy_backend_response_duration")
             .description("Time for backend to respond to requests")
@@ -390,6 +451,138 @@ public final class ProxyMetrics {
         new JvmInfoMetrics().bindTo(registry);
     }
 
+    private void registerBufferMetrics() {
+        ByteBufAllocatorMetric allocatorMetric = defaultAllocatorMetric();
+        if (allocatorMetric != null) {
+            Gauge.builder("proxy_bytebuf_allocator_used_bytes", allocatorMetric, ByteBufAllocatorMetric::usedDirectMemory)
+                .tag("type", "direct")
+                .description("Memory reserved by the default ByteBuf allocator")
+                .baseUnit("bytes")
+                .register(registry);
+
+            Gauge.builder("proxy_bytebuf_allocator_used_bytes", allocatorMetric, ByteBufAllocatorMetric::usedHeapMemory)
+                .tag("type", "heap")
+                .description("Memory reserved by the default ByteBuf allocator")
+                .baseUnit("bytes")
+                .register(registry);
+        }
+
+        if (ByteBufAllocator.DEFAULT instanceof PooledByteBufAllocator pooled) {
+            registerPooledAllocatorMetrics(pooled.metric());
+        }
+
+        // Only tracked by Netty when direct buffers are allocated without a Cleaner
+        if (PlatformDependent.usedDirectMemory() >= 0) {
+            Gauge.builder("proxy_direct_memory_used_bytes", PlatformDependent::usedDirectMemory)
+                .description("Direct memory reserved through Netty's direct memory counter")
+                .baseUnit("bytes")
+                .register(registry);
+        }
+
+        Gauge.builder("proxy_direct_memory_max_bytes", PlatformDependent::maxDirectMemory)
+            .description("Maximum direct memory available to Netty")
+            .baseUnit("bytes")
+            .register(registry);
+
+        for (AllocationSite site : AllocationSite.values()) {
+            TrackingByteBufAllocator allocator = site.allocator();
+
+            FunctionCounter.builder("proxy_bytebuf_allocations_total", allocator,
+                    TrackingByteBufAllocator::getAllocations)
+                .tag("site", site.tag())
+                .description("Buffers allocated per proxy call site")
+                .register(registry);
+
+            FunctionCounter.builder("proxy_bytebuf_allocated", allocator,
+                    TrackingByteBufAllocator::getAllocatedBytes)
+                .tag("site", site.tag())
+                .description("Initial capacity of buffers allocated per proxy call site")
+                .baseUnit("bytes")
+                .register(registry);
+
+            Gauge.builder("proxy_bytebuf_retained_bytes", allocator, TrackingByteBufAllocator::getRetainedBytes)
+                .tag("site", site.tag())
+                .description("Bytes currently held by a proxy call site")
+                .baseUnit("bytes")
+                .register(registry);
+        }
+    }
+
+    private void registerPooledAllocatorMetrics(PooledByteBufAllocatorMetric metric) {
+        Gauge.builder("proxy_bytebuf_pool_arenas", metric, PooledByteBufAllocatorMetric::numDirectArenas)
+            .tag("type", "direct")
+            .description("Number of arenas in the pooled allocator")
+            .register(registry);
+
+        Gauge.builder("proxy_bytebuf_pool_arenas", metric, PooledByteBufAllocatorMetric::numHeapArenas)
+            .tag("type", "heap")
+            .description("Number of arenas in the pooled allocator")
+            .register(registry);
+
+        Gauge.builder("proxy_bytebuf_pool_thread_caches", metric, PooledByteBufAllocatorMetric::numThreadLocalCaches)
+            .description("Thread-local caches in use by the pooled allocator")
+            .register(registry);
+
+        Gauge.builder("proxy_bytebuf_pool_chunk_size_bytes", metric, PooledByteBufAllocatorMetric::chunkSize)
+            .description("Chunk size of the pooled allocator")
+            .baseUnit("bytes")
+            .register(registry);
+
+        Gauge.builder("proxy_bytebuf_pool_active_allocations", metric,
+                m -> sumArenas(m.directArenas(), PoolArenaMetric::numActiveSmallAllocations))
+            .tag("size", "small")
+            .description("Live allocations in the direct arenas")
+            .register(registry);
+
+        Gauge.builder("proxy_bytebuf_pool_active_allocations", metric,
+                m -> sumArenas(m.directArenas(), PoolArenaMetric::numActiveNormalAllocations))
+            .tag("size", "normal")
+            .description("Live allocations in the direct arenas")
+            .register(registry);
+
+        Gauge.builder("proxy_bytebuf_pool_active_allocations", metric,
+                m -> sumArenas(m.directArenas(), PoolArenaMetric::numActiveHugeAllocations))
+            .tag("size", "huge")
+            .description("Live allocations in the direct arenas")
+            .register(registry);
+
+        // Arenas only see allocations the thread caches could not serve
+        FunctionCounter.builder("proxy_bytebuf_pool_arena_allocations_total", metric,
+                m -> sumArenas(m.directArenas(), PoolArenaMetric::numSmallAllocations))
+            .tag("size", "small")
+            .description("Direct allocations served by an arena instead of a thread cache")
+            .register(registry);
+
+        FunctionCounter.builder("proxy_bytebuf_pool_arena_allocations_total", metric,
+                m -> sumArenas(m.directArenas(), PoolArenaMetric::numNormalAllocations))
+            .tag("size", "normal")
+            .description("Direct allocations served by an arena instead of a thread cache")
+            .register(registry);
+
+        FunctionCounter.builder("proxy_bytebuf_pool_arena_allocations_total", metric,
+                m -> sumArenas(m.directArenas(), PoolArenaMetric::numHugeAllocations))
+            .tag("size", "huge")
+            .description("Direct allocations served by an arena instead of a thread cache")
+            .register(registry);
+    }
+
+    @Nullable
+    private static ByteBufAllocatorMetric defaultAllocatorMetric() {
+        if (ByteBufAllocator.DEFAULT instanceof ByteBufAllocatorMetricProvider provider) {
+            return provider.metric();
+        }
+        return null;
+    }
+
+    private static long sumArenas(List<PoolArenaMetric> arenas,
+                                  ToLongFunction<PoolArenaMetric> value) {
+        long total = 0;
+        for (PoolArenaMetric arena : arenas) {
+            total += value.applyAsLong(arena);
+        }
+        return total;
+    }
+
     // ==================== Singleton Access ====================
 
     @Nonnull
@@ -430,6 +623,532 @@ public final class ProxyMetrics {
         Gauge.builder("proxy_sessions_count", sessionManager, SessionManager::getSessionCount)
             .description("Current number of registered sessions")
             .register(registry);
+
+        Gauge.builder("proxy_sessions_footprint_bytes", sessionManager, SessionManager::getEstimatedFootprintBytes)
+            .description("Estimated memory retained by all sessions, including buffered data")
+            .baseUnit("bytes")
+            .register(registry);
+    }
+
+    /**
+     * Exposes connections refused by the per-IP and per-subnet rate limits.
+     */
+    public void bindConnectionAdmission(@Nonnull ConnectionAdmission admission) {
+        Objects.requireNonNull(admission, "admission");
+
+        FunctionCounter.builder("proxy_connection_rate_limited_total", admission, ConnectionAdmission::getRejectedByIp)
+            .tag("scope", "ip")
+            .description("New connections refused by the connection rate limit")
+            .register(registry);
+
+        FunctionCounter.builder("proxy_connection_rate_limited_total", admission, ConnectionAdmission::getRejectedBySubnet)
+            .tag("scope", "subnet")
+            .description("New connections refused by the connection rate limit")
+            .register(registry);
+
+        FunctionCounter.builder("proxy_connection_rate_limit_overflow_total", admission, ConnectionAdmission::getOverflowed)
+            .description("Connections limited by the shared overflow bucket because the address table was full")
+            .register(registry);
+
+        Gauge.builder("proxy_connection_rate_limit_tracked", admission, ConnectionAdmission::getTracked)
+            .description("IP and subnet buckets currently tracked by the connection rate limit")
+            .register(registry);
+    }
+
+    /**
+     * Exposes QUIC Retry packets sent and the outcome of the tokens clients echoed.
+     */
+    public void bindRetryTokenHandler(@Nonnull RetryTokenHandler handler) {
+        Objects.requireNonNull(handler, "handler");
+
+        FunctionCounter.builder("proxy_quic_retries_total", handler, RetryTokenHandler::getRetriesSent)
+            .description("QUIC Retry packets sent to validate client addresses")
+            .register(registry);
+
+        FunctionCounter.builder("proxy_quic_retry_tokens_total", handler, RetryTokenHandler::getTokensValid)
+            .tag("result", "valid")
+            .description("QUIC retry tokens checked, by result")
+            .register(registry);
+
+        FunctionCounter.builder("proxy_quic_retry_tokens_total", handler, RetryTokenHandler::getTokensInvalid)
+            .tag("result", "invalid")
+            .description("QUIC retry tokens checked, by result")
+            .register(registry);
+
+        FunctionCounter.builder("proxy_quic_retry_tokens_total", handler, RetryTokenHandler::getTokensExpired)
+            .tag("result", "expired")
+            .description("QUIC retry tokens checked, by result")
+            .register(registry);
+
+        Gauge.builder("proxy_quic_retry_enforced", handler, h -> h.isEnforced() ? 1 : 0)
+            .description("Whether new connections currently have to answer a QUIC Retry")
+            .register(registry);
+    }
+
+    /**
+     * Exposes socket packets against the datagrams they carried, i.e. datagrams per
+     * syscall with UDP GSO/GRO, and which offloads are active.
+     */
+    public void bindUdpOffload(@Nonnull UdpOffload offload) {
+        Objects.requireNonNull(offload, "offload");
+
+        FunctionCounter.builder("proxy_udp_socket_packets_total", offload, UdpOffload::getPacketsReceived)
+            .tag("direction", "in")
+            .description("Packets read from or written to the QUIC sockets; one coalesced GRO read or GSO write counts once")
+            .register(registry);
+
+        FunctionCounter.builder("proxy_udp_socket_packets_total", offload, UdpOffload::getPacketsSent)
+            .tag("direction", "out")
+            .description("Packets read from or written to the QUIC sockets; one coalesced GRO read or GSO write counts once")
+            .register(registry);
+
+        FunctionCounter.builder("proxy_udp_datagrams_total", offload, UdpOffload::getDatagramsReceived)
+            .tag("direction", "in")
+            .description("UDP datagrams carried by the QUIC socket packets")
+            .register(registry);
+
+        FunctionCounter.builder("proxy_udp_datagrams_total", offload, UdpOffload::getDatagramsSent)
+            .tag("direction", "out")
+            .description("UDP datagrams carried by the QUIC socket packets")
+            .register(registry);
+
+        Gauge.builder("proxy_udp_offload", offload, o -> o.isGsoEnabled() ? 1 : 0)
+            .tag("feature", "gso")
+            .description("Whether a UDP offload is in use")
+            .register(registry);
+
+        Gauge.builder("proxy_udp_offload", offload, o -> o.isGroEnabled() ? 1 : 0)
+            .tag("feature", "gro")
+            .description("Whether a UDP offload is in use")
+            .register(registry);
+    }
+
+    /**
+     * Exposes how often backend addresses come from the resolver's cache and how its
+     * DNS lookups fare.
+     */
+    public void bindBackendResolver(@Nonnull BackendAddressResolver resolver) {
+        Objects.requireNonNull(resolver, "resolver");
+
+        FunctionCounter.builder("proxy_backend_dns_cache_total", resolver, BackendAddressResolver::getCacheHits)
+            .tag("result", "hit")
+            .description("Backend address resolutions, by how the cache answered")
+            .register(registry);
+
+        FunctionCounter.builder("proxy_backend_dns_cache_total", resolver, BackendAddressResolver::getCacheStale)
+            .tag("result", "stale")
+            .description("Backend address resolutions, by how the cache answered")
+            .register(registry);
+
+        FunctionCounter.builder("proxy_backend_dns_cache_total", resolver, BackendAddressResolver::getCacheMisses)
+            .tag("result", "miss")
+            .description("Backend address resolutions, by how the cache answered")
+            .register(registry);
+
+        FunctionCounter.builder("proxy_backend_dns_lookups_total", resolver, BackendAddressResolver::getLookupsSucceeded)
+            .tag("result", "success")
+            .description("Backend hostname lookups, by result")
+            .register(registry);
+
+        FunctionCounter.builder("proxy_backend_dns_lookups_total", resolver, BackendAddressResolver::getLookupsFailed)
+            .tag("result", "failure")
+            .description("Backend hostname lookups, by result")
+            .register(registry);
+
+        Gauge.builder("proxy_backend_dns_cached_hosts", resolver, BackendAddressResolver::getCachedHosts)
+            .description("Backend hostnames currently cached")
+            .register(registry);
+    }
+
+    /**
+     * Exposes the number of sessions on each configured backend, read from the
+     * session manager's backend index.
+     */
+    public void bindBackendSessions(@Nonnull SessionManager sessionManager, @Nonnull List<BackendServer> backends) {
+        Objects.requireNonNull(sessionManager, "sessionManager");
+        this.sessionManager = sessionManager;
+        this.backends = List.copyOf(backends);
+
+        for (BackendServer backend : backends) {
+            String name = backend.getName();
+            Gauge.builder("proxy_backend_sessions", sessionManager, m -> m.getSessionCountOnBackend(name))
+                .tag("backend", name)
+                .description("Sessions on or connecting to the backend")
+                .register(registry);
+        }
+    }
+
+    /**
+     * Returns the session count of each configured backend, or an empty list if no
+     * session manager is bound.
+     */
+    @Nonnull
+    public List<BackendSessionCount> createBackendSessionCounts() {
+        SessionManager manager = sessionManager;
+        if (manager == null) {
+            return List.of();
+        }
+
+        List<BackendSessionCount> counts = new ArrayList<>(backends.size());
+        for (BackendServer backend : backends) {
+            counts.add(new BackendSessionCount(backend.getName(), manager.getSessionCountOnBackend(backend.getName())));
+        }
+        return counts;
+    }
+
+    // ==================== Memory Budget Metrics ====================
+
+    /**
+     * Exposes reservations against the proxy memory budget.
+     */
+    public void bindMemoryBudget(@Nonnull MemoryBudget budget) {
+        Objects.requireNonNull(budget, "budget");
+        this.memoryBudget = budget;
+
+        Gauge.builder("proxy_memory_budget_limit_bytes", budget, MemoryBudget::getLimitBytes)
+            .description("Proxy-wide limit on buffered peer data")
+            .baseUnit("bytes")
+            .register(registry);
+
+        Gauge.builder("proxy_memory_budget_session_quota_bytes", budget, MemoryBudget::getSessionQuotaBytes)
+            .description("Per-session limit on buffered peer data")
+            .baseUnit("bytes")
+            .register(registry);
+
+        Gauge.builder("proxy_memory_budget_paused_channels", budget, MemoryBudget::getPausedChannels)
+            .description("Streams with reads paused by the memory budget")
+            .register(registry);
+
+        FunctionCounter.builder("proxy_memory_budget_disconnects_total", budget, MemoryBudget::getQuotaDisconnects)
+            .description("Sessions disconnected for staying over the memory budget")
+            .register(registry);
+
+        for (BufferCategory category : BufferCategory.values()) {
+            Gauge.builder("proxy_memory_budget_reserved_bytes", budget, b -> b.getReservedBytes(category))
+                .tag("category", category.tag())
+                .description("Bytes currently reserved from the memory budget")
+                .baseUnit("bytes")
+                .register(registry);
+
+            FunctionCounter.builder("proxy_memory_budget_rejections_total", budget, b -> b.getRejections(category))
+                .tag("category", category.tag())
+                .description("Reservations refused because a quota or the budget was exhausted")
+                .register(registry);
+        }
+    }
+
+    /**
+     * Creates a snapshot of the memory budget, or null if none is bound.
+     */
+    @Nullable
+    public MemoryBudget.Snapshot createMemoryBudgetSnapshot() {
+        MemoryBudget budget = memoryBudget;
+        return budget != null ? budget.snapshot() : null;
+    }
+
+    // ==================== Backend Connection Pool Metrics ====================
+
+    /**
+     * Exposes pre-warmed backend connections for each configured backend.
+     */
+    public void bindBackendConnectionPool(@Nonnull BackendConnectionPool pool, @Nonnull List<BackendServer> backends) {
+        Objects.requireNonNull(pool, "pool");
+
+        for (BackendServer backend : backends) {
+            String name = backend.getName();
+
+            Gauge.builder("proxy_backend_pool_idle_connections", pool, p -> p.getIdleCount(name))
+                .tag("backend", name)
+                .description("Handshaken backend connections ready to be claimed")
+                .register(registry);
+
+            Gauge.builder("proxy_backend_pool_target_connections", pool, p -> p.getTargetSize(name))
+                .tag("backend", name)
+                .description("Idle connections the pool is sized for from the recent claim rate")
+                .register(registry);
+
+            FunctionCounter.builder("proxy_backend_pool_claims_total", pool, p -> p.getHits(name))
+                .tag("backend", name)
+                .tag("result", "hit")
+                .description("Backend connection claims by logins and transfers, by pool hit or miss")
+                .register(registry);
+
+            FunctionCounter.builder("proxy_backend_pool_claims_total", pool, p -> p.getMisses(name))
+                .tag("backend", name)
+                .tag("result", "miss")
+                .description("Backend connection claims by logins and transfers, by pool hit or miss")
+                .register(registry);
+        }
+    }
+
+    // ==================== Backend Health Metrics ====================
+
+    /**
+     * Exposes probe round-trip statistics for each configured backend.
+     */
+    public void bindBackendHealth(@Nonnull BackendHealthManager healthManager, @Nonnull List<BackendServer> backends) {
+        Objects.requireNonNull(healthManager, "healthManager");
+
+        for (BackendServer backend : backends) {
+            Gauge.builder("proxy_backend_rtt_seconds", healthManager, m -> seconds(m.get(backend).getSmoothedRttMillis()))
+                .tag("backend", backend.getName())
+                .description("Smoothed probe round-trip time to the backend")
+                .baseUnit("seconds")
+                .register(registry);
+
+            Gauge.builder("proxy_backend_rtt_jitter_seconds", healthManager, m -> seconds(m.get(backend).getRttJitterMillis()))
+                .tag("backend", backend.getName())
+                .description("Mean deviation of the probe round-trip time")
+                .baseUnit("seconds")
+                .register(registry);
+
+            Gauge.builder("proxy_backend_probe_connected", healthManager, m -> m.get(backend).isProbeConnected() ? 1 : 0)
+                .tag("backend", backend.getName())
+                .description("Whether the persistent probe connection to the backend is up")
+                .register(registry);
+
+            Gauge.builder("proxy_backend_circuit_state", healthManager, m -> m.getCircuitBreaker(backend).getState().ordinal())
+                .tag("backend", backend.getName())
+                .description("Backend circuit breaker state: 0 closed, 1 half-open, 2 open")
+                .register(registry);
+
+            FunctionCounter.builder("proxy_backend_circuit_opened_total", healthManager,
+                    m -> m.getCircuitBreaker(backend).getOpenedCount())
+                .tag("backend", backend.getName())
+                .description("Times the backend's circuit breaker opened")
+                .register(registry);
+
+            FunctionCounter.builder("proxy_backend_circuit_rejected_total", healthManager,
+                    m -> m.getCircuitBreaker(backend).getRejectedCount())
+                .tag("backend", backend.getName())
+                .description("Connects refused without trying because the backend's circuit was open")
+                .register(registry);
+        }
+    }
+
+    private static double seconds(double millis) {
+        return millis < 0 ? Double.NaN : millis / 1000.0;
+    }
+
+    // ==================== Backend Group Metrics ====================
+
+    /**
+     * Exposes how often each backend group picked each of its members.
+     */
+    public void bindBackendGroups(@Nonnull BackendBalancer balancer, @Nonnull ProxyConfig config) {
+        Objects.requireNonNull(balancer, "balancer");
+
+        for (BackendGroup group : config.getBackendGroups()) {
+            String groupName = group.getName();
+
+            for (String member : group.getMembers()) {
+                BackendServer backend = config.getBackendByName(member);
+                if (backend == null) continue;
+                String backendName = backend.getName();
+
+                FunctionCounter.builder("proxy_backend_group_selections_total", balancer,
+                        b -> b.getSelections(groupName, backendName))
+                    .tag("group", groupName)
+                    .tag("backend", backendName)
+                    .description("Times a backend group resolved to the member")
+                    .register(registry);
+            }
+
+            FunctionCounter.builder("proxy_backend_group_unavailable_total", balancer, b -> b.getUnavailable(groupName))
+                .tag("group", groupName)
+                .description("Times a backend group was resolved with no available member")
+                .register(registry);
+        }
+    }
+
+    // ==================== Transfer Orchestrator Metrics ====================
+
+    /**
+     * Exposes the transfer orchestrator's queues and throughput.
+     */
+    public void bindTransferOrchestrator(@Nonnull TransferOrchestrator orchestrator) {
+        Objects.requireNonNull(orchestrator, "orchestrator");
+
+        for (TransferPriority priority : TransferPriority.values()) {
+            String tag = priority.name().toLowerCase(Locale.ROOT);
+
+            Gauge.builder("proxy_transfer_queue_size", orchestrator, o -> o.getQueued(priority))
+                .tag("priority", tag)
+                .description("Transfers waiting for their target to have room")
+                .register(registry);
+
+            FunctionCounter.builder("proxy_transfer_started_total", orchestrator, o -> o.getStarted(priority))
+                .tag("priority", tag)
+                .description("Transfers started by the orchestrator")
+                .register(registry);
+        }
+
+        Gauge.builder("proxy_transfer_in_flight", orchestrator, TransferOrchestrator::getInFlight)
+            .description("Transfers started by the orchestrator and not yet finished")
+            .register(registry);
+
+        Gauge.builder("proxy_transfer_batches_active", orchestrator, TransferOrchestrator::getActiveBatches)
+            .description("Transfer batches, such as backend evacuations, still in progress")
+            .register(registry);
+
+        FunctionCounter.builder("proxy_transfer_queue_timeouts_total", orchestrator, TransferOrchestrator::getTimedOut)
+            .description("Transfers that failed waiting for their target to have room")
+            .register(registry);
+    }
+
+    /**
+     * Exposes pending client referrals and the transfer tickets they carry.
+     */
+    public void bindReferralManager(@Nonnull ReferralManager referralManager) {
+        Objects.requireNonNull(referralManager, "referralManager");
+
+        Gauge.builder("proxy_referrals_pending", referralManager, ReferralManager::getPendingCount)
+            .description("Players sent a ClientReferral who have not reconnected yet")
+            .register(registry);
+
+        FunctionCounter.builder("proxy_transfer_tickets_total", referralManager, ReferralManager::getTicketsIssued)
+            .tag("result", "issued")
+            .description("Transfer tickets issued, redeemed, or rejected on reconnect")
+            .register(registry);
+
+        FunctionCounter.builder("proxy_transfer_tickets_total", referralManager, ReferralManager::getTicketsRedeemed)
+            .tag("result", "redeemed")
+            .description("Transfer tickets issued, redeemed, or rejected on reconnect")
+            .register(registry);
+
+        FunctionCounter.builder("proxy_transfer_tickets_total", referralManager, ReferralManager::getTicketsRejected)
+            .tag("result", "rejected")
+            .description("Transfer tickets issued, redeemed, or rejected on reconnect")
+            .register(registry);
+    }
+
+    // ==================== Login Queue Metrics ====================
+
+    /**
+     * Exposes the login queue's size per backend and group, and its admissions.
+     */
+    public void bindLoginQueue(@Nonnull LoginQueue loginQueue, @Nonnull ProxyConfig config) {
+        Objects.requireNonNull(loginQueue, "loginQueue");
+
+        List<String> targets = new ArrayList<>();
+        config.getBackends().forEach(backend -> targets.add(backend.getName()));
+        config.getBackendGroups().forEach(group -> targets.add(group.getName()));
+        for (String target : targets) {
+            Gauge.builder("proxy_login_queue_size", loginQueue, q -> q.getQueued(target))
+                .tag("target", target)
+                .description("Players waiting for the backend or group to have room")
+                .register(registry);
+        }
+
+        FunctionCounter.builder("proxy_login_queue_enqueued_total", loginQueue, LoginQueue::getEnqueuedCount)
+            .description("Logins that had to wait in the queue")
+            .register(registry);
+
+        FunctionCounter.builder("proxy_login_queue_admitted_total", loginQueue, LoginQueue::getAdmittedCount)
+            .description("Queued logins admitted to their backend")
+            .register(registry);
+
+        FunctionCounter.builder("proxy_login_queue_timeouts_total", loginQueue, LoginQueue::getTimedOutCount)
+            .description("Queued logins disconnected after loginQueueMaxWaitSeconds")
+            .register(registry);
+
+        FunctionCounter.builder("proxy_login_queue_turned_away_total", loginQueue, LoginQueue::getTurnedAwayCount)
+            .description("Logins disconnected because the queue for their target was full")
+            .register(registry);
+    }
+
+    /**
+     * Exposes the session-service stage used by logins. Per-request latency and queue
+     * wait are recorded by the stage itself as {@code proxy_session_service_*_duration}.
+     */
+    public void bindSessionService(@Nonnull SessionServiceClient sessionService) {
+        Objects.requireNonNull(sessionService, "sessionService");
+
+        Gauge.builder("proxy_session_service_in_flight", sessionService, SessionServiceClient::getInFlight)
+            .description("Session service requests in flight")
+            .register(registry);
+
+        Gauge.builder("proxy_session_service_queue_size", sessionService, SessionServiceClient::getQueued)
+            .description("Session service requests waiting for a slot")
+            .register(registry);
+
+        FunctionCounter.builder("proxy_session_service_rejected_total", sessionService, SessionServiceClient::getRejectedCount)
+            .description("Session service requests refused because the queue was full")
+            .register(registry);
+
+        FunctionCounter.builder("proxy_session_service_timeouts_total", sessionService, SessionServiceClient::getTimedOutCount)
+            .description("Session service requests that timed out in the queue or on the wire")
+            .register(registry);
+
+        FunctionCounter.builder("proxy_session_service_failures_total", sessionService, SessionServiceClient::getFailedCount)
+            .description("Session service requests that failed for other reasons")
+            .register(registry);
+
+        SessionServiceCache cache = sessionService.getCache();
+        FunctionCounter.builder("proxy_session_service_cache_requests_total", cache, SessionServiceCache::getHits)
+            .tag("result", "hit")
+            .description("Session service calls answered from the cache, shared with a call in flight, or sent")
+            .register(registry);
+
+        FunctionCounter.builder("proxy_session_service_cache_requests_total", cache, SessionServiceCache::getCoalesced)
+            .tag("result", "coalesced")
+            .description("Session service calls answered from the cache, shared with a call in flight, or sent")
+            .register(registry);
+
+        FunctionCounter.builder("proxy_session_service_cache_requests_total", cache, SessionServiceCache::getMisses)
+            .tag("result", "miss")
+            .description("Session service calls answered from the cache, shared with a call in flight, or sent")
+            .register(registry);
+
+        FunctionCounter.builder("proxy_session_service_cache_evictions_total", cache, SessionServiceCache::getEvictions)
+            .description("Cached session service answers evicted to stay within the size limit")
+            .register(registry);
+
+        Gauge.builder("proxy_session_service_cache_size", cache, SessionServiceCache::getSize)
+            .description("Cached session service answers")
+            .register(registry);
+    }
+
+    // ==================== Cluster Publish Metrics ====================
+
+    /**
+     * Exposes the Redis publish queue. Batch sizes are recorded by the queue as
+     * {@code proxy_cluster_publish_batch_size}, and the time from queueing a message to
+     * Redis acknowledging it as {@code proxy_cluster_publish_duration}.
+     */
+    public void bindClusterPublisher(@Nonnull RedisPublishQueue publishQueue) {
+        Objects.requireNonNull(publishQueue, "publishQueue");
+
+        Gauge.builder("proxy_cluster_publish_pending", publishQueue, RedisPublishQueue::getPending)
+            .description("Cluster messages queued or awaiting Redis")
+            .register(registry);
+
+        Gauge.builder("proxy_cluster_publish_capacity", publishQueue, RedisPublishQueue::getCapacity)
+            .description("Cluster messages that may be pending before the overflow policy applies")
+            .register(registry);
+
+        FunctionCounter.builder("proxy_cluster_publish_messages_total", publishQueue, RedisPublishQueue::getPublished)
+            .tag("result", "published")
+            .description("Cluster messages published, failed, or dropped because the queue was full")
+            .register(registry);
+
+        FunctionCounter.builder("proxy_cluster_publish_messages_total", publishQueue, RedisPublishQueue::getFailed)
+            .tag("result", "failed")
+            .description("Cluster messages published, failed, or dropped because the queue was full")
+            .register(registry);
+
+        FunctionCounter.builder("proxy_cluster_publish_messages_total", publishQueue, RedisPublishQueue::getDropped)
+            .tag("result", "dropped")
+            .description("Cluster messages published, failed, or dropped because the queue was full")
+            .register(registry);
+
+        FunctionCounter.builder("proxy_cluster_publish_batches_total", publishQueue, RedisPublishQueue::getBatches)
+            .description("Pipelined batches written to Redis")
+            .register(registry);
+
+        FunctionCounter.builder("proxy_cluster_publish_commands_total", publishQueue, RedisPublishQueue::getCommands)
+            .description("PUBLISH commands sent; fewer than messages when batch frames are used")
+            .register(registry);
     }
 
     public void incrementActiveSession() {
@@ -691,6 +1410,40 @@ public final class ProxyMetrics {
         serverTransfersFailed.increment();
     }
 
+    // ==================== Async Login Metrics ====================
+
+    /**
+     * Records how long one plugin's AsyncLoginEvent tasks took.
+     *
+     * @param plugin  the plugin ID
+     * @param outcome {@code ok}, {@code timeout} or {@code failed}
+     * @param nanos   time from the event being fired to the tasks settling
+     */
+    public void recordAsyncLoginTask(@Nonnull String plugin, @Nonnull String outcome, long nanos) {
+        Timer timer = asyncLoginTaskTimers.computeIfAbsent(plugin + '/' + outcome, k ->
+            Timer.builder("proxy_async_login_task_duration")
+                .tag("plugin", plugin)
+                .tag("outcome", outcome)
+                .description("Duration of AsyncLoginEvent tasks per plugin")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(registry)
+        );
+        timer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordAsyncLoginDeadlineExceeded() {
+        asyncLoginDeadlinesExceeded.increment();
+    }
+
+    // ==================== Cluster Publish ====================
+
+    /**
+     * Records the number of messages in one Redis publish batch.
+     */
+    public void recordClusterPublishBatch(int messages) {
+        clusterPublishBatchSize.record(messages);
+    }
+
     // ==================== Timing ====================
 
     /**
@@ -785,13 +1538,19 @@ public final class ProxyMetrics {
      * decoded packets and raw (unregistered) packets. "IN" represents all inbound traffic
      * (from_client + from_backend), "OUT" represents all outbound traffic
      * (to_client + to_backend).</p>
+     *
+     * <p>Calls less than {@value #MIN_THROUGHPUT_INTERVAL_MS} ms after the previous update
+     * are ignored and keep the current rates.</p>
      */
     public void updateThroughput() {
         long now = System.currentTimeMillis();
-        long lastUpdate = lastThroughputUpdate.getAndSet(now);
-        double elapsedSec = (now - lastUpdate) / 1000.0;
+        long lastUpdate = lastThroughputUpdate.get();
 
-        if (elapsedSec <= 0) return;
+        // Several callers share these rates; a rate over a few milliseconds is mostly noise
+        if (now - lastUpdate < MIN_THROUGHPUT_INTERVAL_MS || !lastThroughputUpdate.compareAndSet(lastUpdate, now)) {
+            return;
+        }
+        double elapsedSec = (now - lastUpdate) / 1000.0;
 
         // Include both client and backend traffic for accurate throughput
         long currentPacketsIn = (long) packetsFromClient.count() + (long) packetsFromBackend.count();
@@ -929,17 +1688,82 @@ public final class ProxyMetrics {
         );
     }
 
+    /**
+     * Creates a snapshot of ByteBuf allocator and direct memory usage.
+     */
+    @Nonnull
+    public BufferSnapshot createBufferSnapshot() {
+        ByteBufAllocatorMetric allocatorMetric = defaultAllocatorMetric();
+        long allocatorDirect = allocatorMetric != null ? allocatorMetric.usedDirectMemory() : -1;
+        long allocatorHeap = allocatorMetric != null ? allocatorMetric.usedHeapMemory() : -1;
+
+        int arenas = 0;
+        int threadCaches = 0;
+        long activeHuge = 0;
+        if (ByteBufAllocator.DEFAULT instanceof PooledByteBufAllocator pooled) {
+            PooledByteBufAllocatorMetric metric = pooled.metric();
+            arenas = metric.numDirectArenas();
+            threadCaches = metric.numThreadLocalCaches();
+            activeHuge = sumArenas(metric.directArenas(), PoolArenaMetric::numActiveHugeAllocations);
+        }
+
+        long jvmDirect = -1;
+        for (BufferPoolMXBean pool : ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class)) {
+            if ("direct".equals(pool.getName())) {
+                jvmDirect = pool.getMemoryUsed();
+            }
+        }
+
+        List<SiteAllocation> sites = new ArrayList<>(AllocationSite.values().length);
+        for (AllocationSite site : AllocationSite.values()) {
+            TrackingByteBufAllocator allocator = site.allocator();
+            sites.add(new SiteAllocation(site.tag(), allocator.getAllocations(),
+                allocator.getAllocatedBytes(), allocator.getRetainedBytes()));
+        }
+
+        return new BufferSnapshot(
+            ByteBufAllocator.DEFAULT.getClass().getSimpleName(),
+            allocatorDirect,
+            allocatorHeap,
+            PlatformDependent.usedDirectMemory(),
+            PlatformDependent.maxDirectMemory(),
+            jvmDirect,
+            arenas,
+            threadCaches,
+            activeHuge,
+            List.copyOf(sites)
+        );
+    }
+
     /**
      * Creates a detailed report suitable for sharing with developers.
      */
     @Nonnull
     public String createShareableReport() {
         MetricsSnapshot snapshot = createSnapshot();
+        BufferSnapshot buffers = createBufferSnapshot();
         Runtime runtime = Runtime.getRuntime();
 
         long maxMem = runtime.maxMemory();
         long usedMem = runtime.totalMemory() - runtime.freeMemory();
 
+        StringBuilder sites = new StringBuilder();
+        for (SiteAllocation site : buffers.sites()) {
+            sites.append(String.format("%-21s %,d allocs, %s allocated, %s retained%n",
+                site.site() + ":", site.allocations(),
+                formatBytes(site.allocatedBytes()), formatBytes(site.retainedBytes())));
+        }
+        MemoryBudget.Snapshot budget = createMemoryBudgetSnapshot();
+        if (budget != null) {
+            sites.append(String.format("%-21s %s of %s (%s per session), %d paused%n",
+                "Memory Budget:", formatBytes(budget.reservedBytes()), formatBytes(budget.limitBytes()),
+                formatBytes(budget.sessionQuotaBytes()), budget.pausedChannels()));
+            for (MemoryBudget.CategoryUsage category : budget.categories()) {
+                sites.append(String.format("  %-19s %s reserved, %,d rejected%n",
+                    category.category() + ":", formatBytes(category.reservedBytes()), category.rejections()));
+            }
+        }
+
         return """
             ================================================================================
                                NUMDRASSL PROXY METRICS REPORT
@@ -973,6 +1797,13 @@ public final class ProxyMetrics {
             Heap Max:             %s
             Usage:                %.1f%%
             
+            --- BUFFER MEMORY ---
+            Allocator:            %s
+            Allocator Direct:     %s
+            Allocator Heap:       %s
+            JVM Direct Buffers:   %s
+            Max Direct:           %s
+            %s
             --- ERRORS ---
             Auth Failures:        %d
             Backend Failures:     %d
@@ -1004,6 +1835,12 @@ public final class ProxyMetrics {
             formatBytes(usedMem),
             formatBytes(maxMem),
             (double) usedMem / maxMem * 100,
+            buffers.allocatorType(),
+            formatBytesOrNa(buffers.allocatorDirectBytes()),
+            formatBytesOrNa(buffers.allocatorHeapBytes()),
+            formatBytesOrNa(buffers.jvmDirectBytes()),
+            formatBytesOrNa(buffers.maxDirectBytes()),
+            sites,
             snapshot.authFailures(),
             snapshot.backendFailures(),
             System.getProperty("java.version"),
@@ -1036,6 +1873,10 @@ public final class ProxyMetrics {
         return String.format("%.2f GB", bytes / (1024.0 * 1024 * 1024));
     }
 
+    private static String formatBytesOrNa(long bytes) {
+        return bytes < 0 ? "n/a" : formatBytes(bytes);
+    }
+
     private static String formatBytesRate(double bytesPerSec) {
         if (bytesPerSec < 1024) return String.format("%.0f B", bytesPerSec);
         if (bytesPerSec < 1024 * 1024) return String.format("%.1f KB", bytesPerSec / 1024.0);
@@ -1085,4 +1926,36 @@ public final class ProxyMetrics {
             return String.format("%.2fGB", bytes / (1024.0 * 1024 * 1024));
         }
     }
+
+    /**
+     * Immutable snapshot of ByteBuf allocator and direct memory usage.
+     *
+     * <p>Byte values are {@code -1} when the underlying source is unavailable, e.g.
+     * {@code nettyDirectBytes} when Netty is not counting direct memory itself.</p>
+     */
+    public record BufferSnapshot(
+        String allocatorType,
+        long allocatorDirectBytes,
+        long allocatorHeapBytes,
+        long nettyDirectBytes,
+        long maxDirectBytes,
+        long jvmDirectBytes,
+        int directArenas,
+        int threadCaches,
+        long activeHugeAllocations,
+        List<SiteAllocation> sites
+    ) {
+    }
+
+    /**
+     * Allocation totals for a single {@link AllocationSite}.
+     */
+    public record SiteAllocation(String site, long allocations, long allocatedBytes, long retainedBytes) {
+    }
+
+    /**
+     * Number of sessions on a single backend.
+     */
+    public record BackendSessionCount(String backend, int sessions) {
+    }
 }
@@ -0,0 +1,107 @@
+package me.internalizable.numdrassl.profiling;
+
+import javax.annotation.Nonnull;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Per-tick cache of rendered HTTP responses for {@link MetricsHttpServer}.
+ *
+ * <p>Each key is rendered at most once per tick no matter how many dashboards or
+ * Prometheus replicas ask for it. Concurrent requests for a stale entry wait for the
+ * one render in progress instead of rendering in parallel. The gzip form is produced
+ * lazily, once per rendered body, and only for bodies large enough to benefit.</p>
+ */
+final class ResponseCache {
+
+    static final int GZIP_MIN_BYTES = 1024;
+
+    private final long tickMillis;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    ResponseCache(long tickMillis) {
+        this.tickMillis = tickMillis;
+    }
+
+    /**
+     * Gets the cached body for a key, re-rendering it if older than one tick.
+     */
+    @Nonnull
+    CachedBody get(@Nonnull String key, @Nonnull Supplier<String> renderer) {
+        return entries.computeIfAbsent(key, k -> new Entry()).get(renderer, tickMillis);
+    }
+
+    private static final class Entry {
+        private volatile CachedBody body;
+
+        CachedBody get(Supplier<String> renderer, long tickMillis) {
+            CachedBody current = body;
+            if (current != null && !current.isOlderThan(tickMillis)) {
+                return current;
+            }
+            synchronized (this) {
+                current = body;
+                if (current == null || current.isOlderThan(tickMillis)) {
+                    current = new CachedBody(renderer.get().getBytes(StandardCharsets.UTF_8));
+                    body = current;
+                }
+                return current;
+            }
+        }
+    }
+
+    /**
+     * A rendered response body with its lazily computed gzip form.
+     */
+    static final class CachedBody {
+        private final byte[] plain;
+        private final long renderedAtNanos = System.nanoTime();
+        private volatile byte[] gzipped;
+
+        CachedBody(byte[] plain) {
+            this.plain = plain;
+        }
+
+        boolean isOlderThan(long millis) {
+            return System.nanoTime() - renderedAtNanos >= millis * 1_000_000L;
+        }
+
+        byte[] plain() {
+            return plain;
+        }
+
+        boolean isCompressible() {
+            return plain.length >= GZIP_MIN_BYTES;
+        }
+
+        byte[] gzipped() {
+            byte[] result = gzipped;
+            if (result == null) {
+                synchronized (this) {
+                    result = gzipped;
+                    if (result == null) {
+                        result = gzip(plain);
+                        gzipped = result;
+                    }
+                }
+            }
+            return result;
+        }
+
+        private static byte[] gzip(byte[] data) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 4);
+            try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+                gzip.write(data);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return out.toByteArray();
+        }
+    }
+}
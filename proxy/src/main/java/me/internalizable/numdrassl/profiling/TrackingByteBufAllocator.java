@@ -0,0 +1,183 @@
+package me.internalizable.numdrassl.profiling;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.CompositeByteBuf;
+
+import javax.annotation.Nonnull;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link ByteBufAllocator} decorator that counts what one call site allocates.
+ *
+ * <p>Every allocation is forwarded unchanged to the delegate; the returned buffer is not
+ * wrapped, so pooling, leak detection and zero-copy paths behave exactly as before.
+ * The cost is two {@link LongAdder} increments per allocation.</p>
+ *
+ * <p>Counted bytes are the capacity at allocation time. Growth through
+ * {@link ByteBuf#ensureWritable(int)} goes through the buffer's own allocator and is
+ * not counted. Because buffers are not wrapped their release cannot be observed, so
+ * call sites that hold data for a while report it through {@link #recordRetained(long)}.</p>
+ *
+ * @see AllocationSite
+ */
+public final class TrackingByteBufAllocator implements ByteBufAllocator {
+
+    private final ByteBufAllocator delegate;
+
+    private final LongAdder allocations = new LongAdder();
+    private final LongAdder allocatedBytes = new LongAdder();
+    private final LongAdder retainedBytes = new LongAdder();
+
+    public TrackingByteBufAllocator(@Nonnull ByteBufAllocator delegate) {
+        this.delegate = Objects.requireNonNull(delegate, "delegate");
+    }
+
+    // ==================== Accounting ====================
+
+    private <T extends ByteBuf> T track(T buf) {
+        allocations.increment();
+        allocatedBytes.add(buf.capacity());
+        return buf;
+    }
+
+    /**
+     * Adjusts the number of bytes this site is currently holding on to.
+     *
+     * @param delta bytes added (positive) or handed off/released (negative)
+     */
+    public void recordRetained(long delta) {
+        retainedBytes.add(delta);
+    }
+
+    /**
+     * Gets the total number of buffers allocated through this allocator.
+     */
+    public long getAllocations() {
+        return allocations.sum();
+    }
+
+    /**
+     * Gets the total initial capacity of all buffers allocated through this allocator.
+     */
+    public long getAllocatedBytes() {
+        return allocatedBytes.sum();
+    }
+
+    /**
+     * Gets the bytes currently held by this site, as reported via {@link #recordRetained(long)}.
+     */
+    public long getRetainedBytes() {
+        return retainedBytes.sum();
+    }
+
+    @Nonnull
+    public ByteBufAllocator getDelegate() {
+        return delegate;
+    }
+
+    // ==================== ByteBufAllocator ====================
+
+    @Override
+    public ByteBuf buffer() {
+        return track(delegate.buffer());
+    }
+
+    @Override
+    public ByteBuf buffer(int initialCapacity) {
+        return track(delegate.buffer(initialCapacity));
+    }
+
+    @Override
+    public ByteBuf buffer(int initialCapacity, int maxCapacity) {
+        return track(delegate.buffer(initialCapacity, maxCapacity));
+    }
+
+    @Override
+    public ByteBuf ioBuffer() {
+        return track(delegate.ioBuffer());
+    }
+
+    @Override
+    public ByteBuf ioBuffer(int initialCapacity) {
+        return track(delegate.ioBuffer(initialCapacity));
+    }
+
+    @Override
+    public ByteBuf ioBuffer(int initialCapacity, int maxCapacity) {
+        return track(delegate.ioBuffer(initialCapacity, maxCapacity));
+    }
+
+    @Override
+    public ByteBuf heapBuffer() {
+        return track(delegate.heapBuffer());
+    }
+
+    @Override
+    public ByteBuf heapBuffer(int initialCapacity) {
+        return track(delegate.heapBuffer(initialCapacity));
+    }
+
+    @Override
+    public ByteBuf heapBuffer(int initialCapacity, int maxCapacity) {
+        return track(delegate.heapBuffer(initialCapacity, maxCapacity));
+    }
+
+    @Override
+    public ByteBuf directBuffer() {
+        return track(delegate.directBuffer());
+    }
+
+    @Override
+    public ByteBuf directBuffer(int initialCapacity) {
+        return track(delegate.directBuffer(initialCapacity));
+    }
+
+    @Override
+    public ByteBuf directBuffer(int initialCapacity, int maxCapacity) {
+        return track(delegate.directBuffer(initialCapacity, maxCapacity));
+    }
+
+    // Composite buffers own no memory themselves; their components are counted where allocated
+
+    @Override
+    public CompositeByteBuf compositeBuffer() {
+        return delegate.compositeBuffer();
+    }
+
+    @Override
+    public CompositeByteBuf compositeBuffer(int maxNumComponents) {
+        return delegate.compositeBuffer(maxNumComponents);
+    }
+
+    @Override
+    public CompositeByteBuf compositeHeapBuffer() {
+        return delegate.compositeHeapBuffer();
+    }
+
+    @Override
+    public CompositeByteBuf compositeHeapBuffer(int maxNumComponents) {
+        return delegate.compositeHeapBuffer(maxNumComponents);
+    }
+
+    @Override
+    public CompositeByteBuf compositeDirectBuffer() {
+        return delegate.compositeDirectBuffer();
+    }
+
+    @Override
+    public CompositeByteBuf compositeDirectBuffer(int maxNumComponents) {
+        return delegate.compositeDirectBuffer(maxNumComponents);
+    }
+
+    @Override
+    public boolean isDirectBufferPooled() {
+        return delegate.isDirectBufferPooled();
+    }
+
+    @Override
+    public int calculateNewCapacity(int minNewCapacity, int maxCapacity) {
+        return delegate.calculateNewCapacity(minNewCapacity, maxCapacity);
+    }
+}
@@ -9,6 +9,8 @@
  *   <li>{@link me.internalizable.numdrassl.profiling.MetricsHttpServer} - HTTP endpoint for Prometheus</li>
  *   <li>{@link me.internalizable.numdrassl.profiling.MetricsLogger} - Periodic logging of metrics</li>
  *   <li>{@link me.internalizable.numdrassl.profiling.TimingUtils} - Utilities for timing operations</li>
+ *   <li>{@link me.internalizable.numdrassl.profiling.TrackingByteBufAllocator} - Counts buffer
+ *       allocations per {@link me.internalizable.numdrassl.profiling.AllocationSite}</li>
  * </ul>
  *
  * <h2>Available Metrics</h2>
@@ -21,12 +23,14 @@
  *   <tr><td>Response Times</td><td>Average response, hanging detection</td></tr>
  *   <tr><td>Backends</td><td>Connections, failures, latency</td></tr>
  *   <tr><td>Timing</td><td>Packet processing, auth, transfers</td></tr>
+ *   <tr><td>Buffer Memory</td><td>Allocator usage, direct memory, allocations per call site</td></tr>
  * </table>
  *
  * <h2>Access Points</h2>
  * <ul>
  *   <li><b>HTTP</b>: {@code http://localhost:9090/metrics} (Prometheus format)</li>
  *   <li><b>Dashboard</b>: {@code http://localhost:9090/stats} (HTML)</li>
+ *   <li><b>Live</b>: {@code http://localhost:9090/stats/stream} (Server-Sent Events)</li>
  *   <li><b>Report</b>: {@code http://localhost:9090/report} (Shareable text)</li>
  *   <li><b>Console</b>: {@code metrics} command</li>
  *   <li><b>Logs</b>: Periodic summary via {@link me.internalizable.numdrassl.profiling.MetricsLogger}</li>
@@ -5,8 +5,6 @@ import com.hypixel.hytale.protocol.Packet;
 import com.hypixel.hytale.protocol.packets.connection.Connect;
 import io.netty.bootstrap.Bootstrap;
 import io.netty.channel.*;
-import io.netty.channel.nio.NioEventLoopGroup;
-import io.netty.channel.socket.nio.NioDatagramChannel;
 import io.netty.incubator.codec.quic.QuicChannel;
 import io.netty.incubator.codec.quic.QuicClientCodecBuilder;
 import io.netty.incubator.codec.quic.QuicCongestionControlAlgorithm;
@@ -14,7 +12,7 @@ import io.netty.incubator.codec.quic.QuicSslContext;
 import io.netty.incubator.codec.quic.QuicSslContextBuilder;
 import io.netty.incubator.codec.quic.QuicStreamChannel;
 import io.netty.incubator.codec.quic.QuicStreamType;
-import me.internalizable.numdrassl.common.SecretMessageUtil;
+import me.internalizable.numdrassl.common.ReferralCodec;
 import me.internalizable.numdrassl.config.BackendServer;
 import me.internalizable.numdrassl.event.packet.ProxyPing;
 import me.internalizable.numdrassl.event.packet.ProxyPong;
@@ -24,6 +22,11 @@ import me.internalizable.numdrassl.pipeline.codec.ProxyPacketDecoder;
 import me.internalizable.numdrassl.pipeline.codec.ProxyPacketEncoder;
 import me.internalizable.numdrassl.api.event.server.ServerDisconnectedResult;
 import me.internalizable.numdrassl.profiling.ProxyMetrics;
+import me.internalizable.numdrassl.server.balance.BackendBalancer;
+import me.internalizable.numdrassl.server.health.CircuitBreaker;
+import me.internalizable.numdrassl.server.transfer.TransferBatch;
+import me.internalizable.numdrassl.server.transfer.TransferOrchestrator;
+import me.internalizable.numdrassl.server.transfer.TransferPriority;
 import me.internalizable.numdrassl.api.chat.ChatMessageBuilder;
 import me.internalizable.numdrassl.session.ProxySession;
 import me.internalizable.numdrassl.session.SessionState;
@@ -32,6 +35,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import java.io.File;
 import java.io.FileInputStream;
 import java.net.InetSocketAddress;
@@ -43,6 +47,7 @@ import java.security.cert.X509Certificate;
 import java.util.Base64;
 import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -60,13 +65,15 @@ public final class BackendConnector {
     private final EventLoopGroup group;
     private QuicSslContext sslContext;
     private byte[] proxySecret;
+    private final ReferralCodec referralCodec;
 
     // ==================== Construction ====================
 
     public BackendConnector(@Nonnull ProxyCore proxyCore) {
         this.proxyCore = Objects.requireNonNull(proxyCore, "proxyCore");
-        this.group = new NioEventLoopGroup(THREAD_COUNT);
+        this.group = proxyCore.getUdpOffload().newEventLoopGroup(THREAD_COUNT);
         initProxySecret();
+        this.referralCodec = new ReferralCodec(proxySecret);
     }
 
     private void initProxySecret() {
@@ -148,8 +155,6 @@ public final class BackendConnector {
         } catch (Exception e) {
             LOGGER.warn("Could not compute certificate fingerprint", e);
         }
-
-        initiateConnection(session, targetBackend, connectPacket, false);
     }
 
     // ==================== Connection ====================
@@ -249,16 +254,44 @@ public final class BackendConnector {
 
         session.setCurrentBackend(backend);
 
-        try {
-            Bootstrap bootstrap = createBootstrap();
-            InetSocketAddress address = new InetSocketAddress(backend.getHost(), backend.getPort());
-            Channel datagramChannel = bootstrap.bind(0).sync().channel();
-
-            connectQuicChannel(session, datagramChannel, address, backend, connectPacket, isReconnect);
-        } catch (Exception e) {
-            LOGGER.error("Session {}: Error connecting to backend", session.getSessionId(), e);
+        // Fail fast instead of waiting out a connect timeout on a backend known to be down
+        CircuitBreaker breaker = circuitBreaker(backend);
+        if (!breaker.tryAcquire()) {
+            LOGGER.warn("Session {}: Backend {} circuit is {}, not connecting",
+                    session.getSessionId(), backend.getName(), breaker.getState());
             handleConnectionFailure(session, backend.getName(), isReconnect);
+            return;
+        }
+
+        boolean debugMode = proxyCore.getConfig().isDebugMode();
+        QuicChannel pooled = proxyCore.getBackendConnectionPool().claim(backend, createStreamHandler(session, debugMode));
+        if (pooled != null) {
+            LOGGER.debug("Session {}: Using pre-warmed connection to {}", session.getSessionId(), backend.getName());
+            breaker.onConnectSuccess();
+            onQuicConnected(session, pooled, backend, connectPacket, isReconnect, debugMode);
+            return;
         }
+
+        // Resolve and bind without blocking: callers may be running on an event loop
+        proxyCore.getBackendResolver().resolve(backend).whenComplete((address, cause) -> {
+            if (cause != null) {
+                LOGGER.error("Session {}: Could not resolve backend {} ({}): {}",
+                        session.getSessionId(), backend.getName(), backend.getHost(), cause.getMessage());
+                breaker.onConnectFailure();
+                handleConnectionFailure(session, backend.getName(), isReconnect);
+                return;
+            }
+
+            createBootstrap().bind(0).addListener((ChannelFutureListener) bind -> {
+                if (!bind.isSuccess()) {
+                    LOGGER.error("Session {}: Error connecting to backend", session.getSessionId(), bind.cause());
+                    breaker.onConnectFailure();
+                    handleConnectionFailure(session, backend.getName(), isReconnect);
+                    return;
+                }
+                connectQuicChannel(session, bind.channel(), address, backend, connectPacket, isReconnect);
+            });
+        });
     }
 
     public Bootstrap createBootstrap() {
@@ -274,10 +307,7 @@ public final class BackendConnector {
                 .initialMaxStreamsUnidirectional(100)
                 .build();
 
-        return new Bootstrap()
-                .group(group)
-                .channel(NioDatagramChannel.class)
-                .handler(codec);
+        return proxyCore.getUdpOffload().newBootstrap(group, codec);
     }
 
     private void connectQuicChannel(
@@ -290,22 +320,20 @@ public final class BackendConnector {
 
         boolean debugMode = proxyCore.getConfig().isDebugMode();
 
-        QuicChannel.newBootstrap(datagramChannel)
+        proxyCore.getUdpOffload().newQuicBootstrap(datagramChannel)
                 .streamHandler(createStreamHandler(session, debugMode))
                 .remoteAddress(address)
                 .connect()
                 .addListener(future -> {
                     if (future.isSuccess()) {
                         QuicChannel quicChannel = (QuicChannel) future.getNow();
+                        quicChannel.closeFuture().addListener(closeFuture -> datagramChannel.close());
 
-                        quicChannel.closeFuture().addListener(closeFuture -> {
-                            LOGGER.warn("Session {}: Backend {} connection closed", session.getSessionId(), backend.getName());
-
-                            handleBackendDisconnect(session, backend);
-                        });
-
-                        onConnected(session, quicChannel, backend, connectPacket, isReconnect, debugMode);
+                        circuitBreaker(backend).onConnectSuccess();
+                        onQuicConnected(session, quicChannel, backend, connectPacket, isReconnect, debugMode);
                     } else {
+                        datagramChannel.close();
+                        circuitBreaker(backend).onConnectFailure();
                         LOGGER.error("Session {}: Failed to connect to backend",
                                 session.getSessionId(), future.cause());
                         handleConnectionFailure(session, backend.getName(), isReconnect);
@@ -313,7 +341,31 @@ public final class BackendConnector {
                 });
     }
 
+    private void onQuicConnected(
+            ProxySession session,
+            QuicChannel quicChannel,
+            BackendServer backend,
+            Connect connectPacket,
+            boolean isReconnect,
+            boolean debugMode) {
+
+        quicChannel.closeFuture().addListener(closeFuture -> {
+            LOGGER.warn("Session {}: Backend {} connection closed", session.getSessionId(), backend.getName());
+
+            handleBackendDisconnect(session, backend);
+        });
+
+        onConnected(session, quicChannel, backend, connectPacket, isReconnect, debugMode);
+    }
+
     private ChannelInitializer<QuicStreamChannel> createStreamHandler(ProxySession session, boolean debugMode) {
+        return createStreamHandler(session, null, debugMode);
+    }
+
+    private ChannelInitializer<QuicStreamChannel> createStreamHandler(
+            ProxySession session,
+            BackendSwitch pendingSwitch,
+            boolean debugMode) {
         return new ChannelInitializer<>() {
             @Override
             protected void initChannel(QuicStreamChannel ch) {
@@ -323,7 +375,7 @@ public final class BackendConnector {
                 if (!ch.isLocalCreated() && ch.type() == QuicStreamType.UNIDIRECTIONAL) {
                     LOGGER.info("Session {}: Backend initiated uni-stream {} — setting up raw forwarder",
                             session.getSessionId(), streamId);
-                    handleBackendUniStream(session, ch, streamId);
+                    handleBackendUniStream(session, pendingSwitch, ch, streamId);
                     return;
                 }
 
@@ -340,11 +392,33 @@ public final class BackendConnector {
      * Buffers all incoming streams until the expected count is reached,
      * then creates client-side uni-streams sorted by backend stream ID
      * to preserve the correct NetworkChannel mapping.
+     *
+     * <p>Streams opened by a backend the session is still switching to are staged on the
+     * switch and registered once it completes.</p>
      */
-    private void handleBackendUniStream(ProxySession session, QuicStreamChannel ch, long streamId) {
-        UniStreamForwarder forwarder = new UniStreamForwarder(session.getSessionId(), streamId);
+    private void handleBackendUniStream(
+            ProxySession session,
+            BackendSwitch pendingSwitch,
+            QuicStreamChannel ch,
+            long streamId) {
+
+        UniStreamForwarder forwarder = new UniStreamForwarder(session.getSessionId(), streamId, session.getMemory());
         ch.pipeline().addLast(forwarder);
 
+        if (pendingSwitch != null && pendingSwitch.stageUniStream(streamId, ch, forwarder)) {
+            LOGGER.debug("Session {}: Staged uni-stream {} until the switch completes",
+                    session.getSessionId(), streamId);
+            return;
+        }
+        registerBackendUniStream(session, streamId, ch, forwarder);
+    }
+
+    private void registerBackendUniStream(
+            ProxySession session,
+            long streamId,
+            QuicStreamChannel ch,
+            UniStreamForwarder forwarder) {
+
         boolean allReady = session.getChannels().addBackendUniStream(streamId, ch, forwarder);
         if (allReady) {
             LOGGER.info("Session {}: All expected uni-streams received, creating client-side streams",
@@ -394,7 +468,7 @@ public final class BackendConnector {
                         session.getSessionId(), entry.stream().streamId(), future.cause());
                 session.disconnect("Failed to create streaming channels");
             }
-        };
+        });
     }
 
     private void onConnected(
@@ -450,7 +524,7 @@ public final class BackendConnector {
         LOGGER.info("Session {}: Backend stream created for {}, forwarding Connect packet",
                 session.getSessionId(), backend.getName());
 
-        Connect signedConnect = createSignedConnectPacket(session, connectPacket);
+        Connect signedConnect = createSignedConnectPacket(session, connectPacket, backend.getName());
         LOGGER.debug("Session {}: Writing Connect to backend stream - final check: protocolCrc={}, buildNumber={}, clientVersion='{}'",
                 session.getSessionId(), signedConnect.protocolCrc, signedConnect.protocolBuildNumber, signedConnect.clientVersion);
         stream.writeAndFlush(signedConnect);
@@ -461,6 +535,10 @@ public final class BackendConnector {
         }
     }
 
+    private CircuitBreaker circuitBreaker(BackendServer backend) {
+        return proxyCore.getBackendHealthManager().getCircuitBreaker(backend);
+    }
+
     private void handleConnectionFailure(ProxySession session, String serverName, boolean isReconnect) {
         ProxyMetrics.getInstance().recordBackendConnectionFailure(serverName);
         if (isReconnect) {
@@ -471,6 +549,19 @@ public final class BackendConnector {
     }
 
     public void handleBackendDisconnect(ProxySession session, BackendServer backend) {
+        handleBackendDisconnect(session, backend, null);
+    }
+
+    /**
+     * Moves a session off a backend that went away, to the backend's fallback or the
+     * global fallback. The transfer is queued on the {@link TransferOrchestrator} so a
+     * whole backend's players do not land on the fallback at once.
+     *
+     * @param session the session whose backend went away
+     * @param backend the backend that went away
+     * @param batch   the evacuation batch to count the transfer in, or null
+     */
+    public void handleBackendDisconnect(ProxySession session, BackendServer backend, @Nullable TransferBatch batch) {
         if (!session.isActive()) return;
         if (session.getCurrentBackend() != backend) return;
         if (session.isServerTransfer()) return;
@@ -482,31 +573,31 @@ public final class BackendConnector {
 
         String disconnectReason = "Backend server disconnected";
 
-        BackendServer fallbackServer = proxyCore.getConfig().getBackendByName(proxyCore.getConfig().getGlobalFallbackServer());
-        if (fallbackServer == null) {
-            session.disconnect(disconnectReason);
-            return;
-        }
+        // Fallbacks may name a backend group; the orchestrator never picks the backend that just failed
+        BackendBalancer balancer = proxyCore.getBackendBalancer();
+        String fallbackName = backend.getFallbackServer();
 
-        if (backend.getFallbackServer() == null || backend.getFallbackServer().isBlank()) {
-            if (backend.getName().equals(fallbackServer.getName())) {
-                disconnectReason = "Fallback server is down";
+        if (fallbackName == null || fallbackName.isBlank()) {
+            fallbackName = proxyCore.getConfig().getGlobalFallbackServer();
+            if (fallbackName == null || !balancer.isKnown(fallbackName)) {
                 session.disconnect(disconnectReason);
                 return;
             }
-        } else {
-            fallbackServer = proxyCore.getConfig().getBackendByName(backend.getFallbackServer());
-            if (fallbackServer == null) {
+            if (backend.getName().equalsIgnoreCase(fallbackName)) {
+                disconnectReason = "Fallback server is down";
                 session.disconnect(disconnectReason);
                 return;
             }
+        } else if (!balancer.isKnown(fallbackName)) {
+            session.disconnect(disconnectReason);
+            return;
         }
 
-        LOGGER.debug("Transfering for {} from backend {} to {}", session.getSessionId(), backend.getName(), fallbackServer.getName());
+        LOGGER.debug("Transfering for {} from backend {} to {}", session.getSessionId(), backend.getName(), fallbackName);
 
         ServerDisconnectedResult eventResult = fireServerDisconnectedEvent(session, disconnectReason);
         if (eventResult != null && eventResult.getFallbackServer() != null) {
-            fallbackServer = proxyCore.getConfig().getBackendByName(eventResult.getFallbackServer().getName());
+            BackendServer fallbackServer = balancer.resolve(eventResult.getFallbackServer().getName(), backend);
             if (fallbackServer == null) {
                 session.disconnect(disconnectReason);
                 return;
@@ -518,9 +609,10 @@ public final class BackendConnector {
             return;
         }
 
-        LOGGER.info("Session {}: Transferring to default server {}", session.getSessionId(), fallbackServer.getName());
+        LOGGER.info("Session {}: Transferring to default server {}", session.getSessionId(), fallbackName);
 
-        proxyCore.getPlayerTransfer().transfer(session, fallbackServer)
+        proxyCore.getTransferOrchestrator()
+                .submit(session, fallbackName, backend, TransferPriority.EVACUATION, batch)
                 .whenComplete((transferResult, ex) -> {
                     if (!transferResult.isSuccess()) {
                         if (transferResult.getMessage() == null) {
@@ -536,22 +628,240 @@ public final class BackendConnector {
                 });
     }
 
+    // ==================== Seamless Switch ====================
+
+    /**
+     * Moves a connected session to another backend without the client reconnecting.
+     *
+     * <p>The new connection is opened and authenticated with the player's stored identity
+     * while the current backend keeps serving the session. Only once the new backend sends
+     * {@code ConnectAccept} are the streams swapped and the old connection closed; from then
+     * on the new backend's own join sequence is forwarded to the client.</p>
+     *
+     * <p>The returned future completes with false if the new backend refuses, closes or
+     * does not accept within {@code seamlessTransferTimeoutSeconds}. The session then stays
+     * on its current backend and the caller may fall back to a {@code ClientReferral}.</p>
+     *
+     * @param session the connected session to move
+     * @param backend the target backend
+     * @return a future completing with true once the session runs on the new backend
+     */
+    @Nonnull
+    public CompletableFuture<Boolean> switchBackend(@Nonnull ProxySession session, @Nonnull BackendServer backend) {
+        Objects.requireNonNull(session, "session");
+        Objects.requireNonNull(backend, "backend");
+
+        BackendServer targetBackend = firePreConnectEvent(session, backend);
+        if (targetBackend == null) {
+            return CompletableFuture.completedFuture(false); // Connection denied by plugin
+        }
+
+        CircuitBreaker breaker = circuitBreaker(targetBackend);
+        if (!breaker.tryAcquire()) {
+            LOGGER.warn("Session {}: Backend {} circuit is {}, not switching",
+                    session.getSessionId(), targetBackend.getName(), breaker.getState());
+            return CompletableFuture.completedFuture(false);
+        }
+
+        BackendSwitch pending = new BackendSwitch(session, targetBackend);
+        session.setServerTransfer(true);
+        pending.result().whenComplete((switched, ex) -> session.setServerTransfer(false));
+        ProxyMetrics.getInstance().recordTransferInitiated();
+        var transferTimer = ProxyMetrics.getInstance().startTimer();
+        pending.result().thenAccept(switched -> {
+            if (switched) {
+                ProxyMetrics.getInstance().recordServerTransferTime(transferTimer);
+            }
+        });
+
+        int timeoutSeconds = proxyCore.getConfig().getSeamlessTransferTimeoutSeconds();
+        ScheduledFuture<?> timeout = group.schedule(
+                () -> failSwitch(pending, "No ConnectAccept within " + timeoutSeconds + "s"),
+                timeoutSeconds, TimeUnit.SECONDS);
+        pending.result().whenComplete((switched, ex) -> timeout.cancel(false));
+
+        LOGGER.info("Session {}: Switching from {} to backend {} ({}:{})",
+                session.getSessionId(),
+                session.getCurrentBackend() != null ? session.getCurrentBackend().getName() : "none",
+                targetBackend.getName(), targetBackend.getHost(), targetBackend.getPort());
+
+        boolean debugMode = proxyCore.getConfig().isDebugMode();
+        QuicChannel pooled = proxyCore.getBackendConnectionPool()
+                .claim(targetBackend, createStreamHandler(session, pending, debugMode));
+        if (pooled != null) {
+            breaker.onConnectSuccess();
+            onSwitchChannelConnected(pending, pooled, debugMode);
+            return pending.result();
+        }
+
+        // Resolve and bind without blocking: callers may be running on an event loop
+        proxyCore.getBackendResolver().resolve(targetBackend).whenComplete((address, cause) -> {
+            if (cause != null) {
+                breaker.onConnectFailure();
+                failSwitch(pending, "Could not resolve " + targetBackend.getHost() + ": " + cause.getMessage());
+                return;
+            }
+
+            createBootstrap().bind(0).addListener((ChannelFutureListener) bind -> {
+                if (!bind.isSuccess()) {
+                    breaker.onConnectFailure();
+                    failSwitch(pending, "Bind failed: " + bind.cause().getMessage());
+                    return;
+                }
+                connectSwitchChannel(pending, bind.channel(), address, debugMode);
+            });
+        });
+
+        return pending.result();
+    }
+
+    private void connectSwitchChannel(BackendSwitch pending, Channel datagramChannel, InetSocketAddress address,
+                                      boolean debugMode) {
+        ProxySession session = pending.session();
+        BackendServer backend = pending.backend();
+
+        proxyCore.getUdpOffload().newQuicBootstrap(datagramChannel)
+                .streamHandler(createStreamHandler(session, pending, debugMode))
+                .remoteAddress(address)
+                .connect()
+                .addListener(future -> {
+                    if (!future.isSuccess()) {
+                        datagramChannel.close();
+                        circuitBreaker(backend).onConnectFailure();
+                        failSwitch(pending, "Connect failed: " + future.cause().getMessage());
+                        return;
+                    }
+
+                    circuitBreaker(backend).onConnectSuccess();
+
+                    QuicChannel quicChannel = (QuicChannel) future.getNow();
+                    quicChannel.closeFuture().addListener(closeFuture -> datagramChannel.close());
+                    onSwitchChannelConnected(pending, quicChannel, debugMode);
+                });
+    }
+
+    private void onSwitchChannelConnected(BackendSwitch pending, QuicChannel quicChannel, boolean debugMode) {
+        ProxySession session = pending.session();
+        BackendServer backend = pending.backend();
+
+        quicChannel.closeFuture().addListener(closeFuture -> {
+            if (!pending.isSwitched()) {
+                failSwitch(pending, "Connection closed");
+                return;
+            }
+            LOGGER.warn("Session {}: Backend {} connection closed", session.getSessionId(), backend.getName());
+            handleBackendDisconnect(session, backend);
+        });
+
+        if (pending.attachChannel(quicChannel)) {
+            ProxyMetrics.getInstance().recordBackendConnection(backend.getName());
+            createSwitchStream(pending, quicChannel, debugMode);
+        }
+    }
+
+    private void createSwitchStream(BackendSwitch pending, QuicChannel quicChannel, boolean debugMode) {
+        ProxySession session = pending.session();
+
+        quicChannel.createStream(QuicStreamType.BIDIRECTIONAL, new ChannelInitializer<QuicStreamChannel>() {
+            @Override
+            protected void initChannel(QuicStreamChannel ch) {
+                ch.pipeline().addLast(new ProxyPacketDecoder("backend-server", debugMode));
+                ch.pipeline().addLast(new ProxyPacketEncoder("backend-server", debugMode));
+                ch.pipeline().addLast(new BackendSwitch.HandshakeHandler(BackendConnector.this, pending));
+            }
+        }).addListener(future -> {
+            if (!future.isSuccess()) {
+                failSwitch(pending, "Stream creation failed: " + future.cause().getMessage());
+                return;
+            }
+
+            QuicStreamChannel stream = (QuicStreamChannel) future.getNow();
+            Connect signedConnect = createSignedConnectPacket(
+                    session, session.createTransferConnect(), pending.backend().getName());
+            stream.writeAndFlush(signedConnect);
+        });
+    }
+
+    /**
+     * Swaps the session onto the new backend once it has accepted the player.
+     * Runs on the new backend stream's event loop.
+     */
+    void completeSwitch(BackendSwitch pending, ChannelHandlerContext ctx) {
+        ProxySession session = pending.session();
+        if (!session.isActive()) {
+            failSwitch(pending, "Session closed");
+            return;
+        }
+
+        var stagedUniStreams = pending.markSwitched();
+        if (stagedUniStreams == null) {
+            return; // Already timed out; the new connection is being closed
+        }
+
+        BackendServer backend = pending.backend();
+        BackendServer previous = session.getCurrentBackend();
+        QuicStreamChannel stream = (QuicStreamChannel) ctx.channel();
+
+        // Publish the new backend before closing the old one, so its close listener and
+        // handlers recognise themselves as replaced rather than as a lost connection
+        session.setCurrentBackend(backend);
+        session.getChannels().replaceBackend(pending.channel(), stream);
+        ctx.pipeline().replace(ctx.handler(), null, new BackendPacketHandler(proxyCore, session));
+
+        if (!session.isActive()) {
+            // The client left while we were swapping; nothing else will close the new backend
+            session.getChannels().closeBackend();
+        }
+
+        if (proxyCore.getBackendHealthManager() != null) {
+            proxyCore.getBackendHealthManager().get(backend).markSessionBound();
+        }
+
+        for (var entry : stagedUniStreams) {
+            registerBackendUniStream(session, entry.streamId(), entry.stream(), entry.forwarder());
+        }
+
+        LOGGER.info("Session {}: Switched from {} to {} without client reconnect",
+                session.getSessionId(), previous != null ? previous.getName() : "none", backend.getName());
+
+        ProxyMetrics.getInstance().recordTransferCompleted();
+        pending.result().complete(true);
+        fireServerSwitchedEvent(session, previous);
+    }
+
+    void failSwitch(BackendSwitch pending, String reason) {
+        if (pending.fail(reason)) {
+            ProxyMetrics.getInstance().recordBackendConnectionFailure(pending.backend().getName());
+            ProxyMetrics.getInstance().recordTransferFailed();
+            pending.result().complete(false);
+        }
+    }
+
+    private void fireServerSwitchedEvent(ProxySession session, BackendServer previous) {
+        var apiProxy = proxyCore.getApiProxy();
+        if (apiProxy == null) {
+            return;
+        }
+
+        var eventBridge = apiProxy.getEventBridge();
+        if (eventBridge == null) {
+            return;
+        }
+
+        eventBridge.fireServerSwitchedEvent(session, previous);
+    }
+
     // ==================== Signed Connect Packet ====================
 
-    private Connect createSignedConnectPacket(ProxySession session, Connect original) {
+    private Connect createSignedConnectPacket(ProxySession session, Connect original, String backendName) {
         LOGGER.debug("Session {}: Original Connect packet - protocolCrc={}, buildNumber={}, clientVersion='{}'",
                 session.getSessionId(), original.protocolCrc, original.protocolBuildNumber, original.clientVersion);
 
-        String backendName = session.getCurrentBackend() != null
-                ? session.getCurrentBackend().getName()
-                : "unknown";
-
-        byte[] referralData = SecretMessageUtil.createPlayerInfoReferral(
+        byte[] referralData = referralCodec.encode(
                 session.getPlayerUuid(),
                 session.getUsername(),
                 backendName,
-                session.getClientAddress(),
-                proxySecret
+                session.getClientAddress()
         );
 
         LOGGER.debug("Session {}: Created signed referral ({} bytes) for {}",
@@ -0,0 +1,199 @@
+package me.internalizable.numdrassl.server;
+
+import com.hypixel.hytale.protocol.packets.auth.ConnectAccept;
+import com.hypixel.hytale.protocol.packets.connection.Disconnect;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.incubator.codec.quic.QuicChannel;
+import io.netty.incubator.codec.quic.QuicStreamChannel;
+import me.internalizable.numdrassl.config.BackendServer;
+import me.internalizable.numdrassl.pipeline.UniStreamForwarder;
+import me.internalizable.numdrassl.session.ProxySession;
+import me.internalizable.numdrassl.session.channel.SessionChannels;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A make-before-break switch of a session to another backend.
+ *
+ * <p>The new backend connection is opened and authenticated while the session keeps
+ * talking to its current backend. Uni-streams the new backend opens before it accepts
+ * are staged here. Once the new backend answers with {@link ConnectAccept},
+ * {@link BackendConnector} swaps the connection into {@link SessionChannels} and closes
+ * the old one. If the new backend refuses, closes, or does not answer in time, the
+ * switch fails and the session is left on its current backend.</p>
+ *
+ * <p>Completion and failure race between the backend's event loop and the timeout, so
+ * the outcome is decided once under this object's monitor.</p>
+ */
+final class BackendSwitch {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BackendSwitch.class);
+
+    enum Outcome { PENDING, SWITCHED, FAILED }
+
+    private final ProxySession session;
+    private final BackendServer backend;
+    private final CompletableFuture<Boolean> result = new CompletableFuture<>();
+
+    // Guarded by this
+    private Outcome outcome = Outcome.PENDING;
+    private QuicChannel channel;
+    private List<SessionChannels.UniStreamEntry> stagedUniStreams;
+
+    BackendSwitch(@Nonnull ProxySession session, @Nonnull BackendServer backend) {
+        this.session = Objects.requireNonNull(session, "session");
+        this.backend = Objects.requireNonNull(backend, "backend");
+    }
+
+    @Nonnull
+    ProxySession session() {
+        return session;
+    }
+
+    @Nonnull
+    BackendServer backend() {
+        return backend;
+    }
+
+    /**
+     * Completes with true once the session runs on the new backend, or false if the
+     * switch failed and the session is still on its previous backend.
+     */
+    @Nonnull
+    CompletableFuture<Boolean> result() {
+        return result;
+    }
+
+    // ==================== Connection State ====================
+
+    /**
+     * Records the new backend's QUIC channel.
+     *
+     * @return false if the switch already failed, in which case the channel is closed
+     */
+    boolean attachChannel(@Nonnull QuicChannel quicChannel) {
+        synchronized (this) {
+            if (outcome == Outcome.PENDING) {
+                channel = quicChannel;
+                return true;
+            }
+        }
+        quicChannel.close();
+        return false;
+    }
+
+    @Nullable
+    synchronized QuicChannel channel() {
+        return channel;
+    }
+
+    synchronized boolean isSwitched() {
+        return outcome == Outcome.SWITCHED;
+    }
+
+    /**
+     * Stages a uni-stream the new backend opened before the switch completed.
+     *
+     * @return false if the switch already completed and the stream must be registered
+     *         with the session directly
+     */
+    synchronized boolean stageUniStream(long streamId, QuicStreamChannel stream, UniStreamForwarder forwarder) {
+        if (outcome != Outcome.PENDING) {
+            return false;
+        }
+        if (stagedUniStreams == null) {
+            stagedUniStreams = new ArrayList<>(2);
+        }
+        stagedUniStreams.add(new SessionChannels.UniStreamEntry(streamId, stream, forwarder));
+        return true;
+    }
+
+    // ==================== Outcome ====================
+
+    /**
+     * Marks the switch as completed.
+     *
+     * @return the uni-streams staged so far, or null if the switch already failed
+     */
+    @Nullable
+    synchronized List<SessionChannels.UniStreamEntry> markSwitched() {
+        if (outcome != Outcome.PENDING) {
+            return null;
+        }
+        outcome = Outcome.SWITCHED;
+        List<SessionChannels.UniStreamEntry> staged = stagedUniStreams;
+        stagedUniStreams = null;
+        return staged != null ? staged : List.of();
+    }
+
+    /**
+     * Fails the switch and closes the new backend connection, if any.
+     *
+     * @return true if this call decided the outcome
+     */
+    boolean fail(@Nonnull String reason) {
+        QuicChannel toClose;
+        synchronized (this) {
+            if (outcome != Outcome.PENDING) {
+                return false;
+            }
+            outcome = Outcome.FAILED;
+            toClose = channel;
+            stagedUniStreams = null;
+        }
+
+        LOGGER.info("Session {}: Switch to {} failed: {}", session.getSessionId(), backend.getName(), reason);
+        if (toClose != null) {
+            toClose.close();
+        }
+        return true;
+    }
+
+    // ==================== Handshake Handler ====================
+
+    /**
+     * Sits on the new backend's control stream until it accepts or refuses the player.
+     * Nothing is forwarded to the client before the switch completes.
+     */
+    static final class HandshakeHandler extends SimpleChannelInboundHandler<Object> {
+
+        private final BackendConnector connector;
+        private final BackendSwitch pending;
+
+        HandshakeHandler(@Nonnull BackendConnector connector, @Nonnull BackendSwitch pending) {
+            this.connector = connector;
+            this.pending = pending;
+        }
+
+        @Override
+        protected void channelRead0(ChannelHandlerContext ctx, Object msg) {
+            if (msg instanceof ConnectAccept) {
+                connector.completeSwitch(pending, ctx);
+            } else if (msg instanceof Disconnect disconnect) {
+                connector.failSwitch(pending, "Backend refused: " + disconnect.reason);
+            } else {
+                LOGGER.debug("Session {}: Dropping {} from {} before it accepted",
+                        pending.session.getSessionId(), msg.getClass().getSimpleName(), pending.backend.getName());
+            }
+        }
+
+        @Override
+        public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+            connector.failSwitch(pending, "Backend stream closed");
+            super.channelInactive(ctx);
+        }
+
+        @Override
+        public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+            connector.failSwitch(pending, "Backend error: " + cause.getMessage());
+        }
+    }
+}
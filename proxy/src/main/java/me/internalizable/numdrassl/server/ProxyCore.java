@@ -5,10 +5,8 @@ import io.netty.channel.Channel;
 import io.netty.channel.ChannelHandler;
 import io.netty.channel.ChannelInitializer;
 import io.netty.channel.EventLoopGroup;
-import io.netty.channel.nio.NioEventLoopGroup;
-import io.netty.channel.socket.nio.NioDatagramChannel;
-import io.netty.incubator.codec.quic.InsecureQuicTokenHandler;
 import io.netty.incubator.codec.quic.QuicChannel;
+import io.netty.incubator.codec.quic.QuicChannelOption;
 import io.netty.incubator.codec.quic.QuicCongestionControlAlgorithm;
 import io.netty.incubator.codec.quic.QuicServerCodecBuilder;
 import io.netty.incubator.codec.quic.QuicSslContext;
@@ -18,8 +16,11 @@ import me.internalizable.numdrassl.api.Numdrassl;
 import me.internalizable.numdrassl.api.event.proxy.ProxyInitializeEvent;
 import me.internalizable.numdrassl.api.event.proxy.ProxyShutdownEvent;
 import me.internalizable.numdrassl.auth.ProxyAuthenticator;
+import me.internalizable.numdrassl.auth.http.SessionServiceClient;
 import me.internalizable.numdrassl.config.ProxyConfig;
 import me.internalizable.numdrassl.event.packet.PacketEventManager;
+import me.internalizable.numdrassl.memory.MemoryBudget;
+import me.internalizable.numdrassl.memory.MemoryBudgetEnforcer;
 import me.internalizable.numdrassl.pipeline.ClientPacketHandler;
 import me.internalizable.numdrassl.pipeline.codec.ProxyPacketDecoder;
 import me.internalizable.numdrassl.pipeline.codec.ProxyPacketEncoder;
@@ -28,11 +29,19 @@ import me.internalizable.numdrassl.profiling.MetricsHistory;
 import me.internalizable.numdrassl.profiling.MetricsHttpServer;
 import me.internalizable.numdrassl.profiling.MetricsLogger;
 import me.internalizable.numdrassl.profiling.ProxyMetrics;
+import me.internalizable.numdrassl.server.admission.ConnectionAdmission;
+import me.internalizable.numdrassl.server.admission.RetryTokenHandler;
+import me.internalizable.numdrassl.server.balance.BackendBalancer;
 import me.internalizable.numdrassl.server.health.BackendHealthManager;
 import me.internalizable.numdrassl.server.health.BackendWatchdog;
+import me.internalizable.numdrassl.server.network.BackendAddressResolver;
+import me.internalizable.numdrassl.server.network.UdpOffload;
+import me.internalizable.numdrassl.server.pool.BackendConnectionPool;
+import me.internalizable.numdrassl.server.queue.LoginQueue;
 import me.internalizable.numdrassl.server.ssl.CertificateGenerator;
 import me.internalizable.numdrassl.server.transfer.PlayerTransfer;
 import me.internalizable.numdrassl.server.transfer.ReferralManager;
+import me.internalizable.numdrassl.server.transfer.TransferOrchestrator;
 import me.internalizable.numdrassl.session.ProxySession;
 import me.internalizable.numdrassl.session.SessionManager;
 import org.slf4j.Logger;
@@ -42,6 +51,7 @@ import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.io.File;
 import java.net.InetSocketAddress;
+import java.time.Duration;
 import java.util.Objects;
 import java.util.concurrent.TimeUnit;
 
@@ -74,13 +84,23 @@ public final class ProxyCore {
 
     // Core components
     private final SessionManager sessionManager;
+    private final ConnectionAdmission connectionAdmission;
+    private final RetryTokenHandler retryTokenHandler;
+    private final UdpOffload udpOffload;
+    private final BackendAddressResolver backendResolver;
     private final PacketEventManager eventManager;
     private final BackendConnector backendConnector;
     private final ProxyAuthenticator authenticator;
     private final ReferralManager referralManager;
     private final PlayerTransfer playerTransfer;
+    private final TransferOrchestrator transferOrchestrator;
+    private final LoginQueue loginQueue;
     private final BackendHealthManager backendHealthManager;
     private final BackendWatchdog backendWatchdog;
+    private final BackendConnectionPool backendConnectionPool;
+    private final BackendBalancer backendBalancer;
+    private final MemoryBudget memoryBudget;
+    private final MemoryBudgetEnforcer memoryBudgetEnforcer;
 
     // Networking
     private EventLoopGroup eventLoopGroup;
@@ -99,22 +119,52 @@ public final class ProxyCore {
     // ==================== Construction ====================
 
     public ProxyCore(@Nonnull ProxyConfig config) {
+        this(config, null);
+    }
+
+    /**
+     * Creates the proxy with a caller-supplied authenticator.
+     *
+     * @param config the proxy configuration
+     * @param authenticator authenticator to use, or {@code null} to create the default one
+     */
+    public ProxyCore(@Nonnull ProxyConfig config, @Nullable ProxyAuthenticator authenticator) {
         this.config = Objects.requireNonNull(config, "config");
         this.sessionManager = new SessionManager();
+        this.connectionAdmission = new ConnectionAdmission(config);
+        this.retryTokenHandler = new RetryTokenHandler(config);
+        this.udpOffload = UdpOffload.detect(config.isUdpOffloadEnabled(), config.getUdpGsoMaxSegments());
+        this.backendResolver = new BackendAddressResolver(config, udpOffload);
+        this.memoryBudget = new MemoryBudget(
+            config.getMemoryBudgetMb() * 1024L * 1024L,
+            config.getSessionMemoryQuotaMb() * 1024L * 1024L);
+        this.memoryBudgetEnforcer = new MemoryBudgetEnforcer(
+            memoryBudget, sessionManager, config.getMemoryQuotaGraceSeconds() * 1000L);
         this.eventManager = new PacketEventManager();
         this.backendConnector = new BackendConnector(this);
         this.referralManager = new ReferralManager(this);
         this.playerTransfer = new PlayerTransfer(this);
+        this.transferOrchestrator = new TransferOrchestrator(this);
+        this.loginQueue = new LoginQueue(this);
         this.backendHealthManager = new BackendHealthManager(this);
         this.backendWatchdog = new BackendWatchdog(this);
-        this.authenticator = createAuthenticator();
+        this.backendConnectionPool = new BackendConnectionPool(this);
+        this.backendBalancer = new BackendBalancer(this);
+        this.authenticator = authenticator != null ? authenticator : createAuthenticator();
     }
 
     private ProxyAuthenticator createAuthenticator() {
         return new ProxyAuthenticator(
             config.getCertificatePath(),
             config.getPrivateKeyPath(),
-            "config/proxy_credentials.json"
+            "config/proxy_credentials.json",
+            new SessionServiceClient.Settings(
+                config.getSessionServiceUrl(),
+                config.getSessionServiceMaxConcurrent(),
+                config.getSessionServiceMaxQueued(),
+                Duration.ofSeconds(config.getSessionServiceTimeoutSeconds()),
+                Duration.ofSeconds(config.getSessionServiceCacheTtlSeconds()),
+                config.getSessionServiceCacheMaxEntries())
         );
     }
 
@@ -133,10 +183,17 @@ public final class ProxyCore {
 
         logStartupInfo();
         backendWatchdog.initialize();
+        memoryBudgetEnforcer.initialize();
         initializeMetrics();
         initializeAuthenticator();
 
         QuicSslContext sslContext = createSslContext();
+        backendResolver.initialize(config.getBackends());
+        backendHealthManager.initialize();
+        backendConnectionPool.initialize();
+        transferOrchestrator.initialize();
+        loginQueue.initialize();
+        connectionAdmission.initialize();
         startNetworking(sslContext);
         initializeApi();
 
@@ -179,6 +236,19 @@ public final class ProxyCore {
             // Initialize the metrics singleton
             ProxyMetrics metrics = ProxyMetrics.getInstance();
             metrics.bindSessionManager(sessionManager);
+            metrics.bindConnectionAdmission(connectionAdmission);
+            metrics.bindRetryTokenHandler(retryTokenHandler);
+            metrics.bindUdpOffload(udpOffload);
+            metrics.bindBackendResolver(backendResolver);
+            metrics.bindBackendSessions(sessionManager, config.getBackends());
+            metrics.bindMemoryBudget(memoryBudget);
+            metrics.bindBackendConnectionPool(backendConnectionPool, config.getBackends());
+            metrics.bindBackendHealth(backendHealthManager, config.getBackends());
+            metrics.bindBackendGroups(backendBalancer, config);
+            metrics.bindTransferOrchestrator(transferOrchestrator);
+            metrics.bindReferralManager(referralManager);
+            metrics.bindLoginQueue(loginQueue, config);
+            metrics.bindSessionService(authenticator.getSessionService());
 
             // Initialize metrics history (continuous recording)
             MetricsHistory.getInstance();
@@ -235,14 +305,11 @@ public final class ProxyCore {
 
     private void startNetworking(QuicSslContext sslContext) throws InterruptedException {
         int threads = Runtime.getRuntime().availableProcessors();
-        eventLoopGroup = new NioEventLoopGroup(threads);
+        eventLoopGroup = udpOffload.newEventLoopGroup(threads);
 
         ChannelHandler serverCodec = buildServerCodec(sslContext);
 
-        Bootstrap bootstrap = new Bootstrap()
-            .group(eventLoopGroup)
-            .channel(NioDatagramChannel.class)
-            .handler(serverCodec);
+        Bootstrap bootstrap = udpOffload.newBootstrap(eventLoopGroup, serverCodec);
 
         InetSocketAddress bindAddress = new InetSocketAddress(
             config.getBindAddress(),
@@ -268,7 +335,8 @@ public final class ProxyCore {
             .initialMaxStreamDataUnidirectional(0)
             .initialMaxStreamsBidirectional(100)
             .initialMaxStreamsUnidirectional(0)
-            .tokenHandler(InsecureQuicTokenHandler.INSTANCE)
+            .tokenHandler(retryTokenHandler)
+            .option(QuicChannelOption.SEGMENTED_DATAGRAM_PACKET_ALLOCATOR, udpOffload.getSegmentAllocator())
             .handler(new ChannelInitializer<QuicChannel>() {
                 @Override
                 protected void initChannel(QuicChannel ch) {
@@ -285,6 +353,12 @@ public final class ProxyCore {
     }
 
     private void handleNewConnection(QuicChannel quicChannel) {
+        if (!connectionAdmission.tryAdmit(quicChannel.remoteSocketAddress())) {
+            ProxyMetrics.getInstance().recordConnectionRejected();
+            quicChannel.close();
+            return;
+        }
+
         if (sessionManager.getSessionCount() >= config.getMaxConnections()) {
             LOGGER.warn("Max connections reached, rejecting connection");
             ProxyMetrics.getInstance().recordConnectionRejected();
@@ -298,7 +372,7 @@ public final class ProxyCore {
         ProxyMetrics.getInstance().incrementActiveSession();
 
         LOGGER.info("New connection from {} (Session {})",
-            quicChannel.remoteAddress(), session.getSessionId());
+            quicChannel.remoteSocketAddress(), session.getSessionId());
 
         eventManager.dispatchSessionCreated(session);
     }
@@ -380,11 +454,18 @@ public final class ProxyCore {
     }
 
     private void shutdownComponents() {
+        connectionAdmission.shutdown();
+        loginQueue.shutdown();
+        transferOrchestrator.shutdown();
         sessionManager.closeAll();
+        backendConnectionPool.shutdown();
         backendConnector.shutdown();
         referralManager.shutdown();
         authenticator.shutdown();
         backendWatchdog.shutdown();
+        backendHealthManager.shutdown();
+        memoryBudgetEnforcer.shutdown();
+        backendResolver.shutdown();
 
         if (serverChannel != null) {
             serverChannel.close().syncUninterruptibly();
@@ -411,6 +492,31 @@ public final class ProxyCore {
         return sessionManager;
     }
 
+    @Nonnull
+    public ConnectionAdmission getConnectionAdmission() {
+        return connectionAdmission;
+    }
+
+    @Nonnull
+    public RetryTokenHandler getRetryTokenHandler() {
+        return retryTokenHandler;
+    }
+
+    @Nonnull
+    public UdpOffload getUdpOffload() {
+        return udpOffload;
+    }
+
+    @Nonnull
+    public BackendAddressResolver getBackendResolver() {
+        return backendResolver;
+    }
+
+    @Nonnull
+    public MemoryBudget getMemoryBudget() {
+        return memoryBudget;
+    }
+
     @Nonnull
     public PacketEventManager getEventManager() {
         return eventManager;
@@ -421,6 +527,16 @@ public final class ProxyCore {
         return backendConnector;
     }
 
+    @Nonnull
+    public BackendConnectionPool getBackendConnectionPool() {
+        return backendConnectionPool;
+    }
+
+    @Nonnull
+    public BackendBalancer getBackendBalancer() {
+        return backendBalancer;
+    }
+
     @Nonnull
     public ReferralManager getReferralManager() {
         return referralManager;
@@ -431,6 +547,16 @@ public final class ProxyCore {
         return playerTransfer;
     }
 
+    @Nonnull
+    public TransferOrchestrator getTransferOrchestrator() {
+        return transferOrchestrator;
+    }
+
+    @Nonnull
+    public LoginQueue getLoginQueue() {
+        return loginQueue;
+    }
+
     @Nullable
     public ProxyAuthenticator getAuthenticator() {
         return authenticator;
@@ -0,0 +1,383 @@
+package me.internalizable.numdrassl.server.admission;
+
+import me.internalizable.numdrassl.config.ProxyConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Rate limits new client connections per source address and per subnet.
+ *
+ * <p>Every new QUIC connection takes a token from the bucket of its IP and of its
+ * subnet (/24 for IPv4, /64 for IPv6). If either bucket is empty the connection is
+ * closed before the proxy spends a TLS handshake and a session-service round trip on
+ * it. Addresses on the allowlist are never limited.</p>
+ *
+ * <p>At most {@code connectionRateLimitMaxTracked} buckets are kept. Once the table
+ * is full, addresses without a bucket share one overflow bucket per scope, so a flood
+ * of distinct addresses is limited as a whole instead of growing the table. Buckets
+ * that have refilled completely carry no state and are swept periodically.</p>
+ */
+public final class ConnectionAdmission {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ConnectionAdmission.class);
+
+    private static final long SWEEP_INTERVAL_SECONDS = 10;
+    private static final long IPV4_MAPPED_PREFIX = 0xFFFF_0000_0000L;
+
+    private final boolean enabled;
+    private final Limit ipLimit;
+    private final Limit subnetLimit;
+    private final int maxTracked;
+    private final List<Cidr> allowlist;
+    private final LongSupplier clock;
+
+    private final Map<Key, Bucket> ipBuckets = new ConcurrentHashMap<>();
+    private final Map<Key, Bucket> subnetBuckets = new ConcurrentHashMap<>();
+    private final AtomicInteger tracked = new AtomicInteger();
+    private final Bucket ipOverflow;
+    private final Bucket subnetOverflow;
+
+    private final LongAdder rejectedByIp = new LongAdder();
+    private final LongAdder rejectedBySubnet = new LongAdder();
+    private final LongAdder overflowed = new LongAdder();
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "connection-admission");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private ScheduledFuture<?> sweepTask;
+
+    public ConnectionAdmission(@Nonnull ProxyConfig config) {
+        this(config, System::nanoTime);
+    }
+
+    /**
+     * Creates an admission check that reads time from {@code clock}, in nanoseconds, for tests.
+     */
+    ConnectionAdmission(@Nonnull ProxyConfig config, @Nonnull LongSupplier clock) {
+        Objects.requireNonNull(config, "config");
+        this.enabled = config.isConnectionRateLimitEnabled();
+        this.ipLimit = new Limit(config.getConnectionsPerIpPerSecond(), config.getConnectionBurstPerIp());
+        this.subnetLimit = new Limit(config.getConnectionsPerSubnetPerSecond(), config.getConnectionBurstPerSubnet());
+        this.maxTracked = config.getConnectionRateLimitMaxTracked();
+        this.allowlist = parseAllowlist(config.getConnectionAllowlist());
+        this.clock = Objects.requireNonNull(clock, "clock");
+
+        // Overflow buckets stand in for many addresses, so they get the subnet allowance
+        long now = clock.getAsLong();
+        this.ipOverflow = new Bucket(subnetLimit, now);
+        this.subnetOverflow = new Bucket(subnetLimit, now);
+    }
+
+    // ==================== Lifecycle ====================
+
+    public void initialize() {
+        if (!enabled || sweepTask != null) {
+            return;
+        }
+
+        sweepTask = scheduler.scheduleAtFixedRate(this::sweep,
+                SWEEP_INTERVAL_SECONDS, SWEEP_INTERVAL_SECONDS, TimeUnit.SECONDS);
+        LOGGER.info("Connection rate limit: {}/s (burst {}) per IP, {}/s (burst {}) per subnet, {} allowlist entr(ies)",
+                ipLimit.ratePerSecond, (int) ipLimit.burst, subnetLimit.ratePerSecond, (int) subnetLimit.burst,
+                allowlist.size());
+    }
+
+    public void shutdown() {
+        if (sweepTask != null) {
+            sweepTask.cancel(false);
+            sweepTask = null;
+        }
+        scheduler.shutdownNow();
+        ipBuckets.clear();
+        subnetBuckets.clear();
+        tracked.set(0);
+    }
+
+    // ==================== Admission ====================
+
+    /**
+     * Takes a token for a new connection from the given address.
+     *
+     * @param remote the connection's UDP source address
+     * @return false if the connection should be refused
+     */
+    public boolean tryAdmit(@Nullable SocketAddress remote) {
+        if (!enabled || !(remote instanceof InetSocketAddress inet) || inet.getAddress() == null) {
+            return true;
+        }
+
+        InetAddress address = inet.getAddress();
+        if (isAllowlisted(address)) {
+            return true;
+        }
+
+        byte[] bytes = address.getAddress();
+        long now = clock.getAsLong();
+
+        if (!bucket(ipBuckets, ipKey(bytes), ipLimit, ipOverflow, now).tryAcquire(now)) {
+            rejectedByIp.increment();
+            LOGGER.debug("Connection from {} refused: per-IP rate limit", address.getHostAddress());
+            return false;
+        }
+        if (!bucket(subnetBuckets, subnetKey(bytes), subnetLimit, subnetOverflow, now).tryAcquire(now)) {
+            rejectedBySubnet.increment();
+            LOGGER.debug("Connection from {} refused: per-subnet rate limit", address.getHostAddress());
+            return false;
+        }
+        return true;
+    }
+
+    private Bucket bucket(Map<Key, Bucket> buckets, Key key, Limit limit, Bucket overflow, long now) {
+        Bucket bucket = buckets.get(key);
+        if (bucket != null) {
+            return bucket;
+        }
+        if (tracked.get() >= maxTracked) {
+            overflowed.increment();
+            return overflow;
+        }
+        return buckets.computeIfAbsent(key, k -> {
+            tracked.incrementAndGet();
+            return new Bucket(limit, now);
+        });
+    }
+
+    private boolean isAllowlisted(InetAddress address) {
+        for (Cidr cidr : allowlist) {
+            if (cidr.contains(address)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // ==================== Keys ====================
+
+    private static Key ipKey(byte[] bytes) {
+        if (bytes.length == 4) {
+            return new Key(0, IPV4_MAPPED_PREFIX | (readInt(bytes, 0) & 0xFFFF_FFFFL));
+        }
+        return new Key(readLong(bytes, 0), readLong(bytes, 8));
+    }
+
+    private static Key subnetKey(byte[] bytes) {
+        if (bytes.length == 4) {
+            return new Key(0, IPV4_MAPPED_PREFIX | (readInt(bytes, 0) & 0xFFFF_FF00L)); // /24
+        }
+        return new Key(readLong(bytes, 0), 0); // /64
+    }
+
+    private static int readInt(byte[] bytes, int offset) {
+        return (bytes[offset] & 0xFF) << 24 | (bytes[offset + 1] & 0xFF) << 16
+                | (bytes[offset + 2] & 0xFF) << 8 | (bytes[offset + 3] & 0xFF);
+    }
+
+    private static long readLong(byte[] bytes, int offset) {
+        return (readInt(bytes, offset) & 0xFFFF_FFFFL) << 32 | (readInt(bytes, offset + 4) & 0xFFFF_FFFFL);
+    }
+
+    // ==================== Sweep ====================
+
+    void sweep() {
+        try {
+            long now = clock.getAsLong();
+            int removed = sweep(ipBuckets, now) + sweep(subnetBuckets, now);
+            if (removed > 0) {
+                LOGGER.debug("Swept {} idle connection rate limit bucket(s), {} tracked", removed, tracked.get());
+            }
+        } catch (Exception e) {
+            LOGGER.error("Error sweeping connection rate limit buckets", e);
+        }
+    }
+
+    private int sweep(Map<Key, Bucket> buckets, long now) {
+        int removed = 0;
+        for (Map.Entry<Key, Bucket> entry : buckets.entrySet()) {
+            if (entry.getValue().isIdle(now) && buckets.remove(entry.getKey(), entry.getValue())) {
+                tracked.decrementAndGet();
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    // ==================== Allowlist ====================
+
+    private static List<Cidr> parseAllowlist(List<String> entries) {
+        List<Cidr> parsed = new ArrayList<>(entries.size());
+        for (String entry : entries) {
+            Cidr cidr = Cidr.parse(entry);
+            if (cidr != null) {
+                parsed.add(cidr);
+            } else {
+                LOGGER.warn("Ignoring invalid connectionAllowlist entry '{}'", entry);
+            }
+        }
+        return List.copyOf(parsed);
+    }
+
+    private record Cidr(byte[] network, int prefixLength) {
+
+        @Nullable
+        static Cidr parse(String entry) {
+            if (entry == null) {
+                return null;
+            }
+            String text = entry.trim();
+            int slash = text.indexOf('/');
+            String host = slash >= 0 ? text.substring(0, slash) : text;
+
+            // Only accept literals so a typo never turns into a DNS lookup
+            if (host.isEmpty() || !host.chars().allMatch(c -> Character.digit(c, 16) >= 0 || c == '.' || c == ':')) {
+                return null;
+            }
+
+            byte[] network;
+            try {
+                network = InetAddress.getByName(host).getAddress();
+            } catch (UnknownHostException e) {
+                return null;
+            }
+
+            int prefix = network.length * 8;
+            if (slash >= 0) {
+                try {
+                    prefix = Integer.parseInt(text.substring(slash + 1));
+                } catch (NumberFormatException e) {
+                    return null;
+                }
+                if (prefix < 0 || prefix > network.length * 8) {
+                    return null;
+                }
+            }
+            return new Cidr(network, prefix);
+        }
+
+        boolean contains(InetAddress address) {
+            byte[] bytes = address.getAddress();
+            if (bytes.length != network.length) {
+                return false;
+            }
+            int fullBytes = prefixLength / 8;
+            for (int i = 0; i < fullBytes; i++) {
+                if (bytes[i] != network[i]) {
+                    return false;
+                }
+            }
+            int remainingBits = prefixLength % 8;
+            if (remainingBits == 0) {
+                return true;
+            }
+            int mask = 0xFF << (8 - remainingBits);
+            return (bytes[fullBytes] & mask) == (network[fullBytes] & mask);
+        }
+    }
+
+    // ==================== Buckets ====================
+
+    private record Key(long high, long low) {}
+
+    private static final class Limit {
+        final int ratePerSecond;
+        final double burst;
+        final double tokensPerNano;
+
+        Limit(int ratePerSecond, int burst) {
+            this.ratePerSecond = Math.max(1, ratePerSecond);
+            this.burst = Math.max(1, burst);
+            this.tokensPerNano = (double) this.ratePerSecond / TimeUnit.SECONDS.toNanos(1);
+        }
+    }
+
+    private static final class Bucket {
+        private final Limit limit;
+
+        // Guarded by this
+        private double tokens;
+        private long lastRefillNanos;
+
+        Bucket(Limit limit, long now) {
+            this.limit = limit;
+            this.tokens = limit.burst;
+            this.lastRefillNanos = now;
+        }
+
+        synchronized boolean tryAcquire(long now) {
+            refill(now);
+            if (tokens < 1) {
+                return false;
+            }
+            tokens -= 1;
+            return true;
+        }
+
+        synchronized boolean isIdle(long now) {
+            refill(now);
+            return tokens >= limit.burst;
+        }
+
+        private void refill(long now) {
+            long elapsed = now - lastRefillNanos;
+            if (elapsed > 0) {
+                tokens = Math.min(limit.burst, tokens + elapsed * limit.tokensPerNano);
+                lastRefillNanos = now;
+            }
+        }
+    }
+
+    // ==================== Metrics ====================
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Connections refused by the per-IP limit.
+     */
+    public long getRejectedByIp() {
+        return rejectedByIp.sum();
+    }
+
+    /**
+     * Connections refused by the per-subnet limit.
+     */
+    public long getRejectedBySubnet() {
+        return rejectedBySubnet.sum();
+    }
+
+    /**
+     * Connections checked against a shared overflow bucket because the table was full.
+     */
+    public long getOverflowed() {
+        return overflowed.sum();
+    }
+
+    /**
+     * IP and subnet buckets currently tracked.
+     */
+    public int getTracked() {
+        return tracked.get();
+    }
+}
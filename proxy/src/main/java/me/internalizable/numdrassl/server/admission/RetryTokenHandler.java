@@ -0,0 +1,289 @@
+package me.internalizable.numdrassl.server.admission;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.incubator.codec.quic.QuicTokenHandler;
+import me.internalizable.numdrassl.common.HmacKey;
+import me.internalizable.numdrassl.config.ProxyConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.crypto.Mac;
+import java.net.InetSocketAddress;
+import java.security.SecureRandom;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Issues and checks stateless QUIC retry tokens, so a client has to prove it receives
+ * packets at its source address before the proxy starts a handshake for it.
+ *
+ * <p>Without address validation, Initial packets with spoofed source addresses make the
+ * proxy run TLS handshakes and send responses several times larger than the request to
+ * a victim. With a Retry, the first Initial only gets a small Retry packet back and the
+ * handshake starts once the client echoes the token from its real address.</p>
+ *
+ * <p>A Retry costs every client one extra round trip, so it is only demanded while more
+ * than {@code quicRetryThresholdPerSecond} new connections arrive per second (in the
+ * current or the previous second). A threshold of 0 always demands one.</p>
+ *
+ * <p>Tokens are HMAC-SHA256 signed over the client IP, an expiry and the original
+ * destination connection ID; nothing is stored per client. The key is replaced every
+ * {@link #KEY_ROTATION_SECONDS}, and tokens signed with the previous key stay valid so
+ * none expire early at a rotation.</p>
+ *
+ * <p>Token format:</p>
+ * <pre>
+ * [1 byte]   Version
+ * [1 byte]   Key epoch (low byte)
+ * [8 bytes]  Expiry (unix millis, BE)
+ * [32 bytes] HMAC-SHA256
+ * [N bytes]  Original destination connection ID
+ * </pre>
+ */
+public final class RetryTokenHandler implements QuicTokenHandler {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RetryTokenHandler.class);
+
+    static final long KEY_ROTATION_SECONDS = 300;
+
+    private static final int VERSION = 1;
+    private static final int HEADER_LENGTH = 1 + 1 + 8 + HmacKey.LENGTH;
+    private static final int MAC_OFFSET = 1 + 1 + 8;
+    private static final int MAX_CONNECTION_ID_LENGTH = 20; // RFC 9000, section 17.2
+    private static final long WINDOW_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final boolean enabled;
+    private final int thresholdPerSecond;
+    private final long lifetimeMillis;
+    private final long rotationMillis;
+    private final LongSupplier clock;
+    private final SecureRandom random = new SecureRandom();
+
+    private volatile Keys keys;
+
+    private final Object windowLock = new Object();
+    private volatile long windowStartNanos; // Written under windowLock
+    private volatile int previousWindowCount; // Written under windowLock
+    private final AtomicInteger windowCount = new AtomicInteger();
+
+    private final LongAdder retriesSent = new LongAdder();
+    private final LongAdder tokensValid = new LongAdder();
+    private final LongAdder tokensInvalid = new LongAdder();
+    private final LongAdder tokensExpired = new LongAdder();
+
+    public RetryTokenHandler(@Nonnull ProxyConfig config) {
+        this(config, System::currentTimeMillis);
+    }
+
+    /**
+     * Creates a handler that signs and checks expiries against {@code clock}, in unix
+     * milliseconds, for tests.
+     */
+    RetryTokenHandler(@Nonnull ProxyConfig config, @Nonnull LongSupplier clock) {
+        Objects.requireNonNull(config, "config");
+        this.enabled = config.isQuicRetryEnabled();
+        this.thresholdPerSecond = config.getQuicRetryThresholdPerSecond();
+        this.lifetimeMillis = TimeUnit.SECONDS.toMillis(config.getQuicRetryTokenLifetimeSeconds());
+        this.rotationMillis = Math.max(TimeUnit.SECONDS.toMillis(KEY_ROTATION_SECONDS), lifetimeMillis);
+        this.clock = Objects.requireNonNull(clock, "clock");
+        this.windowStartNanos = System.nanoTime();
+        this.keys = new Keys(clock.getAsLong() / rotationMillis, newKey(), null);
+
+        if (enabled) {
+            LOGGER.info("QUIC retry: above {} new connection(s)/s, tokens valid for {}s",
+                thresholdPerSecond, config.getQuicRetryTokenLifetimeSeconds());
+        }
+    }
+
+    // ==================== QuicTokenHandler ====================
+
+    /**
+     * Called for each Initial packet without a token. Returning false lets the
+     * handshake start right away; returning true sends a Retry with the token.
+     */
+    @Override
+    public boolean writeToken(ByteBuf out, ByteBuf dcid, InetSocketAddress address) {
+        if (!enabled || !isEnforcing(System.nanoTime())) {
+            return false;
+        }
+
+        long now = clock.getAsLong();
+        Keys current = keys(now);
+        long expiresAt = now + lifetimeMillis;
+
+        int start = out.writerIndex();
+        out.writeByte(VERSION);
+        out.writeByte((int) current.epoch);
+        out.writeLong(expiresAt);
+
+        byte[] mac = sign(current.key, out, start, address, dcid, dcid.readerIndex(), dcid.readableBytes());
+        out.writeBytes(mac);
+        out.writeBytes(dcid, dcid.readerIndex(), dcid.readableBytes());
+
+        retriesSent.increment();
+        return true;
+    }
+
+    /**
+     * Checks a token echoed by the client.
+     *
+     * @return where the original destination connection ID starts in the token, or -1
+     *         to drop the packet
+     */
+    @Override
+    public int validateToken(ByteBuf token, InetSocketAddress address) {
+        int start = token.readerIndex();
+        int length = token.readableBytes();
+        if (length <= HEADER_LENGTH || length > maxTokenLength() || token.getByte(start) != VERSION) {
+            tokensInvalid.increment();
+            return -1;
+        }
+
+        long now = clock.getAsLong();
+        HmacKey key = keys(now).forEpoch(token.getByte(start + 1));
+        if (key == null) {
+            tokensExpired.increment();
+            return -1;
+        }
+
+        int dcidIndex = start + HEADER_LENGTH;
+        byte[] expected = sign(key, token, start, address, token, dcidIndex, start + length - dcidIndex);
+        if (!HmacKey.constantTimeEquals(expected, token, start + MAC_OFFSET)) {
+            tokensInvalid.increment();
+            LOGGER.debug("Invalid QUIC retry token from {}", address);
+            return -1;
+        }
+
+        if (now > token.getLong(start + 2)) {
+            tokensExpired.increment();
+            return -1;
+        }
+
+        tokensValid.increment();
+        return HEADER_LENGTH;
+    }
+
+    @Override
+    public int maxTokenLength() {
+        return HEADER_LENGTH + MAX_CONNECTION_ID_LENGTH;
+    }
+
+    // ==================== Signing ====================
+
+    private static byte[] sign(HmacKey key, ByteBuf header, int headerIndex, InetSocketAddress address,
+                               ByteBuf dcid, int dcidIndex, int dcidLength) {
+        Mac mac = key.mac();
+        HmacKey.update(mac, header, headerIndex, MAC_OFFSET);
+        mac.update(address.getAddress().getAddress());
+        HmacKey.update(mac, dcid, dcidIndex, dcidLength);
+        return mac.doFinal();
+    }
+
+    private Keys keys(long nowMillis) {
+        Keys current = keys;
+        long epoch = nowMillis / rotationMillis;
+        if (current.epoch == epoch) {
+            return current;
+        }
+        synchronized (this) {
+            current = keys;
+            if (current.epoch != epoch) {
+                HmacKey previous = current.epoch == epoch - 1 ? current.key : null;
+                current = new Keys(epoch, newKey(), previous);
+                keys = current;
+                LOGGER.debug("Rotated QUIC retry token key (epoch {})", epoch);
+            }
+            return current;
+        }
+    }
+
+    private HmacKey newKey() {
+        byte[] secret = new byte[32];
+        random.nextBytes(secret);
+        return new HmacKey(secret);
+    }
+
+    private record Keys(long epoch, HmacKey key, @Nullable HmacKey previous) {
+
+        @Nullable
+        HmacKey forEpoch(byte epochByte) {
+            if (epochByte == (byte) epoch) {
+                return key;
+            }
+            if (epochByte == (byte) (epoch - 1)) {
+                return previous;
+            }
+            return null;
+        }
+    }
+
+    // ==================== Connection Rate ====================
+
+    private boolean isEnforcing(long now) {
+        if (thresholdPerSecond == 0) {
+            return true;
+        }
+        if (now - windowStartNanos >= WINDOW_NANOS) {
+            synchronized (windowLock) {
+                long elapsed = now - windowStartNanos;
+                if (elapsed >= WINDOW_NANOS) {
+                    int count = windowCount.getAndSet(0);
+                    previousWindowCount = elapsed < 2 * WINDOW_NANOS ? count : 0;
+                    windowStartNanos = now;
+                }
+            }
+        }
+        return windowCount.incrementAndGet() > thresholdPerSecond || previousWindowCount > thresholdPerSecond;
+    }
+
+    // ==================== Metrics ====================
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Whether Retry is currently demanded from new connections.
+     */
+    public boolean isEnforced() {
+        if (!enabled) {
+            return false;
+        }
+        if (thresholdPerSecond == 0) {
+            return true;
+        }
+        return System.nanoTime() - windowStartNanos < 2 * WINDOW_NANOS
+            && (windowCount.get() > thresholdPerSecond || previousWindowCount > thresholdPerSecond);
+    }
+
+    /**
+     * Retry packets sent, one per Initial without a token while enforced.
+     */
+    public long getRetriesSent() {
+        return retriesSent.sum();
+    }
+
+    public long getTokensValid() {
+        return tokensValid.sum();
+    }
+
+    /**
+     * Tokens dropped because they were malformed or their signature did not match the
+     * sender's address.
+     */
+    public long getTokensInvalid() {
+        return tokensInvalid.sum();
+    }
+
+    /**
+     * Tokens dropped because they or their key had expired.
+     */
+    public long getTokensExpired() {
+        return tokensExpired.sum();
+    }
+}
@@ -0,0 +1,35 @@
+/**
+ * Admission control for new client connections.
+ *
+ * <p>Each new QUIC connection costs a TLS handshake and, once the client sends its
+ * Connect packet, a session-service round trip. A single address or subnet opening
+ * connections in a loop would otherwise spend that work for everyone. Connections are
+ * rate limited per IP and per subnet before any of it starts. Under a flood of new
+ * connections, clients must also prove they own their source address with a QUIC
+ * Retry, so spoofed Initial packets cannot trigger handshakes at all.</p>
+ *
+ * <h2>Key Classes</h2>
+ * <ul>
+ *   <li>{@link me.internalizable.numdrassl.server.admission.ConnectionAdmission} - Per-IP
+ *       and per-subnet token buckets, allowlist and metrics</li>
+ *   <li>{@link me.internalizable.numdrassl.server.admission.RetryTokenHandler} - Stateless,
+ *       address-bound QUIC retry tokens, demanded above a connection rate</li>
+ * </ul>
+ *
+ * <h2>Configuration</h2>
+ * <pre>{@code
+ * connectionRateLimitEnabled: true
+ * connectionsPerIpPerSecond: 2
+ * connectionBurstPerIp: 5
+ * connectionsPerSubnetPerSecond: 10
+ * connectionBurstPerSubnet: 20
+ * connectionRateLimitMaxTracked: 65536
+ * connectionAllowlist:
+ *   - "127.0.0.0/8"
+ *   - "::1/128"
+ * quicRetryEnabled: true
+ * quicRetryThresholdPerSecond: 100
+ * quicRetryTokenLifetimeSeconds: 10
+ * }</pre>
+ */
+package me.internalizable.numdrassl.server.admission;
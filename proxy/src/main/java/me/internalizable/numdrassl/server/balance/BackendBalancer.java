@@ -0,0 +1,310 @@
+package me.internalizable.numdrassl.server.balance;
+
+import me.internalizable.numdrassl.config.BackendGroup;
+import me.internalizable.numdrassl.config.BackendServer;
+import me.internalizable.numdrassl.config.ProxyConfig;
+import me.internalizable.numdrassl.server.ProxyCore;
+import me.internalizable.numdrassl.server.health.BackendHealth;
+import me.internalizable.numdrassl.server.health.BackendHealthManager;
+import me.internalizable.numdrassl.session.SessionManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Resolves backend and group names to a concrete backend.
+ *
+ * <p>A plain backend name resolves to that backend. A group name resolves to one of
+ * the group's available members, picked by the group's {@link BalancingStrategy}.
+ * A member is available unless it is draining, full, the watchdog has marked it
+ * dead, its circuit breaker is open, or its probe connection stopped answering. A
+ * group at its own {@code maxPlayers} has no available member.
+ * Backend names take precedence over group names, so adding a group never changes
+ * where an existing name points.</p>
+ */
+public final class BackendBalancer {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BackendBalancer.class);
+
+    /** A member whose probe answered before but not within this window is skipped. */
+    private static final long PROBE_STALE_MILLIS = 5000;
+
+    private final ProxyCore proxyCore;
+    private final Map<String, LongAdder> selections = new ConcurrentHashMap<>(); // group/backend, count
+    private final Map<String, LongAdder> unavailable = new ConcurrentHashMap<>(); // group, count
+
+    public BackendBalancer(@Nonnull ProxyCore proxyCore) {
+        this.proxyCore = Objects.requireNonNull(proxyCore, "proxyCore");
+        validate(proxyCore.getConfig());
+    }
+
+    // ==================== Resolution ====================
+
+    /**
+     * Resolves a backend or group name.
+     *
+     * @param name a backend or group name
+     * @return the backend, or null if the name is unknown or the group has no
+     *         available member
+     */
+    @Nullable
+    public BackendServer resolve(@Nonnull String name) {
+        return resolve(name, null);
+    }
+
+    /**
+     * Resolves a backend or group name, never picking {@code exclude} from a group.
+     * Used for fallbacks, where the excluded backend is the one that just failed.
+     *
+     * @param name    a backend or group name
+     * @param exclude a member to skip, or null
+     * @return the backend, or null if the name is unknown or the group has no
+     *         available member
+     */
+    @Nullable
+    public BackendServer resolve(@Nonnull String name, @Nullable BackendServer exclude) {
+        Objects.requireNonNull(name, "name");
+        ProxyConfig config = proxyCore.getConfig();
+
+        BackendServer backend = config.getBackendByName(name);
+        if (backend != null) {
+            return backend;
+        }
+
+        BackendGroup group = config.getBackendGroup(name);
+        return group != null ? select(group, exclude) : null;
+    }
+
+    /**
+     * Picks the backend for a new login: a member of the default group if one is
+     * configured, otherwise the default backend.
+     */
+    @Nullable
+    public BackendServer selectDefault() {
+        ProxyConfig config = proxyCore.getConfig();
+        BackendGroup group = config.getDefaultBackendGroup();
+        return group != null ? select(group, null) : config.getDefaultBackend();
+    }
+
+    /**
+     * Returns true if the name refers to a configured backend or backend group.
+     */
+    public boolean isKnown(@Nonnull String name) {
+        ProxyConfig config = proxyCore.getConfig();
+        return config.getBackendByName(name) != null || config.getBackendGroup(name) != null;
+    }
+
+    /**
+     * Returns true if {@link #resolve(String, BackendServer)} would find a backend,
+     * without counting a selection or logging an unavailable group.
+     */
+    public boolean hasAvailable(@Nonnull String name, @Nullable BackendServer exclude) {
+        ProxyConfig config = proxyCore.getConfig();
+        if (config.getBackendByName(name) != null) {
+            return true;
+        }
+        BackendGroup group = config.getBackendGroup(name);
+        return group != null && !availableMembers(group, exclude).isEmpty();
+    }
+
+    /**
+     * Returns true if the backend or group has no room for another player: the backend
+     * is at its {@code maxPlayers}, or the group is at its own {@code maxPlayers} or has
+     * no available member because at least one of them is full.
+     */
+    public boolean isFull(@Nonnull String name) {
+        ProxyConfig config = proxyCore.getConfig();
+        BackendServer backend = config.getBackendByName(name);
+        if (backend != null) {
+            return isAtCapacity(backend);
+        }
+
+        BackendGroup group = config.getBackendGroup(name);
+        if (group == null) {
+            return false;
+        }
+        if (isAtCapacity(group)) {
+            return true;
+        }
+        if (!availableMembers(group, null).isEmpty()) {
+            return false;
+        }
+        for (String memberName : group.getMembers()) {
+            BackendServer member = config.getBackendByName(memberName);
+            if (member != null && isAtCapacity(member)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns true if the name refers to a backend group rather than a backend.
+     */
+    public boolean isGroup(@Nonnull String name) {
+        ProxyConfig config = proxyCore.getConfig();
+        return config.getBackendByName(name) == null && config.getBackendGroup(name) != null;
+    }
+
+    /**
+     * Picks an available member of the group.
+     *
+     * @param group   the group
+     * @param exclude a member to skip, or null
+     * @return the member, or null if none is available
+     */
+    @Nullable
+    public BackendServer select(@Nonnull BackendGroup group, @Nullable BackendServer exclude) {
+        Objects.requireNonNull(group, "group");
+
+        List<BackendServer> members = availableMembers(group, exclude);
+        if (members.isEmpty()) {
+            unavailable.computeIfAbsent(group.getName(), k -> new LongAdder()).increment();
+            LOGGER.warn("Backend group {}: no available member", group.getName());
+            return null;
+        }
+
+        BackendServer chosen;
+        if (members.size() == 1) {
+            chosen = members.get(0);
+        } else {
+            chosen = strategyOf(group).select(toCandidates(group, members)).backend();
+        }
+
+        selections.computeIfAbsent(key(group.getName(), chosen.getName()), k -> new LongAdder()).increment();
+        return chosen;
+    }
+
+    // ==================== Candidates ====================
+
+    private List<BackendServer> availableMembers(BackendGroup group, @Nullable BackendServer exclude) {
+        ProxyConfig config = proxyCore.getConfig();
+        if (isAtCapacity(group)) {
+            return List.of();
+        }
+
+        List<BackendServer> members = new ArrayList<>(group.getMembers().size());
+
+        for (String memberName : group.getMembers()) {
+            BackendServer member = config.getBackendByName(memberName);
+            if (member != null && member != exclude && isAvailable(member)) {
+                members.add(member);
+            }
+        }
+        return members;
+    }
+
+    private boolean isAvailable(BackendServer backend) {
+        if (backend.isDraining()) {
+            return false;
+        }
+
+        if (isAtCapacity(backend)) {
+            return false;
+        }
+
+        BackendHealthManager healthManager = proxyCore.getBackendHealthManager();
+        if (healthManager == null) {
+            return true;
+        }
+
+        BackendHealth health = healthManager.get(backend);
+        if (health.getState() == BackendHealth.BackendState.DEAD || healthManager.getCircuitBreaker(backend).isRejecting()) {
+            return false;
+        }
+        // Never probed yet counts as available; once it has answered it must keep answering
+        return health.getLastRttMillis() < 0 || health.hasRecentProbeResponse(PROBE_STALE_MILLIS);
+    }
+
+    private boolean isAtCapacity(BackendServer backend) {
+        int maxPlayers = backend.getMaxPlayers();
+        return maxPlayers > 0 && proxyCore.getSessionManager().getSessionCountOnBackend(backend.getName()) >= maxPlayers;
+    }
+
+    private boolean isAtCapacity(BackendGroup group) {
+        int maxPlayers = group.getMaxPlayers();
+        if (maxPlayers <= 0) {
+            return false;
+        }
+        SessionManager sessionManager = proxyCore.getSessionManager();
+        int sessions = 0;
+        for (String member : group.getMembers()) {
+            sessions += sessionManager.getSessionCountOnBackend(member);
+        }
+        return sessions >= maxPlayers;
+    }
+
+    private List<Candidate> toCandidates(BackendGroup group, List<BackendServer> members) {
+        SessionManager sessionManager = proxyCore.getSessionManager();
+        BackendHealthManager healthManager = proxyCore.getBackendHealthManager();
+
+        List<Candidate> candidates = new ArrayList<>(members.size());
+        for (BackendServer member : members) {
+            double latency = Double.POSITIVE_INFINITY;
+            if (healthManager != null) {
+                BackendHealth health = healthManager.get(member);
+                double srtt = health.getSmoothedRttMillis();
+                if (srtt >= 0) {
+                    latency = srtt + Math.max(0, health.getRttJitterMillis());
+                }
+            }
+            candidates.add(new Candidate(member, sessionManager.getSessionCountOnBackend(member.getName()),
+                    group.getWeight(member.getName()), latency));
+        }
+        return candidates;
+    }
+
+    private static BalancingStrategy strategyOf(BackendGroup group) {
+        BalancingStrategy strategy = BalancingStrategy.fromConfig(group.getStrategy());
+        return strategy != null ? strategy : BalancingStrategy.LEAST_CONNECTIONS;
+    }
+
+    // ==================== Validation ====================
+
+    private static void validate(ProxyConfig config) {
+        for (BackendGroup group : config.getBackendGroups()) {
+            if (config.getBackendByName(group.getName()) != null) {
+                LOGGER.warn("Backend group {} has the same name as a backend and will never be used", group.getName());
+            }
+            if (BalancingStrategy.fromConfig(group.getStrategy()) == null) {
+                LOGGER.warn("Backend group {}: unknown strategy '{}', using least-connections",
+                        group.getName(), group.getStrategy());
+            }
+            for (String member : group.getMembers()) {
+                if (config.getBackendByName(member) == null) {
+                    LOGGER.warn("Backend group {}: unknown member '{}'", group.getName(), member);
+                }
+            }
+        }
+    }
+
+    // ==================== Metrics ====================
+
+    /**
+     * Times the group resolved to the member.
+     */
+    public long getSelections(@Nonnull String groupName, @Nonnull String backendName) {
+        LongAdder count = selections.get(key(groupName, backendName));
+        return count != null ? count.sum() : 0;
+    }
+
+    /**
+     * Times the group was resolved while none of its members was available.
+     */
+    public long getUnavailable(@Nonnull String groupName) {
+        LongAdder count = unavailable.get(groupName);
+        return count != null ? count.sum() : 0;
+    }
+
+    private static String key(String groupName, String backendName) {
+        return groupName + '/' + backendName;
+    }
+}
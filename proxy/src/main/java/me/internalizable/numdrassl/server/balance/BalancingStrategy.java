@@ -0,0 +1,144 @@
+package me.internalizable.numdrassl.server.balance;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.BinaryOperator;
+
+/**
+ * How a backend group picks one of its available members.
+ */
+public enum BalancingStrategy {
+
+    /**
+     * The member with the fewest sessions. Ties are broken at random so a burst of
+     * logins does not pile onto the first member before the counts catch up.
+     */
+    LEAST_CONNECTIONS("least-connections") {
+        @Override
+        Candidate select(List<Candidate> candidates) {
+            Candidate best = null;
+            int ties = 0;
+            for (Candidate candidate : candidates) {
+                if (best == null || candidate.sessions() < best.sessions()) {
+                    best = candidate;
+                    ties = 1;
+                } else if (candidate.sessions() == best.sessions()
+                        && ThreadLocalRandom.current().nextInt(++ties) == 0) {
+                    best = candidate;
+                }
+            }
+            return best;
+        }
+    },
+
+    /**
+     * The less loaded of two members picked at random. Nearly as even as
+     * least-connections, but concurrent selections working from the same stale counts
+     * spread out instead of all choosing the same member.
+     */
+    POWER_OF_TWO("power-of-two") {
+        @Override
+        Candidate select(List<Candidate> candidates) {
+            return pickTwo(candidates, (a, b) -> a.sessions() <= b.sessions() ? a : b);
+        }
+    },
+
+    /**
+     * A member picked at random in proportion to its configured weight.
+     */
+    WEIGHTED("weighted") {
+        @Override
+        Candidate select(List<Candidate> candidates) {
+            long total = 0;
+            for (Candidate candidate : candidates) {
+                total += candidate.weight();
+            }
+            if (total <= 0) {
+                return candidates.get(ThreadLocalRandom.current().nextInt(candidates.size()));
+            }
+
+            long point = ThreadLocalRandom.current().nextLong(total);
+            for (Candidate candidate : candidates) {
+                point -= candidate.weight();
+                if (point < 0) {
+                    return candidate;
+                }
+            }
+            return candidates.get(candidates.size() - 1);
+        }
+    },
+
+    /**
+     * The faster of two members picked at random, by smoothed probe RTT plus jitter.
+     * Members without probe data rank last; equal latencies fall back to the session
+     * count. Sampling two keeps the fastest member from taking every player.
+     */
+    LOWEST_LATENCY("lowest-latency") {
+        @Override
+        Candidate select(List<Candidate> candidates) {
+            return pickTwo(candidates, (a, b) -> {
+                double la = a.latencyMillis();
+                double lb = b.latencyMillis();
+                if (la != lb) {
+                    return la < lb ? a : b;
+                }
+                return a.sessions() <= b.sessions() ? a : b;
+            });
+        }
+    };
+
+    private final String configName;
+
+    BalancingStrategy(String configName) {
+        this.configName = configName;
+    }
+
+    /**
+     * The name used for this strategy in {@code proxy.yml}.
+     */
+    @Nonnull
+    public String getConfigName() {
+        return configName;
+    }
+
+    /**
+     * Parses a strategy name from the config.
+     *
+     * @return the strategy, or null if the name is not recognised
+     */
+    @Nullable
+    public static BalancingStrategy fromConfig(@Nullable String name) {
+        if (name == null) {
+            return null;
+        }
+        String normalized = name.trim().toLowerCase(Locale.ROOT).replace('_', '-');
+        for (BalancingStrategy strategy : values()) {
+            if (strategy.configName.equals(normalized)) {
+                return strategy;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Picks one member. {@code candidates} is never empty.
+     */
+    abstract Candidate select(List<Candidate> candidates);
+
+    private static Candidate pickTwo(List<Candidate> candidates, BinaryOperator<Candidate> better) {
+        int size = candidates.size();
+        if (size == 1) {
+            return candidates.get(0);
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(size);
+        int second = random.nextInt(size - 1);
+        if (second >= first) {
+            second++;
+        }
+        return better.apply(candidates.get(first), candidates.get(second));
+    }
+}
@@ -0,0 +1,14 @@
+package me.internalizable.numdrassl.server.balance;
+
+import me.internalizable.numdrassl.config.BackendServer;
+
+/**
+ * An available group member and the load figures a strategy chooses by.
+ *
+ * @param backend       the member
+ * @param sessions      sessions currently on or connecting to the member
+ * @param weight        the member's configured weight in the group
+ * @param latencyMillis smoothed probe RTT plus jitter, or infinity if not yet measured
+ */
+record Candidate(BackendServer backend, int sessions, int weight, double latencyMillis) {
+}
@@ -0,0 +1,29 @@
+/**
+ * Backend groups and the strategies that spread players across them.
+ *
+ * <p>A backend group is a named set of backends that can be used wherever a backend
+ * name is accepted: as the default server, as a fallback, or as a transfer target.
+ * Each time a group is resolved, one available member is picked. Members that are
+ * draining, full, dead, behind an open circuit breaker, or no longer answering health
+ * probes are skipped.</p>
+ *
+ * <h2>Key Classes</h2>
+ * <ul>
+ *   <li>{@link me.internalizable.numdrassl.server.balance.BackendBalancer} - Resolves
+ *       backend and group names, and counts selections per member</li>
+ *   <li>{@link me.internalizable.numdrassl.server.balance.BalancingStrategy} -
+ *       least-connections, power-of-two, weighted and lowest-latency selection</li>
+ * </ul>
+ *
+ * <h2>Configuration</h2>
+ * <pre>{@code
+ * backendGroups:
+ *   - name: "lobbies"
+ *     strategy: "least-connections"
+ *     defaultServer: true
+ *     members:
+ *       - "lobby-1"
+ *       - "lobby-2"
+ * }</pre>
+ */
+package me.internalizable.numdrassl.server.balance;
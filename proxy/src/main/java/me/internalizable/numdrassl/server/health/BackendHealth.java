@@ -3,6 +3,8 @@ package me.internalizable.numdrassl.server.health;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.concurrent.TimeUnit;
+
 public class BackendHealth {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(BackendHealth.class);
@@ -17,6 +19,13 @@ public class BackendHealth {
 
     private volatile boolean pingInProgress = false;
 
+    // Probe round-trip statistics, smoothed as in RFC 6298 (written by the probe only)
+    private volatile long smoothedRttNanos = -1;
+    private volatile long rttJitterNanos = -1;
+    private volatile long lastRttNanos = -1;
+    private volatile long lastProbeResponseNanos = 0;
+    private volatile boolean probeConnected = false;
+
     public boolean shouldPing(long now, long passiveTimeoutMs) {
 
         if (pingInProgress) {
@@ -93,6 +102,69 @@ public class BackendHealth {
         return state;
     }
 
+    // ==================== Probe RTT ====================
+
+    /**
+     * Folds a probe round-trip into the smoothed RTT (gain 1/8) and the
+     * mean deviation used as jitter (gain 1/4).
+     */
+    public void recordProbeRtt(long rttNanos) {
+        lastRttNanos = rttNanos;
+        lastProbeResponseNanos = System.nanoTime();
+
+        long srtt = smoothedRttNanos;
+        if (srtt < 0) {
+            smoothedRttNanos = rttNanos;
+            rttJitterNanos = rttNanos / 2;
+            return;
+        }
+
+        long deviation = Math.abs(srtt - rttNanos);
+        rttJitterNanos = rttJitterNanos - (rttJitterNanos >> 2) + (deviation >> 2);
+        smoothedRttNanos = srtt - (srtt >> 3) + (rttNanos >> 3);
+    }
+
+    /**
+     * Returns true if the probe got an answer within the given window.
+     */
+    public boolean hasRecentProbeResponse(long withinMillis) {
+        long last = lastProbeResponseNanos;
+        return last != 0 && System.nanoTime() - last <= TimeUnit.MILLISECONDS.toNanos(withinMillis);
+    }
+
+    /**
+     * Smoothed probe RTT in milliseconds, or -1 before the first answer.
+     */
+    public double getSmoothedRttMillis() {
+        return toMillis(smoothedRttNanos);
+    }
+
+    /**
+     * Mean RTT deviation in milliseconds, or -1 before the first answer.
+     */
+    public double getRttJitterMillis() {
+        return toMillis(rttJitterNanos);
+    }
+
+    /**
+     * Most recent probe RTT in milliseconds, or -1 before the first answer.
+     */
+    public double getLastRttMillis() {
+        return toMillis(lastRttNanos);
+    }
+
+    public boolean isProbeConnected() {
+        return probeConnected;
+    }
+
+    public void setProbeConnected(boolean probeConnected) {
+        this.probeConnected = probeConnected;
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos < 0 ? -1 : nanos / 1_000_000.0;
+    }
+
     public enum BackendState {
         HEALTHY, DEAD;
     }
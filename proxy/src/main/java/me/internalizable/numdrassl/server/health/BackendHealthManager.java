@@ -1,42 +1,66 @@
 package me.internalizable.numdrassl.server.health;
 
-import com.hypixel.hytale.protocol.Packet;
-import io.netty.bootstrap.Bootstrap;
-import io.netty.channel.*;
-import io.netty.incubator.codec.quic.QuicChannel;
-import io.netty.incubator.codec.quic.QuicStreamChannel;
-import io.netty.incubator.codec.quic.QuicStreamType;
 import me.internalizable.numdrassl.config.BackendServer;
-import me.internalizable.numdrassl.event.packet.ProxyPing;
-import me.internalizable.numdrassl.event.packet.ProxyPong;
-import me.internalizable.numdrassl.pipeline.codec.ProxyPacketDecoder;
-import me.internalizable.numdrassl.pipeline.codec.ProxyPacketEncoder;
+import me.internalizable.numdrassl.config.ProxyConfig;
 import me.internalizable.numdrassl.server.ProxyCore;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.annotation.Nonnull;
-import java.net.InetSocketAddress;
-import java.security.SecureRandom;
 import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 
 public class BackendHealthManager {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(BackendHealthManager.class);
 
+    /** Interval between background probes of each configured backend. */
+    private static final long PROBE_INTERVAL_MS = 1000;
+    private static final long PROBE_TIMEOUT_MS = 1500;
+
     private final ProxyCore proxyCore;
 
     private final ConcurrentHashMap<String, BackendHealth> backendHealth = new ConcurrentHashMap<>(); // backend name, backend health object
-    private final ConcurrentHashMap<String, CompletableFuture<Boolean>> inFlightPings = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, BackendProbe> probes = new ConcurrentHashMap<>(); // backend name, persistent probe connection
+    private final ConcurrentHashMap<String, CircuitBreaker> breakers = new ConcurrentHashMap<>(); // backend name, circuit breaker
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "backend-health-probe");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private ScheduledFuture<?> task;
 
     public BackendHealthManager(ProxyCore proxyCore) {
         this.proxyCore = proxyCore;
     }
 
+    /**
+     * Starts background probing. Must be called after the backend SSL context is initialized.
+     */
+    public void initialize() {
+        if (task != null) return;
+
+        task = scheduler.scheduleAtFixedRate(this::probeAll, 0, PROBE_INTERVAL_MS, TimeUnit.MILLISECONDS);
+
+        LOGGER.info("Backend health probes initialized");
+    }
+
+    public void shutdown() {
+        if (task != null) {
+            task.cancel(false);
+            task = null;
+        }
+        scheduler.shutdownNow();
+        probes.values().forEach(BackendProbe::close);
+    }
+
     public BackendHealth get(@Nonnull BackendServer backend) {
         return backendHealth.computeIfAbsent(backend.getName(), n -> new BackendHealth());
     }
@@ -45,121 +69,66 @@ public class BackendHealthManager {
         return backendHealth;
     }
 
-    public CompletableFuture<Boolean> sendPingAsync(BackendServer backendServer, long timeoutMs) {
-        return inFlightPings.computeIfAbsent(backendServer.getName(), name -> {
-
-            LOGGER.debug("inflight start backend={}", name);
-            CompletableFuture<Boolean> ping = sendPingAsyncInternal(backendServer, timeoutMs).exceptionally(ex -> false);
-
-            ping.whenComplete((ok, ex) -> {
-                inFlightPings.remove(name);
-            });
-
-            return ping;
+    /**
+     * Returns the backend's circuit breaker, fed by connect results and probes.
+     */
+    @Nonnull
+    public CircuitBreaker getCircuitBreaker(@Nonnull BackendServer backend) {
+        return breakers.computeIfAbsent(backend.getName(), n -> {
+            ProxyConfig config = proxyCore.getConfig();
+            return new CircuitBreaker(n,
+                    config.getCircuitBreakerFailureThreshold(),
+                    TimeUnit.SECONDS.toMillis(config.getCircuitBreakerOpenSeconds()),
+                    config.getCircuitBreakerHalfOpenTrials());
         });
     }
 
-    private CompletableFuture<Boolean> sendPingAsyncInternal(BackendServer backend, long timeoutMs) {
-        Objects.requireNonNull(backend, "backend");
-
-        CompletableFuture<Boolean> result = new CompletableFuture<>();
+    /**
+     * Checks that a backend answers pings.
+     *
+     * <p>Pings go over the backend's persistent probe connection. If the background
+     * probe got an answer within the last probe interval, that answer is used and no
+     * ping is sent.</p>
+     */
+    public CompletableFuture<Boolean> sendPingAsync(BackendServer backendServer, long timeoutMs) {
+        Objects.requireNonNull(backendServer, "backend");
 
-        InetSocketAddress address = new InetSocketAddress(backend.getHost(), backend.getPort());
-        Bootstrap bootstrap = proxyCore.getBackendConnector().createBootstrap();
+        BackendHealth health = get(backendServer);
+        if (health.hasRecentProbeResponse(PROBE_INTERVAL_MS)) {
+            return CompletableFuture.completedFuture(true);
+        }
 
-        bootstrap.bind(0).addListener((ChannelFutureListener) bindFuture -> {
-            if (!bindFuture.isSuccess()) {
-                result.complete(false);
-                return;
+        health.markPingSent();
+        return probe(backendServer).ping(timeoutMs).thenApply(ok -> {
+            if (!ok) {
+                health.markPingFailed();
             }
-
-            Channel datagram = bindFuture.channel();
-
-            Runnable cleanup = () -> {
-                if (datagram.isOpen()) {
-                    datagram.close();
-                }
-            };
-
-            datagram.eventLoop().schedule(() -> {
-                completeOnce(result, false, cleanup);
-            }, timeoutMs, TimeUnit.MILLISECONDS);
-
-            QuicChannel.newBootstrap(datagram).remoteAddress(address).streamHandler(new ChannelInitializer<QuicStreamChannel>() {
-                @Override
-                protected void initChannel(QuicStreamChannel ch) {
-                }
-            }).connect().addListener(connectFuture -> {
-                if (!connectFuture.isSuccess()) {
-                    completeOnce(result, false, cleanup);
-                    return;
-                }
-
-                QuicChannel quic = (QuicChannel) connectFuture.getNow();
-
-                ChannelInitializer<QuicStreamChannel> streamInitializer = new ChannelInitializer<>() {
-                    @Override
-                    protected void initChannel(QuicStreamChannel ch) {
-                        boolean debug = proxyCore.getConfig().isDebugMode();
-
-                        ch.pipeline().addLast(new ProxyPacketDecoder("backend-ping", debug));
-                        ch.pipeline().addLast(new ProxyPacketEncoder("backend-ping", debug));
-
-                        ch.pipeline().addLast(new SimpleChannelInboundHandler<Packet>() {
-                            @Override
-                            protected void channelRead0(ChannelHandlerContext ctx, Packet packet) {
-                                if (packet instanceof ProxyPong) {
-                                    completeOnce(result, true, () -> {
-                                        get(backend).markPingResponse();
-
-                                        ctx.channel().parent().close();
-                                        cleanup.run();
-                                    });
-                                }
-                            }
-                        });
-                    }
-                };
-
-
-                quic.createStream(QuicStreamType.BIDIRECTIONAL, streamInitializer).addListener(streamFuture -> {
-                    if (!streamFuture.isSuccess()) {
-                        completeOnce(result, false, cleanup);
-                        quic.close();
-                        return;
-                    }
-
-                    QuicStreamChannel stream = (QuicStreamChannel) streamFuture.getNow();
-
-                    ProxyPing ping = new ProxyPing();
-                    ping.timestamp = System.currentTimeMillis();
-                    ping.nonce = ThreadLocalRandom.current().nextLong();
-
-                    if (proxyCore.getBackendHealthManager() != null) {
-                        proxyCore.getBackendHealthManager().get(backend).markPingSent();
-                    }
-                    stream.writeAndFlush(ping).addListener(writeFuture -> {
-                        if (!writeFuture.isSuccess()) {
-                            completeOnce(result, false, cleanup);
-                        }
-                    });
-                });
-
-
-                result.whenComplete((ok, err) -> quic.close());
-            });
+            recordProbeResult(backendServer, health, ok);
+            return ok;
         });
-
-        return result;
     }
 
-    private boolean completeOnce(CompletableFuture<Boolean> future, boolean value, Runnable cleanup) {
-        if (future.complete(value)) {
-            cleanup.run();
-            return true;
+    private void probeAll() {
+        try {
+            for (BackendServer backend : proxyCore.getConfig().getBackends()) {
+                probe(backend).ping(PROBE_TIMEOUT_MS)
+                        .thenAccept(ok -> recordProbeResult(backend, get(backend), ok));
+            }
+        } catch (Exception e) {
+            LOGGER.warn("Backend probe tick failed", e);
         }
-        return false;
     }
 
+    private void recordProbeResult(BackendServer backend, BackendHealth health, boolean ok) {
+        CircuitBreaker breaker = getCircuitBreaker(backend);
+        if (ok) {
+            breaker.onProbeSuccess();
+        } else if (health.getLastRttMillis() >= 0) {
+            breaker.onProbeFailure(); // Only once the backend is known to answer probes
+        }
+    }
 
+    private BackendProbe probe(BackendServer backend) {
+        return probes.computeIfAbsent(backend.getName(), n -> new BackendProbe(proxyCore, backend, get(backend), scheduler));
+    }
 }
@@ -0,0 +1,305 @@
+package me.internalizable.numdrassl.server.health;
+
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.incubator.codec.quic.QuicChannel;
+import io.netty.incubator.codec.quic.QuicStreamChannel;
+import io.netty.incubator.codec.quic.QuicStreamType;
+import me.internalizable.numdrassl.config.BackendServer;
+import me.internalizable.numdrassl.event.packet.ProxyPing;
+import me.internalizable.numdrassl.event.packet.ProxyPong;
+import me.internalizable.numdrassl.pipeline.codec.ProxyPacketDecoder;
+import me.internalizable.numdrassl.pipeline.codec.ProxyPacketEncoder;
+import me.internalizable.numdrassl.server.ProxyCore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.InetSocketAddress;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A long-lived probe connection to one backend.
+ *
+ * <p>Pings are sent as {@link ProxyPing} on a single persistent stream and matched to
+ * their {@link ProxyPong} by nonce, so each probe costs one small datagram each way
+ * instead of a QUIC and TLS handshake. Round-trip times feed the smoothed RTT and
+ * jitter in {@link BackendHealth}. At most one ping is in flight; concurrent callers
+ * share its result.</p>
+ *
+ * <p>If the connection drops, or several pings in a row go unanswered, the probe
+ * reconnects with exponential backoff.</p>
+ */
+final class BackendProbe {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BackendProbe.class);
+
+    private static final long MIN_BACKOFF_MILLIS = 250;
+    private static final long MAX_BACKOFF_MILLIS = 10_000;
+    private static final int MAX_MISSED_PONGS = 3;
+
+    private static final class PendingPing {
+        final long nonce = ThreadLocalRandom.current().nextLong();
+        final CompletableFuture<Boolean> result = new CompletableFuture<>();
+        /** Set when the ping is written, so connect time is not counted as RTT. */
+        volatile long sentAtNanos;
+    }
+
+    private final ProxyCore proxyCore;
+    private final BackendServer backend;
+    private final BackendHealth health;
+    private final ScheduledExecutorService timer;
+
+    // Guarded by this
+    private QuicChannel channel;
+    private QuicStreamChannel stream;
+    private CompletableFuture<QuicStreamChannel> connecting;
+    private PendingPing inFlight;
+    private int connectFailures;
+    private long nextConnectMillis;
+    private int missedPongs;
+
+    BackendProbe(ProxyCore proxyCore, BackendServer backend, BackendHealth health, ScheduledExecutorService timer) {
+        this.proxyCore = proxyCore;
+        this.backend = backend;
+        this.health = health;
+        this.timer = timer;
+    }
+
+    // ==================== Ping ====================
+
+    /**
+     * Sends a ping, or joins the one already in flight. The timeout includes connecting
+     * the probe if it has no open stream.
+     *
+     * @return a future completing with true if the backend answered within the timeout
+     */
+    CompletableFuture<Boolean> ping(long timeoutMs) {
+        PendingPing ping;
+        synchronized (this) {
+            if (inFlight != null) {
+                return inFlight.result;
+            }
+            ping = new PendingPing();
+            inFlight = ping;
+        }
+
+        try {
+            timer.schedule(() -> onTimeout(ping), timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            resolve(ping, false); // Health manager shut down
+            return ping.result;
+        }
+
+        ensureStream().thenAccept(s -> {
+            if (s == null) {
+                resolve(ping, false);
+                return;
+            }
+            if (ping.result.isDone()) {
+                return; // Timed out while connecting
+            }
+            ping.sentAtNanos = System.nanoTime();
+            s.writeAndFlush(new ProxyPing(ping.nonce, System.currentTimeMillis())).addListener(write -> {
+                if (!write.isSuccess()) {
+                    resolve(ping, false);
+                }
+            });
+        });
+        return ping.result;
+    }
+
+    private void onPong(ProxyPong pong) {
+        long now = System.nanoTime();
+        PendingPing ping;
+        synchronized (this) {
+            ping = inFlight;
+            if (ping == null || ping.nonce != pong.nonce) {
+                return; // Late answer to a ping that already timed out
+            }
+            missedPongs = 0;
+        }
+
+        health.recordProbeRtt(now - ping.sentAtNanos);
+        health.markPingResponse();
+        resolve(ping, true);
+    }
+
+    private void onTimeout(PendingPing ping) {
+        QuicChannel toClose = null;
+        synchronized (this) {
+            if (inFlight != ping) {
+                return;
+            }
+            // Only pings actually sent count as missed; a slow connect is not the backend's silence
+            if (ping.sentAtNanos != 0 && ++missedPongs >= MAX_MISSED_PONGS) {
+                // The connection looks alive to QUIC but the backend stopped answering
+                toClose = channel;
+                missedPongs = 0;
+            }
+        }
+
+        resolve(ping, false);
+        if (toClose != null) {
+            LOGGER.debug("Probe {}: {} pings unanswered, reconnecting", backend.getName(), MAX_MISSED_PONGS);
+            toClose.close();
+        }
+    }
+
+    private void resolve(PendingPing ping, boolean alive) {
+        synchronized (this) {
+            if (inFlight == ping) {
+                inFlight = null;
+            }
+        }
+        ping.result.complete(alive);
+    }
+
+    // ==================== Connection ====================
+
+    /**
+     * Returns the probe stream, connecting first if needed. Completes with null while
+     * the probe is backing off or if the connection attempt fails.
+     */
+    private CompletableFuture<QuicStreamChannel> ensureStream() {
+        CompletableFuture<QuicStreamChannel> attempt;
+        synchronized (this) {
+            if (stream != null && stream.isActive()) {
+                return CompletableFuture.completedFuture(stream);
+            }
+            if (connecting != null) {
+                return connecting;
+            }
+            if (System.currentTimeMillis() < nextConnectMillis) {
+                return CompletableFuture.completedFuture(null);
+            }
+            attempt = new CompletableFuture<>();
+            connecting = attempt;
+        }
+
+        connect(attempt);
+        return attempt;
+    }
+
+    private void connect(CompletableFuture<QuicStreamChannel> attempt) {
+        proxyCore.getBackendResolver().resolve(backend).whenComplete((address, cause) -> {
+            if (cause != null) {
+                onConnectFailed(attempt);
+                return;
+            }
+            connect(address, attempt);
+        });
+    }
+
+    private void connect(InetSocketAddress address, CompletableFuture<QuicStreamChannel> attempt) {
+        proxyCore.getBackendConnector().createBootstrap().bind(0).addListener((ChannelFutureListener) bind -> {
+            if (!bind.isSuccess()) {
+                onConnectFailed(attempt);
+                return;
+            }
+
+            Channel datagram = bind.channel();
+            proxyCore.getUdpOffload().newQuicBootstrap(datagram)
+                    .remoteAddress(address)
+                    .streamHandler(new ChannelInitializer<QuicStreamChannel>() {
+                        @Override
+                        protected void initChannel(QuicStreamChannel ch) {
+                        }
+                    })
+                    .connect()
+                    .addListener(future -> {
+                        if (!future.isSuccess()) {
+                            datagram.close();
+                            onConnectFailed(attempt);
+                            return;
+                        }
+
+                        QuicChannel quic = (QuicChannel) future.getNow();
+                        quic.closeFuture().addListener(f -> {
+                            datagram.close();
+                            onDisconnected(quic);
+                        });
+                        createStream(quic, attempt);
+                    });
+        });
+    }
+
+    private void createStream(QuicChannel quic, CompletableFuture<QuicStreamChannel> attempt) {
+        boolean debug = proxyCore.getConfig().isDebugMode();
+
+        quic.createStream(QuicStreamType.BIDIRECTIONAL, new ChannelInitializer<QuicStreamChannel>() {
+            @Override
+            protected void initChannel(QuicStreamChannel ch) {
+                ch.pipeline().addLast(new ProxyPacketDecoder("backend-ping", debug));
+                ch.pipeline().addLast(new ProxyPacketEncoder("backend-ping", debug));
+                ch.pipeline().addLast(new SimpleChannelInboundHandler<ProxyPong>() {
+                    @Override
+                    protected void channelRead0(ChannelHandlerContext ctx, ProxyPong pong) {
+                        onPong(pong);
+                    }
+                });
+            }
+        }).addListener(future -> {
+            if (!future.isSuccess()) {
+                quic.close();
+                onConnectFailed(attempt);
+                return;
+            }
+
+            QuicStreamChannel s = (QuicStreamChannel) future.getNow();
+            synchronized (this) {
+                channel = quic;
+                stream = s;
+                connecting = null;
+                connectFailures = 0;
+                missedPongs = 0;
+            }
+            health.setProbeConnected(true);
+            LOGGER.debug("Probe {}: connected", backend.getName());
+            attempt.complete(s);
+        });
+    }
+
+    private void onConnectFailed(CompletableFuture<QuicStreamChannel> attempt) {
+        long backoff;
+        synchronized (this) {
+            connecting = null;
+            int failures = ++connectFailures;
+            backoff = Math.min(MAX_BACKOFF_MILLIS, MIN_BACKOFF_MILLIS << Math.min(failures - 1, 16));
+            nextConnectMillis = System.currentTimeMillis() + backoff;
+        }
+        health.setProbeConnected(false);
+        LOGGER.debug("Probe {}: connect failed, retrying in {}ms", backend.getName(), backoff);
+        attempt.complete(null);
+    }
+
+    private void onDisconnected(QuicChannel quic) {
+        synchronized (this) {
+            if (channel != quic) {
+                return;
+            }
+            channel = null;
+            stream = null;
+            nextConnectMillis = System.currentTimeMillis() + MIN_BACKOFF_MILLIS;
+        }
+        health.setProbeConnected(false);
+        LOGGER.debug("Probe {}: connection closed", backend.getName());
+    }
+
+    void close() {
+        QuicChannel toClose;
+        synchronized (this) {
+            toClose = channel;
+            nextConnectMillis = Long.MAX_VALUE;
+        }
+        if (toClose != null) {
+            toClose.close();
+        }
+    }
+}
@@ -3,6 +3,7 @@ package me.internalizable.numdrassl.server.health;
 import me.internalizable.numdrassl.config.BackendServer;
 import me.internalizable.numdrassl.server.BackendConnector;
 import me.internalizable.numdrassl.server.ProxyCore;
+import me.internalizable.numdrassl.server.transfer.TransferBatch;
 import me.internalizable.numdrassl.session.ProxySession;
 import me.internalizable.numdrassl.session.SessionManager;
 import me.internalizable.numdrassl.session.SessionState;
@@ -65,11 +66,9 @@ public class BackendWatchdog {
     public List<ProxySession> getSessionsForBackend(BackendServer backend) {
         List<ProxySession> result = new ArrayList<>();
 
-        for (ProxySession session : proxyCore.getSessionManager().getAllSessions()) {
-            if (backend.equals(session.getCurrentBackend())) {
-                if (session.isServerTransfer() || session.getState() != SessionState.CONNECTED || !session.isBackendAvailable()) continue;
-                result.add(session);
-            }
+        for (ProxySession session : proxyCore.getSessionManager().getSessionsOnBackend(backend)) {
+            if (session.isServerTransfer() || session.getState() != SessionState.CONNECTED || !session.isBackendAvailable()) continue;
+            result.add(session);
         }
 
         return result;
@@ -108,6 +107,7 @@ public class BackendWatchdog {
 
         if (health.getState() == BackendHealth.BackendState.HEALTHY && health.isDead(now, passiveTimeoutMs, pingGraceMs)) {
             health.markDead();
+            proxyCore.getBackendHealthManager().getCircuitBreaker(backend).trip();
             handleBackendDownAsync(backend, sessions);
         }
     }
@@ -118,6 +118,9 @@ public class BackendWatchdog {
 
             LOGGER.warn("[Watchdog] backend={} DOWN -> transferring {} session(s)", backend.getName(), sessions.size());
 
+            // Transfers are paced by the orchestrator; the batch reports evacuation progress
+            TransferBatch batch = proxyCore.getTransferOrchestrator().openBatch("evacuate " + backend.getName());
+
             for (ProxySession session : sessions) {
                 if (!session.isActive()) {
                     continue;
@@ -136,8 +139,10 @@ public class BackendWatchdog {
 
                 LOGGER.debug("[Watchdog] Handling backend disconnect for {} from {}", session.getSessionId(), backend.getName());
 
-                proxyCore.getBackendConnector().handleBackendDisconnect(session, backend);
+                proxyCore.getBackendConnector().handleBackendDisconnect(session, backend, batch);
             }
+
+            batch.seal();
         }, scheduler);
     }
 
@@ -0,0 +1,193 @@
+package me.internalizable.numdrassl.server.health;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Circuit breaker for connections to one backend.
+ *
+ * <p>While {@link State#CLOSED}, every connect is allowed. After
+ * {@code failureThreshold} consecutive connect failures, or as many consecutive
+ * unanswered probes, the circuit opens: connects are refused at once so callers fall
+ * back instead of each waiting for a QUIC connect timeout. Once {@code openNanos} has
+ * passed, or a probe is answered again, the circuit is half-open and lets up to
+ * {@code halfOpenTrials} connects through at a time. The first trial that connects
+ * closes the circuit; a failed trial opens it again.</p>
+ *
+ * <p>Probe failures only count once the backend has answered a probe, so backends
+ * without the Bridge plugin are never opened by their silence alone.</p>
+ */
+public final class CircuitBreaker {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CircuitBreaker.class);
+
+    private final String backendName;
+    private final int failureThreshold;
+    private final long openNanos;
+    private final int halfOpenTrials;
+    private final LongSupplier clock;
+
+    private final LongAdder opened = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    // Guarded by this
+    private State state = State.CLOSED;
+    private int connectFailures;
+    private int probeFailures;
+    private int trialsInFlight;
+    private long openedAtNanos;
+
+    public CircuitBreaker(@Nonnull String backendName, int failureThreshold, long openMillis, int halfOpenTrials) {
+        this(backendName, failureThreshold, openMillis, halfOpenTrials, System::nanoTime);
+    }
+
+    /**
+     * Creates a breaker that reads time from {@code clock}, in nanoseconds, for tests.
+     */
+    CircuitBreaker(@Nonnull String backendName, int failureThreshold, long openMillis, int halfOpenTrials,
+                   @Nonnull LongSupplier clock) {
+        this.backendName = backendName;
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, openMillis));
+        this.halfOpenTrials = Math.max(1, halfOpenTrials);
+        this.clock = clock;
+    }
+
+    // ==================== Admission ====================
+
+    /**
+     * Asks to connect to the backend. Every {@code true} must be followed by
+     * {@link #onConnectSuccess()} or {@link #onConnectFailure()}.
+     *
+     * @return false if the circuit is open, or half-open with all trials in use
+     */
+    public synchronized boolean tryAcquire() {
+        advance(clock.getAsLong());
+        switch (state) {
+            case CLOSED:
+                return true;
+            case HALF_OPEN:
+                if (trialsInFlight < halfOpenTrials) {
+                    trialsInFlight++;
+                    return true;
+                }
+                break;
+            default:
+                break;
+        }
+        rejected.increment();
+        return false;
+    }
+
+    /**
+     * Returns true if a connect would be refused right now. Unlike {@link #tryAcquire()}
+     * this does not take a trial slot.
+     */
+    public synchronized boolean isRejecting() {
+        advance(clock.getAsLong());
+        return state == State.OPEN || (state == State.HALF_OPEN && trialsInFlight >= halfOpenTrials);
+    }
+
+    // ==================== Results ====================
+
+    public synchronized void onConnectSuccess() {
+        connectFailures = 0;
+        probeFailures = 0;
+        if (state == State.HALF_OPEN) {
+            trialsInFlight = Math.max(0, trialsInFlight - 1);
+        }
+        if (state != State.CLOSED) {
+            transition(State.CLOSED);
+        }
+    }
+
+    public synchronized void onConnectFailure() {
+        connectFailures++;
+        if (state == State.HALF_OPEN) {
+            trialsInFlight = Math.max(0, trialsInFlight - 1);
+            open();
+        } else if (state == State.CLOSED && connectFailures >= failureThreshold) {
+            open();
+        }
+    }
+
+    synchronized void onProbeSuccess() {
+        probeFailures = 0;
+        if (state == State.OPEN) {
+            transition(State.HALF_OPEN); // Reachable again; let trials through before the cooldown ends
+        }
+    }
+
+    synchronized void onProbeFailure() {
+        probeFailures++;
+        if (state == State.CLOSED && probeFailures >= failureThreshold) {
+            open();
+        }
+    }
+
+    /**
+     * Opens the circuit at once, e.g. when the watchdog declares the backend dead.
+     */
+    public synchronized void trip() {
+        if (state != State.OPEN) {
+            open();
+        }
+    }
+
+    // ==================== State ====================
+
+    private void open() {
+        openedAtNanos = clock.getAsLong();
+        trialsInFlight = 0;
+        opened.increment();
+        transition(State.OPEN);
+    }
+
+    private void advance(long now) {
+        if (state == State.OPEN && now - openedAtNanos >= openNanos) {
+            transition(State.HALF_OPEN);
+        }
+    }
+
+    private void transition(State next) {
+        State previous = state;
+        state = next;
+        if (next == State.OPEN) {
+            LOGGER.warn("Backend {}: circuit OPEN after {} connect / {} probe failures, failing fast for {}s",
+                    backendName, connectFailures, probeFailures, TimeUnit.NANOSECONDS.toSeconds(openNanos));
+        } else {
+            LOGGER.info("Backend {}: circuit {} (was {})", backendName, next, previous);
+        }
+    }
+
+    @Nonnull
+    public synchronized State getState() {
+        advance(clock.getAsLong());
+        return state;
+    }
+
+    /**
+     * Times the circuit opened.
+     */
+    public long getOpenedCount() {
+        return opened.sum();
+    }
+
+    /**
+     * Connects refused because the circuit was open.
+     */
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    public enum State {
+        CLOSED,
+        HALF_OPEN,
+        OPEN
+    }
+}
@@ -0,0 +1,393 @@
+package me.internalizable.numdrassl.server.network;
+
+import io.netty.channel.EventLoopGroup;
+import io.netty.resolver.HostsFileEntriesProvider;
+import io.netty.resolver.ResolvedAddressTypes;
+import io.netty.resolver.dns.DnsNameResolver;
+import io.netty.resolver.dns.DnsNameResolverBuilder;
+import io.netty.resolver.dns.NoopDnsCache;
+import io.netty.util.NetUtil;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import io.netty.util.concurrent.Future;
+import me.internalizable.numdrassl.config.BackendServer;
+import me.internalizable.numdrassl.config.ProxyConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Resolves backend hostnames without blocking, caches the addresses and keeps them
+ * fresh in the background.
+ *
+ * <p>{@code new InetSocketAddress(host, port)} asks the system resolver on the calling
+ * thread, so a slow DNS server used to stall every login and transfer routed through
+ * that thread. Lookups now run on a dedicated event loop through Netty's DNS resolver,
+ * and callers get a future. Addresses are cached for {@code backendDnsCacheSeconds} and
+ * refreshed ahead of expiry while the host is in use, so connects normally never wait
+ * for DNS. If a refresh fails, the last known addresses keep being served for up to
+ * {@code backendDnsStaleSeconds} past expiry.</p>
+ *
+ * <p>When a hostname has several A or AAAA records, connects rotate through all
+ * addresses of the preferred family (IPv4 when present) to spread load. IP literals
+ * skip the cache. Entries in {@code backendHostsFile} take precedence over DNS, which
+ * also makes multi-address setups reproducible offline.</p>
+ */
+public final class BackendAddressResolver {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BackendAddressResolver.class);
+
+    private static final long TICK_MILLIS = 1000;
+    private static final long QUERY_TIMEOUT_MILLIS = 5000;
+    private static final long RETRY_MILLIS = 5000;
+    private static final long IDLE_EXPIRY_MILLIS = TimeUnit.MINUTES.toMillis(10);
+
+    private final long ttlMillis;
+    private final long refreshMillis;
+    private final long staleMillis;
+    private final Map<String, List<InetAddress>> hostsFile;
+    private final EventLoopGroup group;
+    private final DnsNameResolver dns;
+    private final Function<String, CompletableFuture<List<InetAddress>>> dnsLookup;
+    private final LongSupplier clock;
+    private final Map<String, Entry> cache = new ConcurrentHashMap<>();
+
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder cacheStale = new LongAdder();
+    private final LongAdder cacheMisses = new LongAdder();
+    private final LongAdder lookupsSucceeded = new LongAdder();
+    private final LongAdder lookupsFailed = new LongAdder();
+
+    private ScheduledFuture<?> task;
+
+    public BackendAddressResolver(@Nonnull ProxyConfig config, @Nonnull UdpOffload udpOffload) {
+        this(config, udpOffload, null, System::currentTimeMillis);
+    }
+
+    /**
+     * Creates a resolver with its own DNS lookup and clock, for tests.
+     *
+     * @param dnsLookup looks up hosts missing from the hosts file, or null to query DNS
+     * @param clock     current time in milliseconds
+     */
+    BackendAddressResolver(@Nonnull ProxyConfig config, @Nonnull UdpOffload udpOffload,
+                           @Nullable Function<String, CompletableFuture<List<InetAddress>>> dnsLookup,
+                           @Nonnull LongSupplier clock) {
+        Objects.requireNonNull(config, "config");
+        this.ttlMillis = TimeUnit.SECONDS.toMillis(config.getBackendDnsCacheSeconds());
+        this.refreshMillis = ttlMillis * 3 / 4;
+        this.staleMillis = TimeUnit.SECONDS.toMillis(config.getBackendDnsStaleSeconds());
+        this.hostsFile = loadHostsFile(config.getBackendHostsFile());
+        this.group = udpOffload.newEventLoopGroup(1, new DefaultThreadFactory("backend-dns", true));
+        this.dns = new DnsNameResolverBuilder(group.next())
+            .datagramChannelType(udpOffload.getDatagramChannelType())
+            .resolveCache(NoopDnsCache.INSTANCE) // Expiry is handled here, per backend
+            .resolvedAddressTypes(ResolvedAddressTypes.IPV4_PREFERRED)
+            .queryTimeoutMillis(QUERY_TIMEOUT_MILLIS)
+            .build();
+        this.dnsLookup = dnsLookup != null ? dnsLookup : this::queryDns;
+        this.clock = Objects.requireNonNull(clock, "clock");
+    }
+
+    // ==================== Lifecycle ====================
+
+    /**
+     * Resolves the configured backends ahead of the first login and starts the
+     * background refresh.
+     */
+    public void initialize(@Nonnull List<BackendServer> backends) {
+        if (task != null) {
+            return;
+        }
+        for (BackendServer backend : backends) {
+            resolve(backend).whenComplete((address, cause) -> {
+                if (cause != null) {
+                    LOGGER.warn("Could not resolve backend {} ({}): {}",
+                        backend.getName(), backend.getHost(), cause.getMessage());
+                }
+            });
+        }
+        task = group.scheduleAtFixedRate(this::tick, TICK_MILLIS, TICK_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    public void shutdown() {
+        if (task != null) {
+            task.cancel(false);
+            task = null;
+        }
+        dns.close();
+        group.shutdownGracefully();
+    }
+
+    // ==================== Resolution ====================
+
+    /**
+     * Resolves a backend's address. Completes at once when the host is an IP literal or
+     * cached, and never blocks the caller.
+     */
+    @Nonnull
+    public CompletableFuture<InetSocketAddress> resolve(@Nonnull BackendServer backend) {
+        return resolve(backend.getHost(), backend.getPort());
+    }
+
+    /**
+     * Resolves a host and port. Completes exceptionally with an
+     * {@link UnknownHostException} if the host has no usable address.
+     */
+    @Nonnull
+    public CompletableFuture<InetSocketAddress> resolve(@Nonnull String host, int port) {
+        Objects.requireNonNull(host, "host");
+        InetAddress literal = NetUtil.createInetAddressFromIpAddressString(host);
+        if (literal != null) {
+            return CompletableFuture.completedFuture(new InetSocketAddress(literal, port));
+        }
+
+        Entry entry = cache.computeIfAbsent(host.toLowerCase(Locale.ROOT), Entry::new);
+        long now = clock.getAsLong();
+        entry.lastUsedMillis = now;
+
+        Resolved resolved = entry.resolved;
+        if (resolved != null && now - resolved.atMillis < ttlMillis) {
+            cacheHits.increment();
+            return CompletableFuture.completedFuture(entry.next(resolved, port));
+        }
+        if (resolved != null && now - resolved.atMillis < ttlMillis + staleMillis) {
+            cacheStale.increment();
+            if (now >= entry.retryAtMillis) {
+                entry.refresh();
+            }
+            return CompletableFuture.completedFuture(entry.next(resolved, port));
+        }
+
+        cacheMisses.increment();
+        CompletableFuture<InetSocketAddress> result = new CompletableFuture<>();
+        entry.refresh().whenComplete((fresh, cause) -> {
+            if (cause != null) {
+                result.completeExceptionally(cause);
+            } else {
+                result.complete(entry.next(fresh, port));
+            }
+        });
+        return result;
+    }
+
+    private CompletableFuture<List<InetAddress>> lookup(String host) {
+        List<InetAddress> local = hostsFile.get(host);
+        if (local != null) {
+            return CompletableFuture.completedFuture(local);
+        }
+        return dnsLookup.apply(host);
+    }
+
+    private CompletableFuture<List<InetAddress>> queryDns(String host) {
+        CompletableFuture<List<InetAddress>> result = new CompletableFuture<>();
+        Future<List<InetAddress>> query = dns.resolveAll(host);
+        query.addListener(ignored -> {
+            if (!query.isSuccess()) {
+                result.completeExceptionally(query.cause());
+                return;
+            }
+            List<InetAddress> addresses = preferredFamily(query.getNow());
+            if (addresses.isEmpty()) {
+                result.completeExceptionally(new UnknownHostException(host));
+            } else {
+                result.complete(addresses);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Keeps the addresses of the first record's family; the sockets are bound to the
+     * wildcard address, and mixing families would make every other connect fail on
+     * hosts without a route for one of them.
+     */
+    private static List<InetAddress> preferredFamily(List<InetAddress> addresses) {
+        if (addresses.isEmpty()) {
+            return addresses;
+        }
+        Class<?> family = addresses.get(0).getClass();
+        Set<InetAddress> unique = new LinkedHashSet<>();
+        for (InetAddress address : addresses) {
+            if (address.getClass() == family) {
+                unique.add(address);
+            }
+        }
+        return List.copyOf(unique);
+    }
+
+    // ==================== Background Refresh ====================
+
+    private void tick() {
+        try {
+            long now = clock.getAsLong();
+            for (Entry entry : cache.values()) {
+                if (now - entry.lastUsedMillis > IDLE_EXPIRY_MILLIS) {
+                    cache.remove(entry.host, entry);
+                    continue;
+                }
+                Resolved resolved = entry.resolved;
+                if (resolved != null && now - resolved.atMillis >= refreshMillis && now >= entry.retryAtMillis) {
+                    entry.refresh();
+                }
+            }
+        } catch (Exception e) {
+            LOGGER.warn("Backend address refresh failed", e);
+        }
+    }
+
+    private final class Entry {
+        final String host;
+        final AtomicInteger cursor = new AtomicInteger();
+
+        volatile Resolved resolved;
+        volatile long lastUsedMillis;
+        volatile long retryAtMillis;
+
+        private CompletableFuture<Resolved> inflight; // Guarded by this
+
+        Entry(String host) {
+            this.host = host;
+        }
+
+        InetSocketAddress next(Resolved resolved, int port) {
+            List<InetAddress> addresses = resolved.addresses;
+            InetAddress address = addresses.get(Math.floorMod(cursor.getAndIncrement(), addresses.size()));
+            return new InetSocketAddress(address, port);
+        }
+
+        /**
+         * Looks the host up again, joining a lookup already in flight. Completes with
+         * the last known addresses if the lookup fails while they are still servable.
+         */
+        CompletableFuture<Resolved> refresh() {
+            CompletableFuture<Resolved> attempt;
+            synchronized (this) {
+                if (inflight != null) {
+                    return inflight;
+                }
+                attempt = new CompletableFuture<>();
+                inflight = attempt;
+            }
+
+            lookup(host).whenComplete((addresses, cause) -> {
+                long now = clock.getAsLong();
+                Resolved last = resolved;
+                Resolved outcome = null;
+                if (cause == null) {
+                    lookupsSucceeded.increment();
+                    outcome = new Resolved(addresses, now);
+                    if (last == null || !last.addresses.equals(addresses)) {
+                        LOGGER.debug("Backend host {} resolved to {}", host, addresses);
+                    }
+                    resolved = outcome;
+                } else {
+                    lookupsFailed.increment();
+                    retryAtMillis = now + RETRY_MILLIS;
+                    if (last != null && now - last.atMillis < ttlMillis + staleMillis) {
+                        outcome = last;
+                        LOGGER.warn("Could not refresh backend host {}, keeping {}: {}",
+                            host, last.addresses, cause.getMessage());
+                    }
+                }
+
+                synchronized (this) {
+                    inflight = null;
+                }
+                if (outcome != null) {
+                    attempt.complete(outcome);
+                } else {
+                    attempt.completeExceptionally(cause);
+                }
+            });
+            return attempt;
+        }
+    }
+
+    private record Resolved(List<InetAddress> addresses, long atMillis) {
+    }
+
+    // ==================== Hosts File ====================
+
+    private static Map<String, List<InetAddress>> loadHostsFile(@Nullable String path) {
+        if (path == null || path.isBlank()) {
+            return Map.of();
+        }
+        try {
+            HostsFileEntriesProvider entries = HostsFileEntriesProvider.parser().parse(new File(path));
+            Map<String, List<InetAddress>> hosts = new HashMap<>();
+            merge(hosts, entries.ipv4Entries());
+            merge(hosts, entries.ipv6Entries());
+            LOGGER.info("Loaded {} backend host(s) from {}", hosts.size(), path);
+            return hosts;
+        } catch (IOException e) {
+            LOGGER.warn("Could not read backend hosts file {}: {}", path, e.getMessage());
+            return Map.of();
+        }
+    }
+
+    private static void merge(Map<String, List<InetAddress>> hosts, Map<String, List<InetAddress>> entries) {
+        entries.forEach((host, addresses) -> {
+            // IPv4 entries were merged first and stay preferred, as with DNS
+            if (!addresses.isEmpty()) {
+                hosts.putIfAbsent(host.toLowerCase(Locale.ROOT), List.copyOf(addresses));
+            }
+        });
+    }
+
+    // ==================== Metrics ====================
+
+    /**
+     * Resolutions answered from a fresh cache entry.
+     */
+    public long getCacheHits() {
+        return cacheHits.sum();
+    }
+
+    /**
+     * Resolutions answered with expired addresses while a refresh was in progress or failing.
+     */
+    public long getCacheStale() {
+        return cacheStale.sum();
+    }
+
+    /**
+     * Resolutions that had to wait for a lookup.
+     */
+    public long getCacheMisses() {
+        return cacheMisses.sum();
+    }
+
+    public long getLookupsSucceeded() {
+        return lookupsSucceeded.sum();
+    }
+
+    public long getLookupsFailed() {
+        return lookupsFailed.sum();
+    }
+
+    public int getCachedHosts() {
+        return cache.size();
+    }
+}
@@ -0,0 +1,245 @@
+package me.internalizable.numdrassl.server.network;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelDuplexHandler;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.ChannelPromise;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.FixedRecvByteBufAllocator;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollChannelOption;
+import io.netty.channel.epoll.EpollDatagramChannel;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.DatagramChannel;
+import io.netty.channel.socket.DatagramPacket;
+import io.netty.channel.socket.nio.NioDatagramChannel;
+import io.netty.channel.unix.SegmentedDatagramPacket;
+import io.netty.incubator.codec.quic.EpollQuicUtils;
+import io.netty.incubator.codec.quic.QuicChannel;
+import io.netty.incubator.codec.quic.QuicChannelBootstrap;
+import io.netty.incubator.codec.quic.QuicChannelOption;
+import io.netty.incubator.codec.quic.SegmentedDatagramPacketAllocator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import java.util.Objects;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * UDP segmentation offload for the QUIC sockets, with a plain NIO fallback.
+ *
+ * <p>On Linux with the native epoll transport, QUIC packets to the same peer are
+ * handed to the kernel as one buffer with {@code UDP_SEGMENT} (GSO) and split into
+ * datagrams there, and {@code UDP_GRO} lets one receive return several datagrams
+ * from the same peer coalesced. Either way one syscall moves many packets instead of
+ * one. The QUIC codec expects a single datagram per read, so coalesced reads are
+ * split again before they reach it.</p>
+ *
+ * <p>Support is detected once at startup. Without epoll, or with
+ * {@code udpOffloadEnabled: false}, sockets use NIO exactly as before; without kernel
+ * GSO support only GRO is used. The counters compare packets handed to or from the
+ * socket with the datagrams they carried, so their ratio is the packets per syscall.</p>
+ */
+public final class UdpOffload {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(UdpOffload.class);
+
+    // Largest coalesced read the kernel returns with UDP_GRO
+    private static final int GRO_BUFFER_SIZE = 65535;
+
+    private final boolean epoll;
+    private final boolean gso;
+    private final SegmentedDatagramPacketAllocator segmentAllocator;
+    private final ChannelHandler counter = new OffloadHandler();
+
+    private final LongAdder packetsReceived = new LongAdder();
+    private final LongAdder datagramsReceived = new LongAdder();
+    private final LongAdder packetsSent = new LongAdder();
+    private final LongAdder datagramsSent = new LongAdder();
+
+    private UdpOffload(boolean epoll, boolean gso, int maxSegments) {
+        this.epoll = epoll;
+        this.gso = gso;
+        this.segmentAllocator = gso
+            ? EpollQuicUtils.newSegmentedAllocator(maxSegments)
+            : SegmentedDatagramPacketAllocator.NONE;
+    }
+
+    /**
+     * Detects what the platform supports.
+     *
+     * @param enabled     false to always use NIO
+     * @param maxSegments most datagrams sent in one GSO write
+     */
+    @Nonnull
+    public static UdpOffload detect(boolean enabled, int maxSegments) {
+        if (!enabled) {
+            return new UdpOffload(false, false, 1);
+        }
+        if (!Epoll.isAvailable()) {
+            LOGGER.info("UDP offload unavailable, using NIO: {}", String.valueOf(Epoll.unavailabilityCause()));
+            return new UdpOffload(false, false, 1);
+        }
+        boolean gso = maxSegments > 1 && EpollDatagramChannel.isSegmentedDatagramPacketSupported();
+        LOGGER.info("UDP offload: epoll with GRO, GSO {}", gso ? "up to " + maxSegments + " segments" : "not supported");
+        return new UdpOffload(true, gso, maxSegments);
+    }
+
+    // ==================== Channels ====================
+
+    /**
+     * Creates an event loop group matching the datagram channel type.
+     */
+    @Nonnull
+    public EventLoopGroup newEventLoopGroup(int threads, @Nonnull ThreadFactory threadFactory) {
+        return epoll ? new EpollEventLoopGroup(threads, threadFactory) : new NioEventLoopGroup(threads, threadFactory);
+    }
+
+    /**
+     * Creates an event loop group matching the datagram channel type.
+     */
+    @Nonnull
+    public EventLoopGroup newEventLoopGroup(int threads) {
+        return epoll ? new EpollEventLoopGroup(threads) : new NioEventLoopGroup(threads);
+    }
+
+    /**
+     * Datagram channel class for event loops from {@link #newEventLoopGroup}.
+     */
+    @Nonnull
+    public Class<? extends DatagramChannel> getDatagramChannelType() {
+        return epoll ? EpollDatagramChannel.class : NioDatagramChannel.class;
+    }
+
+    /**
+     * Creates a datagram bootstrap for a QUIC codec. The group must come from
+     * {@link #newEventLoopGroup}.
+     */
+    @Nonnull
+    public Bootstrap newBootstrap(@Nonnull EventLoopGroup group, @Nonnull ChannelHandler quicCodec) {
+        Objects.requireNonNull(quicCodec, "quicCodec");
+        Bootstrap bootstrap = new Bootstrap()
+            .group(group)
+            .channel(getDatagramChannelType())
+            .handler(new ChannelInitializer<Channel>() {
+                @Override
+                protected void initChannel(Channel ch) {
+                    ch.pipeline().addLast(counter, quicCodec);
+                }
+            });
+        if (epoll) {
+            bootstrap.option(EpollChannelOption.UDP_GRO, true)
+                .option(ChannelOption.RCVBUF_ALLOCATOR, new FixedRecvByteBufAllocator(GRO_BUFFER_SIZE));
+        }
+        return bootstrap;
+    }
+
+    /**
+     * Creates a client QUIC connection bootstrap that sends with GSO when available.
+     */
+    @Nonnull
+    public QuicChannelBootstrap newQuicBootstrap(@Nonnull Channel datagramChannel) {
+        return QuicChannel.newBootstrap(datagramChannel)
+            .option(QuicChannelOption.SEGMENTED_DATAGRAM_PACKET_ALLOCATOR, segmentAllocator);
+    }
+
+    /**
+     * Allocator for server QUIC connections, set with
+     * {@code QuicServerCodecBuilder.option(QuicChannelOption.SEGMENTED_DATAGRAM_PACKET_ALLOCATOR, ...)}.
+     */
+    @Nonnull
+    public SegmentedDatagramPacketAllocator getSegmentAllocator() {
+        return segmentAllocator;
+    }
+
+    // ==================== Handler ====================
+
+    /**
+     * Splits coalesced reads into single datagrams and counts packets both ways.
+     */
+    @ChannelHandler.Sharable
+    private final class OffloadHandler extends ChannelDuplexHandler {
+
+        @Override
+        public void channelRead(ChannelHandlerContext ctx, Object msg) {
+            if (!(msg instanceof DatagramPacket packet)) {
+                ctx.fireChannelRead(msg);
+                return;
+            }
+            packetsReceived.increment();
+
+            int segmentSize = packet instanceof SegmentedDatagramPacket segmented ? segmented.segmentSize() : 0;
+            ByteBuf content = packet.content();
+            if (segmentSize <= 0 || content.readableBytes() <= segmentSize) {
+                datagramsReceived.increment();
+                ctx.fireChannelRead(packet);
+                return;
+            }
+
+            try {
+                while (content.isReadable()) {
+                    ByteBuf datagram = content.readRetainedSlice(Math.min(segmentSize, content.readableBytes()));
+                    datagramsReceived.increment();
+                    ctx.fireChannelRead(new DatagramPacket(datagram, packet.recipient(), packet.sender()));
+                }
+            } finally {
+                packet.release();
+            }
+        }
+
+        @Override
+        public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) {
+            if (msg instanceof DatagramPacket packet) {
+                packetsSent.increment();
+                int segmentSize = packet instanceof SegmentedDatagramPacket segmented ? segmented.segmentSize() : 0;
+                int bytes = packet.content().readableBytes();
+                datagramsSent.add(segmentSize > 0 ? Math.max(1, (bytes + segmentSize - 1) / segmentSize) : 1);
+            }
+            ctx.write(msg, promise);
+        }
+    }
+
+    // ==================== Metrics ====================
+
+    public boolean isEpoll() {
+        return epoll;
+    }
+
+    public boolean isGsoEnabled() {
+        return gso;
+    }
+
+    public boolean isGroEnabled() {
+        return epoll;
+    }
+
+    /**
+     * Packets returned by socket reads; several datagrams when coalesced by GRO.
+     */
+    public long getPacketsReceived() {
+        return packetsReceived.sum();
+    }
+
+    public long getDatagramsReceived() {
+        return datagramsReceived.sum();
+    }
+
+    /**
+     * Packets written to sockets; several datagrams when segmented by GSO.
+     */
+    public long getPacketsSent() {
+        return packetsSent.sum();
+    }
+
+    public long getDatagramsSent() {
+        return datagramsSent.sum();
+    }
+}
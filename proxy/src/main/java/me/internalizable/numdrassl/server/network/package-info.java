@@ -2,10 +2,17 @@
  * Network utilities for the proxy server.
  *
  * <p>This package provides utilities for network-related operations such as
- * building formatted chat messages for player communication.</p>
+ * setting up the UDP sockets QUIC runs over, resolving backend hostnames and building formatted chat messages
+ * for player communication.</p>
  *
  * <h2>Key Classes</h2>
  * <ul>
+ *   <li>{@link me.internalizable.numdrassl.server.network.UdpOffload} - Picks epoll with
+ *       UDP GSO/GRO when the platform supports it, or NIO otherwise, for every QUIC socket
+ *       the proxy opens.</li>
+ *   <li>{@link me.internalizable.numdrassl.server.network.BackendAddressResolver} - Resolves
+ *       backend hostnames asynchronously, caches them and rotates through multiple
+ *       addresses.</li>
  *   <li>{@link me.internalizable.numdrassl.api.chat.ChatMessageBuilder} - Fluent builder
  *       for constructing Hytale {@code FormattedMessage} objects with colors and styling.
  *       Simplifies the verbose message construction API.</li>
@@ -22,6 +29,15 @@
  * session.sendToClient(message);
  * }</pre>
  *
+ * <h2>Configuration</h2>
+ * <pre>
+ * udpOffloadEnabled: true
+ * udpGsoMaxSegments: 16
+ * backendDnsCacheSeconds: 30
+ * backendDnsStaleSeconds: 300
+ * backendHostsFile: ""
+ * </pre>
+ *
  * @see me.internalizable.numdrassl.api.chat.ChatMessageBuilder
  */
 package me.internalizable.numdrassl.server.network;
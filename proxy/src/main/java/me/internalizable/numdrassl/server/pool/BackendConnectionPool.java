@@ -0,0 +1,274 @@
+package me.internalizable.numdrassl.server.pool;
+
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelInitializer;
+import io.netty.incubator.codec.quic.QuicChannel;
+import io.netty.incubator.codec.quic.QuicStreamChannel;
+import io.netty.util.AttributeKey;
+import me.internalizable.numdrassl.config.BackendServer;
+import me.internalizable.numdrassl.config.ProxyConfig;
+import me.internalizable.numdrassl.server.ProxyCore;
+import me.internalizable.numdrassl.server.health.BackendHealth;
+import me.internalizable.numdrassl.server.health.BackendHealthManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.net.InetSocketAddress;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps handshaken QUIC connections to each backend ready to be claimed.
+ *
+ * <p>A login or transfer that claims a pooled connection skips the QUIC and TLS
+ * handshake and opens its control stream straight away. Each backend's pool is sized
+ * from its recent claim rate, between {@code backendPoolMinIdle} and
+ * {@code backendPoolMaxIdle}, and refilled in the background. Connections are retired
+ * at half the QUIC idle timeout so a claimed connection never expires mid-login, and
+ * backends the watchdog considers dead are not warmed at all.</p>
+ *
+ * <p>Streams the backend opens on a pooled connection are routed to the handler bound
+ * when the connection was claimed, so the connection can be opened before its session
+ * exists.</p>
+ */
+public final class BackendConnectionPool {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BackendConnectionPool.class);
+    private static final long TICK_MILLIS = 1000;
+
+    private static final AttributeKey<ChannelHandler> STREAM_HANDLER =
+            AttributeKey.valueOf("numdrassl.pooledStreamHandler");
+
+    /**
+     * Hands each backend-initiated stream to the handler bound at claim time.
+     * Streams arriving on an unclaimed connection are unexpected and closed.
+     */
+    private static final ChannelInitializer<QuicStreamChannel> STREAM_ROUTER = new ChannelInitializer<>() {
+        @Override
+        protected void initChannel(QuicStreamChannel ch) {
+            ChannelHandler handler = ch.parent().attr(STREAM_HANDLER).get();
+            if (handler == null) {
+                ch.close();
+                return;
+            }
+            ch.pipeline().addLast(handler);
+        }
+    };
+
+    private final ProxyCore proxyCore;
+    private final Map<String, BackendPool> pools = new ConcurrentHashMap<>();
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "backend-connection-pool");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private ScheduledFuture<?> task;
+    private volatile boolean running;
+
+    public BackendConnectionPool(@Nonnull ProxyCore proxyCore) {
+        this.proxyCore = Objects.requireNonNull(proxyCore, "proxyCore");
+    }
+
+    // ==================== Lifecycle ====================
+
+    /**
+     * Starts warming. Must be called after the backend SSL context is initialized.
+     */
+    public void initialize() {
+        ProxyConfig config = proxyCore.getConfig();
+        if (task != null || !config.isBackendPoolEnabled()) {
+            return;
+        }
+
+        for (BackendServer backend : config.getBackends()) {
+            pool(backend);
+        }
+        running = true;
+        task = scheduler.scheduleAtFixedRate(this::tick, 0, TICK_MILLIS, TimeUnit.MILLISECONDS);
+        LOGGER.info("Backend connection pool: {}-{} idle connections per backend",
+                config.getBackendPoolMinIdle(), config.getBackendPoolMaxIdle());
+    }
+
+    public void shutdown() {
+        running = false;
+        if (task != null) {
+            task.cancel(false);
+            task = null;
+        }
+        scheduler.shutdownNow();
+        pools.values().forEach(BackendPool::closeAll);
+    }
+
+    // ==================== Claiming ====================
+
+    /**
+     * Claims a pre-warmed connection to the backend and binds the handler for streams
+     * the backend opens on it.
+     *
+     * @param backend       the backend to connect to
+     * @param streamHandler initializer for backend-initiated streams
+     * @return an established connection, or null if none is ready and the caller
+     *         must connect itself
+     */
+    @Nullable
+    public QuicChannel claim(@Nonnull BackendServer backend, @Nonnull ChannelHandler streamHandler) {
+        Objects.requireNonNull(backend, "backend");
+        Objects.requireNonNull(streamHandler, "streamHandler");
+        if (!running) {
+            return null;
+        }
+
+        BackendPool pool = pools.get(backend.getName());
+        if (pool == null) {
+            return null; // Not a configured backend
+        }
+
+        QuicChannel channel = pool.poll(System.currentTimeMillis(), maxAgeMillis());
+        if (pool.needsRefill()) {
+            scheduler.execute(() -> refill(pool, backend));
+        }
+        if (channel != null) {
+            channel.attr(STREAM_HANDLER).set(streamHandler);
+        }
+        return channel;
+    }
+
+    // ==================== Maintenance ====================
+
+    private void tick() {
+        ProxyConfig config = proxyCore.getConfig();
+        long now = System.currentTimeMillis();
+        long maxAge = maxAgeMillis();
+
+        try {
+            for (BackendServer backend : config.getBackends()) {
+                BackendPool pool = pool(backend);
+                if (isDead(backend)) {
+                    pool.drain();
+                    continue;
+                }
+                pool.maintain(now, maxAge, config.getBackendPoolMinIdle(), config.getBackendPoolMaxIdle());
+                refill(pool, backend);
+            }
+        } catch (Exception e) {
+            LOGGER.warn("Backend connection pool tick failed", e);
+        }
+    }
+
+    private void refill(BackendPool pool, BackendServer backend) {
+        if (!running) {
+            return;
+        }
+        int count = pool.reserveRefill(System.currentTimeMillis());
+        for (int i = 0; i < count; i++) {
+            open(pool, backend);
+        }
+    }
+
+    private void open(BackendPool pool, BackendServer backend) {
+        proxyCore.getBackendResolver().resolve(backend).whenComplete((address, cause) -> {
+            if (cause != null) {
+                onOpenFailed(pool, cause);
+                return;
+            }
+            open(pool, address);
+        });
+    }
+
+    private void open(BackendPool pool, InetSocketAddress address) {
+        proxyCore.getBackendConnector().createBootstrap().bind(0).addListener((ChannelFutureListener) bind -> {
+            if (!bind.isSuccess()) {
+                onOpenFailed(pool, bind.cause());
+                return;
+            }
+
+            Channel datagram = bind.channel();
+            proxyCore.getUdpOffload().newQuicBootstrap(datagram)
+                    .streamHandler(STREAM_ROUTER)
+                    .remoteAddress(address)
+                    .connect()
+                    .addListener(future -> {
+                        if (!future.isSuccess()) {
+                            datagram.close();
+                            onOpenFailed(pool, future.cause());
+                            return;
+                        }
+
+                        QuicChannel channel = (QuicChannel) future.getNow();
+                        channel.closeFuture().addListener(f -> datagram.close());
+                        pool.onConnected(channel, System.currentTimeMillis());
+                        if (!running) {
+                            channel.close();
+                        }
+                    });
+        });
+    }
+
+    private void onOpenFailed(BackendPool pool, Throwable cause) {
+        pool.onConnectFailed(System.currentTimeMillis());
+        LOGGER.debug("Backend connection pool: warming {} failed: {}", pool.backendName(), cause.getMessage());
+    }
+
+    private BackendPool pool(BackendServer backend) {
+        return pools.computeIfAbsent(backend.getName(),
+                name -> new BackendPool(name, proxyCore.getConfig().getBackendPoolMinIdle()));
+    }
+
+    private boolean isDead(BackendServer backend) {
+        BackendHealthManager healthManager = proxyCore.getBackendHealthManager();
+        return healthManager != null && healthManager.get(backend).getState() == BackendHealth.BackendState.DEAD;
+    }
+
+    /**
+     * Pooled connections are retired at half the QUIC idle timeout, leaving the
+     * claimant the other half to complete its login.
+     */
+    private long maxAgeMillis() {
+        return proxyCore.getConfig().getConnectionTimeoutSeconds() * 1000L / 2;
+    }
+
+    // ==================== Metrics ====================
+
+    /**
+     * Idle connections currently ready for the backend.
+     */
+    public int getIdleCount(@Nonnull String backendName) {
+        BackendPool pool = pools.get(backendName);
+        return pool != null ? pool.idleCount() : 0;
+    }
+
+    /**
+     * Idle connections the pool is currently trying to keep for the backend.
+     */
+    public int getTargetSize(@Nonnull String backendName) {
+        BackendPool pool = pools.get(backendName);
+        return pool != null ? pool.target() : 0;
+    }
+
+    /**
+     * Claims served from the pool.
+     */
+    public long getHits(@Nonnull String backendName) {
+        BackendPool pool = pools.get(backendName);
+        return pool != null ? pool.hits() : 0;
+    }
+
+    /**
+     * Claims that found no ready connection and fell back to a fresh handshake.
+     */
+    public long getMisses(@Nonnull String backendName) {
+        BackendPool pool = pools.get(backendName);
+        return pool != null ? pool.misses() : 0;
+    }
+}
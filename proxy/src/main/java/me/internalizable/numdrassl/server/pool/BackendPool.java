@@ -0,0 +1,170 @@
+package me.internalizable.numdrassl.server.pool;
+
+import io.netty.incubator.codec.quic.QuicChannel;
+
+import javax.annotation.Nullable;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Idle pre-warmed connections to a single backend, and the demand used to size them.
+ *
+ * <p>Claims and connect results arrive on event loops; eviction, sizing and refill
+ * reservations run on the pool's maintenance thread. The deque holds at most
+ * {@code maxIdle} entries, so linear scans are cheap.</p>
+ */
+final class BackendPool {
+
+    /** Weight of the newest one-second claim count in the smoothed rate. */
+    private static final double RATE_ALPHA = 0.3;
+
+    /** Seconds of demand to keep ready; roughly the time needed to warm a replacement. */
+    private static final double REFILL_HORIZON_SECONDS = 2.0;
+
+    private static final long MIN_BACKOFF_MILLIS = 500;
+    private static final long MAX_BACKOFF_MILLIS = 30_000;
+
+    record IdleConnection(QuicChannel channel, long createdAtMillis) {
+    }
+
+    private final String backendName;
+    private final Deque<IdleConnection> idle = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger connecting = new AtomicInteger();
+    private final AtomicInteger claimsSinceTick = new AtomicInteger();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private volatile long nextAttemptMillis;
+    private volatile int target;
+
+    // Maintenance thread only
+    private double claimRate;
+
+    BackendPool(String backendName, int minIdle) {
+        this.backendName = backendName;
+        this.target = minIdle;
+    }
+
+    String backendName() {
+        return backendName;
+    }
+
+    // ==================== Claiming ====================
+
+    /**
+     * Takes the most recently warmed live connection, closing any dead or
+     * expired ones found on the way.
+     */
+    @Nullable
+    QuicChannel poll(long now, long maxAgeMillis) {
+        claimsSinceTick.incrementAndGet();
+
+        IdleConnection entry;
+        while ((entry = idle.pollLast()) != null) {
+            if (entry.channel().isActive() && now - entry.createdAtMillis() < maxAgeMillis) {
+                hits.increment();
+                return entry.channel();
+            }
+            entry.channel().close();
+        }
+
+        misses.increment();
+        return null;
+    }
+
+    // ==================== Warming ====================
+
+    boolean needsRefill() {
+        return idle.size() + connecting.get() < target;
+    }
+
+    /**
+     * Reserves slots for connections about to be opened.
+     *
+     * @return how many connections the caller should open
+     */
+    int reserveRefill(long now) {
+        if (now < nextAttemptMillis) {
+            return 0;
+        }
+        int deficit = target - idle.size() - connecting.get();
+        if (deficit <= 0) {
+            return 0;
+        }
+        connecting.addAndGet(deficit);
+        return deficit;
+    }
+
+    void onConnected(QuicChannel channel, long now) {
+        connecting.decrementAndGet();
+        consecutiveFailures.set(0);
+        IdleConnection entry = new IdleConnection(channel, now);
+        idle.addLast(entry);
+        channel.closeFuture().addListener(f -> idle.remove(entry));
+    }
+
+    void onConnectFailed(long now) {
+        connecting.decrementAndGet();
+        int failures = consecutiveFailures.incrementAndGet();
+        long backoff = Math.min(MAX_BACKOFF_MILLIS, MIN_BACKOFF_MILLIS << Math.min(failures - 1, 16));
+        nextAttemptMillis = now + backoff;
+    }
+
+    // ==================== Maintenance ====================
+
+    /**
+     * Closes dead and expired connections and re-sizes the pool from the smoothed
+     * claim rate. Called once per second.
+     */
+    void maintain(long now, long maxAgeMillis, int minIdle, int maxIdle) {
+        Iterator<IdleConnection> it = idle.iterator();
+        while (it.hasNext()) {
+            IdleConnection entry = it.next();
+            if (!entry.channel().isActive() || now - entry.createdAtMillis() >= maxAgeMillis) {
+                it.remove();
+                entry.channel().close();
+            }
+        }
+
+        claimRate = RATE_ALPHA * claimsSinceTick.getAndSet(0) + (1 - RATE_ALPHA) * claimRate;
+        int wanted = (int) Math.ceil(claimRate * REFILL_HORIZON_SECONDS);
+        target = Math.max(minIdle, Math.min(maxIdle, wanted));
+    }
+
+    /**
+     * Stops warming: no refills until the backend is back, and idle connections are closed.
+     */
+    void drain() {
+        target = 0;
+        closeAll();
+    }
+
+    void closeAll() {
+        IdleConnection entry;
+        while ((entry = idle.pollFirst()) != null) {
+            entry.channel().close();
+        }
+    }
+
+    // ==================== Metrics ====================
+
+    int idleCount() {
+        return idle.size();
+    }
+
+    int target() {
+        return target;
+    }
+
+    long hits() {
+        return hits.sum();
+    }
+
+    long misses() {
+        return misses.sum();
+    }
+}
@@ -0,0 +1,24 @@
+/**
+ * Pre-warmed QUIC connections to backend servers.
+ *
+ * <p>Opening a backend connection costs a network round-trip plus TLS crypto. Logins and
+ * transfers that find an idle connection in the pool skip both and go straight to
+ * opening their control stream. A miss falls back to a regular connect, so the pool
+ * only ever shortens the critical path.</p>
+ *
+ * <h2>Key Classes</h2>
+ * <ul>
+ *   <li>{@link me.internalizable.numdrassl.server.pool.BackendConnectionPool} - Claims,
+ *       background refills and per-backend metrics</li>
+ *   <li>{@code BackendPool} - Idle connections for one backend, sized from the smoothed
+ *       claim rate, with backoff after failed connects</li>
+ * </ul>
+ *
+ * <h2>Configuration</h2>
+ * <pre>{@code
+ * backendPoolEnabled: true
+ * backendPoolMinIdle: 1
+ * backendPoolMaxIdle: 16
+ * }</pre>
+ */
+package me.internalizable.numdrassl.server.pool;
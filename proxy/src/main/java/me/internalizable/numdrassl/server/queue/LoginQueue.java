@@ -0,0 +1,451 @@
+package me.internalizable.numdrassl.server.queue;
+
+import com.hypixel.hytale.protocol.packets.interface_.ServerMessage;
+import me.internalizable.numdrassl.api.chat.ChatMessageBuilder;
+import me.internalizable.numdrassl.api.player.Player;
+import me.internalizable.numdrassl.config.ProxyConfig;
+import me.internalizable.numdrassl.plugin.NumdrasslProxy;
+import me.internalizable.numdrassl.plugin.player.NumdrasslPlayer;
+import me.internalizable.numdrassl.profiling.ProxyMetrics;
+import me.internalizable.numdrassl.server.ProxyCore;
+import me.internalizable.numdrassl.server.network.ChatMessageConverter;
+import me.internalizable.numdrassl.session.ProxySession;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Waiting room for logins whose backend or group is full.
+ *
+ * <p>When a login's target is at its {@code maxPlayers}, the authenticated session
+ * is held here without a backend connection instead of being forwarded. Each target
+ * has a FIFO queue per priority tier; tiers come from
+ * {@code loginQueuePriorityPermissions}, highest first, and players without any of
+ * those permissions wait last. As soon as the target has room, the head of the
+ * highest non-empty tier is admitted and connects as a normal login.</p>
+ *
+ * <p>Once a target has players waiting, new logins to it queue behind them even if a
+ * slot is momentarily free, so nobody skips the line. Waiting players get their
+ * position every {@code loginQueueUpdateSeconds} and are disconnected after
+ * {@code loginQueueMaxWaitSeconds}.</p>
+ */
+public final class LoginQueue {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LoginQueue.class);
+
+    private static final long TICK_MILLIS = 250;
+    // Longest a login holds a queue place while its permissions load
+    private static final long PERMISSION_WAIT_SECONDS = 10;
+
+    private final ProxyCore proxyCore;
+    private final Function<ProxySession, CompletableFuture<Void>> permissionLoader;
+    private final long permissionWaitMillis;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "login-queue");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final Map<String, TargetQueue> queues = new ConcurrentHashMap<>(); // lower-case target name
+
+    private final LongAdder enqueued = new LongAdder();
+    private final LongAdder admitted = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+    private final LongAdder turnedAway = new LongAdder();
+
+    private ScheduledFuture<?> task;
+    private long lastUpdateNanos;
+
+    public LoginQueue(@Nonnull ProxyCore proxyCore) {
+        this(proxyCore, null, TimeUnit.SECONDS.toMillis(PERMISSION_WAIT_SECONDS));
+    }
+
+    /**
+     * Creates a queue with its own permission loading, for tests.
+     *
+     * @param permissionLoader     loads a session's permissions, or null to set up the player's
+     * @param permissionWaitMillis longest a login waits for its permissions before it is placed
+     */
+    LoginQueue(@Nonnull ProxyCore proxyCore, @Nullable Function<ProxySession, CompletableFuture<Void>> permissionLoader,
+               long permissionWaitMillis) {
+        this.proxyCore = Objects.requireNonNull(proxyCore, "proxyCore");
+        this.permissionLoader = permissionLoader != null ? permissionLoader : this::setupPermissions;
+        this.permissionWaitMillis = permissionWaitMillis;
+    }
+
+    // ==================== Lifecycle ====================
+
+    public void initialize() {
+        if (task != null || !proxyCore.getConfig().isLoginQueueEnabled()) {
+            return;
+        }
+
+        task = scheduler.scheduleAtFixedRate(this::tick, TICK_MILLIS, TICK_MILLIS, TimeUnit.MILLISECONDS);
+        LOGGER.info("Login queue initialized ({} priority tier(s))",
+                proxyCore.getConfig().getLoginQueuePriorityPermissions().size() + 1);
+    }
+
+    public void shutdown() {
+        if (task != null) {
+            task.cancel(false);
+            task = null;
+        }
+        scheduler.shutdownNow();
+        queues.clear();
+    }
+
+    // ==================== Admission ====================
+
+    /**
+     * Returns true if a login to the target must wait: the target is full, or other
+     * players are already waiting for it.
+     *
+     * @param targetName a backend or group name
+     */
+    public boolean shouldQueue(@Nonnull String targetName) {
+        if (task == null) {
+            return false;
+        }
+        TargetQueue queue = queues.get(key(targetName));
+        return (queue != null && queue.size() > 0) || proxyCore.getBackendBalancer().isFull(targetName);
+    }
+
+    /**
+     * Holds the session until the target has room, then runs {@code onAdmitted} on the
+     * queue thread. {@code onAdmitted} must assign the session its backend before
+     * returning, so the next admission sees the slot as taken.
+     *
+     * @param session    the authenticated session
+     * @param targetName the backend or group the session logs in to
+     * @param onAdmitted connects the session once it is admitted
+     * @return false if the queue for the target is full and the session was not queued
+     */
+    public boolean enqueue(@Nonnull ProxySession session, @Nonnull String targetName, @Nonnull Runnable onAdmitted) {
+        Objects.requireNonNull(session, "session");
+        Objects.requireNonNull(targetName, "targetName");
+        Objects.requireNonNull(onAdmitted, "onAdmitted");
+
+        ProxyConfig config = proxyCore.getConfig();
+        TargetQueue queue = queues.computeIfAbsent(key(targetName),
+                k -> new TargetQueue(targetName, config.getLoginQueuePriorityPermissions().size() + 1));
+        if (queue.size() >= config.getLoginQueueMaxSize()) {
+            turnedAway.increment();
+            return false;
+        }
+
+        QueuedLogin login = new QueuedLogin(session, onAdmitted,
+                System.nanoTime() + TimeUnit.SECONDS.toNanos(config.getLoginQueueMaxWaitSeconds()));
+        queue.reserve();
+        enqueued.increment();
+
+        // Permission plugins may load asynchronously; place the player once the tier is known
+        CompletableFuture<Void> permissions;
+        try {
+            permissions = permissionLoader.apply(session).copy()
+                    .orTimeout(permissionWaitMillis, TimeUnit.MILLISECONDS);
+        } catch (RuntimeException e) {
+            permissions = CompletableFuture.failedFuture(e);
+        }
+        permissions.whenComplete((ignored, ex) -> {
+            if (!session.isActive()) {
+                queue.release();
+                return;
+            }
+            int tier = config.getLoginQueuePriorityPermissions().size();
+            if (ex != null) {
+                LOGGER.warn("Session {}: Permissions for {} not ready, queuing without priority",
+                        session.getSessionId(), session.getUsername());
+            } else {
+                try {
+                    tier = tierOf(session);
+                } catch (RuntimeException e) {
+                    // The reservation must turn into a place either way, or it would count forever
+                    LOGGER.warn("Session {}: Permission check failed, queuing without priority",
+                            session.getSessionId(), e);
+                }
+            }
+            queue.add(login, tier);
+            int position = queue.positionOf(login);
+            LOGGER.info("Session {}: {} queued for {} (tier {}, position {})", session.getSessionId(),
+                    session.getUsername(), targetName, tier, position);
+            sendPosition(login, queue.targetName, position, queue.size());
+        });
+        return true;
+    }
+
+    // ==================== Scheduling ====================
+
+    private void tick() {
+        try {
+            long now = System.nanoTime();
+            boolean sendUpdates = now - lastUpdateNanos
+                    >= TimeUnit.SECONDS.toNanos(proxyCore.getConfig().getLoginQueueUpdateSeconds());
+            if (sendUpdates) {
+                lastUpdateNanos = now;
+            }
+
+            for (TargetQueue queue : queues.values()) {
+                dropExpired(queue, now);
+                admit(queue);
+                if (sendUpdates) {
+                    List<QueuedLogin> waiting = queue.snapshot();
+                    for (int i = 0; i < waiting.size(); i++) {
+                        sendPosition(waiting.get(i), queue.targetName, i + 1, waiting.size());
+                    }
+                }
+            }
+        } catch (Exception e) {
+            LOGGER.warn("Login queue tick failed", e);
+        }
+    }
+
+    private void admit(TargetQueue queue) {
+        while (!proxyCore.getBackendBalancer().isFull(queue.targetName)) {
+            QueuedLogin login = queue.poll();
+            if (login == null) {
+                return;
+            }
+            if (!login.session.isActive()) {
+                continue;
+            }
+
+            admitted.increment();
+            ProxyMetrics.getInstance().recordDuration("login_queue_wait", System.nanoTime() - login.enqueuedAtNanos);
+            LOGGER.info("Session {}: Admitted to {} after {}s in queue", login.session.getSessionId(), queue.targetName,
+                    TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - login.enqueuedAtNanos));
+            try {
+                login.onAdmitted.run();
+            } catch (Exception e) {
+                LOGGER.warn("Session {}: Failed to connect after leaving the queue", login.session.getSessionId(), e);
+                login.session.disconnect("Failed to connect to backend server");
+            }
+        }
+    }
+
+    private void dropExpired(TargetQueue queue, long now) {
+        for (QueuedLogin login : queue.removeIf(l -> !l.session.isActive() || now - l.deadlineNanos > 0)) {
+            if (login.session.isActive()) {
+                timedOut.increment();
+                login.session.disconnect("Timed out waiting in the queue for " + queue.targetName);
+            }
+        }
+    }
+
+    /**
+     * Sends the position straight to the client; {@link ProxySession#sendChatMessage}
+     * would hold it until the session is connected to a backend.
+     */
+    private void sendPosition(QueuedLogin login, String targetName, int position, int total) {
+        if (position <= 0 || !login.session.isActive()) {
+            return;
+        }
+        ServerMessage message = ChatMessageConverter.toServerMessage(ChatMessageBuilder.create()
+                .gold(targetName + " is full. ")
+                .gray("You are ")
+                .yellow("#" + position)
+                .gray(" of " + total + " in the queue."));
+        login.session.sendToClient(message);
+    }
+
+    // ==================== Priority ====================
+
+    private CompletableFuture<Void> setupPermissions(ProxySession session) {
+        Player player = findPlayer(session);
+        if (player instanceof NumdrasslPlayer numdrasslPlayer) {
+            return numdrasslPlayer.setupPermissions();
+        }
+        return CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * Returns the session's tier: the index of the first priority permission it has,
+     * or the number of permissions if it has none.
+     */
+    private int tierOf(ProxySession session) {
+        List<String> permissions = proxyCore.getConfig().getLoginQueuePriorityPermissions();
+        Player player = findPlayer(session);
+        if (player != null) {
+            for (int i = 0; i < permissions.size(); i++) {
+                if (player.hasPermission(permissions.get(i))) {
+                    return i;
+                }
+            }
+        }
+        return permissions.size();
+    }
+
+    private Player findPlayer(ProxySession session) {
+        NumdrasslProxy apiProxy = proxyCore.getApiProxy();
+        if (apiProxy == null || session.getPlayerUuid() == null) {
+            return null;
+        }
+        return apiProxy.getPlayer(session.getPlayerUuid()).orElse(null);
+    }
+
+    // ==================== Metrics ====================
+
+    /**
+     * Players waiting for the backend or group.
+     */
+    public int getQueued(@Nonnull String targetName) {
+        TargetQueue queue = queues.get(key(targetName));
+        return queue != null ? queue.size() : 0;
+    }
+
+    /**
+     * Players waiting across all targets.
+     */
+    public int getQueued() {
+        int total = 0;
+        for (TargetQueue queue : queues.values()) {
+            total += queue.size();
+        }
+        return total;
+    }
+
+    public long getEnqueuedCount() {
+        return enqueued.sum();
+    }
+
+    public long getAdmittedCount() {
+        return admitted.sum();
+    }
+
+    public long getTimedOutCount() {
+        return timedOut.sum();
+    }
+
+    /**
+     * Logins disconnected because the queue for their target was full.
+     */
+    public long getTurnedAwayCount() {
+        return turnedAway.sum();
+    }
+
+    private static String key(String targetName) {
+        return targetName.toLowerCase(Locale.ROOT);
+    }
+
+    // ==================== Queues ====================
+
+    private static final class QueuedLogin {
+        final ProxySession session;
+        final Runnable onAdmitted;
+        final long enqueuedAtNanos = System.nanoTime();
+        final long deadlineNanos;
+
+        QueuedLogin(ProxySession session, Runnable onAdmitted, long deadlineNanos) {
+            this.session = session;
+            this.onAdmitted = onAdmitted;
+            this.deadlineNanos = deadlineNanos;
+        }
+    }
+
+    /**
+     * The waiting players for one target, one FIFO per tier. A player counts towards
+     * {@link #size()} from {@link #reserve()}, before their tier is known, until
+     * {@link #add} or {@link #release()}.
+     */
+    private static final class TargetQueue {
+        final String targetName;
+        private final ArrayDeque<QueuedLogin>[] tiers;
+        private int pending;
+
+        @SuppressWarnings("unchecked")
+        TargetQueue(String targetName, int tierCount) {
+            this.targetName = targetName;
+            this.tiers = new ArrayDeque[tierCount];
+            for (int i = 0; i < tierCount; i++) {
+                tiers[i] = new ArrayDeque<>();
+            }
+        }
+
+        synchronized void reserve() {
+            pending++;
+        }
+
+        synchronized void release() {
+            pending--;
+        }
+
+        synchronized void add(QueuedLogin login, int tier) {
+            pending--;
+            tiers[Math.min(tier, tiers.length - 1)].addLast(login);
+        }
+
+        synchronized QueuedLogin poll() {
+            for (ArrayDeque<QueuedLogin> tier : tiers) {
+                QueuedLogin login = tier.pollFirst();
+                if (login != null) {
+                    return login;
+                }
+            }
+            return null;
+        }
+
+        synchronized List<QueuedLogin> removeIf(Predicate<QueuedLogin> filter) {
+            List<QueuedLogin> removed = new ArrayList<>();
+            for (ArrayDeque<QueuedLogin> tier : tiers) {
+                for (Iterator<QueuedLogin> it = tier.iterator(); it.hasNext(); ) {
+                    QueuedLogin login = it.next();
+                    if (filter.test(login)) {
+                        it.remove();
+                        removed.add(login);
+                    }
+                }
+            }
+            return removed;
+        }
+
+        /**
+         * Returns the 1-based position across tiers, or 0 if the login is not queued.
+         */
+        synchronized int positionOf(QueuedLogin login) {
+            int position = 0;
+            for (ArrayDeque<QueuedLogin> tier : tiers) {
+                for (QueuedLogin queued : tier) {
+                    position++;
+                    if (queued == login) {
+                        return position;
+                    }
+                }
+            }
+            return 0;
+        }
+
+        synchronized List<QueuedLogin> snapshot() {
+            List<QueuedLogin> logins = new ArrayList<>();
+            for (ArrayDeque<QueuedLogin> tier : tiers) {
+                logins.addAll(tier);
+            }
+            return logins;
+        }
+
+        synchronized int size() {
+            int size = pending;
+            for (ArrayDeque<QueuedLogin> tier : tiers) {
+                size += tier.size();
+            }
+            return size;
+        }
+    }
+}
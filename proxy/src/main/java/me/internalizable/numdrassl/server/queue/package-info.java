@@ -0,0 +1,26 @@
+/**
+ * Login waiting room for full backends and backend groups.
+ *
+ * <p>A backend or group with {@code maxPlayers} set only takes new logins while it has
+ * room. Past that, authenticated players wait in a FIFO queue on the proxy, without a
+ * backend connection, instead of piling onto a backend that cannot simulate them. They
+ * are told their position periodically and admitted as players leave. Priority tiers
+ * let players with certain permissions wait ahead of others.</p>
+ *
+ * <h2>Key Classes</h2>
+ * <ul>
+ *   <li>{@link me.internalizable.numdrassl.server.queue.LoginQueue} - Per-target queues,
+ *       admission, position updates and metrics</li>
+ * </ul>
+ *
+ * <h2>Configuration</h2>
+ * <pre>{@code
+ * loginQueueEnabled: true
+ * loginQueueMaxSize: 5000
+ * loginQueueUpdateSeconds: 5
+ * loginQueueMaxWaitSeconds: 900
+ * loginQueuePriorityPermissions:
+ *   - "numdrassl.queue.priority"
+ * }</pre>
+ */
+package me.internalizable.numdrassl.server.queue;
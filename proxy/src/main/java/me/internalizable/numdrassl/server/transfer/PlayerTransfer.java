@@ -7,6 +7,7 @@ import me.internalizable.numdrassl.api.player.TransferResult;
 import me.internalizable.numdrassl.config.BackendServer;
 import me.internalizable.numdrassl.plugin.bridge.PlayerTransferBridgeResult;
 import me.internalizable.numdrassl.server.ProxyCore;
+import me.internalizable.numdrassl.server.balance.BackendBalancer;
 import me.internalizable.numdrassl.server.health.BackendHealthManager;
 import me.internalizable.numdrassl.session.ProxySession;
 import me.internalizable.numdrassl.session.SessionState;
@@ -21,9 +22,13 @@ import java.util.concurrent.CompletableFuture;
 /**
  * Handles player transfers between backend servers.
  *
- * <p>Uses {@link ClientReferral} packets to instruct the client to disconnect
- * and reconnect to the proxy. When they reconnect with referral data,
- * the {@link ReferralManager} routes them to the target backend.</p>
+ * <p>When {@code seamlessTransfers} is enabled, a connected player is switched inside
+ * the proxy: the new backend connection is authenticated with the player's stored
+ * identity and swapped in once it accepts, so the client never reconnects. If that
+ * fails, or for sessions that cannot be switched in place, the transfer falls back to
+ * a {@link ClientReferral} instructing the client to disconnect and reconnect to the
+ * proxy. When they reconnect with referral data, the {@link ReferralManager} routes
+ * them to the target backend.</p>
  *
  * <p>All transfers fire a {@code PlayerTransferEvent} before execution,
  * allowing plugins to intercept, redirect, or cancel transfers.</p>
@@ -79,10 +84,10 @@ public final class PlayerTransfer {
     }
 
     /**
-     * Transfers a player to a backend server by name.
+     * Transfers a player to a backend server or backend group by name.
      *
      * @param session     the player's session
-     * @param backendName the name of the target backend
+     * @param backendName the name of the target backend or group
      * @return a future completing with the transfer result
      */
     @Nonnull
@@ -91,8 +96,15 @@ public final class PlayerTransfer {
         Objects.requireNonNull(session, "session");
         Objects.requireNonNull(backendName, "backendName");
 
-        BackendServer backend = proxyCore.getConfig().getBackendByName(backendName);
+        BackendBalancer balancer = proxyCore.getBackendBalancer();
+        BackendServer backend = balancer.resolve(backendName);
         if (backend == null) {
+            if (balancer.isGroup(backendName)) {
+                return CompletableFuture.completedFuture(
+                        TransferResult.failure("No server available in group " + backendName)
+                );
+            }
+
             LOGGER.warn("Session {}: Backend {} not found in configuration",
                     session.getSessionId(), backendName);
 
@@ -128,13 +140,19 @@ public final class PlayerTransfer {
             );
         }
 
+        if (healthManager.getCircuitBreaker(targetBackend).isRejecting()) {
+            LOGGER.warn("Session {}: Backend {} circuit is open, not transferring",
+                    session.getSessionId(), targetBackend.getName());
+            return CompletableFuture.completedFuture(TransferResult.failure("Server is offline"));
+        }
+
         return healthManager
                 .sendPingAsync(targetBackend, 1500)
-                .thenApply(alive -> {
+                .thenCompose(alive -> {
                     if (!alive) {
                         LOGGER.warn("Session {}: Backend {} is offline",
                                 session.getSessionId(), targetBackend.getName());
-                        return TransferResult.failure("Server is offline");
+                        return CompletableFuture.completedFuture(TransferResult.failure("Server is offline"));
                     }
                     return executeTransfer(session, targetBackend);
                 })
@@ -145,13 +163,45 @@ public final class PlayerTransfer {
                 });
     }
 
-    private TransferResult executeTransfer(ProxySession session, BackendServer targetBackend) {
+    private CompletableFuture<TransferResult> executeTransfer(ProxySession session, BackendServer targetBackend) {
         // Validate session state
         Optional<TransferResult> validationError = validateTransfer(session, targetBackend);
         if (validationError.isPresent()) {
-            return validationError.get();
+            return CompletableFuture.completedFuture(validationError.get());
         }
 
+        logTransferStart(session, targetBackend);
+
+        if (!canSwitchInProxy(session)) {
+            return CompletableFuture.completedFuture(executeReferral(session, targetBackend));
+        }
+
+        return proxyCore.getBackendConnector()
+                .switchBackend(session, targetBackend)
+                .thenApply(switched -> {
+                    if (switched) {
+                        return TransferResult.success("Transfer completed");
+                    }
+                    if (!session.isActive()) {
+                        return TransferResult.failure("Player disconnected");
+                    }
+                    LOGGER.info("Session {}: In-proxy switch to {} failed, falling back to ClientReferral",
+                            session.getSessionId(), targetBackend.getName());
+                    return executeReferral(session, targetBackend);
+                });
+    }
+
+    /**
+     * Only a settled session can be switched in place; one that is already
+     * mid-transfer or has lost its backend goes through the client instead.
+     */
+    private boolean canSwitchInProxy(ProxySession session) {
+        return proxyCore.getConfig().isSeamlessTransfers()
+                && session.getState() == SessionState.CONNECTED
+                && !session.isServerTransfer();
+    }
+
+    private TransferResult executeReferral(ProxySession session, BackendServer targetBackend) {
         // Resolve proxy address
         HostAddress proxyAddress = resolveProxyAddress(session);
         if (proxyAddress == null) {
@@ -159,7 +209,6 @@ public final class PlayerTransfer {
         }
 
         // Create and send referral
-        logTransferStart(session, targetBackend);
         byte[] referralData = createReferralData(session, targetBackend);
         sendClientReferral(session, proxyAddress, referralData);
 
@@ -238,6 +287,9 @@ public final class PlayerTransfer {
     private byte[] createReferralData(ProxySession session, BackendServer targetBackend) {
         return proxyCore.getReferralManager().createReferral(
                 session.getPlayerUuid(),
+                session.getUsername(),
+                session.getClientCertificateFingerprint(),
+                session.getServerAccessToken(),
                 targetBackend
         );
     }
@@ -1,22 +1,28 @@
 package me.internalizable.numdrassl.server.transfer;
 
+import me.internalizable.numdrassl.common.HmacKey;
 import me.internalizable.numdrassl.config.BackendServer;
 import me.internalizable.numdrassl.server.ProxyCore;
+import me.internalizable.numdrassl.session.ProxySession;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
 import java.time.Duration;
+import java.util.Arrays;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Manages pending server referrals for player transfers.
@@ -25,7 +31,19 @@ import java.util.concurrent.TimeUnit;
  * tells the client to reconnect. This manager tracks where players should be
  * routed when they reconnect with referral data.</p>
  *
- * <p>Referrals expire after a configurable timeout (default 30 seconds).</p>
+ * <p>Referrals expire after a configurable timeout (default 30 seconds). Each referral
+ * also has a reconnect future, see {@link #awaitReconnect}, for callers that need to
+ * know when the player has come back.</p>
+ *
+ * <p>When {@code transferTicketsEnabled} is set, the referral data also carries a
+ * {@link TransferTicket}: a signed, single-use token bound to the player's UUID,
+ * username, client certificate and target backend, valid for
+ * {@code transferTicketTtlSeconds}. The reconnecting client still goes through the
+ * AuthGrant/AuthToken exchange, but a valid ticket lets the proxy answer with the
+ * server access token it got for the player's previous login instead of exchanging
+ * the new server authorization grant with the session service. Tickets are signed
+ * with a key generated at startup, so they are only honoured by the proxy that
+ * issued them.</p>
  */
 public final class ReferralManager {
 
@@ -34,12 +52,23 @@ public final class ReferralManager {
     private static final Duration DEFAULT_EXPIRY = Duration.ofSeconds(30);
     private static final Duration CLEANUP_INTERVAL = Duration.ofSeconds(10);
     private static final String REFERRAL_PREFIX = "NUMDRASSL:";
+    private static final byte TICKET_SEPARATOR = 0;
 
     private final ProxyCore proxyCore;
     private final Map<UUID, PendingReferral> pendingReferrals = new ConcurrentHashMap<>();
+    private final Map<UUID, CompletableFuture<ProxySession>> reconnects = new ConcurrentHashMap<>();
     private final ScheduledExecutorService cleanupExecutor;
     private final long expiryMillis;
 
+    private final boolean ticketsEnabled;
+    private final long ticketTtlMillis;
+    private final SecureRandom random = new SecureRandom();
+    private final HmacKey ticketKey;
+    private final Map<UUID, IssuedTicket> issuedTickets = new ConcurrentHashMap<>();
+    private final LongAdder ticketsIssued = new LongAdder();
+    private final LongAdder ticketsRedeemed = new LongAdder();
+    private final LongAdder ticketsRejected = new LongAdder();
+
     // ==================== Construction ====================
 
     public ReferralManager(@Nonnull ProxyCore proxyCore) {
@@ -49,6 +78,11 @@ public final class ReferralManager {
     public ReferralManager(@Nonnull ProxyCore proxyCore, @Nonnull Duration expiry) {
         this.proxyCore = Objects.requireNonNull(proxyCore, "proxyCore");
         this.expiryMillis = Objects.requireNonNull(expiry, "expiry").toMillis();
+        this.ticketsEnabled = proxyCore.getConfig().isTransferTicketsEnabled();
+        this.ticketTtlMillis = TimeUnit.SECONDS.toMillis(proxyCore.getConfig().getTransferTicketTtlSeconds());
+        byte[] key = new byte[32];
+        random.nextBytes(key);
+        this.ticketKey = new HmacKey(key);
         this.cleanupExecutor = createCleanupExecutor();
 
         scheduleCleanup();
@@ -88,16 +122,145 @@ public final class ReferralManager {
 
         PendingReferral referral = PendingReferral.create(playerUuid, targetBackend);
         pendingReferrals.put(playerUuid, referral);
+        issuedTickets.remove(playerUuid);
+        settle(reconnects.put(playerUuid, new CompletableFuture<>()), null);
 
         LOGGER.info("Created referral for {} to backend {}", playerUuid, targetBackend.getName());
 
-        return encodeReferralData(targetBackend.getName());
+        return encodeReferralData(targetBackend.getName(), null);
+    }
+
+    /**
+     * Creates referral data for a player transfer, with a transfer ticket if tickets are
+     * enabled and the player's username, client certificate and server access token are
+     * known.
+     *
+     * @param playerUuid the player's UUID
+     * @param username the player's username, or null
+     * @param certificateFingerprint the player's client certificate fingerprint, or null
+     * @param serverAccessToken the server access token sent to the player at login, or null
+     * @param targetBackend the target backend server
+     * @return the referral data bytes for the ClientReferral packet
+     */
+    @Nonnull
+    public byte[] createReferral(@Nonnull UUID playerUuid, @Nullable String username,
+                                 @Nullable String certificateFingerprint, @Nullable String serverAccessToken,
+                                 @Nonnull BackendServer targetBackend) {
+        byte[] data = createReferral(playerUuid, targetBackend);
+        if (!ticketsEnabled || username == null || certificateFingerprint == null || serverAccessToken == null) {
+            return data;
+        }
+
+        byte[] nonce = new byte[TransferTicket.NONCE_LENGTH];
+        random.nextBytes(nonce);
+        long expiresAt = System.currentTimeMillis() + ticketTtlMillis;
+        TransferTicket ticket = TransferTicket.issue(ticketKey, nonce, expiresAt,
+            playerUuid, username, certificateFingerprint, targetBackend.getName());
+
+        issuedTickets.put(playerUuid, new IssuedTicket(nonce, expiresAt, serverAccessToken));
+        ticketsIssued.increment();
+        LOGGER.debug("Issued transfer ticket for {} to backend {}", playerUuid, targetBackend.getName());
+
+        return encodeReferralData(targetBackend.getName(), ticket.encode());
+    }
+
+    private byte[] encodeReferralData(String backendName, @Nullable byte[] ticket) {
+        byte[] prefix = (REFERRAL_PREFIX + backendName).getBytes(StandardCharsets.UTF_8);
+        if (ticket == null) {
+            return prefix;
+        }
+        byte[] data = Arrays.copyOf(prefix, prefix.length + 1 + ticket.length);
+        data[prefix.length] = TICKET_SEPARATOR;
+        System.arraycopy(ticket, 0, data, prefix.length + 1, ticket.length);
+        return data;
+    }
+
+    // ==================== Transfer Tickets ====================
+
+    /**
+     * Redeems the transfer ticket in a reconnecting player's referral data.
+     *
+     * <p>The ticket is used up whether or not it verifies. The pending referral itself
+     * is left for {@link #consumeReferral} to route the player.</p>
+     *
+     * @param playerUuid the UUID from the Connect packet
+     * @param username the username from the Connect packet
+     * @param certificateFingerprint the fingerprint of the certificate the client presented, or null
+     * @param referralData the referral data from the Connect packet
+     * @return the server access token from the player's previous login if the ticket is
+     *         valid, or null to exchange the client's server authorization grant as usual
+     */
+    @Nullable
+    public String redeemTicket(@Nonnull UUID playerUuid, @Nonnull String username,
+                               @Nullable String certificateFingerprint, @Nullable byte[] referralData) {
+        Objects.requireNonNull(playerUuid, "playerUuid");
+        Objects.requireNonNull(username, "username");
+
+        IssuedTicket issued = issuedTickets.remove(playerUuid);
+        TransferTicket ticket = decodeTicket(referralData);
+        if (issued == null && ticket == null) {
+            return null;
+        }
+
+        String reason = checkTicket(playerUuid, username, certificateFingerprint, issued, ticket);
+        if (reason != null) {
+            ticketsRejected.increment();
+            LOGGER.info("Transfer ticket for {} rejected ({}), using full authentication", playerUuid, reason);
+            return null;
+        }
+
+        ticketsRedeemed.increment();
+        return issued.serverAccessToken();
+    }
+
+    @Nullable
+    private String checkTicket(UUID playerUuid, String username, @Nullable String certificateFingerprint,
+                               @Nullable IssuedTicket issued, @Nullable TransferTicket ticket) {
+        if (ticket == null) {
+            return "missing";
+        }
+        if (issued == null || !ticket.hasNonce(issued.nonce())) {
+            return "unknown or already used";
+        }
+        if (ticket.isExpired(System.currentTimeMillis())) {
+            return "expired";
+        }
+        if (certificateFingerprint == null) {
+            return "no client certificate";
+        }
+        PendingReferral pending = pendingReferrals.get(playerUuid);
+        if (pending == null || pending.isExpired(expiryMillis)) {
+            return "no pending referral";
+        }
+        if (!ticket.verify(ticketKey, playerUuid, username, certificateFingerprint, pending.targetBackend().getName())) {
+            return "signature mismatch";
+        }
+        return null;
+    }
+
+    @Nullable
+    private static TransferTicket decodeTicket(@Nullable byte[] referralData) {
+        int separator = ticketSeparator(referralData);
+        if (separator < 0) {
+            return null;
+        }
+        return TransferTicket.decode(referralData, separator + 1, referralData.length - separator - 1);
     }
 
-    private byte[] encodeReferralData(String backendName) {
-        return (REFERRAL_PREFIX + backendName).getBytes(StandardCharsets.UTF_8);
+    private static int ticketSeparator(@Nullable byte[] referralData) {
+        if (referralData == null) {
+            return -1;
+        }
+        for (int i = 0; i < referralData.length; i++) {
+            if (referralData[i] == TICKET_SEPARATOR) {
+                return i;
+            }
+        }
+        return -1;
     }
 
+    private record IssuedTicket(byte[] nonce, long expiresAtMillis, String serverAccessToken) {}
+
     // ==================== Referral Consumption ====================
 
     /**
@@ -112,19 +275,39 @@ public final class ReferralManager {
      */
     @Nonnull
     public Optional<BackendServer> consumeReferral(@Nonnull UUID playerUuid, @Nullable byte[] referralData) {
+        return consumeReferral(playerUuid, referralData, null);
+    }
+
+    /**
+     * Consumes a pending referral for a reconnecting session and returns the target
+     * backend. The referral's {@link #awaitReconnect reconnect future} completes with
+     * the session.
+     *
+     * @param playerUuid the player's UUID
+     * @param referralData the referral data from Connect packet (optional)
+     * @param session the reconnecting session, or null if unknown
+     * @return the target backend, or empty if no valid referral
+     */
+    @Nonnull
+    public Optional<BackendServer> consumeReferral(@Nonnull UUID playerUuid, @Nullable byte[] referralData,
+                                                   @Nullable ProxySession session) {
         Objects.requireNonNull(playerUuid, "playerUuid");
 
         PendingReferral pending = pendingReferrals.remove(playerUuid);
+        CompletableFuture<ProxySession> reconnect = reconnects.remove(playerUuid);
         if (pending == null) {
+            settle(reconnect, null);
             return Optional.empty();
         }
 
         if (pending.isExpired(expiryMillis)) {
             LOGGER.warn("Referral for {} has expired", playerUuid);
+            settle(reconnect, null);
             return Optional.empty();
         }
 
         validateReferralData(playerUuid, referralData, pending);
+        settle(reconnect, session);
 
         LOGGER.info("Consumed referral for {} -> backend {}", playerUuid, pending.targetBackend().getName());
         return Optional.of(pending.targetBackend());
@@ -135,7 +318,8 @@ public final class ReferralManager {
             return;
         }
 
-        String data = new String(referralData, StandardCharsets.UTF_8);
+        int separator = ticketSeparator(referralData);
+        String data = new String(referralData, 0, separator >= 0 ? separator : referralData.length, StandardCharsets.UTF_8);
         if (!data.startsWith(REFERRAL_PREFIX)) {
             return;
         }
@@ -162,6 +346,26 @@ public final class ReferralManager {
         return pending != null && !pending.isExpired(expiryMillis);
     }
 
+    /**
+     * Returns a future for the player's pending referral that completes with the session
+     * that consumed it, or with null if it expired, was cancelled or was replaced by a
+     * newer referral.
+     *
+     * @param playerUuid the player's UUID
+     * @return the future, or null if the player has no pending referral
+     */
+    @Nullable
+    public CompletableFuture<ProxySession> awaitReconnect(@Nonnull UUID playerUuid) {
+        Objects.requireNonNull(playerUuid, "playerUuid");
+        return reconnects.get(playerUuid);
+    }
+
+    private static void settle(@Nullable CompletableFuture<ProxySession> reconnect, @Nullable ProxySession session) {
+        if (reconnect != null) {
+            reconnect.complete(session);
+        }
+    }
+
     /**
      * Cancels a pending referral.
      *
@@ -170,6 +374,8 @@ public final class ReferralManager {
     public void cancelReferral(@Nonnull UUID playerUuid) {
         Objects.requireNonNull(playerUuid, "playerUuid");
 
+        issuedTickets.remove(playerUuid);
+        settle(reconnects.remove(playerUuid), null);
         if (pendingReferrals.remove(playerUuid) != null) {
             LOGGER.debug("Cancelled referral for {}", playerUuid);
         }
@@ -182,16 +388,34 @@ public final class ReferralManager {
         return pendingReferrals.size();
     }
 
+    public long getTicketsIssued() {
+        return ticketsIssued.sum();
+    }
+
+    public long getTicketsRedeemed() {
+        return ticketsRedeemed.sum();
+    }
+
+    /**
+     * Tickets presented that were expired, reused, forged or for another player.
+     */
+    public long getTicketsRejected() {
+        return ticketsRejected.sum();
+    }
+
     // ==================== Lifecycle ====================
 
     private void cleanupExpired() {
         pendingReferrals.entrySet().removeIf(entry -> {
             if (entry.getValue().isExpired(expiryMillis)) {
                 LOGGER.debug("Expired referral for {}", entry.getKey());
+                settle(reconnects.remove(entry.getKey()), null);
                 return true;
             }
             return false;
         });
+        long now = System.currentTimeMillis();
+        issuedTickets.values().removeIf(ticket -> now > ticket.expiresAtMillis());
     }
 
     /**
@@ -208,6 +432,9 @@ public final class ReferralManager {
             Thread.currentThread().interrupt();
         }
         pendingReferrals.clear();
+        issuedTickets.clear();
+        reconnects.values().forEach(reconnect -> reconnect.complete(null));
+        reconnects.clear();
         LOGGER.debug("ReferralManager shut down");
     }
 }
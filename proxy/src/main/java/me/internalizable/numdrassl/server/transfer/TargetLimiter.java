@@ -0,0 +1,63 @@
+package me.internalizable.numdrassl.server.transfer;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Paces transfers to one target with a token bucket and a cap on transfers in
+ * progress.
+ *
+ * <p>Tokens are refilled and taken on the orchestrator thread only. The in-progress
+ * count is released from whichever thread completes the transfer.</p>
+ */
+final class TargetLimiter {
+
+    private final double tokensPerNano;
+    private final double burst;
+    private final int maxConcurrent;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    // Orchestrator thread only
+    private double tokens;
+    private long lastRefillNanos;
+
+    TargetLimiter(double ratePerSecond, int burst, int maxConcurrent, long now) {
+        this.tokensPerNano = ratePerSecond / TimeUnit.SECONDS.toNanos(1);
+        this.burst = Math.max(1, burst);
+        this.maxConcurrent = Math.max(1, maxConcurrent);
+        this.tokens = this.burst;
+        this.lastRefillNanos = now;
+    }
+
+    /**
+     * Returns true if a transfer may start now.
+     */
+    boolean canAcquire(long now) {
+        refill(now);
+        return tokens >= 1 && inFlight.get() < maxConcurrent;
+    }
+
+    /**
+     * Takes a token and a concurrency slot. Only call after {@link #canAcquire}.
+     */
+    void acquire() {
+        tokens -= 1;
+        inFlight.incrementAndGet();
+    }
+
+    void release() {
+        inFlight.decrementAndGet();
+    }
+
+    int inFlight() {
+        return inFlight.get();
+    }
+
+    private void refill(long now) {
+        long elapsed = now - lastRefillNanos;
+        if (elapsed > 0) {
+            tokens = Math.min(burst, tokens + elapsed * tokensPerNano);
+            lastRefillNanos = now;
+        }
+    }
+}
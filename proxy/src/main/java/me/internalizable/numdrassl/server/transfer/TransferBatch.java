@@ -0,0 +1,116 @@
+package me.internalizable.numdrassl.server.transfer;
+
+import javax.annotation.Nonnull;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A group of transfers submitted together, such as the evacuation of one backend.
+ *
+ * <p>Transfers are added while the batch is open. Once {@link #seal()} is called,
+ * {@link #getCompletion()} completes as soon as every transfer has succeeded or
+ * failed.</p>
+ */
+public final class TransferBatch {
+
+    private final long id;
+    private final String description;
+    private final long startedAtNanos = System.nanoTime();
+
+    private final AtomicInteger total = new AtomicInteger();
+    private final AtomicInteger succeeded = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+    private final AtomicBoolean completed = new AtomicBoolean();
+    private final CompletableFuture<TransferBatch> completion = new CompletableFuture<>();
+
+    private volatile boolean sealed;
+
+    TransferBatch(long id, @Nonnull String description) {
+        this.id = id;
+        this.description = description;
+    }
+
+    // ==================== Progress ====================
+
+    void add() {
+        total.incrementAndGet();
+    }
+
+    void onTransferDone(boolean success) {
+        (success ? succeeded : failed).incrementAndGet();
+        checkComplete();
+    }
+
+    /**
+     * Marks the batch as complete: no more transfers will be added.
+     */
+    public void seal() {
+        sealed = true;
+        checkComplete();
+    }
+
+    private void checkComplete() {
+        if (sealed && succeeded.get() + failed.get() >= total.get() && completed.compareAndSet(false, true)) {
+            completion.complete(this);
+        }
+    }
+
+    // ==================== Accessors ====================
+
+    public long getId() {
+        return id;
+    }
+
+    @Nonnull
+    public String getDescription() {
+        return description;
+    }
+
+    public int getTotal() {
+        return total.get();
+    }
+
+    public int getSucceeded() {
+        return succeeded.get();
+    }
+
+    public int getFailed() {
+        return failed.get();
+    }
+
+    /**
+     * Transfers queued or in progress.
+     */
+    public int getPending() {
+        return Math.max(0, total.get() - succeeded.get() - failed.get());
+    }
+
+    public long getElapsedMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAtNanos);
+    }
+
+    public boolean isDone() {
+        return completion.isDone();
+    }
+
+    /**
+     * Completes with this batch once it is sealed and every transfer has finished.
+     */
+    @Nonnull
+    public CompletableFuture<TransferBatch> getCompletion() {
+        return completion;
+    }
+
+    @Override
+    public String toString() {
+        return "TransferBatch{" +
+            "id=" + id +
+            ", description='" + description + '\'' +
+            ", total=" + total.get() +
+            ", succeeded=" + succeeded.get() +
+            ", failed=" + failed.get() +
+            '}';
+    }
+}
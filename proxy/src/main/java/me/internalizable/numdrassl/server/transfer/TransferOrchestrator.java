@@ -0,0 +1,505 @@
+package me.internalizable.numdrassl.server.transfer;
+
+import me.internalizable.numdrassl.api.player.TransferResult;
+import me.internalizable.numdrassl.config.BackendGroup;
+import me.internalizable.numdrassl.config.BackendServer;
+import me.internalizable.numdrassl.config.ProxyConfig;
+import me.internalizable.numdrassl.profiling.ProxyMetrics;
+import me.internalizable.numdrassl.server.ProxyCore;
+import me.internalizable.numdrassl.server.balance.BackendBalancer;
+import me.internalizable.numdrassl.session.ProxySession;
+import me.internalizable.numdrassl.session.SessionState;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayDeque;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Queues transfers and starts them at a rate each target can absorb.
+ *
+ * <p>When a backend dies, every player on it needs a new server at once. Started all
+ * together, those transfers hit the fallback with a wall of logins and session-service
+ * lookups, which can take the fallback down as well. Transfers submitted here are
+ * started per target (the backend or group name they were submitted with) under:</p>
+ * <ul>
+ *   <li>a token bucket of {@code transferRatePerSecond} with a burst of {@code transferBurst}</li>
+ *   <li>at most {@code transferMaxConcurrent} transfers in progress</li>
+ *   <li>the target backend's {@code maxPlayers}, counting transfers in progress</li>
+ * </ul>
+ * <p>For a group, rate, burst and concurrency are multiplied by its member count.
+ * Each started transfer is delayed by a random jitter of up to
+ * {@code transferJitterMillis}. {@link TransferPriority#EVACUATION} transfers go
+ * before others waiting for the same target. A transfer that cannot start within
+ * {@code transferQueueTimeoutSeconds} fails.</p>
+ *
+ * <p>A transfer holds its concurrency slot until the player is on the target. For a
+ * referral that is after the player has reconnected and logged in to the target, not
+ * when the referral is sent; the slot is freed early if the referral expires or the
+ * reconnecting session closes.</p>
+ *
+ * <p>A session has at most one queued transfer; a newer submission replaces it unless
+ * it has already been scheduled to start. Queues and token buckets are only touched on
+ * the orchestrator thread.</p>
+ */
+public final class TransferOrchestrator {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TransferOrchestrator.class);
+
+    private static final long TICK_MILLIS = 50;
+    private static final long PROGRESS_LOG_NANOS = TimeUnit.SECONDS.toNanos(5);
+    // Longest a reconnecting player holds a slot while logging in to the target
+    private static final long ARRIVAL_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+    private final ProxyCore proxyCore;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "transfer-orchestrator");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final Queue<QueuedTransfer> incoming = new ConcurrentLinkedQueue<>();
+    private final Map<Long, QueuedTransfer> queuedBySession = new ConcurrentHashMap<>(); // session id, queued transfer
+    private final Map<String, TargetLimiter> limiters = new ConcurrentHashMap<>(); // lower-case target name
+    private final Map<String, AtomicInteger> inFlightByBackend = new ConcurrentHashMap<>(); // backend name
+    private final Queue<Arrival> arrivals = new ConcurrentLinkedQueue<>();
+    private final Set<TransferBatch> activeBatches = ConcurrentHashMap.newKeySet();
+    private final AtomicLong batchIds = new AtomicLong();
+
+    private final Map<TransferPriority, AtomicInteger> queued = new EnumMap<>(TransferPriority.class);
+    private final Map<TransferPriority, LongAdder> started = new EnumMap<>(TransferPriority.class);
+    private final LongAdder timedOut = new LongAdder();
+
+    // Orchestrator thread only
+    private final Map<TransferPriority, ArrayDeque<QueuedTransfer>> queues = new EnumMap<>(TransferPriority.class);
+    private long lastProgressLogNanos;
+
+    private ScheduledFuture<?> task;
+    private volatile boolean running;
+
+    public TransferOrchestrator(@Nonnull ProxyCore proxyCore) {
+        this.proxyCore = Objects.requireNonNull(proxyCore, "proxyCore");
+        for (TransferPriority priority : TransferPriority.values()) {
+            queues.put(priority, new ArrayDeque<>());
+            queued.put(priority, new AtomicInteger());
+            started.put(priority, new LongAdder());
+        }
+    }
+
+    // ==================== Lifecycle ====================
+
+    public void initialize() {
+        if (task != null) {
+            return;
+        }
+
+        running = true;
+        task = scheduler.scheduleAtFixedRate(this::tick, TICK_MILLIS, TICK_MILLIS, TimeUnit.MILLISECONDS);
+
+        ProxyConfig config = proxyCore.getConfig();
+        LOGGER.info("Transfer orchestrator: {}/s per target (burst {}), {} concurrent, {}ms jitter",
+                config.getTransferRatePerSecond(), config.getTransferBurst(),
+                config.getTransferMaxConcurrent(), config.getTransferJitterMillis());
+    }
+
+    public void shutdown() {
+        running = false;
+        if (task != null) {
+            task.cancel(false);
+            task = null;
+        }
+        scheduler.shutdownNow();
+
+        for (QueuedTransfer transfer : queuedBySession.values()) {
+            transfer.complete(TransferResult.failure("Proxy shutting down"));
+        }
+        queuedBySession.clear();
+        arrivals.clear();
+    }
+
+    // ==================== Submission ====================
+
+    /**
+     * Opens a batch that transfers can be submitted to. Call {@link TransferBatch#seal()}
+     * once every transfer has been submitted.
+     */
+    @Nonnull
+    public TransferBatch openBatch(@Nonnull String description) {
+        Objects.requireNonNull(description, "description");
+
+        TransferBatch batch = new TransferBatch(batchIds.incrementAndGet(), description);
+        activeBatches.add(batch);
+        batch.getCompletion().thenAccept(done -> {
+            activeBatches.remove(done);
+            if (done.getTotal() > 0) {
+                LOGGER.info("Transfer batch #{} ({}) finished: {} moved, {} failed in {}ms",
+                        done.getId(), done.getDescription(), done.getSucceeded(), done.getFailed(),
+                        done.getElapsedMillis());
+            }
+        });
+        return batch;
+    }
+
+    /**
+     * Queues a transfer to a backend or group.
+     *
+     * @param session    the player's session
+     * @param targetName the target backend or group name
+     * @param priority   the transfer's priority
+     * @return a future completing with the transfer result
+     */
+    @Nonnull
+    public CompletableFuture<TransferResult> submit(@Nonnull ProxySession session, @Nonnull String targetName,
+                                                    @Nonnull TransferPriority priority) {
+        return submit(session, targetName, null, priority, null);
+    }
+
+    /**
+     * Queues a transfer to a backend or group.
+     *
+     * @param session    the player's session
+     * @param targetName the target backend or group name
+     * @param exclude    a group member never to pick, e.g. the backend the player is leaving
+     * @param priority   the transfer's priority
+     * @param batch      the batch to count the transfer in, or null
+     * @return a future completing with the transfer result
+     */
+    @Nonnull
+    public CompletableFuture<TransferResult> submit(@Nonnull ProxySession session, @Nonnull String targetName,
+                                                    @Nullable BackendServer exclude, @Nonnull TransferPriority priority,
+                                                    @Nullable TransferBatch batch) {
+        Objects.requireNonNull(session, "session");
+        Objects.requireNonNull(targetName, "targetName");
+        Objects.requireNonNull(priority, "priority");
+
+        long timeoutNanos = TimeUnit.SECONDS.toNanos(proxyCore.getConfig().getTransferQueueTimeoutSeconds());
+        QueuedTransfer transfer = new QueuedTransfer(session, targetName, exclude, priority, timeoutNanos);
+        if (batch != null) {
+            batch.add();
+            transfer.result.whenComplete((result, ex) -> batch.onTransferDone(ex == null && result.isSuccess()));
+        }
+
+        if (!running) {
+            startNow(transfer);
+            return transfer.result;
+        }
+
+        QueuedTransfer previous = queuedBySession.put(session.getSessionId(), transfer);
+        if (previous != null && previous.claim()) {
+            previous.complete(TransferResult.failure("Replaced by a newer transfer"));
+        }
+        queued.get(priority).incrementAndGet();
+        incoming.add(transfer);
+        return transfer.result;
+    }
+
+    // ==================== Scheduling ====================
+
+    private void tick() {
+        try {
+            long now = System.nanoTime();
+
+            QueuedTransfer transfer;
+            while ((transfer = incoming.poll()) != null) {
+                queues.get(transfer.priority).addLast(transfer);
+            }
+
+            for (TransferPriority priority : TransferPriority.values()) {
+                ArrayDeque<QueuedTransfer> queue = queues.get(priority);
+                for (int i = queue.size(); i > 0; i--) {
+                    transfer = queue.pollFirst();
+                    if (!tryStart(transfer, now)) {
+                        queue.addLast(transfer);
+                    } else {
+                        queued.get(priority).decrementAndGet();
+                    }
+                }
+            }
+
+            checkArrivals(now);
+            logProgress(now);
+        } catch (Exception e) {
+            LOGGER.warn("Transfer orchestrator tick failed", e);
+        }
+    }
+
+    /**
+     * Starts the transfer if its target has room, or drops it if it is finished.
+     *
+     * @return false if the transfer must stay queued
+     */
+    private boolean tryStart(QueuedTransfer transfer, long now) {
+        if (transfer.result.isDone()) {
+            return true; // Replaced while queued
+        }
+        if (!transfer.session.isActive()) {
+            transfer.complete(TransferResult.failure("Player disconnected"));
+            return true;
+        }
+        if (now - transfer.deadlineNanos > 0) {
+            timedOut.increment();
+            transfer.complete(TransferResult.failure("Timed out waiting for " + transfer.targetName));
+            return true;
+        }
+
+        BackendBalancer balancer = proxyCore.getBackendBalancer();
+        if (!balancer.isKnown(transfer.targetName)) {
+            transfer.complete(TransferResult.failure("Unknown backend server: " + transfer.targetName));
+            return true;
+        }
+
+        TargetLimiter limiter = limiter(transfer.targetName, now);
+        if (!limiter.canAcquire(now) || !balancer.hasAvailable(transfer.targetName, transfer.exclude)) {
+            return false; // Retry until the deadline
+        }
+
+        BackendServer target = balancer.resolve(transfer.targetName, transfer.exclude);
+        if (target == null) {
+            return false;
+        }
+        if (target == transfer.exclude) {
+            transfer.complete(TransferResult.failure("No other server available: " + transfer.targetName));
+            return true;
+        }
+        if (isFull(target)) {
+            return false;
+        }
+
+        if (!transfer.claim()) {
+            return true; // Replaced while being checked
+        }
+        limiter.acquire();
+        started.get(transfer.priority).increment();
+        ProxyMetrics.getInstance().recordDuration("transfer_queue_wait", now - transfer.enqueuedAtNanos);
+
+        int jitter = proxyCore.getConfig().getTransferJitterMillis();
+        long delay = jitter > 0 ? ThreadLocalRandom.current().nextLong(jitter + 1L) : 0;
+        scheduler.schedule(() -> start(transfer, target, limiter), delay, TimeUnit.MILLISECONDS);
+        return true;
+    }
+
+    private void start(QueuedTransfer transfer, BackendServer target, TargetLimiter limiter) {
+        AtomicInteger backendInFlight = inFlightByBackend.computeIfAbsent(target.getName(), k -> new AtomicInteger());
+        backendInFlight.incrementAndGet();
+        queuedBySession.remove(transfer.session.getSessionId(), transfer);
+
+        Runnable release = () -> {
+            backendInFlight.decrementAndGet();
+            limiter.release();
+        };
+
+        if (!transfer.session.isActive()) {
+            release.run();
+            transfer.complete(TransferResult.failure("Player disconnected"));
+            return;
+        }
+
+        try {
+            proxyCore.getPlayerTransfer().transfer(transfer.session, target).whenComplete((result, ex) -> {
+                if (ex == null && result.isSuccess()) {
+                    awaitArrival(transfer.session, release);
+                } else {
+                    release.run();
+                }
+                transfer.complete(ex != null ? TransferResult.failure(String.valueOf(ex.getMessage())) : result);
+            });
+        } catch (Exception e) {
+            release.run();
+            transfer.complete(TransferResult.failure("Transfer failed: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Holds a referred player's slot until the referral is consumed and the reconnecting
+     * session has logged in to its backend or closed. Seamless switches have no pending
+     * referral and release at once.
+     */
+    private void awaitArrival(ProxySession session, Runnable release) {
+        UUID playerUuid = session.getPlayerUuid();
+        CompletableFuture<ProxySession> reconnect = playerUuid != null
+                ? proxyCore.getReferralManager().awaitReconnect(playerUuid)
+                : null;
+        if (reconnect == null) {
+            release.run();
+            return;
+        }
+        reconnect.whenComplete((reconnected, ex) -> {
+            if (reconnected == null || !running) {
+                release.run();
+            } else {
+                holdUntilArrival(reconnected, release, System.nanoTime());
+            }
+        });
+    }
+
+    /**
+     * Keeps the slot until the session is connected or closed, or for at most
+     * {@link #ARRIVAL_TIMEOUT_NANOS}.
+     */
+    void holdUntilArrival(ProxySession session, Runnable release, long now) {
+        arrivals.add(new Arrival(session, release, now + ARRIVAL_TIMEOUT_NANOS));
+    }
+
+    void checkArrivals(long now) {
+        for (Iterator<Arrival> it = arrivals.iterator(); it.hasNext(); ) {
+            Arrival arrival = it.next();
+            ProxySession session = arrival.session;
+            if (!session.isActive() || session.getState() == SessionState.CONNECTED
+                    || now - arrival.deadlineNanos > 0) {
+                it.remove();
+                arrival.release.run();
+            }
+        }
+    }
+
+    /**
+     * Used before {@link #initialize()} and after {@link #shutdown()}: transfers start
+     * immediately, without pacing.
+     */
+    private void startNow(QueuedTransfer transfer) {
+        BackendServer target = proxyCore.getBackendBalancer().resolve(transfer.targetName, transfer.exclude);
+        if (target == null) {
+            transfer.complete(TransferResult.failure("No server available: " + transfer.targetName));
+            return;
+        }
+        proxyCore.getPlayerTransfer().transfer(transfer.session, target).whenComplete((result, ex) ->
+                transfer.complete(ex != null ? TransferResult.failure(String.valueOf(ex.getMessage())) : result));
+    }
+
+    private boolean isFull(BackendServer backend) {
+        int maxPlayers = backend.getMaxPlayers();
+        if (maxPlayers <= 0) {
+            return false;
+        }
+        AtomicInteger inFlight = inFlightByBackend.get(backend.getName());
+        int pending = inFlight != null ? inFlight.get() : 0;
+        return proxyCore.getSessionManager().getSessionCountOnBackend(backend.getName()) + pending >= maxPlayers;
+    }
+
+    private TargetLimiter limiter(String targetName, long now) {
+        return limiters.computeIfAbsent(targetName.toLowerCase(Locale.ROOT), k -> {
+            ProxyConfig config = proxyCore.getConfig();
+            BackendGroup group = config.getBackendByName(targetName) == null ? config.getBackendGroup(targetName) : null;
+            int scale = group != null ? Math.max(1, group.getMembers().size()) : 1;
+            return new TargetLimiter(
+                    (double) config.getTransferRatePerSecond() * scale,
+                    config.getTransferBurst() * scale,
+                    config.getTransferMaxConcurrent() * scale,
+                    now);
+        });
+    }
+
+    private void logProgress(long now) {
+        if (activeBatches.isEmpty() || now - lastProgressLogNanos < PROGRESS_LOG_NANOS) {
+            return;
+        }
+        lastProgressLogNanos = now;
+
+        for (TransferBatch batch : activeBatches) {
+            if (batch.getPending() > 0) {
+                LOGGER.info("Transfer batch #{} ({}): {}/{} done, {} failed, {} pending",
+                        batch.getId(), batch.getDescription(), batch.getSucceeded() + batch.getFailed(),
+                        batch.getTotal(), batch.getFailed(), batch.getPending());
+            }
+        }
+    }
+
+    // ==================== Metrics ====================
+
+    /**
+     * Transfers waiting to start.
+     */
+    public int getQueued(@Nonnull TransferPriority priority) {
+        return queued.get(priority).get();
+    }
+
+    /**
+     * Transfers started from the queue.
+     */
+    public long getStarted(@Nonnull TransferPriority priority) {
+        return started.get(priority).sum();
+    }
+
+    /**
+     * Transfers that gave up waiting for their target.
+     */
+    public long getTimedOut() {
+        return timedOut.sum();
+    }
+
+    /**
+     * Transfers in progress across all targets.
+     */
+    public int getInFlight() {
+        int total = 0;
+        for (TargetLimiter limiter : limiters.values()) {
+            total += limiter.inFlight();
+        }
+        return total;
+    }
+
+    /**
+     * Batches that still have transfers queued or in progress.
+     */
+    public int getActiveBatches() {
+        return activeBatches.size();
+    }
+
+    // ==================== Queued Transfer ====================
+
+    private static final class QueuedTransfer {
+        final ProxySession session;
+        final String targetName;
+        final BackendServer exclude;
+        final TransferPriority priority;
+        final long enqueuedAtNanos = System.nanoTime();
+        final long deadlineNanos;
+        final CompletableFuture<TransferResult> result = new CompletableFuture<>();
+        private final AtomicBoolean claimed = new AtomicBoolean();
+
+        QueuedTransfer(ProxySession session, String targetName, @Nullable BackendServer exclude,
+                       TransferPriority priority, long timeoutNanos) {
+            this.session = session;
+            this.targetName = targetName;
+            this.exclude = exclude;
+            this.priority = priority;
+            this.deadlineNanos = enqueuedAtNanos + timeoutNanos;
+        }
+
+        /**
+         * Claims the transfer for starting or for replacing; only the first caller wins.
+         */
+        boolean claim() {
+            return claimed.compareAndSet(false, true);
+        }
+
+        void complete(TransferResult outcome) {
+            result.complete(outcome);
+        }
+    }
+
+    private record Arrival(ProxySession session, Runnable release, long deadlineNanos) {
+    }
+}
@@ -0,0 +1,17 @@
+package me.internalizable.numdrassl.server.transfer;
+
+/**
+ * Order in which queued transfers are started. Higher priorities are served first
+ * when several transfers wait for the same target.
+ */
+public enum TransferPriority {
+
+    /** Players whose backend went away and who have nowhere to play until moved. */
+    EVACUATION,
+
+    /** Transfers requested for a single player, e.g. by a backend's referToServer. */
+    NORMAL,
+
+    /** Bulk moves that can wait behind everything else. */
+    BULK
+}
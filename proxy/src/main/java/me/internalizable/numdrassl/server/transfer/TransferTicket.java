@@ -0,0 +1,122 @@
+package me.internalizable.numdrassl.server.transfer;
+
+import me.internalizable.numdrassl.common.HmacKey;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.UUID;
+
+/**
+ * Single-use proof that a player was authenticated by this proxy moments ago.
+ *
+ * <p>Issued inside the referral data of a {@code ClientReferral} and presented again
+ * in the reconnecting client's {@code Connect}. The HMAC covers the nonce, the expiry,
+ * and the player's UUID, username, client certificate fingerprint and target backend,
+ * none of which are sent in the ticket itself; a ticket only verifies for the same
+ * player, on the same certificate, going to the same backend.</p>
+ *
+ * <p>Wire format:</p>
+ * <pre>
+ * [1 byte]   Version
+ * [16 bytes] Nonce
+ * [8 bytes]  Expiry (unix millis, BE)
+ * [32 bytes] HMAC-SHA256
+ * </pre>
+ */
+final class TransferTicket {
+
+    static final int VERSION = 1;
+    static final int NONCE_LENGTH = 16;
+    static final int MAC_LENGTH = 32;
+    static final int LENGTH = 1 + NONCE_LENGTH + 8 + MAC_LENGTH;
+
+    private final byte[] nonce;
+    private final long expiresAtMillis;
+    private final byte[] mac;
+
+    private TransferTicket(byte[] nonce, long expiresAtMillis, byte[] mac) {
+        this.nonce = nonce;
+        this.expiresAtMillis = expiresAtMillis;
+        this.mac = mac;
+    }
+
+    /**
+     * Issues a ticket for the player.
+     */
+    @Nonnull
+    static TransferTicket issue(@Nonnull HmacKey key, @Nonnull byte[] nonce, long expiresAtMillis,
+                                @Nonnull UUID playerUuid, @Nonnull String username,
+                                @Nonnull String certificateFingerprint, @Nonnull String backendName) {
+        if (nonce.length != NONCE_LENGTH) {
+            throw new IllegalArgumentException("nonce must be " + NONCE_LENGTH + " bytes");
+        }
+        byte[] mac = sign(key, nonce, expiresAtMillis, playerUuid, username, certificateFingerprint, backendName);
+        return new TransferTicket(nonce.clone(), expiresAtMillis, mac);
+    }
+
+    /**
+     * Reads a ticket, or returns null if the bytes are not one.
+     */
+    @Nullable
+    static TransferTicket decode(@Nonnull byte[] data, int offset, int length) {
+        if (length != LENGTH || data[offset] != VERSION) {
+            return null;
+        }
+        ByteBuffer buf = ByteBuffer.wrap(data, offset + 1, length - 1);
+        byte[] nonce = new byte[NONCE_LENGTH];
+        buf.get(nonce);
+        long expiresAt = buf.getLong();
+        byte[] mac = new byte[MAC_LENGTH];
+        buf.get(mac);
+        return new TransferTicket(nonce, expiresAt, mac);
+    }
+
+    @Nonnull
+    byte[] encode() {
+        return ByteBuffer.allocate(LENGTH)
+            .put((byte) VERSION)
+            .put(nonce)
+            .putLong(expiresAtMillis)
+            .put(mac)
+            .array();
+    }
+
+    /**
+     * Checks the signature against the reconnecting player. Expiry and single use are
+     * checked by the caller.
+     */
+    boolean verify(@Nonnull HmacKey key, @Nonnull UUID playerUuid, @Nonnull String username,
+                   @Nonnull String certificateFingerprint, @Nonnull String backendName) {
+        byte[] expected = sign(key, nonce, expiresAtMillis, playerUuid, username, certificateFingerprint, backendName);
+        return MessageDigest.isEqual(expected, mac);
+    }
+
+    boolean isExpired(long nowMillis) {
+        return nowMillis > expiresAtMillis;
+    }
+
+    boolean hasNonce(@Nonnull byte[] expected) {
+        return MessageDigest.isEqual(expected, nonce);
+    }
+
+    private static byte[] sign(HmacKey key, byte[] nonce, long expiresAtMillis, UUID playerUuid,
+                               String username, String certificateFingerprint, String backendName) {
+        byte[] user = username.getBytes(StandardCharsets.UTF_8);
+        byte[] cert = certificateFingerprint.getBytes(StandardCharsets.UTF_8);
+        byte[] backend = backendName.getBytes(StandardCharsets.UTF_8);
+
+        ByteBuffer buf = ByteBuffer.allocate(1 + NONCE_LENGTH + 8 + 16 + 12 + user.length + cert.length + backend.length)
+            .put((byte) VERSION)
+            .put(nonce)
+            .putLong(expiresAtMillis)
+            .putLong(playerUuid.getMostSignificantBits())
+            .putLong(playerUuid.getLeastSignificantBits())
+            .putInt(user.length).put(user)
+            .putInt(cert.length).put(cert)
+            .putInt(backend.length).put(backend);
+        return key.sign(buf.array());
+    }
+}
@@ -8,22 +8,52 @@
  * <h2>Key Classes</h2>
  * <ul>
  *   <li>{@link me.internalizable.numdrassl.server.transfer.PlayerTransfer} - API for
- *       initiating player transfers. Sends {@code ClientReferral} packets to clients.</li>
+ *       initiating player transfers. Switches backends in-proxy, or sends
+ *       {@code ClientReferral} packets to clients.</li>
  *   <li>{@link me.internalizable.numdrassl.server.transfer.ReferralManager} - Tracks
  *       pending transfers and routes reconnecting players to their target backend.</li>
  *   <li>{@link me.internalizable.numdrassl.server.transfer.PendingReferral} - Immutable
  *       record representing a pending transfer with expiration tracking.</li>
+ *   <li>{@link me.internalizable.numdrassl.server.transfer.TransferTicket} - Signed,
+ *       single-use ticket carried in referral data that lets the reconnect skip the
+ *       session-service exchanges.</li>
+ *   <li>{@link me.internalizable.numdrassl.server.transfer.TransferOrchestrator} - Queues
+ *       fallback and backend-requested transfers and starts them at a rate each target
+ *       can absorb.</li>
+ *   <li>{@link me.internalizable.numdrassl.server.transfer.TransferBatch} - Progress of a
+ *       group of transfers, such as a backend evacuation.</li>
  * </ul>
  *
- * <h2>Transfer Flow</h2>
+ * <h2>Seamless Flow</h2>
  * <pre>
  * 1. Plugin calls PlayerTransfer.transfer(session, targetServer)
- * 2. ReferralManager creates and stores a PendingReferral
+ * 2. BackendConnector opens a second backend connection with the stored identity
+ * 3. The current backend keeps serving the player until the new one sends ConnectAccept
+ * 4. SessionChannels swaps in the new streams and the old connection is closed
+ * 5. The new backend's join sequence is forwarded over the existing client connection
+ * </pre>
+ * <p>If the new backend refuses or does not accept within
+ * {@code seamlessTransferTimeoutSeconds}, the player stays where they are and the
+ * referral flow below is used instead.</p>
+ *
+ * <p>The seamless flow is experimental and off by default: the client gets no world
+ * reset between the two backends, and its chunk and map streams are replaced mid
+ * session. Without {@code seamlessTransfers: true} every transfer uses the referral
+ * flow.</p>
+ *
+ * <h2>Referral Flow</h2>
+ * <pre>
+ * 1. Plugin calls PlayerTransfer.transfer(session, targetServer)
+ * 2. ReferralManager creates and stores a PendingReferral and a TransferTicket
  * 3. ClientReferral packet sent to player with referral data
  * 4. Client disconnects and reconnects to the proxy
- * 5. On Connect, ReferralManager.consumeReferral() returns target backend
- * 6. Player is connected to the target backend instead of default
+ * 5. On Connect, ReferralManager.redeemTicket() checks the ticket; a valid one skips
+ *    the server grant exchange
+ * 6. ReferralManager.consumeReferral() returns target backend
+ * 7. Player is connected to the target backend instead of default
  * </pre>
+ * <p>A ticket that is missing, expired, already used, or presented by another player
+ * or certificate is rejected and the reconnect exchanges its server grant as usual.</p>
  *
  * <h2>Referral Expiration</h2>
  * <p>Referrals expire after 30 seconds by default. This prevents stale referrals
@@ -14,6 +14,8 @@ import me.internalizable.numdrassl.api.chat.ChatMessageBuilder;
 import me.internalizable.numdrassl.api.player.Player;
 import me.internalizable.numdrassl.auth.CertificateExtractor;
 import me.internalizable.numdrassl.config.BackendServer;
+import me.internalizable.numdrassl.memory.BufferCategory;
+import me.internalizable.numdrassl.memory.SessionMemory;
 import me.internalizable.numdrassl.server.ProxyCore;
 import me.internalizable.numdrassl.server.network.ChatMessageConverter;
 import me.internalizable.numdrassl.session.auth.SessionAuthState;
@@ -33,7 +35,7 @@ import java.util.Queue;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.atomic.AtomicLong;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 
 /**
  * Represents a proxy session for a connected Hytale client.
@@ -49,6 +51,12 @@ import java.util.concurrent.atomic.AtomicReference;
  *   <li>{@link PacketSender} - Thread-safe packet sending</li>
  * </ul>
  *
+ * <p>Sessions have two phases. Until the session first reaches {@link SessionState#CONNECTED}
+ * it holds the {@link SessionAuthState} (certificate, original {@link Connect}, OAuth tokens).
+ * After that only the certificate fingerprint is kept; transfers rebuild their
+ * {@code Connect} from {@link PlayerIdentity}. Mutable fields are plain volatiles rather than
+ * {@code AtomicReference}s to keep the per-session footprint small at high player counts.</p>
+ *
  * @see SessionState for the session lifecycle states
  */
 public final class ProxySession {
@@ -56,6 +64,20 @@ public final class ProxySession {
     private static final Logger LOGGER = LoggerFactory.getLogger(ProxySession.class);
     private static final AtomicLong ID_GENERATOR = new AtomicLong(0);
 
+    private static final AtomicReferenceFieldUpdater<ProxySession, SessionState> STATE =
+        AtomicReferenceFieldUpdater.newUpdater(ProxySession.class, SessionState.class, "state");
+    private static final AtomicReferenceFieldUpdater<ProxySession, Queue> PENDING_MESSAGES =
+        AtomicReferenceFieldUpdater.newUpdater(ProxySession.class, Queue.class, "pendingMessages");
+
+    /**
+     * Approximate shallow size of a session and its component objects (channels,
+     * sender, memory quota) with compressed oops, excluding variable-size data.
+     */
+    private static final int BASE_FOOTPRINT_BYTES = 640;
+
+    /** Approximate retained size of a decoded X.509 client certificate. */
+    private static final int CERTIFICATE_FOOTPRINT_BYTES = 2048;
+
     // Immutable session identity
     private final long id;
     private final ProxyCore proxyCore;
@@ -63,19 +85,25 @@ public final class ProxySession {
 
     // Composed components
     private final SessionChannels channels;
-    private final SessionAuthState authState;
     private final PacketSender packetSender;
+    private final SessionMemory memory;
+
+    // Handshake-only state, dropped once the session first reaches CONNECTED
+    private volatile SessionAuthState authState;
+    // Kept from the handshake for the lifetime of the session
+    private volatile String certificateFingerprint;
+    private volatile String serverAccessToken;
 
     // Mutable state (thread-safe)
-    private final AtomicReference<SessionState> state = new AtomicReference<>(SessionState.HANDSHAKING);
-    private final AtomicReference<PlayerIdentity> identity = new AtomicReference<>(PlayerIdentity.unknown());
-    private final AtomicReference<BackendServer> currentBackend = new AtomicReference<>();
+    private volatile SessionState state = SessionState.HANDSHAKING;
+    private volatile PlayerIdentity identity = PlayerIdentity.unknown();
+    private volatile BackendServer currentBackend;
 
     // Cached API player instance
-    private final AtomicReference<Player> cachedPlayer = new AtomicReference<>();
+    private volatile Player cachedPlayer;
 
-    // Message queue for messages sent before player is fully connected
-    private final Queue<ServerMessage> pendingMessages = new ConcurrentLinkedQueue<>();
+    // Messages sent before the player is fully connected; created on first use
+    private volatile Queue<ServerMessage> pendingMessages;
 
     // Transfer flag
     private volatile boolean serverTransfer = false;
@@ -93,13 +121,14 @@ public final class ProxySession {
         this.clientAddress = extractAddress(clientChannel);
         this.channels = new SessionChannels(id, clientChannel);
         this.authState = new SessionAuthState();
-        this.packetSender = new PacketSender(id, channels);
+        this.memory = proxyCore.getMemoryBudget().openSession(id);
+        this.packetSender = new PacketSender(id, channels, memory);
 
         extractCertificate(clientChannel);
     }
 
     private InetSocketAddress extractAddress(QuicChannel channel) {
-        SocketAddress addr = channel.remoteAddress();
+        SocketAddress addr = channel.remoteSocketAddress();
         if (addr instanceof InetSocketAddress inet) {
             return inet;
         }
@@ -111,6 +140,7 @@ public final class ProxySession {
         if (cert != null) {
             String fingerprint = CertificateExtractor.computeCertificateFingerprint(cert);
             authState.setClientCertificate(cert, fingerprint);
+            certificateFingerprint = fingerprint;
             LOGGER.debug("Session {}: Certificate fingerprint: {}", id, fingerprint);
         }
     }
@@ -128,17 +158,17 @@ public final class ProxySession {
 
     @Nonnull
     public PlayerIdentity getIdentity() {
-        return identity.get();
+        return identity;
     }
 
     @Nullable
     public UUID getPlayerUuid() {
-        return identity.get().uuid();
+        return identity.uuid();
     }
 
     @Nullable
     public String getUsername() {
-        return identity.get().username();
+        return identity.username();
     }
 
     @Nullable
@@ -148,12 +178,12 @@ public final class ProxySession {
 
     @Nullable
     public String getProtocolHash() {
-        return identity.get().clientVersion();
+        return identity.clientVersion();
     }
 
     @Nullable
     public String getClientIdentityToken() {
-        return identity.get().identityToken();
+        return identity.identityToken();
     }
 
     /**
@@ -162,8 +192,8 @@ public final class ProxySession {
     public void handleConnectPacket(@Nonnull Connect connect) {
         Objects.requireNonNull(connect, "connect");
         PlayerIdentity newIdentity = PlayerIdentity.fromConnect(connect);
-        identity.set(newIdentity);
-        authState.setOriginalConnect(connect);
+        identity = newIdentity;
+        setOriginalConnect(connect);
         LOGGER.info("Session {} identified: {}", id, newIdentity);
     }
 
@@ -171,35 +201,60 @@ public final class ProxySession {
 
     @Nonnull
     public SessionState getState() {
-        return state.get();
+        return state;
     }
 
     public void setState(@Nonnull SessionState newState) {
         Objects.requireNonNull(newState, "newState");
-        SessionState oldState = state.getAndSet(newState);
+        SessionState oldState = STATE.getAndSet(this, newState);
         if (oldState != newState) {
             LOGGER.debug("Session {} state: {} -> {}", id, oldState, newState);
         }
+        if (newState == SessionState.CONNECTED && authState != null) {
+            releaseHandshakeState();
+        }
     }
 
     public boolean isActive() {
-        return channels.isClientActive() && state.get() != SessionState.DISCONNECTED;
+        return channels.isClientActive() && state != SessionState.DISCONNECTED;
+    }
+
+    /**
+     * Drops handshake-only state once the session is established.
+     * The certificate fingerprint is kept; everything else is only needed
+     * until the first backend accepts the player.
+     */
+    private void releaseHandshakeState() {
+        SessionAuthState released = authState;
+        authState = null;
+        if (released != null) {
+            released.clearSensitiveData();
+            LOGGER.debug("Session {}: Released handshake state", id);
+        }
     }
 
     // ==================== Backend Server ====================
 
     @Nullable
     public BackendServer getCurrentBackend() {
-        return currentBackend.get();
+        return currentBackend;
     }
 
-    public void setCurrentBackend(@Nullable BackendServer backend) {
-        currentBackend.set(backend);
+    /**
+     * Sets the backend this session is on or connecting to, and moves the session
+     * in the {@link SessionManager}'s backend index.
+     */
+    public synchronized void setCurrentBackend(@Nullable BackendServer backend) {
+        BackendServer previous = currentBackend;
+        currentBackend = backend;
+        if (previous != backend) {
+            proxyCore.getSessionManager().onBackendChanged(this, previous, backend);
+        }
     }
 
     @Nullable
     public String getCurrentServerName() {
-        BackendServer backend = currentBackend.get();
+        BackendServer backend = currentBackend;
         return backend != null ? backend.getName() : null;
     }
 
@@ -226,6 +281,14 @@ public final class ProxySession {
     }
 
     @Nonnull
+    public SessionMemory getMemory() {
+        return memory;
+    }
+
+    /**
+     * Gets the handshake state, or null once the session has reached {@code CONNECTED}.
+     */
+    @Nullable
     public SessionAuthState getAuthState() {
         return authState;
     }
@@ -266,41 +329,76 @@ public final class ProxySession {
 
     // ==================== Auth State Delegation ====================
 
+    // Handshake getters return null and setters are ignored once the session is CONNECTED.
+
+    /**
+     * Gets the client certificate. Only available during the handshake.
+     */
     @Nullable
     public X509Certificate getClientCertificate() {
-        return authState.clientCertificate();
+        SessionAuthState auth = authState;
+        return auth != null ? auth.clientCertificate() : null;
     }
 
     @Nullable
     public String getClientCertificateFingerprint() {
-        return authState.certificateFingerprint();
+        return certificateFingerprint;
     }
 
+    /**
+     * Gets the client's Connect packet. Only available during the handshake.
+     */
     @Nullable
     public Connect getOriginalConnect() {
-        return authState.originalConnect();
+        SessionAuthState auth = authState;
+        return auth != null ? auth.originalConnect() : null;
     }
 
     public void setOriginalConnect(@Nullable Connect connect) {
-        authState.setOriginalConnect(connect);
+        SessionAuthState auth = authState;
+        if (auth != null) {
+            auth.setOriginalConnect(connect);
+        }
     }
 
     @Nullable
     public String getClientAuthGrant() {
-        return authState.authorizationGrant();
+        SessionAuthState auth = authState;
+        return auth != null ? auth.authorizationGrant() : null;
     }
 
     public void setClientAuthGrant(@Nullable String grant) {
-        authState.setAuthorizationGrant(grant);
+        SessionAuthState auth = authState;
+        if (auth != null) {
+            auth.setAuthorizationGrant(grant);
+        }
     }
 
     @Nullable
     public String getClientAccessToken() {
-        return authState.accessToken();
+        SessionAuthState auth = authState;
+        return auth != null ? auth.accessToken() : null;
     }
 
     public void setClientAccessToken(@Nullable String token) {
-        authState.setAccessToken(token);
+        SessionAuthState auth = authState;
+        if (auth != null) {
+            auth.setAccessToken(token);
+        }
+    }
+
+    /**
+     * Gets the server access token sent to the client in its ServerAuthToken, or null
+     * if the login went without one. Kept so a transfer ticket can hand it to the
+     * reconnecting session.
+     */
+    @Nullable
+    public String getServerAccessToken() {
+        return serverAccessToken;
+    }
+
+    public void setServerAccessToken(@Nullable String token) {
+        this.serverAccessToken = token;
     }
 
     // ==================== Packet Sending ====================
@@ -366,9 +464,10 @@ public final class ProxySession {
      * overhead from O(N) to O(1).</p>
      *
      * @param packets the batch of raw packets (ownership transfers to this method)
+     * @return false if the memory budget is exhausted and the caller should pause reads
      */
-    public void sendRawBatchToClient(@Nonnull List<ByteBuf> packets) {
-        packetSender.sendRawBatchToClient(packets);
+    public boolean sendRawBatchToClient(@Nonnull List<ByteBuf> packets) {
+        return packetSender.sendRawBatchToClient(packets);
     }
 
     /**
@@ -376,10 +475,11 @@ public final class ProxySession {
      * cross-event-loop task (write all + flush).
      *
      * @param packets the batch of raw packets (ownership transfers to this method)
+     * @return false if the memory budget is exhausted and the caller should pause reads
      * @see #sendRawBatchToClient(List) for design rationale
      */
-    public void sendRawBatchToBackend(@Nonnull List<ByteBuf> packets) {
-        packetSender.sendRawBatchToBackend(packets);
+    public boolean sendRawBatchToBackend(@Nonnull List<ByteBuf> packets) {
+        return packetSender.sendRawBatchToBackend(packets);
     }
 
     /**
@@ -411,11 +511,13 @@ public final class ProxySession {
         ServerMessage msg = ChatMessageConverter.toServerMessage(builder);
 
         // If player is connected, send immediately; otherwise queue
-        if (state.get() == SessionState.CONNECTED) {
+        if (state == SessionState.CONNECTED) {
             sendToClient(msg);
-        } else {
-            pendingMessages.offer(msg);
+        } else if (memory.tryReserve(BufferCategory.PENDING_MESSAGES, msg.computeSize())) {
+            pendingMessageQueue().offer(msg);
             LOGGER.debug("Session {}: Queued message for delivery after connection", id);
+        } else {
+            LOGGER.warn("Session {}: Dropping queued chat message - session memory quota exhausted", id);
         }
     }
 
@@ -424,9 +526,14 @@ public final class ProxySession {
      * Should be called when the player becomes fully connected.
      */
     public void flushPendingMessages() {
+        Queue<ServerMessage> queue = pendingMessages;
+        if (queue == null) {
+            return;
+        }
         ServerMessage msg;
         int count = 0;
-        while ((msg = pendingMessages.poll()) != null) {
+        while ((msg = queue.poll()) != null) {
+            memory.release(BufferCategory.PENDING_MESSAGES, msg.computeSize());
             sendToClient(msg);
             count++;
         }
@@ -435,6 +542,16 @@ public final class ProxySession {
         }
     }
 
+    @SuppressWarnings("unchecked")
+    private Queue<ServerMessage> pendingMessageQueue() {
+        Queue<ServerMessage> queue = pendingMessages;
+        if (queue == null) {
+            PENDING_MESSAGES.compareAndSet(this, null, new ConcurrentLinkedQueue<ServerMessage>());
+            queue = pendingMessages;
+        }
+        return queue;
+    }
+
     // ==================== Player API Caching ====================
 
     /**
@@ -445,7 +562,7 @@ public final class ProxySession {
      */
     @Nullable
     public Player getCachedPlayer() {
-        return cachedPlayer.get();
+        return cachedPlayer;
     }
 
     /**
@@ -456,7 +573,46 @@ public final class ProxySession {
      */
     public void setCachedPlayer(@Nonnull Player player) {
         Objects.requireNonNull(player, "player");
-        cachedPlayer.set(player);
+        cachedPlayer = player;
+    }
+
+    // ==================== Footprint ====================
+
+    /**
+     * Estimates the memory this session retains, for capacity planning.
+     *
+     * <p>Counts a fixed base for the session objects, identity strings, handshake
+     * state while it is still held, queued chat messages and data buffered against
+     * the session's memory quota. It is an approximation, not a heap walk.</p>
+     *
+     * @return estimated retained bytes
+     */
+    public long getEstimatedFootprintBytes() {
+        long bytes = BASE_FOOTPRINT_BYTES;
+
+        PlayerIdentity id = identity;
+        bytes += stringBytes(id.username()) + stringBytes(id.clientVersion())
+            + stringBytes(id.identityToken()) + stringBytes(id.language());
+        bytes += stringBytes(certificateFingerprint) + stringBytes(serverAccessToken);
+
+        SessionAuthState auth = authState;
+        if (auth != null) {
+            if (auth.hasCertificate()) {
+                bytes += CERTIFICATE_FOOTPRINT_BYTES;
+            }
+            Connect connect = auth.originalConnect();
+            if (connect != null) {
+                bytes += connect.computeSize();
+            }
+            bytes += stringBytes(auth.authorizationGrant()) + stringBytes(auth.accessToken());
+        }
+
+        return bytes + memory.getReservedBytes();
+    }
+
+    private static long stringBytes(@Nullable String value) {
+        // String header + backing array header, Latin-1 compact strings
+        return value == null ? 0 : 40 + value.length();
     }
 
     // ==================== Lifecycle ====================
@@ -468,7 +624,7 @@ public final class ProxySession {
         Objects.requireNonNull(reason, "reason");
         LOGGER.info("Session {} disconnecting: {}", id, reason);
 
-        state.set(SessionState.DISCONNECTED);
+        state = SessionState.DISCONNECTED;
 
         QuicStreamChannel stream = channels.clientStream();
         if (stream != null && stream.isActive()) {
@@ -479,14 +635,16 @@ public final class ProxySession {
         }
 
         proxyCore.getSessionManager().removeSession(this);
+        memory.close();
     }
 
     /**
      * Closes all connections without logging a disconnect reason.
      */
     public void close() {
-        state.set(SessionState.DISCONNECTED);
+        state = SessionState.DISCONNECTED;
         channels.closeAll();
+        memory.close();
     }
 
     /**
@@ -508,13 +666,13 @@ public final class ProxySession {
     public boolean switchToServer(@Nonnull BackendServer newBackend) {
         Objects.requireNonNull(newBackend, "newBackend");
 
-        SessionState currentState = state.get();
+        SessionState currentState = state;
         if (currentState != SessionState.CONNECTED) {
             LOGGER.warn("Session {}: Cannot switch - not connected (state: {})", id, currentState);
             return false;
         }
 
-        BackendServer current = currentBackend.get();
+        BackendServer current = currentBackend;
         if (current != null && current.getName().equalsIgnoreCase(newBackend.getName())) {
             LOGGER.warn("Session {}: Already connected to {}", id, newBackend.getName());
             return false;
@@ -553,8 +711,13 @@ public final class ProxySession {
         return switchToServer(temp);
     }
 
-    private Connect createTransferConnect() {
-        PlayerIdentity id = identity.get();
+    /**
+     * Rebuilds the player's Connect packet from the stored identity, for logging
+     * the player into another backend without involving the client.
+     */
+    @Nonnull
+    public Connect createTransferConnect() {
+        PlayerIdentity id = identity;
         Connect connect = new Connect();
         connect.protocolCrc = id.protocolCrc();
         connect.protocolBuildNumber = id.protocolBuildNumber();
@@ -579,12 +742,12 @@ public final class ProxySession {
 
     @Override
     public String toString() {
-        PlayerIdentity id = identity.get();
+        PlayerIdentity id = identity;
         return String.format("ProxySession{id=%d, player=%s, uuid=%s, state=%s, address=%s}",
             this.id,
             id.username(),
             id.uuid(),
-            state.get(),
+            state,
             clientAddress);
     }
 
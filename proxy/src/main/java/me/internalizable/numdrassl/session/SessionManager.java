@@ -1,15 +1,19 @@
 package me.internalizable.numdrassl.session;
 
 import io.netty.incubator.codec.quic.QuicChannel;
+import me.internalizable.numdrassl.config.BackendServer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -21,8 +25,13 @@ import java.util.concurrent.ConcurrentHashMap;
  *   <li>By session ID (always available)</li>
  *   <li>By QUIC channel (for network event handling)</li>
  *   <li>By player UUID (after authentication)</li>
+ *   <li>By username, case-insensitively (after authentication)</li>
+ *   <li>By current backend (kept up to date by {@link ProxySession#setCurrentBackend})</li>
  * </ul>
  *
+ * <p>Collection getters return unmodifiable live views rather than copies, so they
+ * are cheap to call from hot paths such as chat or tab-complete handlers.</p>
+ *
  * <p>All operations are thread-safe and suitable for concurrent access
  * from multiple Netty event loop threads.</p>
  */
@@ -33,6 +42,11 @@ public final class SessionManager {
     private final Map<Long, ProxySession> sessionsById = new ConcurrentHashMap<>();
     private final Map<QuicChannel, ProxySession> sessionsByChannel = new ConcurrentHashMap<>();
     private final Map<UUID, ProxySession> sessionsByUuid = new ConcurrentHashMap<>();
+    private final Map<String, ProxySession> sessionsByName = new ConcurrentHashMap<>(); // lower-case username
+    private final Map<String, Set<ProxySession>> sessionsByBackend = new ConcurrentHashMap<>(); // lower-case backend name
+
+    private final Collection<ProxySession> allSessionsView = Collections.unmodifiableCollection(sessionsById.values());
+    private final Collection<ProxySession> identifiedSessionsView = Collections.unmodifiableCollection(sessionsByUuid.values());
 
     // ==================== Registration ====================
 
@@ -54,7 +68,9 @@ public final class SessionManager {
      * Associates a player UUID with a session.
      *
      * <p>Called after the Connect packet is received but before full authentication.
-     * Does not kick existing sessions with the same UUID.</p>
+     * Does not kick existing sessions with the same UUID, and does not take the UUID
+     * from a connected session: until it is authenticated, the Connect packet's UUID
+     * is only a claim. The username is not indexed yet.</p>
      *
      * @param session the session to register
      */
@@ -66,8 +82,8 @@ public final class SessionManager {
      * Associates a player UUID with a session, optionally kicking existing sessions.
      *
      * <p>When {@code kickExisting} is true, any existing session with the same UUID
-     * will be disconnected. This should only be done after the new session is fully
-     * authenticated and connected to a backend.</p>
+     * will be disconnected and the username is indexed as well. This should only be
+     * done after the new session is fully authenticated and connected to a backend.</p>
      *
      * @param session the session to register
      * @param kickExisting whether to disconnect existing sessions with the same UUID
@@ -80,16 +96,37 @@ public final class SessionManager {
             return;
         }
 
-        if (kickExisting) {
-            ProxySession existing = sessionsByUuid.get(uuid);
-            if (existing != null && existing != session) {
-                LOGGER.info("Disconnecting existing session {} for UUID: {}",
-                    existing.getSessionId(), uuid);
-                existing.disconnect("Another connection with same account");
-            }
+        if (!kickExisting) {
+            sessionsByUuid.compute(uuid, (k, existing) -> isConnected(existing, session) ? existing : session);
+            return;
+        }
+
+        ProxySession existing = sessionsByUuid.get(uuid);
+        if (existing != null && existing != session) {
+            LOGGER.info("Disconnecting existing session {} for UUID: {}",
+                existing.getSessionId(), uuid);
+            existing.disconnect("Another connection with same account");
         }
 
         sessionsByUuid.put(uuid, session);
+
+        String username = session.getUsername();
+        if (username != null) {
+            ProxySession holder = sessionsByName.compute(nameKey(username), (k, current) ->
+                isConnected(current, session) && !uuid.equals(current.getPlayerUuid()) ? current : session);
+            if (holder != session) {
+                LOGGER.warn("Session {}: username {} is held by session {} ({}), not indexing it",
+                    session.getSessionId(), username, holder.getSessionId(), holder.getPlayerUuid());
+            }
+        }
+    }
+
+    /**
+     * Returns true if {@code current} is another session that is connected to a backend.
+     */
+    private static boolean isConnected(@Nullable ProxySession current, ProxySession session) {
+        return current != null && current != session
+            && current.getState() == SessionState.CONNECTED && current.isActive();
     }
 
     // ==================== Removal ====================
@@ -111,9 +148,44 @@ public final class SessionManager {
             sessionsByUuid.remove(uuid, session);
         }
 
+        String username = session.getUsername();
+        if (username != null) {
+            sessionsByName.remove(nameKey(username), session);
+        }
+
+        BackendServer backend = session.getCurrentBackend();
+        if (backend != null) {
+            backendSet(backend.getName()).remove(session);
+        }
+
         LOGGER.info("Session removed: {}", session.getSessionId());
     }
 
+    // ==================== Backend Index ====================
+
+    /**
+     * Moves a session between backend sets. Called by {@link ProxySession#setCurrentBackend}
+     * under the session's monitor, so changes to one session are applied in order.
+     */
+    void onBackendChanged(@Nonnull ProxySession session, @Nullable BackendServer previous, @Nullable BackendServer next) {
+        if (previous != null) {
+            backendSet(previous.getName()).remove(session);
+        }
+        if (next != null) {
+            Set<ProxySession> set = backendSet(next.getName());
+            set.add(session);
+            // A switch may complete after the session was removed; do not resurrect it
+            if (!sessionsById.containsKey(session.getSessionId())) {
+                set.remove(session);
+            }
+        }
+    }
+
+    private Set<ProxySession> backendSet(String backendName) {
+        return sessionsByBackend.computeIfAbsent(backendName.toLowerCase(Locale.ROOT),
+            k -> ConcurrentHashMap.newKeySet());
+    }
+
     // ==================== Lookup ====================
 
     /**
@@ -151,6 +223,22 @@ public final class SessionManager {
         return Optional.ofNullable(sessionsByUuid.get(uuid));
     }
 
+    /**
+     * Finds a session by username.
+     *
+     * @param username the username (case-insensitive)
+     * @return the session, or empty if not found
+     */
+    @Nonnull
+    public Optional<ProxySession> findByUsername(@Nonnull String username) {
+        Objects.requireNonNull(username, "username");
+        return Optional.ofNullable(sessionsByName.get(nameKey(username)));
+    }
+
+    private static String nameKey(String username) {
+        return username.toLowerCase(Locale.ROOT);
+    }
+
     // Legacy methods for backward compatibility
 
     /**
@@ -186,7 +274,76 @@ public final class SessionManager {
      */
     @Nonnull
     public Collection<ProxySession> getAllSessions() {
-        return Collections.unmodifiableCollection(sessionsById.values());
+        return allSessionsView;
+    }
+
+    /**
+     * Returns an unmodifiable live view of the sessions with a registered player UUID.
+     *
+     * @return collection of identified sessions
+     */
+    @Nonnull
+    public Collection<ProxySession> getIdentifiedSessions() {
+        return identifiedSessionsView;
+    }
+
+    /**
+     * Returns the number of sessions with a registered player UUID.
+     *
+     * @return identified session count
+     */
+    public int getIdentifiedSessionCount() {
+        return sessionsByUuid.size();
+    }
+
+    /**
+     * Returns an unmodifiable live view of the sessions on, or connecting to, a backend.
+     *
+     * @param backendName the backend name (case-insensitive)
+     * @return the backend's sessions; empty if none
+     */
+    @Nonnull
+    public Collection<ProxySession> getSessionsOnBackend(@Nonnull String backendName) {
+        Objects.requireNonNull(backendName, "backendName");
+        Set<ProxySession> set = sessionsByBackend.get(backendName.toLowerCase(Locale.ROOT));
+        return set != null ? Collections.unmodifiableSet(set) : Collections.emptySet();
+    }
+
+    /**
+     * Returns an unmodifiable live view of the sessions on, or connecting to, a backend.
+     *
+     * @param backend the backend
+     * @return the backend's sessions; empty if none
+     */
+    @Nonnull
+    public Collection<ProxySession> getSessionsOnBackend(@Nonnull BackendServer backend) {
+        Objects.requireNonNull(backend, "backend");
+        return getSessionsOnBackend(backend.getName());
+    }
+
+    /**
+     * Returns the number of sessions on, or connecting to, a backend.
+     *
+     * @param backendName the backend name (case-insensitive)
+     * @return session count
+     */
+    public int getSessionCountOnBackend(@Nonnull String backendName) {
+        Objects.requireNonNull(backendName, "backendName");
+        Set<ProxySession> set = sessionsByBackend.get(backendName.toLowerCase(Locale.ROOT));
+        return set != null ? set.size() : 0;
+    }
+
+    /**
+     * Sums {@link ProxySession#getEstimatedFootprintBytes()} over all sessions.
+     *
+     * @return estimated bytes retained by all registered sessions
+     */
+    public long getEstimatedFootprintBytes() {
+        long total = 0;
+        for (ProxySession session : sessionsById.values()) {
+            total += session.getEstimatedFootprintBytes();
+        }
+        return total;
     }
 
     /**
@@ -230,6 +387,8 @@ public final class SessionManager {
         sessionsById.clear();
         sessionsByChannel.clear();
         sessionsByUuid.clear();
+        sessionsByName.clear();
+        sessionsByBackend.clear();
     }
 
     private void closeSessionSafely(ProxySession session) {
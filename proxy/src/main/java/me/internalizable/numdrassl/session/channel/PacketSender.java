@@ -4,6 +4,8 @@ import com.hypixel.hytale.protocol.Packet;
 import io.netty.buffer.ByteBuf;
 import io.netty.incubator.codec.quic.QuicStreamChannel;
 import io.netty.util.ReferenceCountUtil;
+import me.internalizable.numdrassl.memory.BufferCategory;
+import me.internalizable.numdrassl.memory.SessionMemory;
 import me.internalizable.numdrassl.profiling.ProxyMetrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -20,6 +22,10 @@ import java.util.Objects;
  * preventing race conditions and ensuring proper Netty channel handling.</p>
  *
  * <p>ByteBuf resources are properly released if sending fails.</p>
+ *
+ * <p>Raw batches reserve {@link BufferCategory#STREAM_OUTBOUND} memory from the
+ * session's {@link SessionMemory} until the QUIC stream has accepted them, so data
+ * piling up behind a slow peer counts against the session quota.</p>
  */
 public final class PacketSender {
 
@@ -27,10 +33,12 @@ public final class PacketSender {
 
     private final long sessionId;
     private final SessionChannels channels;
+    private final SessionMemory memory;
 
-    public PacketSender(long sessionId, @Nonnull SessionChannels channels) {
+    public PacketSender(long sessionId, @Nonnull SessionChannels channels, @Nonnull SessionMemory memory) {
         this.sessionId = sessionId;
         this.channels = Objects.requireNonNull(channels, "channels");
+        this.memory = Objects.requireNonNull(memory, "memory");
     }
 
     // ==================== Send to Client ====================
@@ -122,25 +130,12 @@ public final class PacketSender {
      * buffers are released on failure.</p>
      *
      * @param packets the batch of raw packets to send
+     * @return false if the session or proxy memory budget is exhausted and the
+     *         caller should pause reading from the source stream
      */
-    public void sendRawBatchToClient(@Nonnull List<ByteBuf> packets) {
+    public boolean sendRawBatchToClient(@Nonnull List<ByteBuf> packets) {
         Objects.requireNonNull(packets, "packets");
-        QuicStreamChannel stream = channels.clientStream();
-        if (stream == null || !stream.isActive()) {
-            releaseAll(packets);
-            return;
-        }
-        if (stream.eventLoop().inEventLoop()) {
-            writeBatchAndFlush(stream, packets);
-        } else {
-            stream.eventLoop().execute(() -> {
-                if (stream.isActive()) {
-                    writeBatchAndFlush(stream, packets);
-                } else {
-                    releaseAll(packets);
-                }
-            });
-        }
+        return sendRawBatch(channels.clientStream(), packets);
     }
 
     /**
@@ -148,36 +143,56 @@ public final class PacketSender {
      * all within a <b>single cross-event-loop task</b>.
      *
      * @param packets the batch of raw packets to send
+     * @return false if the caller should pause reading from the source stream
      * @see #sendRawBatchToClient(List) for design rationale
      */
-    public void sendRawBatchToBackend(@Nonnull List<ByteBuf> packets) {
+    public boolean sendRawBatchToBackend(@Nonnull List<ByteBuf> packets) {
         Objects.requireNonNull(packets, "packets");
-        QuicStreamChannel stream = channels.backendStream();
-        if (stream == null || !stream.isActive()) {
+        return sendRawBatch(channels.backendStream(), packets);
+    }
+
+    private boolean sendRawBatch(QuicStreamChannel stream, List<ByteBuf> packets) {
+        if (stream == null || !stream.isActive() || packets.isEmpty()) {
             releaseAll(packets);
-            return;
+            return true;
         }
+
+        long bytes = 0;
+        for (ByteBuf packet : packets) {
+            bytes += packet.readableBytes();
+        }
+        boolean withinBudget = memory.reserve(BufferCategory.STREAM_OUTBOUND, bytes);
+
         if (stream.eventLoop().inEventLoop()) {
-            writeBatchAndFlush(stream, packets);
+            writeBatchAndFlush(stream, packets, bytes);
         } else {
+            long reserved = bytes;
             stream.eventLoop().execute(() -> {
                 if (stream.isActive()) {
-                    writeBatchAndFlush(stream, packets);
+                    writeBatchAndFlush(stream, packets, reserved);
                 } else {
                     releaseAll(packets);
+                    memory.release(BufferCategory.STREAM_OUTBOUND, reserved);
                 }
             });
         }
+        return withinBudget;
     }
 
     /**
      * Writes all packets in the batch and flushes once at the end.
      * Must be called from the stream's event loop thread.
+     *
+     * <p>Writes complete in order, so the reservation for the whole batch is
+     * returned when the last write completes (or fails).</p>
      */
-    private void writeBatchAndFlush(QuicStreamChannel stream, List<ByteBuf> packets) {
-        for (ByteBuf packet : packets) {
-            stream.write(packet, stream.voidPromise());
+    private void writeBatchAndFlush(QuicStreamChannel stream, List<ByteBuf> packets, long reservedBytes) {
+        int last = packets.size() - 1;
+        for (int i = 0; i < last; i++) {
+            stream.write(packets.get(i), stream.voidPromise());
         }
+        stream.write(packets.get(last))
+            .addListener(future -> memory.release(BufferCategory.STREAM_OUTBOUND, reservedBytes));
         stream.flush();
     }
 
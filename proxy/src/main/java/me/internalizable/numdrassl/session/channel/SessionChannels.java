@@ -9,10 +9,10 @@ import org.slf4j.LoggerFactory;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
-import java.util.*;
-import java.util.concurrent.ConcurrentSkipListMap;
-import java.util.concurrent.CopyOnWriteArrayList;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 
 /**
  * Manages the QUIC channels and streams for a proxy session.
@@ -27,7 +27,10 @@ import java.util.concurrent.atomic.AtomicReference;
  * (Chunks and WorldMap data). Backend uni-streams are buffered until all expected
  * streams arrive, then client-side streams are created in order.</p>
  *
- * <p>All operations are thread-safe via atomic references and concurrent collections.</p>
+ * <p>Stream references are volatile fields swapped atomically on close. The uni-stream
+ * lists are tiny (two streams per backend connection) and rarely touched, so they are
+ * plain lists sized for that case and guarded by this object's monitor instead of
+ * concurrent collections.</p>
  */
 public final class SessionChannels {
 
@@ -36,18 +39,25 @@ public final class SessionChannels {
     /** Number of unidirectional streams the backend is expected to create (Chunks + WorldMap). */
     private static final int EXPECTED_UNI_STREAMS = 2;
 
+    private static final AtomicReferenceFieldUpdater<SessionChannels, QuicStreamChannel> CLIENT_STREAM =
+        AtomicReferenceFieldUpdater.newUpdater(SessionChannels.class, QuicStreamChannel.class, "clientStream");
+    private static final AtomicReferenceFieldUpdater<SessionChannels, QuicChannel> BACKEND_CHANNEL =
+        AtomicReferenceFieldUpdater.newUpdater(SessionChannels.class, QuicChannel.class, "backendChannel");
+    private static final AtomicReferenceFieldUpdater<SessionChannels, QuicStreamChannel> BACKEND_STREAM =
+        AtomicReferenceFieldUpdater.newUpdater(SessionChannels.class, QuicStreamChannel.class, "backendStream");
+
     private final long sessionId;
     private final QuicChannel clientChannel;
 
     // Bidirectional streams (primary)
-    private final AtomicReference<QuicStreamChannel> clientStream = new AtomicReference<>();
-    private final AtomicReference<QuicChannel> backendChannel = new AtomicReference<>();
-    private final AtomicReference<QuicStreamChannel> backendStream = new AtomicReference<>();
+    private volatile QuicStreamChannel clientStream;
+    private volatile QuicChannel backendChannel;
+    private volatile QuicStreamChannel backendStream;
 
-    // Unidirectional streams: backend stream ID -> (stream, forwarder)
-    private final ConcurrentSkipListMap<Long, UniStreamEntry> backendUniStreams = new ConcurrentSkipListMap<>();
+    // Unidirectional streams, guarded by this; allocated when the first one arrives
+    private List<UniStreamEntry> backendUniStreams;
     // Client uni-streams in creation order (matching sorted backend stream IDs)
-    private final CopyOnWriteArrayList<QuicStreamChannel> clientUniStreams = new CopyOnWriteArrayList<>();
+    private List<QuicStreamChannel> clientUniStreams;
 
     public SessionChannels(long sessionId, @Nonnull QuicChannel clientChannel) {
         this.sessionId = sessionId;
@@ -57,7 +67,7 @@ public final class SessionChannels {
     /**
      * Entry tracking a backend unidirectional stream and its forwarder.
      */
-    public record UniStreamEntry(QuicStreamChannel stream, UniStreamForwarder forwarder) {
+    public record UniStreamEntry(long streamId, QuicStreamChannel stream, UniStreamForwarder forwarder) {
     }
 
     // ==================== Client Side ====================
@@ -69,11 +79,11 @@ public final class SessionChannels {
 
     @Nullable
     public QuicStreamChannel clientStream() {
-        return clientStream.get();
+        return clientStream;
     }
 
     public void setClientStream(@Nullable QuicStreamChannel stream) {
-        clientStream.set(stream);
+        clientStream = stream;
     }
 
     public boolean isClientActive() {
@@ -81,7 +91,7 @@ public final class SessionChannels {
     }
 
     public boolean isClientStreamActive() {
-        QuicStreamChannel stream = clientStream.get();
+        QuicStreamChannel stream = clientStream;
         return stream != null && stream.isActive();
     }
 
@@ -89,29 +99,29 @@ public final class SessionChannels {
 
     @Nullable
     public QuicChannel backendChannel() {
-        return backendChannel.get();
+        return backendChannel;
     }
 
     public void setBackendChannel(@Nullable QuicChannel channel) {
-        backendChannel.set(channel);
+        backendChannel = channel;
     }
 
     @Nullable
     public QuicStreamChannel backendStream() {
-        return backendStream.get();
+        return backendStream;
     }
 
     public void setBackendStream(@Nullable QuicStreamChannel stream) {
-        backendStream.set(stream);
+        backendStream = stream;
     }
 
     public boolean isBackendActive() {
-        QuicChannel channel = backendChannel.get();
+        QuicChannel channel = backendChannel;
         return channel != null && channel.isActive();
     }
 
     public boolean isBackendStreamActive() {
-        QuicStreamChannel stream = backendStream.get();
+        QuicStreamChannel stream = backendStream;
         return stream != null && stream.isActive();
     }
 
@@ -123,31 +133,47 @@ public final class SessionChannels {
      * @return true if all expected uni-streams have arrived
      */
     public boolean addBackendUniStream(long streamId, QuicStreamChannel stream, UniStreamForwarder forwarder) {
-        backendUniStreams.put(streamId, new UniStreamEntry(stream, forwarder));
+        int count;
+        synchronized (this) {
+            if (backendUniStreams == null) {
+                backendUniStreams = new ArrayList<>(EXPECTED_UNI_STREAMS);
+            }
+            backendUniStreams.removeIf(entry -> entry.streamId() == streamId);
+            backendUniStreams.add(new UniStreamEntry(streamId, stream, forwarder));
+            count = backendUniStreams.size();
+        }
         LOGGER.debug("Session {}: Registered backend uni-stream {} ({}/{})",
-                sessionId, streamId, backendUniStreams.size(), EXPECTED_UNI_STREAMS);
-        return backendUniStreams.size() >= EXPECTED_UNI_STREAMS;
+                sessionId, streamId, count, EXPECTED_UNI_STREAMS);
+        return count >= EXPECTED_UNI_STREAMS;
     }
 
     /**
      * Returns true if all expected unidirectional streams have been received.
      */
-    public boolean areAllUniStreamsReady() {
-        return backendUniStreams.size() >= EXPECTED_UNI_STREAMS;
+    public synchronized boolean areAllUniStreamsReady() {
+        return backendUniStreams != null && backendUniStreams.size() >= EXPECTED_UNI_STREAMS;
     }
 
     /**
      * Returns the backend uni-stream entries sorted by ascending stream ID.
      * This ensures creation order is preserved when creating client-side streams.
      */
-    public List<UniStreamEntry> getSortedBackendUniStreams() {
-        return new ArrayList<>(backendUniStreams.values());
+    public synchronized List<UniStreamEntry> getSortedBackendUniStreams() {
+        if (backendUniStreams == null) {
+            return new ArrayList<>(0);
+        }
+        List<UniStreamEntry> sorted = new ArrayList<>(backendUniStreams);
+        sorted.sort(Comparator.comparingLong(UniStreamEntry::streamId));
+        return sorted;
     }
 
     /**
      * Adds a client-side unidirectional stream (created in order).
      */
-    public void addClientUniStream(QuicStreamChannel stream) {
+    public synchronized void addClientUniStream(QuicStreamChannel stream) {
+        if (clientUniStreams == null) {
+            clientUniStreams = new ArrayList<>(EXPECTED_UNI_STREAMS);
+        }
         clientUniStreams.add(stream);
     }
 
@@ -166,28 +192,68 @@ public final class SessionChannels {
      * Used during server transfers.
      */
     public void closeBackend() {
-        QuicStreamChannel bs = backendStream.getAndSet(null);
-        if (bs != null && bs.isActive()) {
-            bs.flush();
-            bs.close();
+        closeBackendStream(BACKEND_STREAM.getAndSet(this, null));
+
+        List<UniStreamEntry> uniStreams;
+        synchronized (this) {
+            uniStreams = backendUniStreams;
+            backendUniStreams = null;
+        }
+        closeBackendUniStreams(uniStreams);
+
+        closeBackendChannel(BACKEND_CHANNEL.getAndSet(this, null));
+    }
+
+    /**
+     * Replaces the backend connection with one that has already completed its handshake,
+     * then closes the previous one. Used for in-proxy server switches.
+     *
+     * <p>The new stream is published before the old one is closed, so client packets are
+     * never routed to a closed stream. The previous backend's uni-streams and their client
+     * counterparts are closed; the new backend's uni-streams are registered separately.</p>
+     */
+    public void replaceBackend(@Nonnull QuicChannel channel, @Nonnull QuicStreamChannel stream) {
+        QuicChannel oldChannel = BACKEND_CHANNEL.getAndSet(this, channel);
+        QuicStreamChannel oldStream = BACKEND_STREAM.getAndSet(this, stream);
+
+        List<UniStreamEntry> oldBackendUni;
+        List<QuicStreamChannel> oldClientUni;
+        synchronized (this) {
+            oldBackendUni = backendUniStreams;
+            oldClientUni = clientUniStreams;
+            backendUniStreams = null;
+            clientUniStreams = null;
+        }
+
+        closeBackendStream(oldStream);
+        closeBackendUniStreams(oldBackendUni);
+        closeClientUniStreams(oldClientUni);
+        closeBackendChannel(oldChannel);
+    }
+
+    private void closeBackendStream(@Nullable QuicStreamChannel stream) {
+        if (stream != null && stream.isActive()) {
+            stream.flush();
+            stream.close();
             LOGGER.debug("Session {}: Closed backend stream", sessionId);
         }
+    }
 
-        // Close backend unidirectional streams
-        for (var entry : backendUniStreams.values()) {
-            if (entry.stream().isActive()) {
-                entry.stream().close();
+    private void closeBackendUniStreams(@Nullable List<UniStreamEntry> uniStreams) {
+        if (uniStreams != null && !uniStreams.isEmpty()) {
+            for (var entry : uniStreams) {
+                if (entry.stream().isActive()) {
+                    entry.stream().close();
+                }
             }
+            LOGGER.debug("Session {}: Closed {} backend uni-streams", sessionId, uniStreams.size());
         }
-        if (!backendUniStreams.isEmpty()) {
-            LOGGER.debug("Session {}: Closed {} backend uni-streams", sessionId, backendUniStreams.size());
-            backendUniStreams.clear();
-        }
+    }
 
-        QuicChannel bc = backendChannel.getAndSet(null);
-        if (bc != null && bc.isActive()) {
-            bc.flush();
-            bc.close();
+    private void closeBackendChannel(@Nullable QuicChannel channel) {
+        if (channel != null && channel.isActive()) {
+            channel.flush();
+            channel.close();
             LOGGER.debug("Session {}: Closed backend channel", sessionId);
         }
     }
@@ -196,23 +262,19 @@ public final class SessionChannels {
      * Closes the client connection.
      */
     public void closeClient() {
-        QuicStreamChannel cs = clientStream.getAndSet(null);
+        QuicStreamChannel cs = CLIENT_STREAM.getAndSet(this, null);
         if (cs != null && cs.isActive()) {
             cs.flush();
             cs.close();
             LOGGER.debug("Session {}: Closed client stream", sessionId);
         }
 
-        // Close client unidirectional streams
-        for (var stream : clientUniStreams) {
-            if (stream.isActive()) {
-                stream.close();
-            }
-        }
-        if (!clientUniStreams.isEmpty()) {
-            LOGGER.debug("Session {}: Closed {} client uni-streams", sessionId, clientUniStreams.size());
-            clientUniStreams.clear();
+        List<QuicStreamChannel> uniStreams;
+        synchronized (this) {
+            uniStreams = clientUniStreams;
+            clientUniStreams = null;
         }
+        closeClientUniStreams(uniStreams);
 
         if (clientChannel.isActive()) {
             clientChannel.flush();
@@ -220,5 +282,16 @@ public final class SessionChannels {
             LOGGER.debug("Session {}: Closed client channel", sessionId);
         }
     }
+
+    private void closeClientUniStreams(@Nullable List<QuicStreamChannel> uniStreams) {
+        if (uniStreams != null && !uniStreams.isEmpty()) {
+            for (var stream : uniStreams) {
+                if (stream.isActive()) {
+                    stream.close();
+                }
+            }
+            LOGGER.debug("Session {}: Closed {} client uni-streams", sessionId, uniStreams.size());
+        }
+    }
 }
 
@@ -0,0 +1,267 @@
+package me.internalizable.numdrassl.auth.http;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import me.internalizable.numdrassl.profiling.ProxyMetrics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SessionServiceClientTest {
+
+    private static final long WAIT_SECONDS = 5;
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private final ConcurrentLinkedQueue<HttpExchange> requests = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger status = new AtomicInteger(200);
+    private volatile String body = "{\"ok\":true}";
+    private volatile CountDownLatch hold = new CountDownLatch(0);
+
+    @BeforeAll
+    static void initMetrics() {
+        ProxyMetrics.getInstance();
+    }
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        serverExecutor = Executors.newCachedThreadPool();
+        server.setExecutor(serverExecutor);
+        server.createContext("/", exchange -> {
+            requests.add(exchange);
+            try {
+                hold.await(WAIT_SECONDS, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            try (exchange; OutputStream out = exchange.getResponseBody()) {
+                exchange.sendResponseHeaders(status.get(), bytes.length);
+                out.write(bytes);
+            } catch (IOException ignored) {
+                // Client gave up
+            }
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void stopServer() {
+        hold.countDown();
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    private String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/";
+    }
+
+    private SessionServiceClient client(int maxConcurrent, int maxQueued, Duration timeout) {
+        return client(baseUrl(), maxConcurrent, maxQueued, timeout);
+    }
+
+    private static SessionServiceClient client(String baseUrl, int maxConcurrent, int maxQueued, Duration timeout) {
+        SessionServiceClient.Settings settings = new SessionServiceClient.Settings(
+            baseUrl, maxConcurrent, maxQueued, timeout, Duration.ofSeconds(30), 100);
+        return new SessionServiceClient(HttpClient.newHttpClient(), settings);
+    }
+
+    private static CompletableFuture<HttpResponse<String>> post(SessionServiceClient client, String path) {
+        return client.send("test", client.newRequest(path).POST(HttpRequest.BodyPublishers.ofString("{}")).build());
+    }
+
+    private static Throwable failure(CompletableFuture<?> future) {
+        ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(WAIT_SECONDS, TimeUnit.SECONDS));
+        return e.getCause();
+    }
+
+    // ==================== Responses ====================
+
+    @Test
+    void sendsJsonRequestsToTheBaseUrl() throws Exception {
+        SessionServiceClient client = client(4, 4, Duration.ofSeconds(2));
+
+        HttpResponse<String> response = post(client, "/server-join/auth-grant").get(WAIT_SECONDS, TimeUnit.SECONDS);
+        assertEquals(200, response.statusCode());
+        assertEquals("{\"ok\":true}", response.body());
+
+        HttpExchange exchange = requests.poll();
+        assertEquals("/server-join/auth-grant", exchange.getRequestURI().getPath());
+        assertEquals("application/json", exchange.getRequestHeaders().getFirst("Content-Type"));
+        assertEquals(HytaleEndpoints.USER_AGENT, exchange.getRequestHeaders().getFirst("User-Agent"));
+        assertEquals(0, client.getInFlight());
+    }
+
+    @Test
+    void passesErrorStatusesToTheCaller() throws Exception {
+        SessionServiceClient client = client(4, 4, Duration.ofSeconds(2));
+
+        for (int code : new int[]{400, 401, 404, 429, 500, 503}) {
+            status.set(code);
+            body = "{\"error\":" + code + "}";
+            HttpResponse<String> response = post(client, "/server-join/auth-token").get(WAIT_SECONDS, TimeUnit.SECONDS);
+            assertEquals(code, response.statusCode());
+            assertEquals(body, response.body());
+        }
+        // The status is the caller's to interpret; none of these count as failures
+        assertEquals(0, client.getFailedCount());
+        assertEquals(0, client.getTimedOutCount());
+    }
+
+    @Test
+    void failsWhenTheServiceIsUnreachable() throws Exception {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            port = socket.getLocalPort();
+        }
+        SessionServiceClient client = client("http://127.0.0.1:" + port, 4, 4, Duration.ofSeconds(2));
+
+        assertInstanceOf(IOException.class, failure(post(client, "/server-join/auth-grant")));
+        assertEquals(1, client.getFailedCount());
+        assertEquals(0, client.getInFlight());
+    }
+
+    // ==================== Timeouts ====================
+
+    @Test
+    void timesOutSlowAnswers() {
+        hold = new CountDownLatch(1);
+        SessionServiceClient client = client(4, 4, Duration.ofMillis(300));
+
+        assertInstanceOf(TimeoutException.class, failure(post(client, "/server-join/auth-grant")));
+        assertEquals(1, client.getTimedOutCount());
+        assertEquals(0, client.getInFlight());
+    }
+
+    @Test
+    void expiresRequestsThatWaitedTooLongForASlot() throws Exception {
+        hold = new CountDownLatch(1);
+        SessionServiceClient client = client(1, 4, Duration.ofMillis(300));
+
+        // The first call holds the only slot for longer than the queue timeout
+        HttpRequest slow = client.newRequest("/first").timeout(Duration.ofSeconds(WAIT_SECONDS)).GET().build();
+        CompletableFuture<HttpResponse<String>> first = client.send("test", slow);
+        CompletableFuture<HttpResponse<String>> second = post(client, "/second");
+        assertEquals(1, client.getQueued());
+
+        Thread.sleep(600);
+        hold.countDown();
+
+        assertEquals(200, first.get(WAIT_SECONDS, TimeUnit.SECONDS).statusCode());
+        assertInstanceOf(TimeoutException.class, failure(second));
+        assertEquals(1, client.getTimedOutCount());
+
+        // The expired request was never sent
+        List<String> paths = new ArrayList<>();
+        requests.forEach(exchange -> paths.add(exchange.getRequestURI().getPath()));
+        assertEquals(List.of("/first"), paths);
+    }
+
+    // ==================== Limits ====================
+
+    @Test
+    void queuesBeyondMaxConcurrentAndRefusesBeyondMaxQueued() throws Exception {
+        hold = new CountDownLatch(1);
+        SessionServiceClient client = client(1, 1, Duration.ofSeconds(2));
+
+        CompletableFuture<HttpResponse<String>> first = post(client, "/first");
+        CompletableFuture<HttpResponse<String>> second = post(client, "/second");
+        CompletableFuture<HttpResponse<String>> third = post(client, "/third");
+
+        assertInstanceOf(RejectedExecutionException.class, failure(third));
+        assertEquals(1, client.getRejectedCount());
+        assertEquals(1, client.getInFlight());
+        assertEquals(1, client.getQueued());
+
+        hold.countDown();
+        assertEquals(200, first.get(WAIT_SECONDS, TimeUnit.SECONDS).statusCode());
+        assertEquals(200, second.get(WAIT_SECONDS, TimeUnit.SECONDS).statusCode());
+        assertEquals(0, client.getInFlight());
+        assertEquals(0, client.getQueued());
+    }
+
+    // ==================== Retries ====================
+
+    @Test
+    void retryAfterAFailureCallsTheServiceAgain() throws Exception {
+        SessionServiceClient client = client(4, 4, Duration.ofSeconds(2));
+        String key = SessionServiceCache.key("auth_token", "session", "grant");
+
+        status.set(503);
+        String first = client.getCache().<String>load(key, null, true, () -> post(client, "/server-join/auth-token")
+            .thenApply(res -> res.statusCode() == 200 ? res.body() : null)).get(WAIT_SECONDS, TimeUnit.SECONDS);
+        assertNull(first);
+
+        status.set(200);
+        String retried = client.getCache().<String>load(key, null, true, () -> post(client, "/server-join/auth-token")
+            .thenApply(res -> res.statusCode() == 200 ? res.body() : null)).get(WAIT_SECONDS, TimeUnit.SECONDS);
+        assertEquals("{\"ok\":true}", retried);
+        assertEquals(2, requests.size());
+    }
+
+    @Test
+    void retryOfACacheableCallReusesTheAnswer() throws Exception {
+        SessionServiceClient client = client(4, 4, Duration.ofSeconds(2));
+        String key = SessionServiceCache.key("auth_token", "session", "grant");
+
+        for (int i = 0; i < 3; i++) {
+            String token = client.getCache().<String>load(key, null, true, () -> post(client, "/server-join/auth-token")
+                .thenApply(HttpResponse::body)).get(WAIT_SECONDS, TimeUnit.SECONDS);
+            assertEquals("{\"ok\":true}", token);
+        }
+        assertEquals(1, requests.size());
+    }
+
+    @Test
+    void concurrentRetriesShareOneCall() throws Exception {
+        hold = new CountDownLatch(1);
+        SessionServiceClient client = client(4, 4, Duration.ofSeconds(2));
+        String key = SessionServiceCache.key("auth_grant", "session", "identity");
+
+        List<CompletableFuture<String>> calls = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            calls.add(client.getCache().<String>load(key, null, false, () -> post(client, "/server-join/auth-grant")
+                .thenApply(HttpResponse::body)));
+        }
+        hold.countDown();
+        for (CompletableFuture<String> call : calls) {
+            assertEquals("{\"ok\":true}", call.get(WAIT_SECONDS, TimeUnit.SECONDS));
+        }
+        assertEquals(1, requests.size());
+
+        // Grants are not kept once the call is done
+        client.getCache().<String>load(key, null, false, () -> post(client, "/server-join/auth-grant")
+            .thenApply(HttpResponse::body)).get(WAIT_SECONDS, TimeUnit.SECONDS);
+        assertEquals(2, requests.size());
+    }
+}
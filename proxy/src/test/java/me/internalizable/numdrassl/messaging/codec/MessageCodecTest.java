@@ -0,0 +1,147 @@
+package me.internalizable.numdrassl.messaging.codec;
+
+import me.internalizable.numdrassl.api.messaging.ChannelMessage;
+import me.internalizable.numdrassl.api.messaging.message.BroadcastMessage;
+import me.internalizable.numdrassl.api.messaging.message.ChatMessage;
+import me.internalizable.numdrassl.api.messaging.message.HeartbeatMessage;
+import me.internalizable.numdrassl.api.messaging.message.PlayerCountMessage;
+import me.internalizable.numdrassl.api.messaging.message.PluginMessage;
+import me.internalizable.numdrassl.api.messaging.message.TransferMessage;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MessageCodecTest {
+
+    // The binary format keeps millisecond timestamps
+    private static final Instant NOW = Instant.ofEpochMilli(1_700_000_000_123L);
+    private static final UUID PLAYER = UUID.fromString("3f1c2a7e-5b6d-4c8e-9a0b-1d2e3f4a5b6c");
+
+    private static List<ChannelMessage> messages() {
+        return List.of(
+                new HeartbeatMessage("proxy-1", NOW, "eu-west", "10.0.0.1", 24322, 42, 3_600_000L, false),
+                new PlayerCountMessage("proxy-1", NOW, 42, 500),
+                new ChatMessage("proxy-1", NOW, PLAYER, "Steve", "hello ✓", "Alex", null),
+                new ChatMessage("proxy-1", NOW, null, null, "to everyone", "Server", null),
+                new TransferMessage("proxy-1", NOW, PLAYER, "Steve", "proxy-2", "lobby", null),
+                new PluginMessage("proxy-1", NOW, "economy", "balance", "{\"player\":\"Steve\",\"amount\":12.5}"),
+                new BroadcastMessage("proxy-1", NOW, "announcement", "Restart in 5 minutes"));
+    }
+
+    // ==================== Single Messages ====================
+
+    @Test
+    void roundTripsBuiltInTypesInBinary() {
+        MessageCodec codec = new MessageCodec(true, 0);
+        for (ChannelMessage message : messages()) {
+            byte[] encoded = codec.encodeBytes(message);
+            assertEquals(BinaryMessageCodec.MAGIC, encoded[0] & 0xFF, message.messageType());
+            assertEquals(message, codec.decode(encoded));
+        }
+    }
+
+    @Test
+    void roundTripsBuiltInTypesInJson() {
+        MessageCodec codec = new MessageCodec(false, 0);
+        for (ChannelMessage message : messages()) {
+            byte[] encoded = codec.encodeBytes(message);
+            assertEquals('{', encoded[0], message.messageType());
+            assertEquals(message, codec.decode(encoded));
+        }
+    }
+
+    @Test
+    void readsBothFormatsWhateverItSends() {
+        MessageCodec binary = new MessageCodec(true, 0);
+        MessageCodec json = new MessageCodec(false, 0);
+        for (ChannelMessage message : messages()) {
+            assertEquals(message, binary.decode(json.encodeBytes(message)));
+            assertEquals(message, json.decode(binary.encodeBytes(message)));
+        }
+    }
+
+    @Test
+    void compressesLargeBodies() {
+        MessageCodec codec = new MessageCodec(true, 256);
+        String payload = "{\"entries\":[" + "{\"key\":\"value\"},".repeat(500) + "{}]}";
+        PluginMessage message = new PluginMessage("proxy-1", NOW, "sync", "state", payload);
+
+        byte[] encoded = codec.encodeBytes(message);
+        assertTrue(encoded.length < payload.length() / 4, "encoded " + encoded.length + " bytes");
+        assertEquals(message, codec.decode(encoded));
+    }
+
+    @Test
+    void rejectsCorruptBinaryMessages() {
+        MessageCodec codec = new MessageCodec(true, 0);
+        byte[] encoded = codec.encodeBytes(messages().get(0));
+        assertNull(codec.decode(Arrays.copyOf(encoded, encoded.length / 2)));
+    }
+
+    // ==================== Batch Frames ====================
+
+    @Test
+    void unpacksBatchFrames() {
+        MessageCodec codec = new MessageCodec(true, 0);
+        List<ChannelMessage> messages = messages();
+        List<byte[]> encoded = new ArrayList<>();
+        for (ChannelMessage message : messages) {
+            encoded.add(codec.encodeBytes(message));
+        }
+
+        byte[] frame = codec.encodeBatch(encoded);
+        assertEquals(BinaryMessageCodec.BATCH_MAGIC, frame[0] & 0xFF);
+
+        List<byte[]> unpacked = codec.unpack(frame);
+        assertEquals(encoded.size(), unpacked.size());
+        for (int i = 0; i < encoded.size(); i++) {
+            assertArrayEquals(encoded.get(i), unpacked.get(i));
+            assertEquals(messages.get(i), codec.decode(unpacked.get(i)));
+        }
+    }
+
+    @Test
+    void batchFramesCarryJsonEntries() {
+        MessageCodec codec = new MessageCodec(false, 0);
+        List<byte[]> encoded = List.of(
+                codec.encodeBytes(messages().get(1)),
+                codec.encodeBytes(messages().get(6)));
+
+        List<byte[]> unpacked = codec.unpack(codec.encodeBatch(encoded));
+        assertEquals(messages().get(1), codec.decode(unpacked.get(0)));
+        assertEquals(messages().get(6), codec.decode(unpacked.get(1)));
+    }
+
+    @Test
+    void unpacksSingleMessagesAsThemselves() {
+        MessageCodec codec = new MessageCodec(true, 0);
+        byte[] binary = codec.encodeBytes(messages().get(0));
+        byte[] json = "{\"messageType\":\"broadcast\"}".getBytes(StandardCharsets.UTF_8);
+
+        assertEquals(1, codec.unpack(binary).size());
+        assertSame(binary, codec.unpack(binary).get(0));
+        assertSame(json, codec.unpack(json).get(0));
+    }
+
+    @Test
+    void dropsMalformedBatchFrames() {
+        MessageCodec codec = new MessageCodec(true, 0);
+        byte[] frame = codec.encodeBatch(List.of(
+                codec.encodeBytes(messages().get(0)),
+                codec.encodeBytes(messages().get(1))));
+
+        assertEquals(List.of(), codec.unpack(Arrays.copyOf(frame, frame.length - 3)));
+        assertEquals(List.of(), codec.unpack(Arrays.copyOf(frame, 1)));
+    }
+}
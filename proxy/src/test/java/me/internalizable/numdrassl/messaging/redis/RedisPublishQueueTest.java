@@ -0,0 +1,485 @@
+package me.internalizable.numdrassl.messaging.redis;
+
+import me.internalizable.numdrassl.api.messaging.ChannelMessage;
+import me.internalizable.numdrassl.api.messaging.message.BroadcastMessage;
+import me.internalizable.numdrassl.config.ProxyConfig;
+import me.internalizable.numdrassl.messaging.codec.MessageCodec;
+import me.internalizable.numdrassl.profiling.ProxyMetrics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RedisPublishQueueTest {
+
+    private static final long WAIT_SECONDS = 5;
+
+    @TempDir
+    Path tempDir;
+
+    private RedisPublishQueue queue;
+    private FakeSink sink;
+
+    @BeforeAll
+    static void initMetrics() {
+        // The registry is slow to build; keep that off the publisher thread
+        ProxyMetrics.getInstance();
+    }
+
+    @AfterEach
+    void shutdownQueue() {
+        if (sink != null) {
+            sink.release();
+        }
+        if (queue != null) {
+            queue.shutdown();
+        }
+    }
+
+    // ==================== Batching ====================
+
+    @Test
+    void sendsFullBatchesWithOneFlushEach() throws Exception {
+        MessageCodec codec = new MessageCodec(true, 0);
+        start(codec, """
+                clusterPublishBatchSize: 10
+                clusterPublishLingerMillis: 200
+                """);
+
+        List<CompletableFuture<Long>> futures = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            futures.add(queue.publish("numdrassl:broadcast", encode(codec, "p", i)));
+        }
+        awaitAll(futures);
+        queue.shutdown();
+
+        List<List<FakeSink.Command>> flushes = sink.flushes();
+        assertEquals(3, flushes.size());
+        assertEquals(List.of(10, 10, 5), flushes.stream().map(f -> codec.unpack(f.get(0).data()).size()).toList());
+        for (List<FakeSink.Command> flush : flushes) {
+            assertEquals(1, flush.size(), "one frame per channel and batch");
+        }
+        assertEquals(3, queue.getBatches());
+        assertEquals(3, queue.getCommands());
+        assertEquals(25, queue.getPublished());
+        assertEquals(0, queue.getPending());
+    }
+
+    @Test
+    void publishesEachMessageWithoutBinaryFormat() throws Exception {
+        MessageCodec codec = new MessageCodec(false, 0);
+        start(codec, """
+                clusterBinaryMessages: false
+                clusterPublishBatchSize: 10
+                clusterPublishLingerMillis: 200
+                """);
+
+        List<CompletableFuture<Long>> futures = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            futures.add(queue.publish("numdrassl:broadcast", encode(codec, "p", i)));
+        }
+        awaitAll(futures);
+        queue.shutdown();
+
+        List<List<FakeSink.Command>> flushes = sink.flushes();
+        assertEquals(List.of(10, 10, 5), flushes.stream().map(List::size).toList());
+        assertEquals(3, queue.getBatches());
+        assertEquals(25, queue.getCommands());
+        assertEquals(25, queue.getPublished());
+    }
+
+    @Test
+    void splitsBatchByChannel() throws Exception {
+        MessageCodec codec = new MessageCodec(true, 0);
+        start(codec, """
+                clusterPublishBatchSize: 6
+                clusterPublishLingerMillis: 200
+                """);
+
+        List<CompletableFuture<Long>> futures = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            futures.add(queue.publish(i % 2 == 0 ? "a" : "b", encode(codec, "p", i)));
+        }
+        awaitAll(futures);
+
+        List<List<FakeSink.Command>> flushes = sink.flushes();
+        assertEquals(1, flushes.size());
+        assertEquals(List.of("a", "b"), flushes.get(0).stream().map(FakeSink.Command::channel).toList());
+        assertEquals(List.of(0, 2, 4), sequences(codec, flushes.get(0).get(0).data()));
+        assertEquals(List.of(1, 3, 5), sequences(codec, flushes.get(0).get(1).data()));
+    }
+
+    // ==================== Ordering ====================
+
+    @Test
+    void keepsOrderWithinEachChannel() throws Exception {
+        MessageCodec codec = new MessageCodec(true, 0);
+        start(codec, """
+                clusterPublishBatchSize: 16
+                clusterPublishLingerMillis: 1
+                """);
+
+        String[] channels = {"numdrassl:chat", "numdrassl:plugin", "numdrassl:broadcast"};
+        int producers = 4;
+        int perProducer = 600;
+        ExecutorService executor = Executors.newFixedThreadPool(producers);
+        try {
+            List<Future<List<CompletableFuture<Long>>>> parts = new ArrayList<>();
+            for (int p = 0; p < producers; p++) {
+                String producer = "p" + p;
+                parts.add(executor.submit(() -> {
+                    List<CompletableFuture<Long>> futures = new ArrayList<>();
+                    for (int i = 0; i < perProducer; i++) {
+                        futures.add(queue.publish(channels[i % channels.length], encode(codec, producer, i)));
+                    }
+                    return futures;
+                }));
+            }
+            List<CompletableFuture<Long>> futures = new ArrayList<>();
+            for (Future<List<CompletableFuture<Long>>> part : parts) {
+                futures.addAll(part.get(WAIT_SECONDS, TimeUnit.SECONDS));
+            }
+            awaitAll(futures);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Per channel, each producer's sequence numbers must arrive in increasing order
+        int received = 0;
+        for (String channel : channels) {
+            Map<String, Integer> last = new HashMap<>();
+            for (List<FakeSink.Command> flush : sink.flushes()) {
+                for (FakeSink.Command command : flush) {
+                    if (!command.channel().equals(channel)) {
+                        continue;
+                    }
+                    for (byte[] entry : codec.unpack(command.data())) {
+                        BroadcastMessage message = (BroadcastMessage) codec.decode(entry);
+                        assertNotNull(message);
+                        int sequence = Integer.parseInt(message.content());
+                        Integer previous = last.put(message.broadcastType(), sequence);
+                        assertTrue(previous == null || previous < sequence,
+                                channel + ": " + message.broadcastType() + " sent " + sequence + " after " + previous);
+                        assertEquals(channel, channels[sequence % channels.length]);
+                        received++;
+                    }
+                }
+            }
+        }
+        assertEquals(producers * perProducer, received);
+    }
+
+    // ==================== Overflow ====================
+
+    @Test
+    void rejectsNewMessagesWhenFull() throws Exception {
+        MessageCodec codec = new MessageCodec(true, 0);
+        start(codec, """
+                clusterPublishQueueSize: 10
+                clusterPublishLingerMillis: 0
+                clusterPublishOverflowPolicy: reject
+                """);
+        sink.block();
+
+        List<CompletableFuture<Long>> futures = fillPastCapacity(codec);
+
+        // Message 0 is in flight, 1-9 are queued, 10-12 do not fit
+        for (int i = 0; i < 10; i++) {
+            assertFalse(futures.get(i).isDone(), "message " + i);
+        }
+        for (int i = 10; i < 13; i++) {
+            assertRejected(futures.get(i));
+        }
+        assertEquals(3, queue.getDropped());
+        assertEquals(10, queue.getPending());
+
+        sink.release();
+        awaitAll(futures.subList(0, 10));
+        queue.shutdown();
+        assertEquals(10, queue.getPublished());
+        assertEquals(0, queue.getPending());
+    }
+
+    @Test
+    void dropsOldestQueuedMessagesWhenFull() throws Exception {
+        MessageCodec codec = new MessageCodec(true, 0);
+        start(codec, """
+                clusterPublishQueueSize: 10
+                clusterPublishLingerMillis: 0
+                clusterPublishOverflowPolicy: drop-oldest
+                """);
+        sink.block();
+
+        List<CompletableFuture<Long>> futures = fillPastCapacity(codec);
+
+        // Message 0 is in flight and cannot be recalled; 1-3 make room for 10-12
+        for (int i = 1; i < 4; i++) {
+            assertRejected(futures.get(i));
+        }
+        List<CompletableFuture<Long>> kept = new ArrayList<>(futures);
+        kept.subList(1, 4).clear();
+        for (CompletableFuture<Long> future : kept) {
+            assertFalse(future.isDone());
+        }
+        assertEquals(3, queue.getDropped());
+        assertEquals(10, queue.getPending());
+
+        sink.release();
+        awaitAll(kept);
+        queue.shutdown();
+        assertEquals(10, queue.getPublished());
+    }
+
+    @Test
+    void rejectsWhenOnlyUnacknowledgedMessagesFillTheQueue() throws Exception {
+        MessageCodec codec = new MessageCodec(false, 0);
+        start(codec, """
+                clusterBinaryMessages: false
+                clusterPublishQueueSize: 4
+                clusterPublishLingerMillis: 0
+                clusterPublishOverflowPolicy: drop-oldest
+                """);
+        sink.holdAcknowledgements();
+
+        List<CompletableFuture<Long>> futures = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            futures.add(queue.publish("ch", encode(codec, "p", i)));
+        }
+        awaitSent(4);
+
+        // Everything was sent; nothing queued is left to drop for the newcomer
+        CompletableFuture<Long> overflow = queue.publish("ch", encode(codec, "p", 4));
+        assertRejected(overflow);
+        for (CompletableFuture<Long> future : futures) {
+            assertFalse(future.isDone());
+        }
+
+        sink.acknowledgeAll();
+        awaitAll(futures);
+        assertEquals(0, queue.getPending());
+    }
+
+    // ==================== Shutdown ====================
+
+    @Test
+    void shutdownSendsQueuedMessages() throws Exception {
+        MessageCodec codec = new MessageCodec(true, 0);
+        start(codec, """
+                clusterPublishBatchSize: 4
+                clusterPublishLingerMillis: 0
+                """);
+        sink.block();
+
+        List<CompletableFuture<Long>> futures = new ArrayList<>();
+        futures.add(queue.publish("ch", encode(codec, "p", 0)));
+        assertTrue(sink.awaitFlush(), "publisher did not flush");
+        for (int i = 1; i < 10; i++) {
+            futures.add(queue.publish("ch", encode(codec, "p", i)));
+        }
+
+        Thread shutdown = new Thread(queue::shutdown);
+        shutdown.start();
+        Thread.sleep(100);
+        sink.release();
+        shutdown.join(TimeUnit.SECONDS.toMillis(WAIT_SECONDS));
+        assertFalse(shutdown.isAlive(), "shutdown did not return");
+
+        for (CompletableFuture<Long> future : futures) {
+            assertEquals(1L, future.getNow(null));
+        }
+        assertEquals(10, queue.getPublished());
+        assertEquals(0, queue.getFailed());
+
+        List<Integer> sent = new ArrayList<>();
+        for (List<FakeSink.Command> flush : sink.flushes()) {
+            for (FakeSink.Command command : flush) {
+                sent.addAll(sequences(codec, command.data()));
+            }
+        }
+        assertEquals(List.of(0, 1, 2, 3, 4, 5, 6, 7, 8, 9), sent);
+
+        ExecutionException closed = assertThrows(ExecutionException.class,
+                () -> queue.publish("ch", encode(codec, "p", 10)).get());
+        assertInstanceOf(IllegalStateException.class, closed.getCause());
+    }
+
+    // ==================== Helpers ====================
+
+    private void start(MessageCodec codec, String yaml) throws IOException {
+        Path path = tempDir.resolve("config.yml");
+        Files.writeString(path, yaml);
+        sink = new FakeSink();
+        queue = new RedisPublishQueue(sink, codec, ProxyConfig.load(path));
+    }
+
+    /**
+     * With a capacity of 10 and the sink blocked on the first flush, publishes message 0
+     * to be in flight, then messages 1-12.
+     */
+    private List<CompletableFuture<Long>> fillPastCapacity(MessageCodec codec) throws InterruptedException {
+        List<CompletableFuture<Long>> futures = new ArrayList<>();
+        futures.add(queue.publish("ch", encode(codec, "p", 0)));
+        assertTrue(sink.awaitFlush(), "publisher did not flush");
+        for (int i = 1; i < 13; i++) {
+            futures.add(queue.publish("ch", encode(codec, "p", i)));
+        }
+        return futures;
+    }
+
+    private void awaitSent(int commands) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(WAIT_SECONDS);
+        while (sink.sent() < commands) {
+            assertTrue(System.nanoTime() < deadline, "publisher did not send the queued messages");
+            Thread.sleep(5);
+        }
+    }
+
+    private static byte[] encode(MessageCodec codec, String producer, int sequence) {
+        ChannelMessage message = new BroadcastMessage("proxy-1", Instant.ofEpochMilli(1_700_000_000_000L),
+                producer, Integer.toString(sequence));
+        return codec.encodeBytes(message);
+    }
+
+    private static List<Integer> sequences(MessageCodec codec, byte[] data) {
+        List<Integer> sequences = new ArrayList<>();
+        for (byte[] entry : codec.unpack(data)) {
+            BroadcastMessage message = (BroadcastMessage) codec.decode(entry);
+            assertNotNull(message);
+            sequences.add(Integer.parseInt(message.content()));
+        }
+        return sequences;
+    }
+
+    private static void awaitAll(List<CompletableFuture<Long>> futures) throws Exception {
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(WAIT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    private static void assertRejected(CompletableFuture<Long> future) {
+        ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(WAIT_SECONDS, TimeUnit.SECONDS));
+        assertInstanceOf(RejectedExecutionException.class, e.getCause());
+    }
+
+    /**
+     * Records commands in place of Redis. By default every flush answers its commands at
+     * once; {@link #block()} holds the publisher inside the next flush until
+     * {@link #release()}, and {@link #holdAcknowledgements()} leaves commands unanswered
+     * until {@link #acknowledgeAll()}.
+     */
+    private static final class FakeSink implements RedisPublishQueue.Sink {
+
+        record Command(String channel, byte[] data, CompletableFuture<Long> result) {
+        }
+
+        private final List<Command> unflushed = new ArrayList<>();
+        private final List<List<Command>> flushes = new ArrayList<>();
+        private final List<Command> unacknowledged = new ArrayList<>();
+        private final CountDownLatch flushed = new CountDownLatch(1);
+        private volatile CountDownLatch gate;
+        private volatile boolean holdAcknowledgements;
+        private int sent;
+
+        @Override
+        public synchronized CompletionStage<Long> publish(String channel, byte[] data) {
+            Command command = new Command(channel, data, new CompletableFuture<>());
+            unflushed.add(command);
+            return command.result();
+        }
+
+        @Override
+        public void flush() {
+            List<Command> batch;
+            synchronized (this) {
+                batch = List.copyOf(unflushed);
+                unflushed.clear();
+                flushes.add(batch);
+                sent += batch.size();
+            }
+            flushed.countDown();
+
+            CountDownLatch current = gate;
+            if (current != null) {
+                try {
+                    current.await(WAIT_SECONDS, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+
+            if (holdAcknowledgements) {
+                synchronized (this) {
+                    unacknowledged.addAll(batch);
+                }
+                return;
+            }
+            for (Command command : batch) {
+                command.result().complete(1L);
+            }
+        }
+
+        void block() {
+            gate = new CountDownLatch(1);
+        }
+
+        void release() {
+            CountDownLatch current = gate;
+            if (current != null) {
+                current.countDown();
+            }
+        }
+
+        void holdAcknowledgements() {
+            holdAcknowledgements = true;
+        }
+
+        void acknowledgeAll() {
+            List<Command> pending;
+            synchronized (this) {
+                pending = List.copyOf(unacknowledged);
+                unacknowledged.clear();
+            }
+            for (Command command : pending) {
+                command.result().complete(1L);
+            }
+        }
+
+        boolean awaitFlush() throws InterruptedException {
+            return flushed.await(WAIT_SECONDS, TimeUnit.SECONDS);
+        }
+
+        /**
+         * Commands flushed so far.
+         */
+        synchronized int sent() {
+            return sent;
+        }
+
+        synchronized List<List<Command>> flushes() {
+            return List.copyOf(flushes);
+        }
+    }
+}
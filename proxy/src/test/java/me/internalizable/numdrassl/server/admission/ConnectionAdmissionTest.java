@@ -0,0 +1,189 @@
+package me.internalizable.numdrassl.server.admission;
+
+import me.internalizable.numdrassl.config.ProxyConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConnectionAdmissionTest {
+
+    private static final String LIMITS = """
+            connectionsPerIpPerSecond: 1
+            connectionBurstPerIp: 3
+            connectionsPerSubnetPerSecond: 2
+            connectionBurstPerSubnet: 5
+            """;
+
+    @TempDir
+    Path tempDir;
+
+    private final AtomicLong clock = new AtomicLong(1_000_000_000L);
+    private ConnectionAdmission admission;
+
+    @AfterEach
+    void shutdownAdmission() {
+        if (admission != null) {
+            admission.shutdown();
+        }
+    }
+
+    private ConnectionAdmission admission(String extra) throws Exception {
+        Path path = tempDir.resolve("config.yml");
+        Files.writeString(path, LIMITS + extra);
+        admission = new ConnectionAdmission(ProxyConfig.load(path), clock::get);
+        return admission;
+    }
+
+    private void advance(long millis) {
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+
+    private static InetSocketAddress from(String ip) {
+        return new InetSocketAddress(ip, 40000);
+    }
+
+    private int admitted(String ip, int attempts) {
+        int count = 0;
+        for (int i = 0; i < attempts; i++) {
+            if (admission.tryAdmit(from(ip))) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    // ==================== Token Buckets ====================
+
+    @Test
+    void allowsTheBurstThenRefuses() throws Exception {
+        admission("");
+        assertEquals(3, admitted("198.51.100.7", 10));
+        assertEquals(7, admission.getRejectedByIp());
+        assertEquals(0, admission.getRejectedBySubnet());
+    }
+
+    @Test
+    void refillsAtTheConfiguredRate() throws Exception {
+        admission("");
+        assertEquals(3, admitted("198.51.100.7", 3));
+
+        advance(999);
+        assertFalse(admission.tryAdmit(from("198.51.100.7")));
+        advance(1);
+        assertTrue(admission.tryAdmit(from("198.51.100.7")));
+
+        advance(2500);
+        assertEquals(2, admitted("198.51.100.7", 5));
+    }
+
+    @Test
+    void refillStopsAtTheBurst() throws Exception {
+        admission("");
+        admitted("198.51.100.7", 3);
+        advance(TimeUnit.MINUTES.toMillis(1));
+        assertEquals(3, admitted("198.51.100.7", 10));
+    }
+
+    @Test
+    void subnetSharesOneBucket() throws Exception {
+        admission("");
+        assertEquals(3, admitted("198.51.100.1", 3));
+        assertEquals(2, admitted("198.51.100.2", 3));
+        assertEquals(1, admission.getRejectedBySubnet());
+
+        // A neighbouring /24 has its own allowance
+        assertEquals(3, admitted("198.51.101.1", 3));
+
+        advance(500);
+        assertEquals(1, admitted("198.51.100.3", 3));
+    }
+
+    @Test
+    void ipv6SubnetsArePerSlash64() throws Exception {
+        admission("");
+        assertEquals(3, admitted("2001:db8:0:1::1", 3));
+        assertEquals(2, admitted("2001:db8:0:1:ffff::2", 3));
+        assertEquals(3, admitted("2001:db8:0:2::1", 3));
+    }
+
+    // ==================== Exemptions ====================
+
+    @Test
+    void neverLimitsTheAllowlist() throws Exception {
+        admission("""
+                connectionAllowlist:
+                  - "10.0.0.0/8"
+                  - "2001:db8::1"
+                  - "not-an-address"
+                """);
+        assertEquals(50, admitted("10.1.2.3", 50));
+        assertEquals(50, admitted("2001:db8::1", 50));
+        assertEquals(3, admitted("11.0.0.1", 10));
+        assertEquals(2, admission.getTracked());
+    }
+
+    @Test
+    void admitsEverythingWhenDisabled() throws Exception {
+        admission("connectionRateLimitEnabled: false\n");
+        assertFalse(admission.isEnabled());
+        assertEquals(50, admitted("198.51.100.7", 50));
+        assertEquals(0, admission.getTracked());
+    }
+
+    // ==================== Overflow ====================
+
+    @Test
+    void sharesOverflowBucketsOnceTheTableIsFull() throws Exception {
+        // Each new /24 takes an IP and a subnet bucket, so two fill the table
+        admission("connectionRateLimitMaxTracked: 4\n");
+        assertTrue(admission.tryAdmit(from("198.51.100.1")));
+        assertTrue(admission.tryAdmit(from("203.0.113.1")));
+        assertEquals(4, admission.getTracked());
+
+        // Distinct addresses now draw on one subnet-sized allowance together
+        int admitted = 0;
+        for (int i = 1; i <= 20; i++) {
+            if (admission.tryAdmit(from("192.0." + i + ".1"))) {
+                admitted++;
+            }
+        }
+        assertEquals(5, admitted);
+        assertEquals(4, admission.getTracked());
+        assertTrue(admission.getOverflowed() >= 20);
+
+        // Addresses that have their own bucket are unaffected
+        assertTrue(admission.tryAdmit(from("198.51.100.1")));
+    }
+
+    @Test
+    void sweepFreesRefilledBucketsForNewAddresses() throws Exception {
+        admission("connectionRateLimitMaxTracked: 4\n");
+        admitted("198.51.100.1", 3);
+        admitted("203.0.113.1", 1);
+        assertEquals(4, admission.getTracked());
+
+        // After two seconds only the drained IP bucket is still refilling
+        advance(2000);
+        admission.sweep();
+        assertEquals(1, admission.getTracked());
+
+        advance(1000);
+        admission.sweep();
+        assertEquals(0, admission.getTracked());
+
+        long overflowed = admission.getOverflowed();
+        assertEquals(3, admitted("192.0.2.1", 10));
+        assertEquals(overflowed, admission.getOverflowed());
+        assertEquals(2, admission.getTracked());
+    }
+}
@@ -0,0 +1,196 @@
+package me.internalizable.numdrassl.server.admission;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import me.internalizable.numdrassl.config.ProxyConfig;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RetryTokenHandlerTest {
+
+    private static final long ROTATION_MILLIS = TimeUnit.SECONDS.toMillis(RetryTokenHandler.KEY_ROTATION_SECONDS);
+    // Five seconds before a key rotation
+    private static final long START = 5_000 * ROTATION_MILLIS - 5_000;
+
+    private static final InetSocketAddress CLIENT = new InetSocketAddress("198.51.100.7", 40000);
+    private static final byte[] ODCID = {1, 2, 3, 4, 5, 6, 7, 8};
+
+    @TempDir
+    Path tempDir;
+
+    private final AtomicLong clock = new AtomicLong(START);
+
+    private RetryTokenHandler handler(String config) throws Exception {
+        Path path = tempDir.resolve("config.yml");
+        Files.writeString(path, config);
+        return new RetryTokenHandler(ProxyConfig.load(path), clock::get);
+    }
+
+    private RetryTokenHandler alwaysRetry() throws Exception {
+        return handler("quicRetryThresholdPerSecond: 0\nquicRetryTokenLifetimeSeconds: 10\n");
+    }
+
+    private static ByteBuf issue(RetryTokenHandler handler, InetSocketAddress address) {
+        ByteBuf token = Unpooled.buffer();
+        assertTrue(handler.writeToken(token, Unpooled.wrappedBuffer(ODCID), address));
+        return token;
+    }
+
+    private static int validate(RetryTokenHandler handler, ByteBuf token, InetSocketAddress address) {
+        return handler.validateToken(token.duplicate(), address);
+    }
+
+    private void advance(long millis) {
+        clock.addAndGet(millis);
+    }
+
+    // ==================== Validation ====================
+
+    @Test
+    void acceptsItsOwnTokenAndReturnsTheOriginalConnectionId() throws Exception {
+        RetryTokenHandler handler = alwaysRetry();
+        ByteBuf token = issue(handler, CLIENT);
+
+        int offset = validate(handler, token, CLIENT);
+        assertTrue(offset > 0);
+        assertArrayEquals(ODCID, ByteBufUtil.getBytes(token, offset, token.readableBytes() - offset));
+        assertEquals(1, handler.getTokensValid());
+        assertEquals(1, handler.getRetriesSent());
+    }
+
+    @Test
+    void isBoundToTheIpButNotThePort() throws Exception {
+        RetryTokenHandler handler = alwaysRetry();
+        ByteBuf token = issue(handler, CLIENT);
+
+        assertTrue(validate(handler, token, new InetSocketAddress("198.51.100.7", 40001)) > 0);
+        assertEquals(-1, validate(handler, token, new InetSocketAddress("198.51.100.8", 40000)));
+        assertEquals(-1, validate(handler, token, new InetSocketAddress("2001:db8::7", 40000)));
+        assertEquals(2, handler.getTokensInvalid());
+    }
+
+    @Test
+    void rejectsAnotherOriginalConnectionId() throws Exception {
+        RetryTokenHandler handler = alwaysRetry();
+        ByteBuf token = issue(handler, CLIENT);
+
+        ByteBuf changed = token.copy();
+        int last = changed.writerIndex() - 1;
+        changed.setByte(last, changed.getByte(last) ^ 1);
+        assertEquals(-1, validate(handler, changed, CLIENT));
+
+        ByteBuf truncated = token.copy(0, token.readableBytes() - 1);
+        assertEquals(-1, validate(handler, truncated, CLIENT));
+        assertEquals(2, handler.getTokensInvalid());
+    }
+
+    @Test
+    void rejectsAnExtendedExpiry() throws Exception {
+        RetryTokenHandler handler = alwaysRetry();
+        ByteBuf token = issue(handler, CLIENT).copy();
+        token.setLong(2, token.getLong(2) + TimeUnit.HOURS.toMillis(1));
+
+        assertEquals(-1, validate(handler, token, CLIENT));
+        assertEquals(1, handler.getTokensInvalid());
+    }
+
+    @Test
+    void rejectsMalformedTokens() throws Exception {
+        RetryTokenHandler handler = alwaysRetry();
+        ByteBuf token = issue(handler, CLIENT);
+
+        ByteBuf wrongVersion = token.copy();
+        wrongVersion.setByte(0, 2);
+        assertEquals(-1, validate(handler, wrongVersion, CLIENT));
+        assertEquals(-1, validate(handler, Unpooled.wrappedBuffer(new byte[8]), CLIENT));
+        assertEquals(-1, validate(handler, Unpooled.buffer().writeBytes(token.duplicate()).writeZero(32), CLIENT));
+        assertEquals(3, handler.getTokensInvalid());
+    }
+
+    @Test
+    void expiresAfterTheLifetime() throws Exception {
+        RetryTokenHandler handler = alwaysRetry();
+        clock.set(START - 60_000);
+        ByteBuf token = issue(handler, CLIENT);
+
+        advance(10_000);
+        assertTrue(validate(handler, token, CLIENT) > 0);
+        advance(1);
+        assertEquals(-1, validate(handler, token, CLIENT));
+        assertEquals(1, handler.getTokensExpired());
+    }
+
+    // ==================== Key Rotation ====================
+
+    @Test
+    void acceptsTokensFromThePreviousKey() throws Exception {
+        RetryTokenHandler handler = alwaysRetry();
+        ByteBuf before = issue(handler, CLIENT);
+
+        advance(6_000);
+        ByteBuf after = issue(handler, CLIENT);
+        assertFalse(before.getByte(1) == after.getByte(1));
+
+        assertTrue(validate(handler, before, CLIENT) > 0);
+        assertTrue(validate(handler, after, CLIENT) > 0);
+        assertEquals(-1, validate(handler, before, new InetSocketAddress("198.51.100.8", 40000)));
+    }
+
+    @Test
+    void dropsTheKeyAfterTwoRotations() throws Exception {
+        RetryTokenHandler handler = alwaysRetry();
+        ByteBuf token = issue(handler, CLIENT);
+
+        advance(6_000);
+        issue(handler, CLIENT);
+        advance(ROTATION_MILLIS);
+        assertEquals(-1, validate(handler, token, CLIENT));
+        assertEquals(1, handler.getTokensExpired());
+        assertEquals(0, handler.getTokensInvalid());
+    }
+
+    @Test
+    void forgetsThePreviousKeyAfterAnIdleEpoch() throws Exception {
+        RetryTokenHandler handler = alwaysRetry();
+        ByteBuf token = issue(handler, CLIENT);
+
+        // Nothing signed during the next epoch, so its key was never made
+        advance(ROTATION_MILLIS + 6_000);
+        assertEquals(-1, validate(handler, token, CLIENT));
+        assertEquals(1, handler.getTokensExpired());
+    }
+
+    // ==================== Enforcement ====================
+
+    @Test
+    void demandsRetryOnlyAboveTheThreshold() throws Exception {
+        RetryTokenHandler handler = handler("quicRetryThresholdPerSecond: 2\n");
+        ByteBuf dcid = Unpooled.wrappedBuffer(ODCID);
+
+        assertFalse(handler.writeToken(Unpooled.buffer(), dcid, CLIENT));
+        assertFalse(handler.writeToken(Unpooled.buffer(), dcid, CLIENT));
+        assertFalse(handler.isEnforced());
+        assertTrue(handler.writeToken(Unpooled.buffer(), dcid, CLIENT));
+        assertTrue(handler.isEnforced());
+        assertEquals(1, handler.getRetriesSent());
+    }
+
+    @Test
+    void neverDemandsRetryWhenDisabled() throws Exception {
+        RetryTokenHandler handler = handler("quicRetryEnabled: false\nquicRetryThresholdPerSecond: 0\n");
+        assertFalse(handler.writeToken(Unpooled.buffer(), Unpooled.wrappedBuffer(ODCID), CLIENT));
+        assertFalse(handler.isEnforced());
+    }
+}
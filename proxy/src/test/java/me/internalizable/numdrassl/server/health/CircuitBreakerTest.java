@@ -0,0 +1,208 @@
+package me.internalizable.numdrassl.server.health;
+
+import me.internalizable.numdrassl.server.health.CircuitBreaker.State;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CircuitBreakerTest {
+
+    private static final long OPEN_MILLIS = 10_000;
+
+    private final AtomicLong clock = new AtomicLong(1_000_000_000L);
+    private final CircuitBreaker breaker = new CircuitBreaker("game-1", 3, OPEN_MILLIS, 2, clock::get);
+
+    private void advance(long millis) {
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+
+    private void failConnects(int count) {
+        for (int i = 0; i < count; i++) {
+            assertTrue(breaker.tryAcquire());
+            breaker.onConnectFailure();
+        }
+    }
+
+    /**
+     * Opens the circuit and waits out the cooldown.
+     */
+    private void halfOpen() {
+        failConnects(3);
+        advance(OPEN_MILLIS);
+        assertEquals(State.HALF_OPEN, breaker.getState());
+    }
+
+    // ==================== Closed ====================
+
+    @Test
+    void opensAfterConsecutiveConnectFailures() {
+        failConnects(2);
+        assertEquals(State.CLOSED, breaker.getState());
+
+        failConnects(1);
+        assertEquals(State.OPEN, breaker.getState());
+        assertEquals(1, breaker.getOpenedCount());
+        assertTrue(breaker.isRejecting());
+        assertFalse(breaker.tryAcquire());
+        assertEquals(1, breaker.getRejectedCount());
+    }
+
+    @Test
+    void successResetsTheFailureCount() {
+        failConnects(2);
+        assertTrue(breaker.tryAcquire());
+        breaker.onConnectSuccess();
+        failConnects(2);
+        assertEquals(State.CLOSED, breaker.getState());
+        assertEquals(0, breaker.getOpenedCount());
+    }
+
+    @Test
+    void opensAfterConsecutiveProbeFailures() {
+        breaker.onProbeFailure();
+        breaker.onProbeFailure();
+        breaker.onProbeSuccess();
+        breaker.onProbeFailure();
+        breaker.onProbeFailure();
+        assertEquals(State.CLOSED, breaker.getState());
+
+        breaker.onProbeFailure();
+        assertEquals(State.OPEN, breaker.getState());
+    }
+
+    // ==================== Open ====================
+
+    @Test
+    void staysOpenForTheCooldown() {
+        failConnects(3);
+        advance(OPEN_MILLIS - 1);
+        assertEquals(State.OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquire());
+
+        advance(1);
+        assertEquals(State.HALF_OPEN, breaker.getState());
+    }
+
+    @Test
+    void tripOpensAtOnce() {
+        breaker.trip();
+        assertEquals(State.OPEN, breaker.getState());
+        breaker.trip();
+        assertEquals(1, breaker.getOpenedCount());
+    }
+
+    // ==================== Half-Open Trials ====================
+
+    @Test
+    void limitsConcurrentTrials() {
+        halfOpen();
+        assertTrue(breaker.tryAcquire());
+        assertFalse(breaker.isRejecting());
+        assertTrue(breaker.tryAcquire());
+
+        assertTrue(breaker.isRejecting());
+        assertFalse(breaker.tryAcquire());
+        assertEquals(State.HALF_OPEN, breaker.getState());
+        assertEquals(1, breaker.getRejectedCount());
+    }
+
+    @Test
+    void isRejectingTakesNoTrial() {
+        halfOpen();
+        for (int i = 0; i < 5; i++) {
+            assertFalse(breaker.isRejecting());
+        }
+        assertTrue(breaker.tryAcquire());
+        assertTrue(breaker.tryAcquire());
+    }
+
+    @Test
+    void successfulTrialCloses() {
+        halfOpen();
+        assertTrue(breaker.tryAcquire());
+        assertTrue(breaker.tryAcquire());
+        breaker.onConnectSuccess();
+
+        assertEquals(State.CLOSED, breaker.getState());
+        assertTrue(breaker.tryAcquire());
+        breaker.onConnectSuccess();
+
+        // The other trial's late answer no longer matters
+        breaker.onConnectSuccess();
+        assertEquals(State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    void failedTrialReopensAndRestartsTheCooldown() {
+        halfOpen();
+        assertTrue(breaker.tryAcquire());
+        assertTrue(breaker.tryAcquire());
+        breaker.onConnectFailure();
+
+        assertEquals(State.OPEN, breaker.getState());
+        assertEquals(2, breaker.getOpenedCount());
+        advance(OPEN_MILLIS - 1);
+        assertEquals(State.OPEN, breaker.getState());
+
+        // Reopening released every trial, so the next half-open round has them all
+        advance(1);
+        assertTrue(breaker.tryAcquire());
+        assertTrue(breaker.tryAcquire());
+        assertFalse(breaker.tryAcquire());
+    }
+
+    @Test
+    void tripReleasesTrialsInFlight() {
+        halfOpen();
+        assertTrue(breaker.tryAcquire());
+        assertTrue(breaker.tryAcquire());
+        breaker.trip();
+        assertEquals(State.OPEN, breaker.getState());
+
+        advance(OPEN_MILLIS);
+        assertTrue(breaker.tryAcquire());
+        assertTrue(breaker.tryAcquire());
+        assertFalse(breaker.tryAcquire());
+    }
+
+    // ==================== Probes ====================
+
+    @Test
+    void answeredProbeHalfOpensBeforeTheCooldown() {
+        failConnects(3);
+        breaker.onProbeSuccess();
+
+        assertEquals(State.HALF_OPEN, breaker.getState());
+        assertTrue(breaker.tryAcquire());
+        assertTrue(breaker.tryAcquire());
+        assertFalse(breaker.tryAcquire());
+
+        breaker.onConnectFailure();
+        assertEquals(State.OPEN, breaker.getState());
+        assertEquals(2, breaker.getOpenedCount());
+
+        // Another answer half-opens it again with every trial free
+        breaker.onProbeSuccess();
+        assertTrue(breaker.tryAcquire());
+        assertTrue(breaker.tryAcquire());
+        assertFalse(breaker.tryAcquire());
+    }
+
+    @Test
+    void answeredProbeLeavesOtherStatesAlone() {
+        breaker.onProbeSuccess();
+        assertEquals(State.CLOSED, breaker.getState());
+
+        halfOpen();
+        assertTrue(breaker.tryAcquire());
+        breaker.onProbeSuccess();
+        assertEquals(State.HALF_OPEN, breaker.getState());
+        assertTrue(breaker.tryAcquire());
+        assertFalse(breaker.tryAcquire());
+    }
+}
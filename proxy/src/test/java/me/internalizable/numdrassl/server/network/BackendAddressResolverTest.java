@@ -0,0 +1,187 @@
+package me.internalizable.numdrassl.server.network;
+
+import me.internalizable.numdrassl.config.ProxyConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BackendAddressResolverTest {
+
+    private static final long WAIT_SECONDS = 5;
+    private static final long START = 1_700_000_000_000L;
+
+    private static final String HOSTS = """
+            10.0.0.1 multi.test
+            10.0.0.2 multi.test
+            10.0.0.3 multi.test
+            10.0.1.1 single.test
+            ::1 v6only.test
+            2001:db8::1 mixed.test
+            10.0.2.1 mixed.test
+            """;
+
+    @TempDir
+    Path tempDir;
+
+    private final AtomicLong clock = new AtomicLong(START);
+    private final AtomicInteger dnsLookups = new AtomicInteger();
+    private volatile List<InetAddress> dnsAnswer;
+
+    private BackendAddressResolver resolver;
+
+    @BeforeEach
+    void createResolver() throws Exception {
+        Path hosts = tempDir.resolve("hosts");
+        Files.writeString(hosts, HOSTS);
+        Path path = tempDir.resolve("config.yml");
+        Files.writeString(path, """
+                backendDnsCacheSeconds: 4
+                backendDnsStaleSeconds: 10
+                backendHostsFile: "%s"
+                """.formatted(hosts.toString().replace("\\", "/")));
+
+        // Hosts missing from the hosts file are answered here, so nothing reaches real DNS
+        resolver = new BackendAddressResolver(ProxyConfig.load(path), UdpOffload.detect(false, 1), host -> {
+            dnsLookups.incrementAndGet();
+            List<InetAddress> answer = dnsAnswer;
+            return answer != null
+                ? CompletableFuture.completedFuture(answer)
+                : CompletableFuture.failedFuture(new UnknownHostException(host));
+        }, clock::get);
+    }
+
+    @AfterEach
+    void shutdownResolver() {
+        resolver.shutdown();
+    }
+
+    private InetSocketAddress resolve(String host) throws Exception {
+        return resolver.resolve(host, 5520).get(WAIT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    private void advance(long seconds) {
+        clock.addAndGet(TimeUnit.SECONDS.toMillis(seconds));
+    }
+
+    private static InetAddress address(String literal) throws UnknownHostException {
+        return InetAddress.getByName(literal);
+    }
+
+    // ==================== Cache ====================
+
+    @Test
+    void servesCachedAddressesUntilTheTtl() throws Exception {
+        assertEquals(new InetSocketAddress(address("10.0.1.1"), 5520), resolve("single.test"));
+        assertEquals(1, resolver.getCacheMisses());
+        assertEquals(1, resolver.getLookupsSucceeded());
+
+        for (int i = 0; i < 3; i++) {
+            advance(1);
+            assertEquals(new InetSocketAddress(address("10.0.1.1"), 5520), resolve("SINGLE.test"));
+        }
+        assertEquals(3, resolver.getCacheHits());
+        assertEquals(1, resolver.getLookupsSucceeded());
+        assertEquals(1, resolver.getCachedHosts());
+
+        // Past the TTL the entry is served once more while it is looked up again
+        advance(1);
+        resolve("single.test");
+        assertEquals(1, resolver.getCacheStale());
+        assertEquals(2, resolver.getLookupsSucceeded());
+        resolve("single.test");
+        assertEquals(4, resolver.getCacheHits());
+        assertEquals(0, dnsLookups.get());
+    }
+
+    @Test
+    void servesStaleAddressesAfterAFailedRefresh() throws Exception {
+        dnsAnswer = List.of(address("10.0.5.1"));
+        assertEquals(new InetSocketAddress(address("10.0.5.1"), 5520), resolve("dns.test"));
+        assertEquals(1, dnsLookups.get());
+
+        dnsAnswer = null;
+        advance(5);
+        assertEquals(new InetSocketAddress(address("10.0.5.1"), 5520), resolve("dns.test"));
+        assertEquals(2, dnsLookups.get());
+        assertEquals(1, resolver.getLookupsFailed());
+
+        // The failed refresh is not retried on every stale hit
+        advance(1);
+        resolve("dns.test");
+        resolve("dns.test");
+        assertEquals(3, resolver.getCacheStale());
+        assertEquals(2, dnsLookups.get());
+
+        advance(4);
+        assertEquals(new InetSocketAddress(address("10.0.5.1"), 5520), resolve("dns.test"));
+        assertEquals(3, dnsLookups.get());
+
+        // Past TTL plus the stale window the old addresses are no longer used
+        advance(5);
+        ExecutionException e = assertThrows(ExecutionException.class,
+            () -> resolver.resolve("dns.test", 5520).get(WAIT_SECONDS, TimeUnit.SECONDS));
+        assertInstanceOf(UnknownHostException.class, e.getCause());
+        assertEquals(2, resolver.getCacheMisses());
+    }
+
+    @Test
+    void failsHostsWithoutAddresses() {
+        ExecutionException e = assertThrows(ExecutionException.class,
+            () -> resolver.resolve("missing.test", 5520).get(WAIT_SECONDS, TimeUnit.SECONDS));
+        assertInstanceOf(UnknownHostException.class, e.getCause());
+        assertEquals(1, resolver.getLookupsFailed());
+    }
+
+    // ==================== Addresses ====================
+
+    @Test
+    void rotatesThroughEveryARecord() throws Exception {
+        List<InetAddress> seen = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            seen.add(resolve("multi.test").getAddress());
+        }
+        List<InetAddress> all = List.of(address("10.0.0.1"), address("10.0.0.2"), address("10.0.0.3"));
+        assertEquals(all, seen.subList(0, 3));
+        assertEquals(all, seen.subList(3, 6));
+        assertEquals(1, resolver.getLookupsSucceeded());
+    }
+
+    @Test
+    void prefersIpv4AndFallsBackToIpv6() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            assertEquals(address("10.0.2.1"), resolve("mixed.test").getAddress());
+        }
+        assertEquals(address("::1"), resolve("v6only.test").getAddress());
+    }
+
+    @Test
+    void returnsIpLiteralsWithoutCaching() throws Exception {
+        assertEquals(new InetSocketAddress(address("192.0.2.7"), 5520), resolve("192.0.2.7"));
+        assertEquals(new InetSocketAddress(address("::1"), 5520), resolve("::1"));
+        assertTrue(resolver.resolve("127.0.0.1", 5520).isDone());
+
+        assertEquals(0, resolver.getCachedHosts());
+        assertEquals(0, resolver.getCacheMisses());
+        assertEquals(0, resolver.getLookupsSucceeded());
+        assertEquals(0, dnsLookups.get());
+    }
+}
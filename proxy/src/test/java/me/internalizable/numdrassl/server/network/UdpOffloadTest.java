@@ -0,0 +1,266 @@
+package me.internalizable.numdrassl.server.network;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollDatagramChannel;
+import io.netty.channel.socket.DatagramPacket;
+import io.netty.channel.socket.nio.NioDatagramChannel;
+import io.netty.channel.unix.SegmentedDatagramPacket;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class UdpOffloadTest {
+
+    private static final long WAIT_SECONDS = 5;
+    private static final InetSocketAddress SENDER = new InetSocketAddress("127.0.0.1", 40001);
+    private static final InetSocketAddress RECIPIENT = new InetSocketAddress("127.0.0.1", 40002);
+
+    private final List<EventLoopGroup> groups = new ArrayList<>();
+
+    @AfterEach
+    void shutdownGroups() {
+        for (EventLoopGroup group : groups) {
+            group.shutdownGracefully(0, 0, TimeUnit.SECONDS).syncUninterruptibly();
+        }
+    }
+
+    private EventLoopGroup group(UdpOffload offload) {
+        EventLoopGroup group = offload.newEventLoopGroup(1);
+        groups.add(group);
+        return group;
+    }
+
+    /**
+     * Runs the offload pipeline on an embedded channel, with {@code codec} in place of the QUIC codec.
+     */
+    private EmbeddedChannel embedded(UdpOffload offload, ChannelHandler codec) {
+        return new EmbeddedChannel(offload.newBootstrap(group(offload), codec).config().handler());
+    }
+
+    private static byte[] payload(int length, int seed) {
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = (byte) (seed + i);
+        }
+        return bytes;
+    }
+
+    private static byte[] bytes(DatagramPacket packet) {
+        ByteBuf content = packet.content();
+        byte[] bytes = new byte[content.readableBytes()];
+        content.getBytes(content.readerIndex(), bytes);
+        return bytes;
+    }
+
+    // ==================== Coalesced Reads ====================
+
+    @Test
+    void splitsCoalescedReadsAtSegmentBoundaries() {
+        UdpOffload offload = UdpOffload.detect(false, 1);
+        EmbeddedChannel channel = embedded(offload, new ChannelInboundHandlerAdapter());
+
+        byte[] data = payload(240, 1);
+        ByteBuf content = Unpooled.wrappedBuffer(data);
+        channel.writeInbound(new SegmentedDatagramPacket(content, 100, RECIPIENT, SENDER));
+
+        int[] lengths = {100, 100, 40};
+        int offset = 0;
+        for (int length : lengths) {
+            DatagramPacket datagram = channel.readInbound();
+            assertNotNull(datagram);
+            assertFalse(datagram instanceof SegmentedDatagramPacket);
+            assertEquals(SENDER, datagram.sender());
+            assertEquals(RECIPIENT, datagram.recipient());
+            byte[] expected = new byte[length];
+            System.arraycopy(data, offset, expected, 0, length);
+            assertArrayEquals(expected, bytes(datagram));
+            offset += length;
+
+            // Each slice holds the coalesced buffer until it is released
+            assertTrue(content.refCnt() > 0);
+            datagram.release();
+        }
+        assertNull(channel.readInbound());
+        assertEquals(0, content.refCnt());
+
+        assertEquals(1, offload.getPacketsReceived());
+        assertEquals(3, offload.getDatagramsReceived());
+        assertFalse(channel.finish());
+    }
+
+    @Test
+    void splitsReadsOfWholeSegments() {
+        UdpOffload offload = UdpOffload.detect(false, 1);
+        EmbeddedChannel channel = embedded(offload, new ChannelInboundHandlerAdapter());
+
+        ByteBuf content = Unpooled.wrappedBuffer(payload(300, 7));
+        channel.writeInbound(new SegmentedDatagramPacket(content, 100, RECIPIENT, SENDER));
+
+        for (int i = 0; i < 3; i++) {
+            DatagramPacket datagram = channel.readInbound();
+            assertEquals(100, datagram.content().readableBytes());
+            datagram.release();
+        }
+        assertNull(channel.readInbound());
+        assertEquals(0, content.refCnt());
+    }
+
+    @Test
+    void passesSingleSegmentReadsThrough() {
+        UdpOffload offload = UdpOffload.detect(false, 1);
+        EmbeddedChannel channel = embedded(offload, new ChannelInboundHandlerAdapter());
+
+        SegmentedDatagramPacket single = new SegmentedDatagramPacket(Unpooled.wrappedBuffer(payload(80, 3)), 100, RECIPIENT, SENDER);
+        channel.writeInbound(single);
+        DatagramPacket plain = new DatagramPacket(Unpooled.wrappedBuffer(payload(500, 5)), RECIPIENT, SENDER);
+        channel.writeInbound(plain);
+
+        assertSame(single, channel.readInbound());
+        assertSame(plain, channel.readInbound());
+        assertEquals(1, single.refCnt());
+        single.release();
+        plain.release();
+
+        assertEquals(2, offload.getPacketsReceived());
+        assertEquals(2, offload.getDatagramsReceived());
+    }
+
+    @Test
+    void countsSegmentedWrites() {
+        UdpOffload offload = UdpOffload.detect(false, 1);
+        EmbeddedChannel channel = embedded(offload, new ChannelInboundHandlerAdapter());
+
+        channel.writeOutbound(new SegmentedDatagramPacket(Unpooled.wrappedBuffer(payload(250, 1)), 100, RECIPIENT, SENDER));
+        channel.writeOutbound(new DatagramPacket(Unpooled.wrappedBuffer(payload(50, 1)), RECIPIENT, SENDER));
+
+        assertEquals(2, offload.getPacketsSent());
+        assertEquals(4, offload.getDatagramsSent());
+        channel.finishAndReleaseAll();
+    }
+
+    // ==================== Loopback ====================
+
+    @Test
+    void fallsBackToNio() throws Exception {
+        UdpOffload offload = UdpOffload.detect(false, 8);
+        assertFalse(offload.isEpoll());
+        assertFalse(offload.isGroEnabled());
+        assertFalse(offload.isGsoEnabled());
+        assertEquals(NioDatagramChannel.class, offload.getDatagramChannelType());
+
+        assertLoopbackDelivery(offload);
+        assertEquals(offload.getPacketsReceived(), offload.getDatagramsReceived());
+    }
+
+    @Test
+    void receivesWithGroOnEpoll() throws Exception {
+        assumeTrue(Epoll.isAvailable(), "epoll is not available");
+
+        UdpOffload offload = UdpOffload.detect(true, 8);
+        assertTrue(offload.isEpoll());
+        assertTrue(offload.isGroEnabled());
+        assertEquals(EpollDatagramChannel.class, offload.getDatagramChannelType());
+
+        assertLoopbackDelivery(offload);
+        assertTrue(offload.getPacketsReceived() <= offload.getDatagramsReceived());
+    }
+
+    @Test
+    void splitsGsoWritesReceivedWithGro() throws Exception {
+        assumeTrue(Epoll.isAvailable(), "epoll is not available");
+        UdpOffload offload = UdpOffload.detect(true, 8);
+        assumeTrue(offload.isGsoEnabled(), "kernel has no UDP GSO");
+
+        BlockingQueue<byte[]> received = new LinkedBlockingQueue<>();
+        Channel receiver = offload.newBootstrap(group(offload), capture(received))
+            .bind(InetAddress.getLoopbackAddress(), 0).sync().channel();
+        Channel sender = offload.newBootstrap(group(offload), new ChannelInboundHandlerAdapter())
+            .bind(InetAddress.getLoopbackAddress(), 0).sync().channel();
+        try {
+            // Four full segments and a short one in a single write
+            byte[] data = payload(4 * 1200 + 37, 9);
+            sender.writeAndFlush(new SegmentedDatagramPacket(Unpooled.wrappedBuffer(data), 1200,
+                (InetSocketAddress) receiver.localAddress())).sync();
+
+            for (int offset = 0; offset < data.length; offset += 1200) {
+                byte[] actual = received.poll(WAIT_SECONDS, TimeUnit.SECONDS);
+                assertNotNull(actual, "segment not delivered");
+                byte[] expected = new byte[Math.min(1200, data.length - offset)];
+                System.arraycopy(data, offset, expected, 0, expected.length);
+                assertArrayEquals(expected, actual);
+            }
+            assertEquals(1, offload.getPacketsSent());
+            assertEquals(5, offload.getDatagramsSent());
+            assertEquals(5, offload.getDatagramsReceived());
+            assertTrue(offload.getPacketsReceived() <= 5);
+        } finally {
+            sender.close().sync();
+            receiver.close().sync();
+        }
+    }
+
+    private static ChannelHandler capture(BlockingQueue<byte[]> received) {
+        return new ChannelInboundHandlerAdapter() {
+            @Override
+            public void channelRead(ChannelHandlerContext ctx, Object msg) {
+                DatagramPacket packet = assertInstanceOf(DatagramPacket.class, msg);
+                received.add(bytes(packet));
+                packet.release();
+            }
+        };
+    }
+
+    /**
+     * Sends datagrams to a socket bound with the offload bootstrap and checks that the
+     * codec side sees each one, whole and in order.
+     */
+    private void assertLoopbackDelivery(UdpOffload offload) throws Exception {
+        BlockingQueue<byte[]> received = new LinkedBlockingQueue<>();
+        Bootstrap bootstrap = offload.newBootstrap(group(offload), capture(received));
+        Channel channel = bootstrap.bind(InetAddress.getLoopbackAddress(), 0).sync().channel();
+        try (DatagramSocket socket = new DatagramSocket(0, InetAddress.getLoopbackAddress())) {
+            List<byte[]> sent = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                byte[] data = payload(i == 15 ? 37 : 1200, i);
+                sent.add(data);
+                socket.send(new java.net.DatagramPacket(data, data.length, channel.localAddress()));
+            }
+
+            for (byte[] expected : sent) {
+                byte[] actual = received.poll(WAIT_SECONDS, TimeUnit.SECONDS);
+                assertNotNull(actual, "datagram not delivered");
+                assertArrayEquals(expected, actual);
+            }
+            assertEquals(16, offload.getDatagramsReceived());
+        } finally {
+            channel.close().sync();
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package me.internalizable.numdrassl.server.queue;
+
+import me.internalizable.numdrassl.config.ProxyConfig;
+import me.internalizable.numdrassl.profiling.ProxyMetrics;
+import me.internalizable.numdrassl.server.ProxyCore;
+import me.internalizable.numdrassl.session.ProxySession;
+import me.internalizable.numdrassl.session.SessionState;
+import me.internalizable.numdrassl.session.TestSessions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LoginQueueTest {
+
+    private static final long WAIT_SECONDS = 5;
+    private static final long PERMISSION_WAIT_MILLIS = 200;
+
+    // "lobby" takes a single player, so a session placed on it keeps everyone else waiting
+    private static final String CONFIG = """
+            backends:
+              - name: "lobby"
+                host: "127.0.0.1"
+                port: 5520
+                defaultServer: true
+                maxPlayers: 1
+            loginQueueMaxSize: 3
+            """;
+
+    @TempDir
+    Path tempDir;
+
+    private ProxyCore core;
+    private LoginQueue queue;
+    private final List<ProxySession> admitted = new CopyOnWriteArrayList<>();
+
+    @BeforeAll
+    static void initMetrics() {
+        ProxyMetrics.getInstance();
+    }
+
+    @BeforeEach
+    void createCore() throws Exception {
+        Path path = tempDir.resolve("config.yml");
+        Files.writeString(path, CONFIG);
+        core = new ProxyCore(ProxyConfig.load(path));
+    }
+
+    @AfterEach
+    void shutdownQueue() {
+        if (queue != null) {
+            queue.shutdown();
+        }
+    }
+
+    private LoginQueue queue(Function<ProxySession, CompletableFuture<Void>> permissionLoader) {
+        queue = new LoginQueue(core, permissionLoader, PERMISSION_WAIT_MILLIS);
+        return queue;
+    }
+
+    private boolean enqueue(ProxySession session) {
+        return queue.enqueue(session, "lobby", () -> {
+            admitted.add(session);
+            session.setCurrentBackend(core.getConfig().getBackendByName("lobby"));
+        });
+    }
+
+    /**
+     * Opens a session the balancer counts once it has a backend.
+     */
+    private ProxySession open() {
+        ProxySession session = TestSessions.open(core);
+        core.getSessionManager().addSession(session);
+        return session;
+    }
+
+    /**
+     * Takes the lobby's only slot.
+     */
+    private ProxySession fillLobby() {
+        ProxySession holder = open();
+        holder.setCurrentBackend(core.getConfig().getBackendByName("lobby"));
+        assertTrue(core.getBackendBalancer().isFull("lobby"));
+        return holder;
+    }
+
+    private static void close(ProxySession session) {
+        session.setState(SessionState.DISCONNECTED);
+    }
+
+    private void awaitQueued(int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(WAIT_SECONDS);
+        while (queue.getQueued("lobby") != expected && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(expected, queue.getQueued("lobby"));
+    }
+
+    private void awaitAdmitted(int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(WAIT_SECONDS);
+        while (admitted.size() != expected && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(expected, admitted.size());
+    }
+
+    // ==================== Reservations ====================
+
+    @Test
+    void countsALoginWhilePermissionsLoad() {
+        CompletableFuture<Void> permissions = new CompletableFuture<>();
+        queue(session -> permissions);
+
+        assertTrue(enqueue(open()));
+        assertEquals(1, queue.getQueued("LOBBY"));
+        assertEquals(1, queue.getQueued());
+
+        permissions.complete(null);
+        assertEquals(1, queue.getQueued("lobby"));
+        assertEquals(1, queue.getEnqueuedCount());
+    }
+
+    @Test
+    void placesALoginWhosePermissionsTimeOut() throws Exception {
+        ProxySession holder = fillLobby();
+        queue(session -> new CompletableFuture<>());
+        queue.initialize();
+
+        ProxySession session = open();
+        assertTrue(enqueue(session));
+        Thread.sleep(PERMISSION_WAIT_MILLIS * 2);
+        assertEquals(1, queue.getQueued("lobby"));
+
+        // The reservation became a real place, so it leaves the count once admitted
+        holder.setCurrentBackend(null);
+        awaitAdmitted(1);
+        assertEquals(List.of(session), admitted);
+        awaitQueued(0);
+    }
+
+    @Test
+    void placesALoginWhosePermissionLoaderThrows() throws Exception {
+        ProxySession holder = fillLobby();
+        queue(session -> {
+            throw new IllegalStateException("permission plugin failed");
+        });
+        queue.initialize();
+
+        assertTrue(enqueue(open()));
+        assertEquals(1, queue.getQueued("lobby"));
+
+        holder.setCurrentBackend(null);
+        awaitAdmitted(1);
+        awaitQueued(0);
+    }
+
+    @Test
+    void releasesTheReservationWhenTheSessionDropsWhileLoading() {
+        CompletableFuture<Void> permissions = new CompletableFuture<>();
+        queue(session -> permissions);
+
+        ProxySession session = open();
+        assertTrue(enqueue(session));
+        close(session);
+        permissions.complete(null);
+
+        assertEquals(0, queue.getQueued("lobby"));
+    }
+
+    @Test
+    void releasesTheReservationWhenTheSessionDropsBeforeTheTimeout() throws Exception {
+        queue(session -> new CompletableFuture<>());
+
+        ProxySession session = open();
+        assertTrue(enqueue(session));
+        close(session);
+        assertEquals(1, queue.getQueued("lobby"));
+
+        awaitQueued(0);
+        assertEquals(0, queue.getTimedOutCount());
+    }
+
+    @Test
+    void reservationsCountTowardsTheMaxSize() throws Exception {
+        CompletableFuture<Void> permissions = new CompletableFuture<>();
+        queue(session -> permissions);
+
+        ProxySession first = open();
+        assertTrue(enqueue(first));
+        assertTrue(enqueue(open()));
+        assertTrue(enqueue(open()));
+        assertFalse(enqueue(open()));
+        assertEquals(1, queue.getTurnedAwayCount());
+
+        close(first);
+        permissions.complete(null);
+        assertEquals(2, queue.getQueued("lobby"));
+        assertTrue(enqueue(open()));
+    }
+
+    // ==================== Admission ====================
+
+    @Test
+    void dropsDisconnectedSessionsAndAdmitsInOrder() throws Exception {
+        ProxySession holder = fillLobby();
+        queue(session -> CompletableFuture.completedFuture(null));
+        queue.initialize();
+
+        ProxySession first = open();
+        ProxySession second = open();
+        ProxySession third = open();
+        assertTrue(enqueue(first));
+        assertTrue(enqueue(second));
+        assertTrue(enqueue(third));
+        assertTrue(queue.shouldQueue("lobby"));
+
+        close(first);
+        awaitQueued(2);
+
+        holder.setCurrentBackend(null);
+        awaitAdmitted(1);
+        assertEquals(List.of(second), admitted);
+        assertEquals(1, queue.getQueued("lobby"));
+        assertEquals(0, queue.getTimedOutCount());
+    }
+}
@@ -0,0 +1,144 @@
+package me.internalizable.numdrassl.server.transfer;
+
+import me.internalizable.numdrassl.config.BackendServer;
+import me.internalizable.numdrassl.config.ProxyConfig;
+import me.internalizable.numdrassl.server.ProxyCore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReferralManagerTest {
+
+    private static final UUID STEVE = UUID.fromString("3f1c2a7e-5b6d-4c8e-9a0b-1d2e3f4a5b6c");
+    private static final String CERT = "sha256:ab12cd34";
+    private static final String TOKEN = "server-access-token";
+
+    private static final String CONFIG = """
+            backends:
+              - name: "lobby"
+                host: "127.0.0.1"
+                port: 5520
+                defaultServer: true
+              - name: "game-1"
+                host: "127.0.0.1"
+                port: 5521
+            transferTicketTtlSeconds: 1
+            """;
+
+    @TempDir
+    Path tempDir;
+
+    private ProxyConfig config;
+    private ReferralManager referrals;
+
+    @BeforeEach
+    void createManager() throws Exception {
+        Path path = tempDir.resolve("config.yml");
+        Files.writeString(path, CONFIG);
+        config = ProxyConfig.load(path);
+        referrals = new ReferralManager(new ProxyCore(config));
+    }
+
+    @AfterEach
+    void shutdownManager() {
+        referrals.shutdown();
+    }
+
+    private BackendServer backend(String name) {
+        return config.getBackendByName(name);
+    }
+
+    private byte[] refer(String backend) {
+        return referrals.createReferral(STEVE, "Steve", CERT, TOKEN, backend(backend));
+    }
+
+    // ==================== Redemption ====================
+
+    @Test
+    void validTicketCarriesTheServerAccessToken() {
+        byte[] data = refer("lobby");
+        assertEquals(1, referrals.getTicketsIssued());
+
+        assertEquals(TOKEN, referrals.redeemTicket(STEVE, "Steve", CERT, data));
+        assertEquals(1, referrals.getTicketsRedeemed());
+        // Routing is left to consumeReferral
+        assertEquals(backend("lobby"), referrals.consumeReferral(STEVE, data).orElseThrow());
+    }
+
+    @Test
+    void ticketIsSingleUse() {
+        byte[] data = refer("lobby");
+        assertEquals(TOKEN, referrals.redeemTicket(STEVE, "Steve", CERT, data));
+        assertNull(referrals.redeemTicket(STEVE, "Steve", CERT, data));
+        assertEquals(1, referrals.getTicketsRejected());
+    }
+
+    @Test
+    void rejectsAForgedMac() {
+        byte[] data = refer("lobby");
+        data[data.length - 1] ^= 1;
+        assertNull(referrals.redeemTicket(STEVE, "Steve", CERT, data));
+        assertEquals(1, referrals.getTicketsRejected());
+    }
+
+    @Test
+    void rejectsAnExpiredTicket() throws InterruptedException {
+        byte[] data = refer("lobby");
+        Thread.sleep(1100);
+        assertNull(referrals.redeemTicket(STEVE, "Steve", CERT, data));
+        assertEquals(1, referrals.getTicketsRejected());
+    }
+
+    @Test
+    void rejectsAnotherCertificate() {
+        byte[] data = refer("lobby");
+        assertNull(referrals.redeemTicket(STEVE, "Steve", "sha256:ffffffff", data));
+        assertNull(referrals.redeemTicket(STEVE, "Steve", null, refer("lobby")));
+        assertEquals(2, referrals.getTicketsRejected());
+    }
+
+    @Test
+    void rejectsAnotherPlayer() {
+        byte[] data = refer("lobby");
+        assertNull(referrals.redeemTicket(STEVE, "Alex", CERT, data));
+        assertEquals(1, referrals.getTicketsRejected());
+    }
+
+    @Test
+    void rejectsATicketForAnotherBackend() {
+        byte[] lobby = refer("lobby");
+        refer("game-1");
+
+        // Only the latest referral's ticket is honoured
+        assertNull(referrals.redeemTicket(STEVE, "Steve", CERT, lobby));
+        assertEquals(1, referrals.getTicketsRejected());
+    }
+
+    @Test
+    void rejectsATicketPresentedAfterAReferralWithout() {
+        byte[] data = refer("lobby");
+        referrals.createReferral(STEVE, backend("lobby"));
+        assertNull(referrals.redeemTicket(STEVE, "Steve", CERT, data));
+        assertEquals(1, referrals.getTicketsRejected());
+    }
+
+    // ==================== Issuing ====================
+
+    @Test
+    void issuesNoTicketWithoutAServerAccessToken() {
+        byte[] data = referrals.createReferral(STEVE, "Steve", CERT, null, backend("lobby"));
+        assertEquals(0, referrals.getTicketsIssued());
+        assertNull(referrals.redeemTicket(STEVE, "Steve", CERT, data));
+        assertEquals(0, referrals.getTicketsRejected());
+        assertTrue(referrals.hasPendingReferral(STEVE));
+    }
+}
@@ -0,0 +1,83 @@
+package me.internalizable.numdrassl.server.transfer;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TargetLimiterTest {
+
+    private static final long START = 1_000_000_000L;
+    private static final long MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private static int drain(TargetLimiter limiter, long now) {
+        int taken = 0;
+        while (limiter.canAcquire(now)) {
+            limiter.acquire();
+            taken++;
+        }
+        return taken;
+    }
+
+    // ==================== Token Bucket ====================
+
+    @Test
+    void startsWithAFullBurst() {
+        TargetLimiter limiter = new TargetLimiter(10, 5, 100, START);
+        assertEquals(5, drain(limiter, START));
+        assertFalse(limiter.canAcquire(START));
+    }
+
+    @Test
+    void refillsAtTheConfiguredRate() {
+        TargetLimiter limiter = new TargetLimiter(10, 20, 100, START);
+        drain(limiter, START);
+
+        assertFalse(limiter.canAcquire(START + 99 * MILLI));
+        assertTrue(limiter.canAcquire(START + 101 * MILLI));
+        limiter.acquire();
+        assertFalse(limiter.canAcquire(START + 150 * MILLI));
+
+        // Half a token left over plus one second at 10/s
+        assertEquals(10, drain(limiter, START + 1_150 * MILLI));
+    }
+
+    @Test
+    void capsTheRefillAtTheBurst() {
+        TargetLimiter limiter = new TargetLimiter(10, 5, 100, START);
+        drain(limiter, START);
+        assertEquals(5, drain(limiter, START + TimeUnit.MINUTES.toNanos(1)));
+    }
+
+    @Test
+    void ignoresClockGoingBackwards() {
+        TargetLimiter limiter = new TargetLimiter(10, 2, 100, START);
+        drain(limiter, START);
+        assertFalse(limiter.canAcquire(START - TimeUnit.SECONDS.toNanos(1)));
+        assertTrue(limiter.canAcquire(START + 100 * MILLI));
+    }
+
+    @Test
+    void keepsAtLeastOneToken() {
+        TargetLimiter limiter = new TargetLimiter(1, 0, 0, START);
+        assertEquals(1, drain(limiter, START));
+    }
+
+    // ==================== Concurrency ====================
+
+    @Test
+    void capsTransfersInProgress() {
+        TargetLimiter limiter = new TargetLimiter(1000, 100, 3, START);
+        assertEquals(3, drain(limiter, START));
+        assertEquals(3, limiter.inFlight());
+
+        limiter.release();
+        assertEquals(2, limiter.inFlight());
+        assertTrue(limiter.canAcquire(START));
+        limiter.acquire();
+        assertFalse(limiter.canAcquire(START + TimeUnit.SECONDS.toNanos(1)));
+    }
+}
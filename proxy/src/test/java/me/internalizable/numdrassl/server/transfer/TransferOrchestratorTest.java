@@ -0,0 +1,198 @@
+package me.internalizable.numdrassl.server.transfer;
+
+import me.internalizable.numdrassl.api.player.TransferResult;
+import me.internalizable.numdrassl.config.ProxyConfig;
+import me.internalizable.numdrassl.profiling.ProxyMetrics;
+import me.internalizable.numdrassl.server.ProxyCore;
+import me.internalizable.numdrassl.session.ProxySession;
+import me.internalizable.numdrassl.session.SessionState;
+import me.internalizable.numdrassl.session.TestSessions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TransferOrchestratorTest {
+
+    private static final long WAIT_SECONDS = 5;
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    // "games" has no available member, so transfers to it stay queued
+    private static final String CONFIG = """
+            backends:
+              - name: "lobby"
+                host: "127.0.0.1"
+                port: 5520
+                defaultServer: true
+              - name: "game-1"
+                host: "127.0.0.1"
+                port: 5521
+                draining: true
+            backendGroups:
+              - name: "games"
+                strategy: "least-connections"
+                members:
+                  - "game-1"
+            transferQueueTimeoutSeconds: 2
+            """;
+
+    @TempDir
+    Path tempDir;
+
+    private ProxyCore core;
+    private TransferOrchestrator orchestrator;
+
+    @BeforeAll
+    static void initMetrics() {
+        ProxyMetrics.getInstance();
+    }
+
+    @BeforeEach
+    void createOrchestrator() throws Exception {
+        Path path = tempDir.resolve("config.yml");
+        Files.writeString(path, CONFIG);
+        core = new ProxyCore(ProxyConfig.load(path));
+        orchestrator = new TransferOrchestrator(core);
+    }
+
+    @AfterEach
+    void shutdownOrchestrator() {
+        orchestrator.shutdown();
+    }
+
+    private static TransferResult await(CompletableFuture<TransferResult> future) throws Exception {
+        return future.get(WAIT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    private void awaitQueued(int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + WAIT_SECONDS * SECOND;
+        while (orchestrator.getQueued(TransferPriority.NORMAL) != expected && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(expected, orchestrator.getQueued(TransferPriority.NORMAL));
+    }
+
+    // ==================== Queueing ====================
+
+    @Test
+    void newerSubmissionReplacesTheQueuedOne() throws Exception {
+        orchestrator.initialize();
+        ProxySession session = TestSessions.open(core);
+
+        CompletableFuture<TransferResult> first = orchestrator.submit(session, "games", TransferPriority.NORMAL);
+        CompletableFuture<TransferResult> second = orchestrator.submit(session, "games", TransferPriority.NORMAL);
+
+        TransferResult replaced = await(first);
+        assertFalse(replaced.isSuccess());
+        assertEquals("Replaced by a newer transfer", replaced.getMessage());
+
+        // The replaced entry is dropped from the queue; only the newer one waits
+        awaitQueued(1);
+        assertFalse(second.isDone());
+        assertEquals(0, orchestrator.getStarted(TransferPriority.NORMAL));
+    }
+
+    @Test
+    void keepsOneEntryPerSession() throws Exception {
+        orchestrator.initialize();
+        ProxySession a = TestSessions.open(core);
+        ProxySession b = TestSessions.open(core);
+
+        CompletableFuture<TransferResult> first = orchestrator.submit(a, "games", TransferPriority.NORMAL);
+        CompletableFuture<TransferResult> second = orchestrator.submit(b, "games", TransferPriority.NORMAL);
+
+        awaitQueued(2);
+        assertFalse(first.isDone());
+        assertFalse(second.isDone());
+    }
+
+    @Test
+    void failsUnknownTargets() throws Exception {
+        orchestrator.initialize();
+        TransferResult result = await(orchestrator.submit(TestSessions.open(core), "nowhere", TransferPriority.NORMAL));
+        assertFalse(result.isSuccess());
+        assertEquals("Unknown backend server: nowhere", result.getMessage());
+    }
+
+    @Test
+    void dropsTransfersOfDisconnectedPlayers() throws Exception {
+        orchestrator.initialize();
+        ProxySession session = TestSessions.open(core);
+        CompletableFuture<TransferResult> future = orchestrator.submit(session, "games", TransferPriority.NORMAL);
+
+        session.setState(SessionState.DISCONNECTED);
+        assertEquals("Player disconnected", await(future).getMessage());
+    }
+
+    @Test
+    void timesOutTransfersThatCannotStart() throws Exception {
+        orchestrator.initialize();
+        TransferResult result = await(orchestrator.submit(TestSessions.open(core), "games", TransferPriority.NORMAL));
+        assertEquals("Timed out waiting for games", result.getMessage());
+        assertEquals(1, orchestrator.getTimedOut());
+    }
+
+    @Test
+    void failsQueuedTransfersOnShutdown() throws Exception {
+        orchestrator.initialize();
+        CompletableFuture<TransferResult> future = orchestrator.submit(TestSessions.open(core), "games", TransferPriority.NORMAL);
+        orchestrator.shutdown();
+        assertEquals("Proxy shutting down", await(future).getMessage());
+    }
+
+    // ==================== Arrival ====================
+
+    @Test
+    void holdsTheSlotUntilThePlayerIsConnected() {
+        ProxySession session = TestSessions.open(core);
+        session.setState(SessionState.AUTHENTICATING);
+        AtomicInteger released = new AtomicInteger();
+
+        orchestrator.holdUntilArrival(session, released::incrementAndGet, 0);
+        orchestrator.checkArrivals(SECOND);
+        assertEquals(0, released.get());
+
+        session.setState(SessionState.CONNECTED);
+        orchestrator.checkArrivals(2 * SECOND);
+        assertEquals(1, released.get());
+
+        orchestrator.checkArrivals(3 * SECOND);
+        assertEquals(1, released.get());
+    }
+
+    @Test
+    void releasesWhenTheReconnectingSessionCloses() {
+        ProxySession session = TestSessions.open(core);
+        AtomicInteger released = new AtomicInteger();
+
+        orchestrator.holdUntilArrival(session, released::incrementAndGet, 0);
+        session.setState(SessionState.DISCONNECTED);
+        orchestrator.checkArrivals(SECOND);
+        assertEquals(1, released.get());
+    }
+
+    @Test
+    void releasesAfterThirtySeconds() {
+        ProxySession session = TestSessions.open(core);
+        AtomicInteger released = new AtomicInteger();
+
+        orchestrator.holdUntilArrival(session, released::incrementAndGet, 0);
+        orchestrator.checkArrivals(30 * SECOND);
+        assertEquals(0, released.get());
+
+        orchestrator.checkArrivals(30 * SECOND + 1);
+        assertEquals(1, released.get());
+        assertTrue(session.isActive());
+    }
+}
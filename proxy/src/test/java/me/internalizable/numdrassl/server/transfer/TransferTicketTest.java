@@ -0,0 +1,111 @@
+package me.internalizable.numdrassl.server.transfer;
+
+import me.internalizable.numdrassl.common.HmacKey;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TransferTicketTest {
+
+    private static final HmacKey KEY = new HmacKey(filled(HmacKey.LENGTH, 7));
+    private static final byte[] NONCE = filled(TransferTicket.NONCE_LENGTH, 3);
+    private static final long EXPIRES = 1_700_000_010_000L;
+    private static final UUID STEVE = UUID.fromString("3f1c2a7e-5b6d-4c8e-9a0b-1d2e3f4a5b6c");
+    private static final String CERT = "sha256:ab12cd34";
+
+    private static byte[] filled(int length, int value) {
+        byte[] bytes = new byte[length];
+        Arrays.fill(bytes, (byte) value);
+        return bytes;
+    }
+
+    private static TransferTicket issue() {
+        return TransferTicket.issue(KEY, NONCE, EXPIRES, STEVE, "Steve", CERT, "lobby");
+    }
+
+    private static TransferTicket roundTrip(byte[] encoded) {
+        TransferTicket ticket = TransferTicket.decode(encoded, 0, encoded.length);
+        assertNotNull(ticket);
+        return ticket;
+    }
+
+    // ==================== Signature ====================
+
+    @Test
+    void verifiesForTheSamePlayerCertificateAndBackend() {
+        TransferTicket ticket = roundTrip(issue().encode());
+        assertTrue(ticket.verify(KEY, STEVE, "Steve", CERT, "lobby"));
+        assertTrue(ticket.hasNonce(NONCE));
+    }
+
+    @Test
+    void rejectsAForgedMac() {
+        byte[] encoded = issue().encode();
+        encoded[encoded.length - 1] ^= 1;
+        assertFalse(roundTrip(encoded).verify(KEY, STEVE, "Steve", CERT, "lobby"));
+    }
+
+    @Test
+    void rejectsAnotherKey() {
+        HmacKey other = new HmacKey(filled(HmacKey.LENGTH, 8));
+        assertFalse(issue().verify(other, STEVE, "Steve", CERT, "lobby"));
+    }
+
+    @Test
+    void rejectsAnExtendedExpiry() {
+        byte[] encoded = issue().encode();
+        encoded[1 + TransferTicket.NONCE_LENGTH + 7] ^= 1;
+        assertFalse(roundTrip(encoded).verify(KEY, STEVE, "Steve", CERT, "lobby"));
+    }
+
+    @Test
+    void isBoundToThePlayer() {
+        TransferTicket ticket = issue();
+        assertFalse(ticket.verify(KEY, UUID.randomUUID(), "Steve", CERT, "lobby"));
+        assertFalse(ticket.verify(KEY, STEVE, "Alex", CERT, "lobby"));
+    }
+
+    @Test
+    void isBoundToTheCertificate() {
+        assertFalse(issue().verify(KEY, STEVE, "Steve", "sha256:ffffffff", "lobby"));
+    }
+
+    @Test
+    void isBoundToTheBackend() {
+        assertFalse(issue().verify(KEY, STEVE, "Steve", CERT, "game-1"));
+    }
+
+    // ==================== Expiry ====================
+
+    @Test
+    void expiresAfterItsDeadline() {
+        TransferTicket ticket = issue();
+        assertFalse(ticket.isExpired(EXPIRES));
+        assertTrue(ticket.isExpired(EXPIRES + 1));
+    }
+
+    // ==================== Encoding ====================
+
+    @Test
+    void decodesOnlyWellFormedTickets() {
+        byte[] encoded = issue().encode();
+        assertEquals(TransferTicket.LENGTH, encoded.length);
+
+        assertNull(TransferTicket.decode(encoded, 0, encoded.length - 1));
+        byte[] wrongVersion = encoded.clone();
+        wrongVersion[0] = 2;
+        assertNull(TransferTicket.decode(wrongVersion, 0, wrongVersion.length));
+
+        byte[] framed = new byte[encoded.length + 4];
+        System.arraycopy(encoded, 0, framed, 4, encoded.length);
+        assertTrue(roundTrip(encoded).hasNonce(NONCE));
+        assertNotNull(TransferTicket.decode(framed, 4, encoded.length));
+    }
+}
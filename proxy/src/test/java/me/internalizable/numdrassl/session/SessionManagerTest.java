@@ -0,0 +1,139 @@
+package me.internalizable.numdrassl.session;
+
+import com.hypixel.hytale.protocol.packets.connection.Connect;
+import me.internalizable.numdrassl.config.ProxyConfig;
+import me.internalizable.numdrassl.server.ProxyCore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SessionManagerTest {
+
+    private static final UUID STEVE = UUID.fromString("3f1c2a7e-5b6d-4c8e-9a0b-1d2e3f4a5b6c");
+    private static final UUID OTHER = UUID.fromString("9d8c7b6a-5f4e-4d3c-8b2a-1f0e9d8c7b6a");
+
+    @TempDir
+    Path tempDir;
+
+    private ProxyCore core;
+    private SessionManager manager;
+
+    @BeforeEach
+    void createManager() throws Exception {
+        core = new ProxyCore(ProxyConfig.load(tempDir.resolve("config.yml")));
+        manager = new SessionManager();
+    }
+
+    /**
+     * Opens a session that has sent a Connect packet.
+     */
+    private ProxySession connect(UUID uuid, String username) {
+        ProxySession session = TestSessions.open(core);
+        Connect connect = new Connect();
+        connect.uuid = uuid;
+        connect.username = username;
+        session.handleConnectPacket(connect);
+        session.setState(SessionState.AUTHENTICATING);
+        manager.addSession(session);
+        manager.registerPlayerUuid(session);
+        return session;
+    }
+
+    /**
+     * Marks the session authenticated and accepted by a backend.
+     */
+    private void accept(ProxySession session) {
+        session.setState(SessionState.CONNECTED);
+        manager.registerPlayerUuid(session, true);
+    }
+
+    // ==================== Username Index ====================
+
+    @Test
+    void indexesNamesOnlyOnceConnected() {
+        ProxySession session = connect(STEVE, "Steve");
+        assertEquals(Optional.empty(), manager.findByUsername("steve"));
+        assertEquals(Optional.of(session), manager.findByUuid(STEVE));
+
+        accept(session);
+        assertEquals(Optional.of(session), manager.findByUsername("STEVE"));
+    }
+
+    @Test
+    void impostorDoesNotTakeTheName() {
+        ProxySession steve = connect(STEVE, "Steve");
+        accept(steve);
+
+        ProxySession impostor = connect(OTHER, "steve");
+        assertEquals(Optional.of(steve), manager.findByUsername("Steve"));
+
+        manager.removeSession(impostor);
+        assertEquals(Optional.of(steve), manager.findByUsername("Steve"));
+    }
+
+    @Test
+    void connectedSessionWithAnotherUuidKeepsTheName() {
+        ProxySession steve = connect(STEVE, "Steve");
+        accept(steve);
+
+        ProxySession other = connect(OTHER, "Steve");
+        accept(other);
+        assertEquals(Optional.of(steve), manager.findByUsername("steve"));
+        assertEquals(Optional.of(other), manager.findByUuid(OTHER));
+    }
+
+    @Test
+    void reconnectTakesOverTheName() {
+        ProxySession first = connect(STEVE, "Steve");
+        accept(first);
+
+        ProxySession second = connect(STEVE, "Steve");
+        accept(second);
+        assertEquals(Optional.of(second), manager.findByUsername("steve"));
+
+        manager.removeSession(first);
+        assertEquals(Optional.of(second), manager.findByUsername("steve"));
+        assertEquals(Optional.of(second), manager.findByUuid(STEVE));
+    }
+
+    @Test
+    void nameIsFreedWhenItsHolderLeaves() {
+        ProxySession steve = connect(STEVE, "Steve");
+        accept(steve);
+        manager.removeSession(steve);
+        assertTrue(manager.findByUsername("steve").isEmpty());
+
+        ProxySession next = connect(OTHER, "Steve");
+        accept(next);
+        assertEquals(Optional.of(next), manager.findByUsername("steve"));
+    }
+
+    // ==================== UUID Index ====================
+
+    @Test
+    void unauthenticatedClaimDoesNotTakeAConnectedUuid() {
+        ProxySession steve = connect(STEVE, "Steve");
+        accept(steve);
+
+        ProxySession impostor = connect(STEVE, "Steve");
+        assertEquals(Optional.of(steve), manager.findByUuid(STEVE));
+
+        manager.removeSession(impostor);
+        assertEquals(Optional.of(steve), manager.findByUuid(STEVE));
+        assertEquals(1, manager.getIdentifiedSessionCount());
+    }
+
+    @Test
+    void unauthenticatedClaimReplacesAnotherUnauthenticatedOne() {
+        connect(STEVE, "Steve");
+        ProxySession second = connect(STEVE, "Steve");
+        assertEquals(Optional.of(second), manager.findByUuid(STEVE));
+    }
+}
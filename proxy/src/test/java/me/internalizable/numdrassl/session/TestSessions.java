@@ -0,0 +1,53 @@
+package me.internalizable.numdrassl.session;
+
+import io.netty.incubator.codec.quic.QuicChannel;
+import me.internalizable.numdrassl.server.ProxyCore;
+
+import javax.annotation.Nonnull;
+import java.lang.reflect.Array;
+import java.lang.reflect.Proxy;
+import java.net.InetSocketAddress;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sessions for unit tests, backed by a client channel that is open but never carries data.
+ *
+ * <p>The channel has no TLS engine, so sessions have no certificate fingerprint. Close a
+ * session with {@code setState(SessionState.DISCONNECTED)}.</p>
+ */
+public final class TestSessions {
+
+    private static final AtomicInteger PORTS = new AtomicInteger(40000);
+
+    private TestSessions() {
+    }
+
+    @Nonnull
+    public static ProxySession open(@Nonnull ProxyCore core) {
+        return open(core, new InetSocketAddress("127.0.0.1", PORTS.incrementAndGet()));
+    }
+
+    @Nonnull
+    public static ProxySession open(@Nonnull ProxyCore core, @Nonnull InetSocketAddress clientAddress) {
+        return new ProxySession(core, channel(clientAddress));
+    }
+
+    private static QuicChannel channel(InetSocketAddress remote) {
+        return (QuicChannel) Proxy.newProxyInstance(
+            QuicChannel.class.getClassLoader(),
+            new Class<?>[]{QuicChannel.class},
+            (proxy, method, args) -> switch (method.getName()) {
+                case "isActive", "isOpen", "isRegistered", "isWritable" -> true;
+                case "remoteSocketAddress", "remoteAddress" -> remote;
+                case "hashCode" -> System.identityHashCode(proxy);
+                case "equals" -> proxy == args[0];
+                case "toString" -> "TestChannel" + remote;
+                default -> defaultValue(method.getReturnType());
+            });
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        // Zero for primitives, null for everything else
+        return type.isPrimitive() && type != void.class ? Array.get(Array.newInstance(type, 1), 0) : null;
+    }
+}